@@ -0,0 +1,76 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.LoanPaymentSystemApplication;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Starts the application against a fresh in-memory H2 database, for
+ * benchmarks that exercise the full Spring and JPA path, with or without
+ * the embedded web server.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Starts the application without the web server.
+     *
+     * @param properties extra {@code key=value} properties, e.g. the balance update mode
+     * @return the running context; close it in the benchmark's tear-down
+     */
+    static ConfigurableApplicationContext start(String... properties) {
+        return run(WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * Starts the application with Tomcat on a random free port; read it
+     * from the {@code local.server.port} property.
+     *
+     * @param properties extra {@code key=value} properties
+     * @return the running context; close it in the benchmark's tear-down
+     */
+    static ConfigurableApplicationContext startWebServer(String... properties) {
+        List<String> all = new ArrayList<>(Arrays.asList(properties));
+        all.add("server.port=0");
+        return run(WebApplicationType.SERVLET, all.toArray(String[]::new));
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType webApplicationType, String... properties) {
+        Map<String, String> all = new LinkedHashMap<>();
+        all.put("spring.datasource.url", "jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        all.put("logging.level.root", "WARN");
+        all.put("logging.level.com.bancx.loanpayment", "WARN");
+        all.put("logging.level.org.hibernate.SQL", "WARN");
+        all.put("logging.level.org.hibernate.type.descriptor.sql", "WARN");
+        all.put("logging.level.liquibase", "WARN");
+        // Optimistic-lock conflicts are expected under contention and counted instead.
+        all.put("logging.level.org.hibernate.orm.jdbc.batch", "OFF");
+        // A property given by the benchmark replaces the default for the same key.
+        for (String property : properties) {
+            int separator = property.indexOf('=');
+            all.put(property.substring(0, separator), property.substring(separator + 1));
+        }
+
+        // Passed as command-line arguments so they override application.yml.
+        return new SpringApplicationBuilder(LoanPaymentSystemApplication.class)
+                .web(webApplicationType)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(all.entrySet().stream()
+                        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+    }
+}
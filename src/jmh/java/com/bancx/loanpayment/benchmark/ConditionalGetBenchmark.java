@@ -0,0 +1,89 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.LoanService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOANS;
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOAN_AMOUNT;
+
+/**
+ * A client polling GET /loans/{id} over HTTP, either fetching the loan every
+ * time or revalidating with the ETag from the previous response, so every
+ * poll after the first is answered with 304 Not Modified. With the loan
+ * cache enabled the 304 is answered from the cached version; with it
+ * disabled, from a version-only query.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConditionalGetBenchmark {
+
+    @Param({"false", "true"})
+    private boolean conditional;
+
+    @Param({"true", "false"})
+    private boolean loanCacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest[] requests;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        context = BenchmarkApplication.startWebServer("loanpayment.loan.cache.enabled=" + loanCacheEnabled);
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        LoanService loanService = context.getBean(LoanService.class);
+        requests = new HttpRequest[LOANS];
+        for (int i = 0; i < LOANS; i++) {
+            Loan loan = loanService.createLoan(LoanRequest.builder().loanAmount(LOAN_AMOUNT).term(12).build());
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + "/loans/" + loan.getLoanId()));
+            if (conditional) {
+                String etag = httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding())
+                        .headers().firstValue("ETag").orElseThrow();
+                request.header("If-None-Match", etag);
+            }
+            requests[i] = request.build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        httpClient.close();
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getLoan() throws IOException, InterruptedException {
+        next = (next + 1) & (LOANS - 1);
+        return httpClient.send(requests[next], HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+}
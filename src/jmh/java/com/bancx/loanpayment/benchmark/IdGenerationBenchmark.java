@@ -0,0 +1,132 @@
+package com.bancx.loanpayment.benchmark;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput of loan-shaped rows through Hibernate for three ID
+ * strategies, persisting {@value #ROWS} rows per transaction:
+ *
+ * IDENTITY: the database assigns the ID, so every persist runs its INSERT
+ * immediately and no JDBC batching is possible.
+ * SEQUENCE: one sequence call per row (allocationSize 1); INSERTs are batched.
+ * POOLED_LO: the mapping used by Loan and Payment, one sequence call per
+ * block of 50 IDs handed out from memory; INSERTs are batched.
+ *
+ * Each strategy has its own table and entity, created from
+ * id-generation-benchmark.sql.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+@OperationsPerInvocation(IdGenerationBenchmark.ROWS)
+public class IdGenerationBenchmark {
+
+    static final int ROWS = 1000;
+
+    private static final BigDecimal LOAN_AMOUNT = new BigDecimal("1000.00");
+
+    @Param({"IDENTITY", "SEQUENCE", "POOLED_LO"})
+    private String strategy;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private Supplier<Object> newRow;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "spring.sql.init.mode=always",
+                "spring.sql.init.schema-locations=classpath:id-generation-benchmark.sql");
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        newRow = switch (strategy) {
+            case "IDENTITY" -> IdentityLoan::new;
+            case "SEQUENCE" -> SequenceLoan::new;
+            case "POOLED_LO" -> PooledLoan::new;
+            default -> throw new IllegalArgumentException(strategy);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void insertLoans() {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(newRow.get());
+            }
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Entity
+    @Table(name = "bench_identity_loan")
+    public static class IdentityLoan {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long loanId;
+        private BigDecimal loanAmount = LOAN_AMOUNT;
+        private int term = 12;
+    }
+
+    @Entity
+    @Table(name = "bench_sequence_loan")
+    public static class SequenceLoan {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bench_sequence_loan_seq")
+        @SequenceGenerator(name = "bench_sequence_loan_seq", sequenceName = "bench_sequence_loan_seq", allocationSize = 1)
+        private Long loanId;
+        private BigDecimal loanAmount = LOAN_AMOUNT;
+        private int term = 12;
+    }
+
+    @Entity
+    @Table(name = "bench_pooled_loan")
+    public static class PooledLoan {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bench_pooled_loan_seq")
+        @SequenceGenerator(name = "bench_pooled_loan_seq", sequenceName = "bench_pooled_loan_seq", allocationSize = 50)
+        private Long loanId;
+        private BigDecimal loanAmount = LOAN_AMOUNT;
+        private int term = 12;
+    }
+}
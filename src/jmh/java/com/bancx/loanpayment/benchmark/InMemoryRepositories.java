@@ -0,0 +1,191 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanArchiveRepository;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.entity.PaymentIdempotency;
+import com.bancx.loanpayment.payment.repository.PaymentIdempotencyRepository;
+import com.bancx.loanpayment.payment.repository.PaymentRepository;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map-backed stand-ins for the Spring Data repositories, so the service
+ * layer can be benchmarked without a database.
+ *
+ * Only the methods the benchmarked service calls reach are implemented; any
+ * other fails the benchmark with the repository and method it needs. Loans
+ * are stored as copies and saved under the same @Version check Hibernate
+ * applies. Payments are given IDs but not retained, so long runs do not
+ * grow the heap, and flushing them does nothing.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static LoanRepository loanRepository() {
+        return proxy(LoanRepository.class, new LoanStore());
+    }
+
+    static LoanArchiveRepository loanArchiveRepository() {
+        return proxy(LoanArchiveRepository.class, (method, args) -> switch (method) {
+            case "findById", "findVersionById" -> Optional.empty();
+            default -> throw unexpected(LoanArchiveRepository.class, method);
+        });
+    }
+
+    static PaymentRepository paymentRepository() {
+        AtomicLong ids = new AtomicLong();
+        return proxy(PaymentRepository.class, (method, args) -> switch (method) {
+            case "save" -> withId((Payment) args[0], ids);
+            case "saveAll" -> {
+                List<Payment> saved = new ArrayList<>();
+                ((Iterable<?>) args[0]).forEach(payment -> saved.add(withId((Payment) payment, ids)));
+                yield saved;
+            }
+            case "flush" -> null;
+            case "findById" -> Optional.empty();
+            default -> throw unexpected(PaymentRepository.class, method);
+        });
+    }
+
+    static PaymentIdempotencyRepository paymentIdempotencyRepository() {
+        ConcurrentMap<String, PaymentIdempotency> keys = new ConcurrentHashMap<>();
+        return proxy(PaymentIdempotencyRepository.class, (method, args) -> switch (method) {
+            case "save" -> {
+                PaymentIdempotency key = (PaymentIdempotency) args[0];
+                keys.put(key.getIdempotencyKey(), key);
+                yield key;
+            }
+            case "findById" -> Optional.ofNullable(keys.get((String) args[0]));
+            case "deleteCreatedBefore" -> 0;
+            default -> throw unexpected(PaymentIdempotencyRepository.class, method);
+        });
+    }
+
+    private static UnsupportedOperationException unexpected(Class<?> repositoryType, String method) {
+        return new UnsupportedOperationException("InMemoryRepositories has no stand-in for "
+                + repositoryType.getSimpleName() + "." + method + "; add one for the benchmarked code to call it");
+    }
+
+    private static Payment withId(Payment payment, AtomicLong ids) {
+        payment.setPaymentId(ids.incrementAndGet());
+        return payment;
+    }
+
+    private static final class LoanStore implements RepositoryMethods {
+
+        private final ConcurrentMap<Long, Loan> loans = new ConcurrentHashMap<>();
+        private final AtomicLong ids = new AtomicLong();
+
+        @Override
+        public Object invoke(String method, Object[] args) {
+            return switch (method) {
+                case "save" -> save((Loan) args[0]);
+                case "saveAll" -> {
+                    List<Loan> saved = new ArrayList<>();
+                    ((Iterable<?>) args[0]).forEach(loan -> saved.add(save((Loan) loan)));
+                    yield saved;
+                }
+                case "findById", "findLoan" -> Optional.ofNullable(loans.get((Long) args[0])).map(LoanStore::copy);
+                case "findAllById", "findLoans" -> {
+                    List<Loan> found = new ArrayList<>();
+                    ((Iterable<?>) args[0]).forEach(id -> {
+                        Loan loan = loans.get((Long) id);
+                        if (loan != null) {
+                            found.add(copy(loan));
+                        }
+                    });
+                    yield found;
+                }
+                case "debitBalance" -> debitBalance((Long) args[0], Money.of((BigDecimal) args[1]));
+                case "findStatusById" -> Optional.ofNullable(loans.get((Long) args[0])).map(Loan::getStatus);
+                case "findVersionById" -> Optional.ofNullable(loans.get((Long) args[0])).map(Loan::getVersion);
+                case "evictLoan" -> null;
+                default -> throw unexpected(LoanRepository.class, method);
+            };
+        }
+
+        private Loan save(Loan loan) {
+            if (loan.getLoanId() == null) {
+                loan.setLoanId(ids.incrementAndGet());
+                loan.setRemainingBalance(loan.getLoanAmount());
+                loan.setVersion(0);
+                loans.put(loan.getLoanId(), copy(loan));
+                return loan;
+            }
+            loans.compute(loan.getLoanId(), (id, current) -> {
+                if (current == null || !current.getVersion().equals(loan.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(Loan.class, id);
+                }
+                loan.setVersion(loan.getVersion() + 1);
+                return copy(loan);
+            });
+            return loan;
+        }
+
+        private int debitBalance(Long loanId, Money amount) {
+            AtomicInteger updated = new AtomicInteger();
+            loans.computeIfPresent(loanId, (id, current) -> {
+                if (current.getStatus() != LoanStatus.ACTIVE || amount.isGreaterThan(current.getRemainingBalance())) {
+                    return current;
+                }
+                Loan debited = copy(current);
+                debited.setRemainingBalance(current.getRemainingBalance().minus(amount));
+                if (debited.getRemainingBalance().isZero()) {
+                    debited.setStatus(LoanStatus.SETTLED);
+                    debited.setSettledAt(LocalDateTime.now());
+                }
+                debited.setVersion(current.getVersion() + 1);
+                updated.set(1);
+                return debited;
+            });
+            return updated.get();
+        }
+
+        private static Loan copy(Loan loan) {
+            return Loan.builder()
+                    .loanId(loan.getLoanId())
+                    .loanAmount(loan.getLoanAmount())
+                    .term(loan.getTerm())
+                    .status(loan.getStatus())
+                    .remainingBalance(loan.getRemainingBalance())
+                    .settledAt(loan.getSettledAt())
+                    .version(loan.getVersion())
+                    .build();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RepositoryMethods {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> repositoryType, RepositoryMethods methods) {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "InMemory" + repositoryType.getSimpleName();
+            default -> methods.invoke(method.getName(), args);
+        };
+        return repositoryType.cast(Proxy.newProxyInstance(
+                repositoryType.getClassLoader(), new Class<?>[]{repositoryType}, handler));
+    }
+}
@@ -0,0 +1,87 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the Loan and Payment entities and deserialization
+ * of a payment request, using an ObjectMapper configured the way Spring
+ * Boot configures the one behind the controllers.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private ObjectWriter loanWriter;
+    private ObjectWriter paymentWriter;
+    private ObjectReader paymentRequestReader;
+    private Loan loan;
+    private Payment payment;
+    private String paymentRequestJson;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        loanWriter = objectMapper.writerFor(Loan.class);
+        paymentWriter = objectMapper.writerFor(Payment.class);
+        paymentRequestReader = objectMapper.readerFor(PaymentRequest.class);
+
+        loan = Loan.builder()
+                .loanId(42L)
+                .loanAmount(Money.of("25000.00"))
+                .remainingBalance(Money.of("12345.67"))
+                .term(36)
+                .status(LoanStatus.ACTIVE)
+                .version(7)
+                .build();
+        payment = Payment.builder()
+                .paymentId(1001L)
+                .loanId(42L)
+                .paymentAmount(Money.of("250.00"))
+                .timestamp(LocalDateTime.of(2024, 4, 1, 10, 15, 30))
+                .build();
+        paymentRequestJson = "{\"loanId\":42,\"paymentAmount\":250.00}";
+    }
+
+    @Benchmark
+    public String writeLoan() throws JsonProcessingException {
+        return loanWriter.writeValueAsString(loan);
+    }
+
+    @Benchmark
+    public String writePayment() throws JsonProcessingException {
+        return paymentWriter.writeValueAsString(payment);
+    }
+
+    @Benchmark
+    public PaymentRequest readPaymentRequest() throws JsonProcessingException {
+        return paymentRequestReader.readValue(paymentRequestJson);
+    }
+}
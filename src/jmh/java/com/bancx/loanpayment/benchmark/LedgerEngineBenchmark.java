@@ -0,0 +1,92 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.service.PaymentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOANS;
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOAN_AMOUNT;
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.PAYMENT_AMOUNT;
+
+/**
+ * Payment throughput from 8 threads with each payment committed to H2 in
+ * ATOMIC mode, versus applied by the ledger engine with the journal forced
+ * to disk once per group commit (FSYNC) or left to the page cache
+ * (NO_FSYNC).
+ *
+ * With the ledger, the database writes happen afterwards in the projection,
+ * which runs on the same CPUs; the projection lag gauge shows whether it
+ * kept up.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class LedgerEngineBenchmark {
+
+    @Param({"OFF", "FSYNC", "NO_FSYNC"})
+    private String ledger;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private PaymentRequest[] requests;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ledger-benchmark");
+        context = BenchmarkApplication.start(
+                "loanpayment.payment.balance-update-mode=ATOMIC",
+                "loanpayment.payment.ledger.enabled=" + !ledger.equals("OFF"),
+                "loanpayment.payment.ledger.fsync=" + ledger.equals("FSYNC"),
+                "loanpayment.payment.ledger.directory=" + directory);
+        LoanService loanService = context.getBean(LoanService.class);
+        paymentService = context.getBean(PaymentService.class);
+
+        requests = new PaymentRequest[LOANS];
+        for (int i = 0; i < LOANS; i++) {
+            Loan loan = loanService.createLoan(LoanRequest.builder().loanAmount(LOAN_AMOUNT).term(12).build());
+            requests[i] = PaymentRequest.builder().loanId(loan.getLoanId()).paymentAmount(PAYMENT_AMOUNT).build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Payment processPayment() {
+        return paymentService.processPayment(requests[ThreadLocalRandom.current().nextInt(LOANS)]);
+    }
+}
@@ -0,0 +1,167 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.service.PaymentService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOANS;
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOAN_AMOUNT;
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.PAYMENT_AMOUNT;
+
+/**
+ * Payment throughput through the Spring beans under three logging setups:
+ *
+ * QUIET: everything at WARN, as in the other benchmarks; the upper bound.
+ * VERBOSE: the levels from application.yml, with application DEBUG, Hibernate
+ * SQL at DEBUG and bind parameters at TRACE, written synchronously.
+ * PROD: the prod profile, with application INFO sampled 1 in 100 and
+ * written through the asynchronous appender.
+ *
+ * All three use the application's logback-spring.xml rather than the
+ * benchmarks' logback-test.xml. Console output is redirected to a temporary
+ * file for the run, so the cost of writing it is included without flooding
+ * the JMH output. The bytes written to it are reported as a secondary
+ * result, per second like the score.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    private static final String LOGBACK_SPRING = "logging.config=classpath:logback-spring.xml";
+
+    @Param({"QUIET", "VERBOSE", "PROD"})
+    private String logging;
+
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private PaymentRequest[] requests;
+    private PrintStream console;
+    private PrintStream logFile;
+    private Path logPath;
+    private final LongAdder written = new LongAdder();
+
+    @Setup
+    public void setUp() throws IOException {
+        logPath = Files.createTempFile("logging-benchmark", ".log");
+        OutputStream counting = new FilterOutputStream(Files.newOutputStream(logPath)) {
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                written.increment();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                written.add(len);
+            }
+        };
+        logFile = new PrintStream(new BufferedOutputStream(counting, 8192), false);
+        console = System.out;
+        System.setOut(logFile);
+
+        context = switch (logging) {
+            case "QUIET" -> BenchmarkApplication.start(
+                    LOGBACK_SPRING);
+            case "VERBOSE" -> BenchmarkApplication.start(
+                    LOGBACK_SPRING,
+                    "logging.level.root=INFO",
+                    "logging.level.com.bancx.loanpayment=DEBUG",
+                    "logging.level.org.hibernate.SQL=DEBUG",
+                    "logging.level.org.hibernate.type.descriptor.sql=TRACE");
+            case "PROD" -> BenchmarkApplication.start(
+                    LOGBACK_SPRING,
+                    "spring.profiles.active=prod",
+                    "logging.level.root=INFO",
+                    "logging.level.com.bancx.loanpayment=INFO");
+            default -> throw new IllegalArgumentException(logging);
+        };
+        paymentService = context.getBean(PaymentService.class);
+        LoanService loanService = context.getBean(LoanService.class);
+
+        requests = new PaymentRequest[LOANS];
+        for (int i = 0; i < LOANS; i++) {
+            Loan loan = loanService.createLoan(LoanRequest.builder().loanAmount(LOAN_AMOUNT).term(12).build());
+            requests[i] = PaymentRequest.builder().loanId(loan.getLoanId()).paymentAmount(PAYMENT_AMOUNT).build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        System.setOut(console);
+        logFile.close();
+        Files.delete(logPath);
+    }
+
+    /**
+     * Bytes written to the console over an iteration. The first thread to
+     * finish the iteration takes what all of them wrote, so the sum across
+     * threads counts each byte once.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class LogVolume {
+
+        public long logBytes;
+
+        @TearDown(Level.Iteration)
+        public void stop(LoggingBenchmark benchmark) {
+            benchmark.logFile.flush();
+            logBytes = benchmark.written.sumThenReset();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next = (int) Thread.currentThread().getId();
+
+        int nextIndex() {
+            next = (next + 1) & (LOANS - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public Payment processPayment(Cursor cursor, LogVolume logVolume) {
+        return paymentService.processPayment(requests[cursor.nextIndex()]);
+    }
+}
@@ -0,0 +1,117 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.service.PaymentService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOAN_AMOUNT;
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.PAYMENT_AMOUNT;
+
+/**
+ * Concurrent payments through the full Spring and H2 path, all aimed at one
+ * loan versus spread over many loans.
+ *
+ * Besides throughput, the {@code applied} and {@code conflicts} counters show
+ * how many payments went through and how many were rejected by a lock or
+ * version conflict under each balance update strategy. OPTIMISTIC makes a
+ * single attempt per payment; RETRIED is OPTIMISTIC with conflicts re-run
+ * by the default retry policy, and SEQUENCED is OPTIMISTIC with the
+ * per-loan sequencer enabled.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class PaymentContentionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Loans {
+
+        @Param({"1", "1024"})
+        private int loanCount;
+
+        @Param({"OPTIMISTIC", "RETRIED", "ATOMIC", "SEQUENCED"})
+        private String strategy;
+
+        private ConfigurableApplicationContext context;
+        private PaymentService paymentService;
+        private PaymentRequest[] requests;
+
+        @Setup
+        public void setUp() {
+            boolean sequenced = strategy.equals("SEQUENCED");
+            boolean retried = strategy.equals("RETRIED");
+            context = BenchmarkApplication.start(
+                    "loanpayment.payment.balance-update-mode=" + (sequenced || retried ? "OPTIMISTIC" : strategy),
+                    "loanpayment.payment.sequencer.enabled=" + sequenced,
+                    "loanpayment.payment.retry.max-attempts=" + (retried ? 5 : 1));
+            paymentService = context.getBean(PaymentService.class);
+            LoanService loanService = context.getBean(LoanService.class);
+
+            requests = new PaymentRequest[loanCount];
+            for (int i = 0; i < loanCount; i++) {
+                Loan loan = loanService.createLoan(LoanRequest.builder().loanAmount(LOAN_AMOUNT).term(12).build());
+                requests[i] = PaymentRequest.builder().loanId(loan.getLoanId()).paymentAmount(PAYMENT_AMOUNT).build();
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+
+        PaymentRequest randomRequest() {
+            return requests[ThreadLocalRandom.current().nextInt(requests.length)];
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+
+        public long applied;
+        public long conflicts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            applied = 0;
+            conflicts = 0;
+        }
+    }
+
+    @Benchmark
+    public void processPayment(Loans loans, Outcomes outcomes) {
+        try {
+            loans.paymentService.processPayment(loans.randomRequest());
+            outcomes.applied++;
+        } catch (ConcurrencyFailureException ex) {
+            outcomes.conflicts++;
+        }
+    }
+}
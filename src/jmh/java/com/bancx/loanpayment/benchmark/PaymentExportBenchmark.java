@@ -0,0 +1,77 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.export.PaymentExportFilter;
+import com.bancx.loanpayment.payment.export.PaymentExportFormat;
+import com.bancx.loanpayment.payment.export.PaymentExportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOAN_AMOUNT;
+
+/**
+ * Full export of the payment table through {@link PaymentExportService} to a
+ * discarding stream. Run with {@code -prof gc}: allocation per exported row
+ * should be the same for every table size, and the export should not need
+ * more than a young collection now and then.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentExportBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int payments;
+
+    @Param({"NDJSON", "CSV"})
+    private PaymentExportFormat format;
+
+    private ConfigurableApplicationContext context;
+    private PaymentExportService paymentExportService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        paymentExportService = context.getBean(PaymentExportService.class);
+
+        Loan loan = context.getBean(LoanService.class)
+                .createLoan(LoanRequest.builder().loanAmount(LOAN_AMOUNT).term(12).build());
+        context.getBean(JdbcTemplate.class).update(
+                "INSERT INTO payment (payment_id, loan_id, payment_amount, timestamp) "
+                        + "SELECT x, ?, 0.01, DATEADD(SECOND, x, TIMESTAMP '2024-01-01 00:00:00') "
+                        + "FROM SYSTEM_RANGE(1, ?)",
+                loan.getLoanId(), payments);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long exportAll() {
+        return paymentExportService.export(new PaymentExportFilter(), format, OutputStream.nullOutputStream());
+    }
+}
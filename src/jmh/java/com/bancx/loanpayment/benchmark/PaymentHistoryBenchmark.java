@@ -0,0 +1,105 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.repository.PaymentRepository;
+import com.bancx.loanpayment.payment.rest.PaymentPage;
+import com.bancx.loanpayment.payment.service.PaymentService;
+import com.bancx.loanpayment.util.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOAN_AMOUNT;
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.PAYMENT_AMOUNT;
+
+/**
+ * Latency of one page of GET /loans/{loanId}/payments at different depths
+ * into a loan with a long payment history. With keyset pagination the last
+ * page should cost the same as the first.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentHistoryBenchmark {
+
+    private static final int PAYMENTS = 50_000;
+    private static final int PAGE_SIZE = 50;
+
+    /**
+     * Number of payments before the requested page.
+     */
+    @Param({"0", "25000", "49950"})
+    private int offset;
+
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private long loanId;
+    private String cursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        LoanService loanService = context.getBean(LoanService.class);
+        PaymentRepository paymentRepository = context.getBean(PaymentRepository.class);
+        paymentService = context.getBean(PaymentService.class);
+
+        Loan loan = loanService.createLoan(LoanRequest.builder().loanAmount(LOAN_AMOUNT).term(12).build());
+        Loan otherLoan = loanService.createLoan(LoanRequest.builder().loanAmount(LOAN_AMOUNT).term(12).build());
+        loanId = loan.getLoanId();
+
+        // Interleave another loan's payments so the history is spread through the index
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            for (Loan owner : List.of(loan, otherLoan)) {
+                payments.add(Payment.builder()
+                        .loanId(owner.getLoanId())
+                        .paymentAmount(Money.of(PAYMENT_AMOUNT))
+                        .timestamp(start.plusSeconds(i))
+                        .build());
+            }
+            if (payments.size() >= 1000) {
+                paymentRepository.saveAll(payments);
+                payments.clear();
+            }
+        }
+        paymentRepository.saveAll(payments);
+
+        for (int skipped = 0; skipped < offset; skipped += PAGE_SIZE) {
+            cursor = paymentService.getPaymentHistory(loanId, cursor, PAGE_SIZE).getNextCursor();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PaymentPage getPaymentHistory() {
+        return paymentService.getPaymentHistory(loanId, cursor, PAGE_SIZE);
+    }
+}
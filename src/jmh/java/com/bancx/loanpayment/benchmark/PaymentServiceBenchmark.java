@@ -0,0 +1,106 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.config.LoanProperties;
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.loan.cache.LoanCache;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.portfolio.PortfolioAggregates;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.impl.LoanServiceImpl;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.metrics.PaymentMetrics;
+import com.bancx.loanpayment.payment.outbox.PaymentOutbox;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.service.impl.PaymentServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Business logic of {@link PaymentServiceImpl#processPayment} and
+ * {@link LoanServiceImpl#getLoan} over in-memory repositories, without
+ * Spring, Hibernate or a database.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentServiceBenchmark {
+
+    static final int LOANS = 1024;
+
+    /**
+     * Large enough that the benchmark never pays a loan off.
+     */
+    static final BigDecimal LOAN_AMOUNT = new BigDecimal("1000000000000.00");
+
+    static final BigDecimal PAYMENT_AMOUNT = new BigDecimal("0.01");
+
+    @Param({"OPTIMISTIC", "ATOMIC"})
+    private PaymentProperties.BalanceUpdateMode balanceUpdateMode;
+
+    @Param({"true", "false"})
+    private boolean loanCacheEnabled;
+
+    private LoanServiceImpl loanService;
+    private PaymentServiceImpl paymentService;
+    private PaymentRequest[] requests;
+    private long[] loanIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        LoanProperties loanProperties = new LoanProperties();
+        loanProperties.getCache().setEnabled(loanCacheEnabled);
+        PaymentProperties paymentProperties = new PaymentProperties();
+        paymentProperties.setBalanceUpdateMode(balanceUpdateMode);
+
+        PortfolioAggregates portfolioAggregates = new PortfolioAggregates(null, loanProperties);
+        loanService = new LoanServiceImpl(InMemoryRepositories.loanRepository(),
+                new LoanCache(loanProperties, new SimpleMeterRegistry()), InMemoryRepositories.loanArchiveRepository(),
+                event -> { }, portfolioAggregates);
+        paymentService = new PaymentServiceImpl(loanService, InMemoryRepositories.paymentRepository(),
+                InMemoryRepositories.paymentIdempotencyRepository(), paymentProperties,
+                new PaymentMetrics(new SimpleMeterRegistry()), new PaymentOutbox(null, paymentProperties),
+                portfolioAggregates);
+
+        requests = new PaymentRequest[LOANS];
+        loanIds = new long[LOANS];
+        for (int i = 0; i < LOANS; i++) {
+            Loan loan = loanService.createLoan(LoanRequest.builder().loanAmount(LOAN_AMOUNT).term(12).build());
+            loanIds[i] = loan.getLoanId();
+            requests[i] = PaymentRequest.builder().loanId(loan.getLoanId()).paymentAmount(PAYMENT_AMOUNT).build();
+        }
+    }
+
+    @Benchmark
+    public Payment processPayment() {
+        return paymentService.processPayment(requests[nextIndex()]);
+    }
+
+    @Benchmark
+    public Loan getLoan() {
+        return loanService.getLoan(loanIds[nextIndex()]);
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (LOANS - 1);
+        return next;
+    }
+}
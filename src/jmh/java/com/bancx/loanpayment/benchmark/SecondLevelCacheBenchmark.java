@@ -0,0 +1,167 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.entity.SettledLoan;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.service.PaymentService;
+import com.bancx.loanpayment.util.Money;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOANS;
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOAN_AMOUNT;
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.PAYMENT_AMOUNT;
+
+/**
+ * A read-mostly loan workload against the Hibernate second-level cache, with
+ * the loan snapshot cache disabled so every lookup reaches Hibernate.
+ *
+ * A quarter of the loans are SETTLED. Each operation looks up a loan, and
+ * every tenth operation also makes a payment to an active loan. The SQL
+ * statements prepared and each cache region's hits and misses are read from
+ * Hibernate's statistics and reported by JMH as secondary results next to
+ * the score, per second like it, so dividing one by the score gives it per
+ * operation.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecondLevelCacheBenchmark {
+
+    public enum Caching {
+        /** No second-level cache. */
+        OFF,
+        /** All loans in the READ_WRITE "loan" region. */
+        READ_WRITE,
+        /** SETTLED loans in the READ_ONLY "settled-loan" region, the rest in "loan". */
+        SETTLED_READ_ONLY
+    }
+
+    @Param({"OFF", "READ_WRITE", "SETTLED_READ_ONLY"})
+    private Caching caching;
+
+    /**
+     * Maximum entries per region; 256 holds a quarter of the loans.
+     */
+    @Param({"10000", "256"})
+    private int regionSize;
+
+    private ConfigurableApplicationContext context;
+    private LoanService loanService;
+    private PaymentService paymentService;
+    private Statistics statistics;
+    private long[] loanIds;
+    private PaymentRequest[] payments;
+    private long operations;
+
+    /**
+     * Hibernate statistics counted over a measurement iteration.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class HibernateCounters {
+
+        public long statements;
+        public long loanHits;
+        public long loanMisses;
+        public long settledLoanHits;
+        public long settledLoanMisses;
+
+        private long[] start;
+
+        @Setup(Level.Iteration)
+        public void start(SecondLevelCacheBenchmark benchmark) {
+            start = read(benchmark.statistics);
+        }
+
+        @TearDown(Level.Iteration)
+        public void stop(SecondLevelCacheBenchmark benchmark) {
+            long[] end = read(benchmark.statistics);
+            statements = end[0] - start[0];
+            loanHits = end[1] - start[1];
+            loanMisses = end[2] - start[2];
+            settledLoanHits = end[3] - start[3];
+            settledLoanMisses = end[4] - start[4];
+        }
+
+        private static long[] read(Statistics statistics) {
+            CacheRegionStatistics loan = statistics.getCacheRegionStatistics(Loan.CACHE_REGION);
+            CacheRegionStatistics settledLoan = statistics.getCacheRegionStatistics(SettledLoan.CACHE_REGION);
+            return new long[]{statistics.getPrepareStatementCount(),
+                    loan == null ? 0 : loan.getHitCount(), loan == null ? 0 : loan.getMissCount(),
+                    settledLoan == null ? 0 : settledLoan.getHitCount(),
+                    settledLoan == null ? 0 : settledLoan.getMissCount()};
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "loanpayment.loan.cache.enabled=false",
+                "loanpayment.loan.second-level-cache.enabled=" + (caching != Caching.OFF),
+                "loanpayment.loan.second-level-cache.settled.read-only=" + (caching == Caching.SETTLED_READ_ONLY),
+                "loanpayment.loan.second-level-cache.max-entries=" + regionSize,
+                "loanpayment.loan.second-level-cache.settled.max-entries=" + regionSize);
+        loanService = context.getBean(LoanService.class);
+        paymentService = context.getBean(PaymentService.class);
+
+        loanIds = new long[LOANS];
+        payments = new PaymentRequest[LOANS];
+        for (int i = 0; i < LOANS; i++) {
+            boolean settled = i % 4 == 0;
+            BigDecimal amount = settled ? PAYMENT_AMOUNT : LOAN_AMOUNT;
+            Loan loan = loanService.createLoan(LoanRequest.builder().loanAmount(amount).term(12).build());
+            if (settled) {
+                loanService.debitBalance(loan.getLoanId(), Money.of(PAYMENT_AMOUNT));
+            } else {
+                payments[i] = PaymentRequest.builder().loanId(loan.getLoanId()).paymentAmount(PAYMENT_AMOUNT).build();
+            }
+            loanIds[i] = loan.getLoanId();
+        }
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Loan readMostly(HibernateCounters counters) {
+        int next = (int) (operations++ % LOANS);
+        // Visit loans in a scattered but repeating order
+        int index = (next * 613) & (LOANS - 1);
+        if (next % 10 == 0) {
+            // Odd indexes are active loans
+            paymentService.processPayment(payments[index | 1]);
+        }
+        return loanService.getLoan(loanIds[index]);
+    }
+}
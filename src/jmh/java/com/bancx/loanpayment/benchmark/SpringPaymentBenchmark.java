@@ -0,0 +1,92 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.service.PaymentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOANS;
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOAN_AMOUNT;
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.PAYMENT_AMOUNT;
+
+/**
+ * Payments and loan lookups through the Spring beans, with transactions,
+ * Hibernate and the H2 database, on a single thread.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpringPaymentBenchmark {
+
+    @Param({"OPTIMISTIC", "ATOMIC"})
+    private String balanceUpdateMode;
+
+    @Param({"true", "false"})
+    private boolean loanCacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private LoanService loanService;
+    private PaymentService paymentService;
+    private PaymentRequest[] requests;
+    private long[] loanIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "loanpayment.payment.balance-update-mode=" + balanceUpdateMode,
+                "loanpayment.loan.cache.enabled=" + loanCacheEnabled);
+        loanService = context.getBean(LoanService.class);
+        paymentService = context.getBean(PaymentService.class);
+
+        requests = new PaymentRequest[LOANS];
+        loanIds = new long[LOANS];
+        for (int i = 0; i < LOANS; i++) {
+            Loan loan = loanService.createLoan(LoanRequest.builder().loanAmount(LOAN_AMOUNT).term(12).build());
+            loanIds[i] = loan.getLoanId();
+            requests[i] = PaymentRequest.builder().loanId(loan.getLoanId()).paymentAmount(PAYMENT_AMOUNT).build();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Payment processPayment() {
+        return paymentService.processPayment(requests[nextIndex()]);
+    }
+
+    @Benchmark
+    public Loan getLoan() {
+        return loanService.getLoan(loanIds[nextIndex()]);
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (LOANS - 1);
+        return next;
+    }
+}
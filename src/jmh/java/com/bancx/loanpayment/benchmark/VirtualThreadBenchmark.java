@@ -0,0 +1,134 @@
+package com.bancx.loanpayment.benchmark;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.LoanService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOANS;
+import static com.bancx.loanpayment.benchmark.PaymentServiceBenchmark.LOAN_AMOUNT;
+
+/**
+ * HTTP throughput of POST /payments and GET /loans/{id} with many concurrent
+ * clients, serving requests on Tomcat's platform thread pool versus on
+ * virtual threads ({@code spring.threads.virtual.enabled}).
+ *
+ * The client count is above Tomcat's default of 200 worker threads, and the
+ * connection pool is sized above it too, so in platform mode the worker pool
+ * rather than the database is what limits concurrency. Responses other than
+ * 2xx (lock timeouts, conflicts) are reported in the {@code failed} counter.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(400)
+@State(Scope.Benchmark)
+public class VirtualThreadBenchmark {
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private URI paymentsUri;
+    private URI[] loanUris;
+    private long[] loanIds;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.startWebServer(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "spring.datasource.hikari.maximum-pool-size=64",
+                "loanpayment.payment.balance-update-mode=ATOMIC");
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+        LoanService loanService = context.getBean(LoanService.class);
+        loanIds = new long[LOANS];
+        loanUris = new URI[LOANS];
+        for (int i = 0; i < LOANS; i++) {
+            Loan loan = loanService.createLoan(LoanRequest.builder().loanAmount(LOAN_AMOUNT).term(12).build());
+            loanIds[i] = loan.getLoanId();
+            loanUris[i] = URI.create(baseUrl + "/loans/" + loan.getLoanId());
+        }
+        paymentsUri = URI.create(baseUrl + "/payments");
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        httpClient.close();
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Responses {
+
+        public long succeeded;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            succeeded = 0;
+            failed = 0;
+        }
+
+        void record(int statusCode) {
+            if (statusCode / 100 == 2) {
+                succeeded++;
+            } else {
+                failed++;
+            }
+        }
+    }
+
+    @Benchmark
+    public void makePayment(Responses responses) throws IOException, InterruptedException {
+        long loanId = loanIds[ThreadLocalRandom.current().nextInt(LOANS)];
+        HttpRequest request = HttpRequest.newBuilder(paymentsUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"loanId\":" + loanId + ",\"paymentAmount\":0.01}"))
+                .build();
+        responses.record(httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    @Benchmark
+    public void getLoan(Responses responses) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(loanUris[ThreadLocalRandom.current().nextInt(LOANS)])
+                .GET()
+                .build();
+        responses.record(httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+}
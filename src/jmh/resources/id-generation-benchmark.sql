@@ -0,0 +1,18 @@
+-- Tables for IdGenerationBenchmark, one per ID strategy.
+CREATE TABLE IF NOT EXISTS bench_identity_loan (
+    loan_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    loan_amount DECIMAL(19, 2) NOT NULL,
+    term INT NOT NULL
+);
+CREATE TABLE IF NOT EXISTS bench_sequence_loan (
+    loan_id BIGINT PRIMARY KEY,
+    loan_amount DECIMAL(19, 2) NOT NULL,
+    term INT NOT NULL
+);
+CREATE TABLE IF NOT EXISTS bench_pooled_loan (
+    loan_id BIGINT PRIMARY KEY,
+    loan_amount DECIMAL(19, 2) NOT NULL,
+    term INT NOT NULL
+);
+CREATE SEQUENCE IF NOT EXISTS bench_sequence_loan_seq START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE IF NOT EXISTS bench_pooled_loan_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,76 @@
+package com.bancx.loanpayment.config;
+
+import com.bancx.loanpayment.config.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Connection pools for the primary database and, when
+ * {@code loanpayment.datasource.replica.url} is set, a read replica.
+ *
+ * The application's DataSource hands out connections lazily: the physical
+ * connection is only taken from a pool at the first statement, by which time
+ * the transaction is known to be read-only or not. Read-only transactions
+ * ({@code @Transactional(readOnly = true)}, and Spring Data's read methods
+ * outside a surrounding transaction) then run on the replica; every other
+ * transaction, and anything run without one, stays on the primary. A
+ * read-only call made inside a read-write transaction joins it, and so
+ * reads from the primary too. Liquibase always runs on the primary, and so
+ * do loan lookups while a loan cache is enabled, so the caches are never
+ * filled with a row the replica has not caught up on.
+ *
+ * Lazy connections also mean a transaction answered entirely from the
+ * second-level cache never takes a connection from a pool.
+ *
+ * Author: Khanyisani Luyanda Ntabeni
+ */
+@Configuration
+@Slf4j
+public class DataSourceConfig {
+
+    @Bean
+    @LiquibaseDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "loanpayment.datasource.replica", name = "url")
+    @ConfigurationProperties("loanpayment.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(ReplicaProperties replica) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .build();
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        replica.ifAvailable(replicaDataSource -> {
+            dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(replicaDataSource, primary));
+            log.info("Routing read-only transactions to the read replica");
+        });
+        return dataSource;
+    }
+}
@@ -0,0 +1,243 @@
+package com.bancx.loanpayment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for loan handling, bound from
+ * the {@code loanpayment.loan} prefix.
+ *
+ * Author: Khanyisani Luyanda Ntabeni
+ */
+@Data
+@ConfigurationProperties(prefix = "loanpayment.loan")
+public class LoanProperties {
+
+    /**
+     * Settings for the in-process cache of loan snapshots.
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * Settings for the Hibernate second-level cache of Loan entities.
+     */
+    private SecondLevelCache secondLevelCache = new SecondLevelCache();
+
+    /**
+     * Settings for bulk loan origination.
+     */
+    private Bulk bulk = new Bulk();
+
+    /**
+     * HTTP caching settings for GET /loans/{loanId}.
+     */
+    private Http http = new Http();
+
+    /**
+     * Settings for moving settled loans to the archive tables.
+     */
+    private Archive archive = new Archive();
+
+    /**
+     * Settings for GET /loans/stream.
+     */
+    private Stream stream = new Stream();
+
+    /**
+     * Settings for the portfolio totals served by GET /loans/portfolio.
+     */
+    private Portfolio portfolio = new Portfolio();
+
+    /**
+     * Settings for the read-through cache in front of loan lookups.
+     */
+    @Data
+    public static class Cache {
+
+        /**
+         * Whether loan lookups are served from the cache.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of cached loans; each takes roughly 220 bytes of heap.
+         */
+        private long maxEntries = 10_000;
+
+        /**
+         * How long a cached loan may be served before it is reloaded.
+         * Bounds staleness for changes made by other instances.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Settings for the second-level cache regions of Loan entities. Regions are
+     * local to each instance; changes made by other instances are seen once the
+     * entry expires, and until then the @Version check rejects updates based on
+     * a stale entry.
+     */
+    @Data
+    public static class SecondLevelCache {
+
+        /**
+         * Whether Hibernate caches Loan entities between sessions.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Maximum number of loans in the "loan" region.
+         */
+        private long maxEntries = 10_000;
+
+        /**
+         * How long an entry of the "loan" region may be served before it is reloaded.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * Settings for the read-only "settled-loan" region.
+         */
+        private Settled settled = new Settled();
+    }
+
+    /**
+     * Settings for caching SETTLED loans with the READ_ONLY strategy, in a
+     * region of their own, instead of in the "loan" region.
+     */
+    @Data
+    public static class Settled {
+
+        /**
+         * Whether SETTLED loans are looked up through the read-only region.
+         */
+        private boolean readOnly = false;
+
+        /**
+         * Maximum number of loans in the "settled-loan" region.
+         */
+        private long maxEntries = 10_000;
+
+        /**
+         * How long an entry of the "settled-loan" region may be served before it is reloaded.
+         */
+        private Duration ttl = Duration.ofHours(1);
+    }
+
+    /**
+     * Settings for POST /loans/bulk.
+     */
+    @Data
+    public static class Bulk {
+
+        /**
+         * Number of loans inserted per transaction. Within a chunk, inserts are
+         * sent in JDBC batches of hibernate.jdbc.batch_size.
+         */
+        private int chunkSize = 1000;
+    }
+
+    /**
+     * Settings for the Cache-Control header sent with loans. Every response
+     * also carries the loan's version as its ETag, so a client can revalidate
+     * with If-None-Match and get 304 Not Modified while the loan is unchanged.
+     */
+    @Data
+    public static class Http {
+
+        /**
+         * How long a client may reuse a loan without revalidating; zero sends no-cache,
+         * so every use is revalidated.
+         */
+        private Duration maxAge = Duration.ZERO;
+
+        /**
+         * Whether only the client, and no shared cache, may store loans.
+         */
+        private boolean cachePrivate = true;
+    }
+
+    /**
+     * Settings for the scheduled job that moves settled loans, with their
+     * payments, from the loan and payment tables to loan_archive and
+     * payment_archive.
+     */
+    @Data
+    public static class Archive {
+
+        /**
+         * Whether settled loans are archived.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long a loan stays in the loan table after it is settled.
+         */
+        private Duration settledAge = Duration.ofDays(90);
+
+        /**
+         * Number of loans moved per transaction.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * How long to wait after one archival run before starting the next.
+         */
+        private Duration interval = Duration.ofHours(1);
+    }
+
+    /**
+     * Settings for the Server-Sent Events stream of loan balance changes.
+     * Open streams hold a connection but no thread; the number of streams
+     * an instance accepts is bounded by server.tomcat.max-connections.
+     */
+    @Data
+    public static class Stream {
+
+        /**
+         * Whether GET /loans/stream is available.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Updates held per subscriber; once full, the oldest is dropped.
+         */
+        private int bufferSize = 16;
+
+        /**
+         * A subscriber sent nothing for this long gets a heartbeat comment.
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+        /**
+         * How long a stream stays open before the client has to reconnect.
+         */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /**
+         * Maximum number of loans one stream can watch.
+         */
+        private int maxLoansPerSubscription = 100;
+    }
+
+    /**
+     * Settings for the in-memory portfolio totals and their checkpoint in
+     * the portfolio_summary table.
+     */
+    @Data
+    public static class Portfolio {
+
+        /**
+         * Whether loans and payments are counted into the portfolio totals.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How often the changes counted by this instance are added to the
+         * checkpoint row, and the other instances' changes read back.
+         */
+        private Duration checkpointInterval = Duration.ofMinutes(1);
+    }
+}
@@ -0,0 +1,35 @@
+package com.bancx.loanpayment.config;
+
+import com.bancx.loanpayment.payment.outbox.FilePaymentEventSink;
+import com.bancx.loanpayment.payment.outbox.InMemoryPaymentEventSink;
+import com.bancx.loanpayment.payment.outbox.PaymentEventSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Chooses the sink the outbox relay publishes payment events to, from
+ * {@code loanpayment.payment.outbox.sink}. An application that declares
+ * its own {@link PaymentEventSink} bean, e.g. for a message broker, gets
+ * that one instead.
+ *
+ * Author: Khanyisani Luyanda Ntabeni
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "loanpayment.payment.outbox", name = "enabled", havingValue = "true")
+public class PaymentOutboxConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(PaymentEventSink.class)
+    public PaymentEventSink paymentEventSink(PaymentProperties paymentProperties, ObjectMapper objectMapper) {
+        PaymentProperties.Outbox settings = paymentProperties.getOutbox();
+        return switch (settings.getSink()) {
+            case IN_MEMORY -> new InMemoryPaymentEventSink();
+            case FILE -> new FilePaymentEventSink(Path.of(settings.getFile()), objectMapper);
+        };
+    }
+}
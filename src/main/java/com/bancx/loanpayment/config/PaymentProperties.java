@@ -0,0 +1,360 @@
+package com.bancx.loanpayment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for payment processing, bound from
+ * the {@code loanpayment.payment} prefix.
+ *
+ * Author: Khanyisani Luyanda Ntabeni
+ */
+@Data
+@ConfigurationProperties(prefix = "loanpayment.payment")
+public class PaymentProperties {
+
+    /**
+     * How a payment updates the loan balance.
+     */
+    private BalanceUpdateMode balanceUpdateMode = BalanceUpdateMode.OPTIMISTIC;
+
+    /**
+     * Settings for the per-loan single-writer sequencer.
+     */
+    private Sequencer sequencer = new Sequencer();
+
+    /**
+     * Settings for Idempotency-Key handling on POST /payments.
+     */
+    private Idempotency idempotency = new Idempotency();
+
+    /**
+     * Settings for GET /loans/{loanId}/payments.
+     */
+    private History history = new History();
+
+    /**
+     * Settings for GET /payments/export.
+     */
+    private Export export = new Export();
+
+    /**
+     * Settings for accepting payments with 202 and applying them in the background.
+     */
+    private Async async = new Async();
+
+    /**
+     * Settings for re-running payments that lost an optimistic-lock race.
+     */
+    private Retry retry = new Retry();
+
+    /**
+     * Settings for the in-memory ledger engine.
+     */
+    private Ledger ledger = new Ledger();
+
+    /**
+     * Settings for recording payment events and relaying them downstream.
+     */
+    private Outbox outbox = new Outbox();
+
+    /**
+     * Strategies for applying a payment to the loan balance.
+     *
+     * OPTIMISTIC: read the loan, subtract in Java, and save it under the @Version lock.
+     * ATOMIC: check, subtract, and settle in one conditional UPDATE on the loan table.
+     */
+    public enum BalanceUpdateMode {
+        OPTIMISTIC,
+        ATOMIC
+    }
+
+    /**
+     * Settings for running payments on per-loan single-threaded lanes.
+     */
+    @Data
+    public static class Sequencer {
+
+        /**
+         * Whether payments are routed through the sequencer lanes.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of single-threaded lanes; each loan always maps to the same lane.
+         */
+        private int lanes = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Maximum number of payments waiting in a single lane.
+         */
+        private int queueCapacity = 1000;
+
+        /**
+         * How long a caller waits for room in a full lane before being rejected.
+         */
+        private Duration offerTimeout = Duration.ofMillis(100);
+
+        /**
+         * How long shutdown waits for queued payments to drain.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Settings for deduplicating retried payments by Idempotency-Key.
+     */
+    @Data
+    public static class Idempotency {
+
+        /**
+         * Maximum number of recent keys kept in memory.
+         */
+        private long maxEntries = 100_000;
+
+        /**
+         * How long a key stays in memory after it was first used.
+         */
+        private Duration cacheTtl = Duration.ofHours(1);
+
+        /**
+         * How long a key is kept in the payment_idempotency table.
+         */
+        private Duration retention = Duration.ofDays(1);
+
+        /**
+         * How often keys past their retention are purged from the table.
+         */
+        private Duration purgeInterval = Duration.ofHours(1);
+    }
+
+    /**
+     * Settings for paging through a loan's payment history.
+     */
+    @Data
+    public static class History {
+
+        /**
+         * Number of payments per page when the client does not ask for a size.
+         */
+        private int defaultPageSize = 50;
+
+        /**
+         * Largest page size a client may ask for.
+         */
+        private int maxPageSize = 500;
+    }
+
+    /**
+     * Settings for streaming payments out of the database.
+     */
+    @Data
+    public static class Export {
+
+        /**
+         * Number of rows the JDBC driver fetches per round trip while exporting.
+         */
+        private int fetchSize = 1000;
+    }
+
+    /**
+     * Settings for POST /payments with {@code Prefer: respond-async}.
+     */
+    @Data
+    public static class Async {
+
+        /**
+         * Whether payments may be accepted with 202 and applied in the background.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of worker threads applying accepted payments.
+         */
+        private int workers = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Maximum number of accepted payments waiting for a worker.
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * Retry-After sent with 429 when the queue is full.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        /**
+         * Maximum number of payment outcomes kept for polling; PENDING statuses are not counted.
+         */
+        private long maxStatuses = 100_000;
+
+        /**
+         * How long a payment's outcome can be polled after it was recorded.
+         */
+        private Duration statusTtl = Duration.ofHours(1);
+
+        /**
+         * How long shutdown waits for accepted payments to drain.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Settings for retrying a payment after a version conflict on its loan,
+     * with exponential backoff and full jitter between attempts.
+     */
+    @Data
+    public static class Retry {
+
+        /**
+         * Total number of attempts per payment, including the first; 1 disables retries.
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * Upper bound of the random delay before the first retry.
+         */
+        private Duration initialBackoff = Duration.ofMillis(5);
+
+        /**
+         * Factor the delay bound grows by after each retry.
+         */
+        private double multiplier = 2.0;
+
+        /**
+         * Largest delay bound between two attempts.
+         */
+        private Duration maxBackoff = Duration.ofMillis(200);
+    }
+
+    /**
+     * Settings for applying payments to in-memory balances on a single
+     * thread, with a journal on disk and the database updated afterwards.
+     */
+    @Data
+    public static class Ledger {
+
+        /**
+         * Whether payments are applied by the ledger engine instead of in a database transaction.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of slots in the ring buffer feeding the engine; must be a power of two.
+         */
+        private int ringCapacity = 16_384;
+
+        /**
+         * How long a caller waits for a free slot in a full ring buffer before being rejected.
+         */
+        private Duration offerTimeout = Duration.ofMillis(100);
+
+        /**
+         * Directory holding the journal segments and snapshots.
+         */
+        private String directory = "ledger";
+
+        /**
+         * Whether the journal is forced to disk before payments are acknowledged.
+         */
+        private boolean fsync = true;
+
+        /**
+         * Size each journal segment is mapped at; a segment rolls over when the next record does not fit.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        /**
+         * Longest a journaled payment waits for the group commit while more payments keep arriving.
+         */
+        private Duration fsyncInterval = Duration.ofMillis(1);
+
+        /**
+         * Number of journaled payments that forces a group commit without waiting for the interval.
+         */
+        private int fsyncBatchSize = 256;
+
+        /**
+         * How often the in-memory balances are written to a snapshot.
+         */
+        private Duration snapshotInterval = Duration.ofMinutes(5);
+
+        /**
+         * Maximum number of payments written to the database in one projection transaction.
+         */
+        private int projectionBatchSize = 500;
+
+        /**
+         * How long the projection waits for more payments before writing a partial batch.
+         */
+        private Duration projectionLinger = Duration.ofMillis(5);
+
+        /**
+         * Attempts at a projection batch that fails for a reason other than the database being
+         * unavailable, before it is split; an entry still failing on its own stops the engine.
+         */
+        private int projectionMaxAttempts = 5;
+
+        /**
+         * How long shutdown waits for the ring buffer and the projection to drain.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Settings for the payment event outbox, written in each payment's
+     * transaction and drained to a sink by a relay.
+     */
+    @Data
+    public static class Outbox {
+
+        /**
+         * Whether payments record events in the payment_outbox table.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Whether this instance runs the relay; it must run on one instance only.
+         */
+        private boolean relayEnabled = true;
+
+        /**
+         * Where the relay publishes events, unless a PaymentEventSink bean is declared.
+         */
+        private Sink sink = Sink.IN_MEMORY;
+
+        /**
+         * File the FILE sink appends events to, one JSON object per line.
+         */
+        private String file = "outbox/payment-events.jsonl";
+
+        /**
+         * Maximum number of events published and deleted together.
+         */
+        private int batchSize = 500;
+
+        /**
+         * How long a batch smaller than batch-size waits for more events before it is published.
+         */
+        private Duration linger = Duration.ofMillis(50);
+
+        /**
+         * How often the relay checks the outbox.
+         */
+        private Duration pollInterval = Duration.ofMillis(25);
+
+        /**
+         * Built-in destinations for payment events.
+         *
+         * IN_MEMORY: keep the most recent events in memory, for tests and local runs.
+         * FILE: append events to a local file as JSON lines.
+         */
+        public enum Sink {
+            IN_MEMORY,
+            FILE
+        }
+    }
+}
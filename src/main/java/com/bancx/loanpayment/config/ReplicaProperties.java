@@ -0,0 +1,32 @@
+package com.bancx.loanpayment.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Connection settings for the read replica, bound from the
+ * {@code loanpayment.datasource.replica} prefix. Pool settings are bound
+ * from {@code loanpayment.datasource.replica.hikari}, as
+ * {@code spring.datasource.hikari} is for the primary.
+ *
+ * Author: Khanyisani Luyanda Ntabeni
+ */
+@Data
+@ConfigurationProperties(prefix = "loanpayment.datasource.replica")
+public class ReplicaProperties {
+
+    /**
+     * JDBC URL of the replica. When not set, read-only transactions use the primary.
+     */
+    private String url;
+
+    /**
+     * Login username of the replica.
+     */
+    private String username;
+
+    /**
+     * Login password of the replica.
+     */
+    private String password;
+}
@@ -0,0 +1,69 @@
+package com.bancx.loanpayment.config;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.entity.SettledLoan;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.persistence.SharedCacheMode;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Sets up the Hibernate second-level cache for loans on a local, Caffeine
+ * backed JCache provider.
+ *
+ * The regions are created here, sized and expired from
+ * {@code loanpayment.loan.second-level-cache}, rather than from a provider
+ * configuration file, and Hibernate fails at startup if an entity asks for
+ * any other region. The query cache stays off: every payment changes the
+ * loan table, which would invalidate cached query results straight away, so
+ * loans are looked up by ID instead (see LoanLookup).
+ *
+ * Author: Khanyisani Luyanda Ntabeni
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(LoanProperties loanProperties) {
+        LoanProperties.SecondLevelCache settings = loanProperties.getSecondLevelCache();
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, settings.isEnabled());
+            properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+            if (!settings.isEnabled()) {
+                return;
+            }
+            properties.put(AvailableSettings.JAKARTA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            // Hibernate closes the cache manager when the session factory is closed
+            properties.put(ConfigSettings.CACHE_MANAGER, cacheManager(settings));
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CacheManager cacheManager(LoanProperties.SecondLevelCache settings) {
+        // A manager of its own per application context, so contexts sharing a JVM never share regions
+        CacheManager cacheManager = new CaffeineCachingProvider().getCacheManager(
+                URI.create("loanpayment-" + UUID.randomUUID()), SecondLevelCacheConfig.class.getClassLoader());
+        cacheManager.createCache(Loan.CACHE_REGION, region(settings.getMaxEntries(), settings.getTtl()));
+        cacheManager.createCache(SettledLoan.CACHE_REGION,
+                region(settings.getSettled().getMaxEntries(), settings.getSettled().getTtl()));
+        return cacheManager;
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxEntries, Duration ttl) {
+        CaffeineConfiguration<Object, Object> region = new CaffeineConfiguration<>();
+        region.setMaximumSize(OptionalLong.of(maxEntries));
+        region.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        return region;
+    }
+}
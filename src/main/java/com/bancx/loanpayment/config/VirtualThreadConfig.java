@@ -0,0 +1,50 @@
+package com.bancx.loanpayment.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Checks the connection pool when requests run on virtual threads
+ * ({@code spring.threads.virtual.enabled=true}).
+ *
+ * With virtual threads, Tomcat no longer caps the number of requests in
+ * flight, so the connection pool decides how many transactions reach the
+ * database at once. Requests beyond that park in the pool without holding a
+ * carrier thread. Inside the database, a payment that waits for another
+ * payment's row lock on the same loan blocks in H2's
+ * {@code synchronized}/{@code Object.wait} lock wait, which pins its carrier.
+ * The JDK makes up for this with extra carriers, but only up to
+ * {@code jdk.virtualThreadScheduler.maxPoolSize}. If the pool allowed more
+ * waiting transactions than that, the transaction holding the lock could be
+ * left without a carrier to commit on. Startup therefore fails when the pool
+ * is not smaller than the scheduler's limit.
+ *
+ * Author: Khanyisani Luyanda Ntabeni
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadConfig {
+
+    static final String MAX_POOL_SIZE_PROPERTY = "jdk.virtualThreadScheduler.maxPoolSize";
+
+    public VirtualThreadConfig(DataSource dataSource) throws SQLException {
+        int schedulerLimit = Integer.getInteger(MAX_POOL_SIZE_PROPERTY,
+                Math.max(Runtime.getRuntime().availableProcessors(), 256));
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            if (poolSize >= schedulerLimit) {
+                throw new IllegalStateException("spring.datasource.hikari.maximum-pool-size (" + poolSize
+                        + ") must be below " + MAX_POOL_SIZE_PROPERTY + " (" + schedulerLimit
+                        + ") when virtual threads are enabled");
+            }
+            log.info("Serving requests on virtual threads with up to {} concurrent transactions", poolSize);
+        }
+    }
+}
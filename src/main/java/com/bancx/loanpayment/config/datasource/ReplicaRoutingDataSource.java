@@ -0,0 +1,62 @@
+package com.bancx.loanpayment.config.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Connections for read-only transactions: from the replica, unless the
+ * current thread asked to read from the primary with
+ * {@link #readFromPrimary(Supplier)}.
+ *
+ * A replica may lag behind the primary, so a read-only transaction can miss
+ * a change that was just committed. Reads that have to see such changes, for
+ * example an idempotency key written by a concurrent request, are wrapped
+ * in {@link #readFromPrimary(Supplier)}.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+public class ReplicaRoutingDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = ThreadLocal.withInitial(() -> false);
+
+    private final DataSource primary;
+
+    public ReplicaRoutingDataSource(DataSource replica, DataSource primary) {
+        super(replica);
+        this.primary = primary;
+    }
+
+    /**
+     * Runs a read whose transactions take their connections from the
+     * primary, even when they are read-only. Has no effect when no replica
+     * is configured, or inside a transaction that already has a connection.
+     *
+     * @param read the read to run
+     * @return the read's result
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        boolean outer = PRIMARY_READS.get();
+        PRIMARY_READS.set(true);
+        try {
+            return read.get();
+        } finally {
+            if (!outer) {
+                PRIMARY_READS.remove();
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return PRIMARY_READS.get() ? primary.getConnection() : super.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return PRIMARY_READS.get() ? primary.getConnection(username, password) : super.getConnection(username, password);
+    }
+}
@@ -0,0 +1,62 @@
+package com.bancx.loanpayment.config.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.bancx.loanpayment.util.Money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Asynchronous appender that leaves message formatting to the appender's
+ * worker thread when it is safe to do so.
+ *
+ * Logback's AsyncAppender formats every message on the logging thread
+ * before queueing it, because the arguments could change before the worker
+ * gets to them. Arguments of immutable value types, such as the BigDecimal
+ * and Money amounts on the payment path, cannot change, so events whose
+ * arguments are all such values are queued unformatted and rendered by the
+ * worker. Events with any other argument are formatted up front as usual.
+ * The thread name and MDC are always captured on the logging thread.
+ *
+ * Author: Khanyisani Luyanda Ntabeni
+ */
+public class LazyFormattingAsyncAppender extends AsyncAppender {
+
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(
+            String.class, Long.class, Integer.class, Short.class, Byte.class, Double.class, Float.class,
+            Boolean.class, Character.class, BigDecimal.class, BigInteger.class, Money.class, UUID.class,
+            Instant.class, LocalDate.class, LocalDateTime.class, Duration.class);
+
+    @Override
+    protected void preprocess(ILoggingEvent event) {
+        if (!hasOnlyImmutableArguments(event)) {
+            super.preprocess(event);
+            return;
+        }
+        event.getThreadName();
+        event.getMDCPropertyMap();
+        if (isIncludeCallerData()) {
+            event.getCallerData();
+        }
+    }
+
+    static boolean hasOnlyImmutableArguments(ILoggingEvent event) {
+        Object[] arguments = event.getArgumentArray();
+        if (arguments == null) {
+            return true;
+        }
+        for (Object argument : arguments) {
+            if (argument != null && !IMMUTABLE_TYPES.contains(argument.getClass()) && !(argument instanceof Enum<?>)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
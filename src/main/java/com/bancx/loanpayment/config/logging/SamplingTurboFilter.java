@@ -0,0 +1,67 @@
+package com.bancx.loanpayment.config.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in every {@code rate} INFO, DEBUG and TRACE events of a logger
+ * and its descendants, and drops the rest before an event is created, so
+ * dropped events never format their arguments.
+ *
+ * WARN and ERROR events always pass. Every logger below the configured
+ * prefix is counted separately, so a busy logger cannot crowd a quiet one
+ * out of the sample. Declare one filter per logger prefix in logback-spring.xml
+ * to sample loggers at different rates.
+ *
+ * Author: Khanyisani Luyanda Ntabeni
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private String logger;
+    private String loggerPrefix;
+    private int rate = 1;
+
+    public void setLogger(String logger) {
+        this.logger = logger;
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public void start() {
+        if (logger == null || logger.isBlank()) {
+            addError("No logger set for SamplingTurboFilter " + getName());
+            return;
+        }
+        if (rate < 1) {
+            addError("SamplingTurboFilter rate must be at least 1, was " + rate);
+            return;
+        }
+        loggerPrefix = logger + ".";
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // A null format is an isXxxEnabled() check rather than an event
+        if (!isStarted() || format == null || rate == 1 || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel()) || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        long seen = counters.computeIfAbsent(logger.getName(), name -> new AtomicLong()).getAndIncrement();
+        return seen % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean matches(String name) {
+        return name.equals(logger) || name.startsWith(loggerPrefix);
+    }
+}
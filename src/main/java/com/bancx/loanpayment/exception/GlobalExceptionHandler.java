@@ -4,6 +4,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
@@ -25,6 +26,8 @@ import java.time.LocalDateTime;
  * - Validation errors
  * - Business logic errors (IllegalStateException, IllegalArgumentException)
  * - Optimistic locking conflicts
+ * - Full payment queues (backpressure)
+ * - Payments whose outcome is unknown
  * - Generic uncaught exceptions
  *
  * Uses a consistent {@link ErrorResponse} DTO for all error responses.
@@ -78,6 +81,58 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.CONFLICT, message, request);
     }
 
+    /**
+     * Handles PaymentQueueFullException thrown when a payment queue is full.
+     * Returns 429 TOO MANY REQUESTS with a Retry-After header.
+     *
+     * @param ex      the PaymentQueueFullException exception
+     * @param request the HttpServletRequest for extracting request URI
+     * @return ResponseEntity with {@link ErrorResponse} and HTTP status 429
+     */
+    @ExceptionHandler(PaymentQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentQueueFull(PaymentQueueFullException ex, HttpServletRequest request) {
+        log.warn("Payment queue full: {}", ex.getMessage());
+        ResponseEntity<ErrorResponse> response = buildResponse(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), request);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
+    /**
+     * Handles PaymentUnavailableException thrown when the component applying
+     * payments is shutting down or has stopped.
+     * Returns 503 SERVICE UNAVAILABLE with a Retry-After header.
+     *
+     * @param ex      the PaymentUnavailableException exception
+     * @param request the HttpServletRequest for extracting request URI
+     * @return ResponseEntity with {@link ErrorResponse} and HTTP status 503
+     */
+    @ExceptionHandler(PaymentUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentUnavailable(PaymentUnavailableException ex,
+                                                                  HttpServletRequest request) {
+        log.warn("Payments unavailable: {}", ex.getMessage());
+        ResponseEntity<ErrorResponse> response = buildResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request);
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response.getBody());
+    }
+
+    /**
+     * Handles PaymentOutcomeUnknownException thrown when a payment may have
+     * been applied but could not be confirmed.
+     * Returns 503 SERVICE UNAVAILABLE, asking the client to retry with the same Idempotency-Key.
+     *
+     * @param ex      the PaymentOutcomeUnknownException exception
+     * @param request the HttpServletRequest for extracting request URI
+     * @return ResponseEntity with {@link ErrorResponse} and HTTP status 503
+     */
+    @ExceptionHandler(PaymentOutcomeUnknownException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentOutcomeUnknown(PaymentOutcomeUnknownException ex,
+                                                                     HttpServletRequest request) {
+        log.error("Payment outcome unknown: {}", ex.getMessage(), ex.getCause());
+        return buildResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request);
+    }
+
     /**
      * Handles IllegalStateException, typically thrown for business rule violations
      * such as attempting to pay an already settled loan.
@@ -0,0 +1,25 @@
+package com.bancx.loanpayment.exception;
+
+/**
+ * Exception thrown when a payment may or may not have been applied, for
+ * example because it was written but not yet confirmed when the component
+ * applying it failed.
+ *
+ * Used to signal HTTP 503 Service Unavailable; the client should retry
+ * with the same Idempotency-Key, which returns the payment if it was
+ * applied after all.
+ *
+ * Author: Khanyisani Luyanda Ntabeni
+ */
+public class PaymentOutcomeUnknownException extends RuntimeException {
+
+    /**
+     * Constructs a new PaymentOutcomeUnknownException with the specified detail message and cause.
+     *
+     * @param message the detail message explaining the reason for the exception
+     * @param cause   the failure that left the outcome unknown
+     */
+    public PaymentOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
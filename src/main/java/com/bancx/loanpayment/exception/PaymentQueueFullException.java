@@ -0,0 +1,32 @@
+package com.bancx.loanpayment.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when a payment cannot be queued because the
+ * queue that would process it is full.
+ *
+ * Used to signal HTTP 429 Too Many Requests so clients back off
+ * and retry after the suggested delay.
+ *
+ * Author: Khanyisani Luyanda Ntabeni
+ */
+@Getter
+public class PaymentQueueFullException extends RuntimeException {
+
+    /**
+     * Suggested number of seconds the client should wait before retrying.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new PaymentQueueFullException with the specified detail message.
+     *
+     * @param message           the detail message explaining the reason for the exception
+     * @param retryAfterSeconds suggested delay before the client retries
+     */
+    public PaymentQueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
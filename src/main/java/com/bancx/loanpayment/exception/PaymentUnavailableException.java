@@ -0,0 +1,34 @@
+package com.bancx.loanpayment.exception;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when a payment was not applied because the component
+ * that would apply it is shutting down or has stopped.
+ *
+ * Used to signal HTTP 503 Service Unavailable with a Retry-After header;
+ * unlike a business-rule rejection, the same payment may succeed when
+ * retried, on this instance once it is back or on another one.
+ *
+ * Author: Khanyisani Luyanda Ntabeni
+ */
+@Getter
+public class PaymentUnavailableException extends RuntimeException {
+
+    /**
+     * Suggested number of seconds the client should wait before retrying.
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructs a new PaymentUnavailableException with the specified detail message and cause.
+     *
+     * @param message           the detail message explaining the reason for the exception
+     * @param retryAfterSeconds suggested delay before the client retries
+     * @param cause             the failure that stopped the component, or null
+     */
+    public PaymentUnavailableException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,57 @@
+package com.bancx.loanpayment.loan.archive;
+
+import com.bancx.loanpayment.config.LoanProperties;
+import com.bancx.loanpayment.loan.service.LoanService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Periodically moves loans that have been settled for longer than the
+ * configured age, with their payments, to the archive tables, keeping the
+ * loan and payment tables and their indexes down to loans still in play.
+ *
+ * Each chunk is its own transaction and archived loans leave the loan
+ * table, so a run that is interrupted simply continues with the remaining
+ * loans the next time. Archived loans are still returned by
+ * {@link LoanService#getLoan(Long)}.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+@Slf4j
+public class LoanArchiver {
+
+    private final LoanService loanService;
+    private final LoanProperties.Archive settings;
+
+    public LoanArchiver(LoanService loanService, LoanProperties loanProperties) {
+        this.loanService = loanService;
+        this.settings = loanProperties.getArchive();
+    }
+
+    /**
+     * Archives every loan settled before now minus the settled age, one chunk at a time.
+     *
+     * @return the number of loans archived
+     */
+    @Scheduled(fixedDelayString = "${loanpayment.loan.archive.interval:PT1H}")
+    public int archiveSettledLoans() {
+        if (!settings.isEnabled()) {
+            return 0;
+        }
+        LocalDateTime settledBefore = LocalDateTime.now().minus(settings.getSettledAge());
+        int total = 0;
+        int archived;
+        do {
+            archived = loanService.archiveSettledLoans(settledBefore, settings.getChunkSize());
+            total += archived;
+        } while (archived == settings.getChunkSize() && !Thread.currentThread().isInterrupted());
+        if (total > 0) {
+            log.info("Archived {} loans settled before {}", total, settledBefore);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,189 @@
+package com.bancx.loanpayment.loan.bulk;
+
+import com.bancx.loanpayment.config.LoanProperties;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.rest.LoanBulkResult;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates loans from an uploaded JSON array of {@link LoanRequest}s.
+ *
+ * The array is read one element at a time, so only the current chunk of
+ * requests is held in memory, however large the upload. Each element is
+ * validated with the same constraints as POST /loans; valid loans are
+ * collected into chunks of {@code loanpayment.loan.bulk.chunk-size} and each
+ * chunk is inserted in its own transaction. Invalid rows and rows of a chunk
+ * that fails to insert are reported without stopping the upload. Malformed
+ * JSON stops the upload at the row where it occurs; loans from earlier
+ * chunks stay created.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Service
+@Slf4j
+public class LoanBulkImporter {
+
+    private final LoanService loanService;
+    private final ObjectReader requestReader;
+    private final Validator validator;
+    private final LoanProperties.Bulk settings;
+
+    public LoanBulkImporter(LoanService loanService,
+                            ObjectMapper objectMapper,
+                            Validator validator,
+                            LoanProperties loanProperties) {
+        this.loanService = loanService;
+        this.requestReader = objectMapper.readerFor(LoanRequest.class);
+        this.validator = validator;
+        this.settings = loanProperties.getBulk();
+    }
+
+    /**
+     * Reads a JSON array of loan requests and creates a loan for every valid one.
+     *
+     * @param input the JSON array
+     * @return the created loan IDs and the rejected rows
+     * @throws IllegalArgumentException if the input is not a JSON array
+     * @throws IOException if the input cannot be read
+     */
+    public LoanBulkResult importLoans(InputStream input) throws IOException {
+        List<Long> loanIds = new ArrayList<>();
+        List<LoanBulkResult.Failure> failures = new ArrayList<>();
+        Chunk chunk = new Chunk(settings.getChunkSize());
+
+        try (MappingIterator<LoanRequest> requests = requestReader.readValues(input)) {
+            if (!requests.getParser().getParsingContext().inArray()) {
+                throw new IllegalArgumentException("Request body must be a JSON array of loans");
+            }
+            int index = 0;
+            while (true) {
+                LoanRequest request;
+                try {
+                    if (!requests.hasNextValue()) {
+                        break;
+                    }
+                    request = requests.nextValue();
+                } catch (DatabindException ex) {
+                    loanIds.add(null);
+                    failures.add(new LoanBulkResult.Failure(index++, ex.getOriginalMessage()));
+                    continue;
+                } catch (JsonProcessingException ex) {
+                    log.warn("Stopping bulk upload at row {} on malformed JSON: {}", index, ex.getOriginalMessage());
+                    failures.add(new LoanBulkResult.Failure(index, "Malformed JSON, upload stopped: " + ex.getOriginalMessage()));
+                    break;
+                }
+
+                loanIds.add(null);
+                String violation = validate(request);
+                if (violation != null) {
+                    failures.add(new LoanBulkResult.Failure(index++, violation));
+                    continue;
+                }
+                chunk.add(index++, request);
+                if (chunk.isFull()) {
+                    insert(chunk, loanIds, failures);
+                }
+            }
+        }
+        insert(chunk, loanIds, failures);
+
+        int created = (int) loanIds.stream().filter(Objects::nonNull).count();
+        log.info("Bulk upload created {} of {} loans", created, loanIds.size());
+        return LoanBulkResult.builder()
+                .received(loanIds.size())
+                .created(created)
+                .loanIds(loanIds)
+                .failures(failures)
+                .build();
+    }
+
+    /**
+     * Checks a request against the LoanRequest constraints and the two decimal
+     * places of a Money amount.
+     *
+     * @return the reasons the request is invalid, or null if it is valid
+     */
+    private String validate(LoanRequest request) {
+        Set<ConstraintViolation<LoanRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        try {
+            Money.of(request.getLoanAmount());
+        } catch (IllegalArgumentException ex) {
+            return ex.getMessage();
+        }
+        return null;
+    }
+
+    private void insert(Chunk chunk, List<Long> loanIds, List<LoanBulkResult.Failure> failures) {
+        if (chunk.requests.isEmpty()) {
+            return;
+        }
+        try {
+            List<Loan> loans = loanService.createLoans(chunk.requests);
+            for (int i = 0; i < loans.size(); i++) {
+                loanIds.set(chunk.indexes.get(i), loans.get(i).getLoanId());
+            }
+        } catch (DataAccessException ex) {
+            log.error("Failed to insert bulk chunk of {} loans starting at row {}",
+                    chunk.requests.size(), chunk.indexes.get(0), ex);
+            chunk.indexes.forEach(index -> failures.add(
+                    new LoanBulkResult.Failure(index, "Insert failed: " + ex.getMostSpecificCause().getMessage())));
+        }
+        chunk.clear();
+    }
+
+    /**
+     * Valid requests waiting to be inserted, with their positions in the upload.
+     */
+    private static final class Chunk {
+
+        private final int capacity;
+        private final List<LoanRequest> requests;
+        private final List<Integer> indexes;
+
+        Chunk(int capacity) {
+            this.capacity = capacity;
+            this.requests = new ArrayList<>(capacity);
+            this.indexes = new ArrayList<>(capacity);
+        }
+
+        void add(int index, LoanRequest request) {
+            indexes.add(index);
+            requests.add(request);
+        }
+
+        boolean isFull() {
+            return requests.size() >= capacity;
+        }
+
+        void clear() {
+            requests.clear();
+            indexes.clear();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.bancx.loanpayment.loan.cache;
+
+import com.bancx.loanpayment.config.LoanProperties;
+import com.bancx.loanpayment.config.datasource.ReplicaRoutingDataSource;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of loan snapshots in front of loan lookups.
+ *
+ * Entries are immutable snapshots; every read returns a fresh, detached
+ * {@link Loan} carrying the cached version. A payment approved from a stale
+ * snapshot is therefore rejected by the @Version check when the loan is saved.
+ *
+ * Eviction is Caffeine's W-TinyLFU policy (frequency and recency aware),
+ * bounded by entry count. Snapshots hold only fixed-size fields, so every
+ * entry costs about the same heap and max-entries bounds memory as well.
+ * Hit, miss and eviction
+ * counts are exported as the {@code cache.*} metrics with {@code cache=loans}.
+ *
+ * Every invalidation bumps an invalidation generation, and a load only
+ * caches its result if the generation of its loan did not change while it
+ * ran. A reader that loaded the row before a change committed can therefore
+ * not cache it after the change's final invalidation. Generations are kept
+ * per stripe of loan IDs, so memory stays fixed; a change to another loan of
+ * the same stripe at most keeps one load from being cached.
+ *
+ * While this cache or the second-level cache is enabled, loads read from
+ * the primary even when a read replica is configured: a row from a lagging
+ * replica would otherwise be cached, and served, until it expires.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+public class LoanCache {
+
+    /**
+     * Number of invalidation generations; a power of two.
+     */
+    private static final int GENERATION_STRIPES = 1024;
+
+    private final boolean enabled;
+    private final boolean loadFromPrimary;
+    private final Cache<Long, LoanSnapshot> snapshots;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public LoanCache(LoanProperties loanProperties, MeterRegistry meterRegistry) {
+        LoanProperties.Cache settings = loanProperties.getCache();
+        this.enabled = settings.isEnabled();
+        this.loadFromPrimary = enabled || loanProperties.getSecondLevelCache().isEnabled();
+
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxEntries())
+                .expireAfterWrite(settings.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "loans");
+    }
+
+    /**
+     * Returns the loan from the cache, loading and caching it on a miss.
+     *
+     * @param loanId the ID of the loan
+     * @param loader loads the loan from the database; may throw if it does not exist
+     * @return a detached copy of the loan that callers are free to modify
+     */
+    public Loan get(Long loanId, Function<Long, Loan> loader) {
+        if (!enabled) {
+            return load(loanId, loader);
+        }
+        LoanSnapshot cached = snapshots.getIfPresent(loanId);
+        if (cached != null) {
+            return cached.toLoan();
+        }
+        long generation = generations.get(stripe(loanId));
+        LoanSnapshot loaded = LoanSnapshot.of(load(loanId, loader));
+        snapshots.asMap().compute(loanId, (id, current) -> {
+            if (generations.get(stripe(id)) != generation) {
+                // Invalidated while loading: the row read may predate the change
+                return current;
+            }
+            // Never let a slower reader replace a newer version cached in the meantime.
+            return current == null || loaded.version() >= current.version() ? loaded : current;
+        });
+        return loaded.toLoan();
+    }
+
+    private Loan load(Long loanId, Function<Long, Loan> loader) {
+        return loadFromPrimary
+                ? ReplicaRoutingDataSource.readFromPrimary(() -> loader.apply(loanId))
+                : loader.apply(loanId);
+    }
+
+    /**
+     * Returns the version of a cached loan without loading it on a miss.
+     *
+     * @param loanId the ID of the loan
+     * @return the cached version, or empty if the loan is not cached or the cache is disabled
+     */
+    public Optional<Integer> version(Long loanId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(snapshots.getIfPresent(loanId)).map(LoanSnapshot::version);
+    }
+
+    /**
+     * Drops a loan from the cache now and again once the surrounding
+     * transaction completes. Loads still running at either point do not
+     * cache what they read, so the pre-commit row is never re-cached.
+     *
+     * @param loanId the ID of the loan that is changing
+     */
+    public void invalidate(Long loanId) {
+        evict(loanId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(loanId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long loanId) {
+        // Bumped first, so a load that caches after the eviction sees it
+        generations.incrementAndGet(stripe(loanId));
+        snapshots.invalidate(loanId);
+    }
+
+    private static int stripe(Long loanId) {
+        return Long.hashCode(loanId) & (GENERATION_STRIPES - 1);
+    }
+
+    /**
+     * Runs pending eviction work; exposed for tests.
+     */
+    void cleanUp() {
+        snapshots.cleanUp();
+    }
+
+    /**
+     * Immutable copy of the persistent state of a loan.
+     */
+    record LoanSnapshot(Long loanId, Money loanAmount, Integer term, LoanStatus status,
+                        Money remainingBalance, LocalDateTime settledAt, Integer version) {
+
+        static LoanSnapshot of(Loan loan) {
+            return new LoanSnapshot(loan.getLoanId(), loan.getLoanAmount(), loan.getTerm(), loan.getStatus(),
+                    loan.getRemainingBalance(), loan.getSettledAt(), loan.getVersion() == null ? 0 : loan.getVersion());
+        }
+
+        Loan toLoan() {
+            return Loan.builder()
+                    .loanId(loanId)
+                    .loanAmount(loanAmount)
+                    .term(term)
+                    .status(status)
+                    .remainingBalance(remainingBalance)
+                    .settledAt(settledAt)
+                    .version(version)
+                    .build();
+        }
+    }
+}
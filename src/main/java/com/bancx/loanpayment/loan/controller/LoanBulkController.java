@@ -0,0 +1,53 @@
+package com.bancx.loanpayment.loan.controller;
+
+import com.bancx.loanpayment.loan.bulk.LoanBulkImporter;
+import com.bancx.loanpayment.loan.rest.LoanBulkResult;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * REST controller for originating loans in bulk, e.g. loan books from partner channels.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@RestController
+@RequestMapping("/loans/bulk")
+@AllArgsConstructor
+@Slf4j
+public class LoanBulkController {
+
+    private LoanBulkImporter loanBulkImporter;
+
+    /**
+     * Endpoint to create many loans from a JSON array of loan requests.
+     * The body is read as a stream, so uploads of any size can be sent.
+     * Rejected rows are reported in the result and do not fail the upload.
+     *
+     * @param body JSON array of LoanRequest objects
+     * @return ResponseEntity with the created loan IDs, the rejected rows and HTTP 200 status
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Create loans in bulk", requestBody = @RequestBody(content = @Content(
+            array = @ArraySchema(schema = @Schema(implementation = LoanRequest.class)))))
+    public ResponseEntity<LoanBulkResult> createLoans(InputStream body) throws IOException {
+        log.info("Received bulk loan upload");
+
+        LoanBulkResult result = loanBulkImporter.importLoans(body);
+
+        log.info("Bulk loan upload created {} of {} loans", result.getCreated(), result.getReceived());
+        return ResponseEntity.ok(result);
+    }
+}
@@ -1,5 +1,6 @@
 package com.bancx.loanpayment.loan.controller;
 
+import com.bancx.loanpayment.config.LoanProperties;
 import com.bancx.loanpayment.loan.entity.Loan;
 import com.bancx.loanpayment.loan.rest.LoanRequest;
 import com.bancx.loanpayment.loan.service.LoanService;
@@ -7,14 +8,22 @@ import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST controller for managing loans.
  * Provides endpoints to create and retrieve loans.
  *
+ * Loans are returned with their @Version as a strong ETag, so clients
+ * polling a loan can send If-None-Match and receive 304 Not Modified
+ * until it changes.
+ *
  * @author Khanyisani Luyanda Ntabeni
  */
 @RestController
@@ -24,6 +33,7 @@ import org.springframework.web.bind.annotation.*;
 public class LoanController {
 
     private LoanService loanService;
+    private LoanProperties loanProperties;
 
     /**
      * Endpoint to create a new loan.
@@ -46,17 +56,58 @@ public class LoanController {
     /**
      * Endpoint to retrieve a loan by its ID.
      *
-     * @param loanId ID of the loan to retrieve
-     * @return ResponseEntity with the Loan entity and HTTP 200 status
+     * When If-None-Match names the loan's current version, only the version
+     * is looked up and 304 is returned without loading or serializing the loan.
+     *
+     * @param loanId  ID of the loan to retrieve
+     * @param headers request headers, for If-None-Match
+     * @return ResponseEntity with the Loan entity, its ETag and HTTP 200 status, or HTTP 304
      */
     @GetMapping("/{loanId}")
     @Operation(summary = "Get loan by ID")
-    public ResponseEntity<Loan> getLoan(@PathVariable Long loanId) {
+    public ResponseEntity<Loan> getLoan(@PathVariable Long loanId, @RequestHeader HttpHeaders headers) {
         log.info("Received request to get loan with ID: {}", loanId);
 
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            String etag = etag(loanService.getLoanVersion(loanId));
+            if (matches(ifNoneMatch, etag)) {
+                log.info("Loan with ID: {} not modified", loanId);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .cacheControl(cacheControl())
+                        .build();
+            }
+        }
+
         Loan loan = loanService.getLoan(loanId);
 
         log.info("Returning loan with ID: {}", loanId);
-        return ResponseEntity.ok(loan);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(cacheControl());
+        if (loan.getVersion() != null) {
+            response.eTag(etag(loan.getVersion()));
+        }
+        return response.body(loan);
+    }
+
+    private CacheControl cacheControl() {
+        LoanProperties.Http http = loanProperties.getHttp();
+        CacheControl cacheControl = http.getMaxAge().isZero()
+                ? CacheControl.noCache()
+                : CacheControl.maxAge(http.getMaxAge());
+        return http.isCachePrivate() ? cacheControl.cachePrivate() : cacheControl;
+    }
+
+    private static String etag(Integer version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * If-None-Match uses weak comparison, so W/"3" also matches "3".
+     */
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        return ifNoneMatch.stream().anyMatch(candidate -> candidate.equals("*")
+                || candidate.equals(etag)
+                || candidate.equals("W/" + etag));
     }
 }
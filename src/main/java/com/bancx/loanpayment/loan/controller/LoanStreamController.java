@@ -0,0 +1,48 @@
+package com.bancx.loanpayment.loan.controller;
+
+import com.bancx.loanpayment.loan.stream.LoanBalanceStream;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * REST controller for watching loan balances over Server-Sent Events,
+ * instead of polling GET /loans/{loanId}.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@RestController
+@RequestMapping("/loans/stream")
+@ConditionalOnProperty(prefix = "loanpayment.loan.stream", name = "enabled", havingValue = "true", matchIfMissing = true)
+@AllArgsConstructor
+@Slf4j
+public class LoanStreamController {
+
+    private LoanBalanceStream loanBalanceStream;
+
+    /**
+     * Endpoint to stream the balances of one or more loans. The current
+     * state of each loan is sent first, then every committed change, as
+     * "balance" events; heartbeat comments are sent while nothing changes.
+     *
+     * The response type is left to the emitter, so that a rejected
+     * subscription is answered with the usual JSON error.
+     *
+     * @param loanIds IDs of the loans to watch
+     * @return the event stream
+     */
+    @GetMapping
+    @Operation(summary = "Stream balance changes of loans as Server-Sent Events")
+    public SseEmitter streamLoans(@RequestParam List<Long> loanIds) {
+        log.info("Received request to stream {} loans", loanIds.size());
+        return loanBalanceStream.subscribe(loanIds);
+    }
+}
@@ -0,0 +1,57 @@
+package com.bancx.loanpayment.loan.controller;
+
+import com.bancx.loanpayment.loan.portfolio.PortfolioAggregates;
+import com.bancx.loanpayment.loan.portfolio.PortfolioSummary;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for the totals of the whole loan book.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@RestController
+@RequestMapping("/loans/portfolio")
+@ConditionalOnProperty(prefix = "loanpayment.loan.portfolio", name = "enabled", havingValue = "true", matchIfMissing = true)
+@AllArgsConstructor
+@Slf4j
+public class PortfolioController {
+
+    private PortfolioAggregates portfolioAggregates;
+
+    /**
+     * Endpoint to retrieve the portfolio totals. They are kept in memory,
+     * so the response never waits for the database.
+     *
+     * @return ResponseEntity with the PortfolioSummary and HTTP 200 status
+     */
+    @GetMapping
+    @Operation(summary = "Get outstanding balance, loan counts and amount disbursed")
+    public ResponseEntity<PortfolioSummary> getPortfolio() {
+        return ResponseEntity.ok(portfolioAggregates.summary());
+    }
+
+    /**
+     * Endpoint to recompute the portfolio totals from the loan and archive
+     * tables. This scans every loan.
+     *
+     * @return ResponseEntity with the rebuilt PortfolioSummary and HTTP 200 status
+     */
+    @PostMapping("/rebuild")
+    @Operation(summary = "Recompute the portfolio totals from the loan tables")
+    public ResponseEntity<PortfolioSummary> rebuildPortfolio() {
+        log.info("Received request to rebuild the portfolio totals");
+
+        PortfolioSummary summary = portfolioAggregates.rebuild();
+
+        log.info("Rebuilt portfolio totals: {} active and {} settled loans", summary.activeLoans(), summary.settledLoans());
+        return ResponseEntity.ok(summary);
+    }
+}
@@ -0,0 +1,68 @@
+package com.bancx.loanpayment.loan.entity;
+
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A settled loan that the archival job has moved to the loan_archive table.
+ * Archived loans are only read, as a fallback when a loan is not found in
+ * the loan table.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Entity
+@Table(name = "loan_archive")
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ArchivedLoan {
+
+    @Id
+    private Long loanId;
+
+    private Money loanAmount;
+
+    private Integer term;
+
+    @Enumerated(EnumType.STRING)
+    private LoanStatus status;
+
+    private Money remainingBalance;
+
+    private LocalDateTime settledAt;
+
+    private Integer version;
+
+    /**
+     * When the loan was moved to the archive.
+     */
+    private LocalDateTime archivedAt;
+
+    /**
+     * Returns a detached {@link Loan} with this loan's state.
+     *
+     * @return a new Loan that callers are free to modify
+     */
+    public Loan toLoan() {
+        return Loan.builder()
+                .loanId(loanId)
+                .loanAmount(loanAmount)
+                .term(term)
+                .status(status)
+                .remainingBalance(remainingBalance)
+                .settledAt(settledAt)
+                .version(version)
+                .build();
+    }
+}
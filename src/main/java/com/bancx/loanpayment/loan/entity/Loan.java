@@ -1,10 +1,13 @@
 package com.bancx.loanpayment.loan.entity;
 
 import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Version;
@@ -13,29 +16,45 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.time.LocalDateTime;
 
 
-import java.math.BigDecimal;
-
 /**
  * Entity representing a Loan record.
+ *
+ * Held in the "loan" region of the Hibernate second-level cache. The
+ * READ_WRITE strategy locks an entry while its row is being updated and
+ * only accepts a replacement with a newer @Version, so a slow reader cannot
+ * put an older loan back over one that was just saved.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Loan.CACHE_REGION)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 public class Loan {
 
+    public static final String CACHE_REGION = "loan";
+
+    /**
+     * Primary key drawn from the loan_seq sequence so inserts can be batched.
+     * IDs are handed out from memory in blocks of 50, one sequence call per block
+     * (pooled-lo optimizer, see hibernate.id.optimizer.pooled.preferred).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "loan_seq")
+    @SequenceGenerator(name = "loan_seq", sequenceName = "loan_seq", allocationSize = 50)
     private Long loanId;
 
     /**
      * Total loan amount issued.
      */
-    private BigDecimal loanAmount;
+    private Money loanAmount;
 
     /**
      * Loan term duration in months.
@@ -52,7 +71,13 @@ public class Loan {
     /**
      * Remaining balance to be paid by borrower.
      */
-    private BigDecimal remainingBalance;
+    private Money remainingBalance;
+
+    /**
+     * When the loan was settled; null while it is ACTIVE. Settled loans are
+     * moved to the archive tables once this is older than the archive age.
+     */
+    private LocalDateTime settledAt;
 
     /**
      * Optimistic locking version column to prevent concurrent update conflicts.
@@ -0,0 +1,75 @@
+package com.bancx.loanpayment.loan.entity;
+
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a SETTLED row of the loan table.
+ *
+ * A settled loan never changes again, so it can be cached with the
+ * READ_ONLY strategy, which needs no locking on reads or writes. Only rows
+ * whose status is SETTLED can be loaded through this mapping; everything
+ * else reads and writes loans through {@link Loan}.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Entity
+@Table(name = "loan")
+@Immutable
+@SQLRestriction("status = 'SETTLED'")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = SettledLoan.CACHE_REGION)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class SettledLoan {
+
+    public static final String CACHE_REGION = "settled-loan";
+
+    @Id
+    private Long loanId;
+
+    private Money loanAmount;
+
+    private Integer term;
+
+    @Enumerated(EnumType.STRING)
+    private LoanStatus status;
+
+    private Money remainingBalance;
+
+    private LocalDateTime settledAt;
+
+    private Integer version;
+
+    /**
+     * Returns a detached {@link Loan} with this loan's state.
+     *
+     * @return a new Loan that callers are free to modify
+     */
+    public Loan toLoan() {
+        return Loan.builder()
+                .loanId(loanId)
+                .loanAmount(loanAmount)
+                .term(term)
+                .status(status)
+                .remainingBalance(remainingBalance)
+                .settledAt(settledAt)
+                .version(version)
+                .build();
+    }
+}
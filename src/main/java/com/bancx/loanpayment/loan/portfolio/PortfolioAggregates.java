@@ -0,0 +1,402 @@
+package com.bancx.loanpayment.loan.portfolio;
+
+import com.bancx.loanpayment.config.LoanProperties;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.util.Money;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Portfolio totals kept up to date as loans are created and paid, so that
+ * reading them never scans the loan table.
+ *
+ * Each change is added to {@link LongAdder} counters once its transaction
+ * commits; a rolled-back or retried payment is therefore counted once. A
+ * summary is the totals last read from the portfolio_summary table plus
+ * what this instance has added since, which is a handful of additions
+ * however large the book is.
+ *
+ * Every checkpoint interval the changes added since the last checkpoint
+ * are added to the table's single row in one UPDATE, and the row is read
+ * back, picking up the changes of other instances. {@link #rebuild()}
+ * replaces the row with totals computed from the loan and archive tables,
+ * e.g. after loans were changed outside the application, and bumps the
+ * row's generation. A checkpoint only adds to the generation it last read;
+ * an instance that finds a newer one drops the changes it counted before,
+ * as the rebuild's scan already holds those that had committed.
+ *
+ * A rebuild reads this instance's counters at a moment none of its
+ * transactions is committing, once before and once after the scan, and
+ * scans again if they moved in between, as it cannot tell whether the
+ * scan saw those changes. Commits are only held up while the counters are
+ * read, never for the scan. Changes another instance commits after the
+ * scan started, and before its next checkpoint reads the new generation,
+ * are dropped with the rest and missing until the next rebuild, so
+ * rebuild while the book is quiet.
+ *
+ * Counting is a no-op unless {@code loanpayment.loan.portfolio.enabled}
+ * is set.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+@Slf4j
+public class PortfolioAggregates {
+
+    private static final String SELECT = "SELECT total_outstanding, total_disbursed, active_loans, settled_loans, "
+            + "checkpointed_at, generation FROM portfolio_summary WHERE summary_id = 1";
+
+    private static final String ADD = "UPDATE portfolio_summary SET total_outstanding = total_outstanding + ?, "
+            + "total_disbursed = total_disbursed + ?, active_loans = active_loans + ?, "
+            + "settled_loans = settled_loans + ?, checkpointed_at = ? WHERE summary_id = 1 AND generation = ?";
+
+    private static final String SCAN = "SELECT "
+            + "COALESCE(SUM(CASE WHEN status = 'ACTIVE' THEN remaining_balance ELSE 0 END), 0) AS total_outstanding, "
+            + "COALESCE(SUM(loan_amount), 0) AS total_disbursed, "
+            + "COUNT(CASE WHEN status = 'ACTIVE' THEN 1 END) AS active_loans, "
+            + "COUNT(CASE WHEN status = 'SETTLED' THEN 1 END) AS settled_loans, "
+            + "CAST(NULL AS TIMESTAMP) AS checkpointed_at, 0 AS generation "
+            + "FROM (SELECT loan_amount, remaining_balance, status FROM loan "
+            + "UNION ALL SELECT loan_amount, remaining_balance, status FROM loan_archive) loans";
+
+    private static final String REPLACE = "UPDATE portfolio_summary SET total_outstanding = ?, total_disbursed = ?, "
+            + "active_loans = ?, settled_loans = ?, checkpointed_at = ?, generation = generation + 1 "
+            + "WHERE summary_id = 1 AND generation = ?";
+
+    private static final String INSERT = "INSERT INTO portfolio_summary (total_outstanding, total_disbursed, "
+            + "active_loans, settled_loans, checkpointed_at, summary_id, generation) VALUES (?, ?, ?, ?, ?, 1, 0)";
+
+    private static final String GENERATION = "SELECT generation FROM portfolio_summary WHERE summary_id = 1";
+
+    private static final RowMapper<Checkpoint> ROW = (rs, rowNum) -> new Checkpoint(
+            new Totals(Money.of(rs.getBigDecimal("total_outstanding")).minorUnits(),
+                    Money.of(rs.getBigDecimal("total_disbursed")).minorUnits(),
+                    rs.getLong("active_loans"),
+                    rs.getLong("settled_loans")),
+            null,
+            rs.getObject("checkpointed_at", LocalDateTime.class),
+            rs.getLong("generation"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    /**
+     * Amounts in minor units.
+     */
+    private final LongAdder outstanding = new LongAdder();
+    private final LongAdder disbursed = new LongAdder();
+    private final LongAdder active = new LongAdder();
+    private final LongAdder settled = new LongAdder();
+
+    /**
+     * How long a rebuild waits for the transactions that are committing.
+     */
+    private static final long COMMIT_WAIT_SECONDS = 10;
+
+    /**
+     * Scans a rebuild makes before giving up on finding a quiet moment.
+     */
+    private static final int MAX_SCANS = 3;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Held shared by committing transactions, and exclusively by a rebuild
+     * while it reads the counters.
+     */
+    private final ReentrantReadWriteLock commits = new ReentrantReadWriteLock();
+
+    private volatile Checkpoint checkpoint = new Checkpoint(Totals.ZERO, Totals.ZERO, null, 0);
+
+    public PortfolioAggregates(JdbcTemplate jdbcTemplate, LoanProperties loanProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = loanProperties.getPortfolio().isEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Counts newly created loans once the current transaction commits.
+     *
+     * @param loans the loans, with their amounts set
+     */
+    public void loansCreated(Collection<Loan> loans) {
+        if (!enabled || loans.isEmpty()) {
+            return;
+        }
+        long amount = 0;
+        for (Loan loan : loans) {
+            amount += loan.getLoanAmount().minorUnits();
+        }
+        long total = amount;
+        int count = loans.size();
+        afterCommit(() -> {
+            disbursed.add(total);
+            outstanding.add(total);
+            active.add(count);
+        });
+    }
+
+    /**
+     * Counts applied payments once the current transaction commits.
+     *
+     * @param amount      the sum of the payments
+     * @param loansSettled how many loans the payments settled
+     */
+    public void paymentsApplied(Money amount, int loansSettled) {
+        if (!enabled || (amount.isZero() && loansSettled == 0)) {
+            return;
+        }
+        afterCommit(() -> {
+            outstanding.add(-amount.minorUnits());
+            active.add(-loansSettled);
+            settled.add(loansSettled);
+        });
+    }
+
+    /**
+     * @return the current totals, without touching the database
+     */
+    public PortfolioSummary summary() {
+        Checkpoint last = checkpoint;
+        Totals totals = last.stored().plus(counted().minus(last.counted()));
+        return new PortfolioSummary(Money.ofMinor(totals.outstanding()), Money.ofMinor(totals.disbursed()),
+                totals.active(), totals.settled(), last.at());
+    }
+
+    /**
+     * Reads the checkpoint once the application, and with it the schema,
+     * is ready. Rebuilds it if the row is missing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            List<Checkpoint> rows = jdbcTemplate.query(SELECT, ROW);
+            if (rows.isEmpty()) {
+                rebuild();
+                return;
+            }
+            checkpoint = rows.get(0).counting(counted());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the changes counted since the last checkpoint to the checkpoint
+     * row and reads the row back. Drops the changes instead if the row was
+     * rebuilt since it was last read, and rebuilds it if it is missing.
+     */
+    @Scheduled(fixedDelayString = "${loanpayment.loan.portfolio.checkpoint-interval:PT1M}")
+    public void checkpoint() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            Checkpoint last = checkpoint;
+            Totals counted = counted();
+            Totals delta = counted.minus(last.counted());
+            LocalDateTime now = LocalDateTime.now();
+            boolean added = true;
+            if (!delta.equals(Totals.ZERO)) {
+                added = jdbcTemplate.update(ADD, Money.ofMinor(delta.outstanding()).toBigDecimal(),
+                        Money.ofMinor(delta.disbursed()).toBigDecimal(), delta.active(), delta.settled(), now,
+                        last.generation()) == 1;
+                if (added) {
+                    // Recorded at once, so a failed read below never adds the same changes twice
+                    checkpoint = new Checkpoint(last.stored().plus(delta), counted, now, last.generation());
+                }
+            }
+            List<Checkpoint> rows = jdbcTemplate.query(SELECT, ROW);
+            if (rows.isEmpty()) {
+                if (!added) {
+                    rebuild();
+                }
+                return;
+            }
+            if (rows.get(0).generation() != last.generation()) {
+                log.info("Portfolio totals were rebuilt elsewhere; dropping the changes counted before the rebuild");
+            }
+            checkpoint = rows.get(0).counting(counted);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Recomputes the totals from the loan and archive tables, replaces the
+     * checkpoint with them and bumps its generation.
+     *
+     * The counters are read while no transaction of this instance is
+     * committing, before and after the scan, and every change reaches the
+     * counters before its transaction lets go of the commit lock. If they
+     * are the same both times no change of this instance committed during
+     * the scan, so each one is either in the scan or counted after it;
+     * otherwise, or if the row was rebuilt elsewhere meanwhile, it scans
+     * again. Every change moves at least one counter, and only one way.
+     *
+     * @return the rebuilt totals
+     * @throws IllegalStateException if commits did not pause within {@value #COMMIT_WAIT_SECONDS} seconds,
+     *                               or no scan out of {@value #MAX_SCANS} was free of changes
+     */
+    public PortfolioSummary rebuild() {
+        if (!enabled) {
+            throw new IllegalStateException("Portfolio aggregates are disabled");
+        }
+        lock.lock();
+        try {
+            for (int scan = 1; scan <= MAX_SCANS; scan++) {
+                Totals before = countedBetweenCommits();
+                List<Long> generation = jdbcTemplate.queryForList(GENERATION, Long.class);
+                Totals scanned = jdbcTemplate.queryForObject(SCAN, ROW).stored();
+                if (!countedBetweenCommits().equals(before)) {
+                    log.info("Portfolio changed during rebuild scan {} of {}", scan, MAX_SCANS);
+                    continue;
+                }
+                LocalDateTime now = LocalDateTime.now();
+                BigDecimal outstanding = Money.ofMinor(scanned.outstanding()).toBigDecimal();
+                BigDecimal disbursed = Money.ofMinor(scanned.disbursed()).toBigDecimal();
+                if (generation.isEmpty()) {
+                    jdbcTemplate.update(INSERT, outstanding, disbursed, scanned.active(), scanned.settled(), now);
+                } else if (jdbcTemplate.update(REPLACE, outstanding, disbursed, scanned.active(), scanned.settled(),
+                        now, generation.get(0)) == 0) {
+                    log.info("Portfolio totals were rebuilt elsewhere during rebuild scan {} of {}", scan, MAX_SCANS);
+                    continue;
+                }
+                long rebuilt = generation.isEmpty() ? 0 : generation.get(0) + 1;
+                checkpoint = new Checkpoint(scanned, before, now, rebuilt);
+                return summary();
+            }
+            throw new IllegalStateException(
+                    "Portfolio kept changing during the rebuild scan; retry when the load is lower");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the counters at a moment no transaction of this instance is
+     * between its commit and counting its change.
+     */
+    private Totals countedBetweenCommits() {
+        if (!pauseCommits()) {
+            throw new IllegalStateException(
+                    "Portfolio rebuild could not pause payments; retry when the load is lower");
+        }
+        try {
+            return counted();
+        } finally {
+            commits.writeLock().unlock();
+        }
+    }
+
+    private boolean pauseCommits() {
+        try {
+            return commits.writeLock().tryLock(COMMIT_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Totals counted() {
+        return new Totals(outstanding.sum(), disbursed.sum(), active.sum(), settled.sum());
+    }
+
+    /**
+     * Runs a change once the current transaction commits. The commit lock
+     * is held shared from just before the commit until the change has run,
+     * so a rebuild never reads the counters while a committed change is
+     * not yet counted.
+     *
+     * The shared lock barges past a rebuild waiting for it, and only waits
+     * while a rebuild holds it to read the counters, when no transaction is
+     * committing. A
+     * transaction waiting for it may hold row locks, so it must never wait
+     * for one that another committing transaction needs.
+     */
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private boolean locked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (!commits.readLock().tryLock()) {
+                    commits.readLock().lock();
+                }
+                locked = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (locked) {
+                    locked = false;
+                    commits.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Totals, or changes to them, with amounts in minor units.
+     */
+    private record Totals(long outstanding, long disbursed, long active, long settled) {
+
+        static final Totals ZERO = new Totals(0, 0, 0, 0);
+
+        Totals plus(Totals other) {
+            return new Totals(outstanding + other.outstanding, disbursed + other.disbursed,
+                    active + other.active, settled + other.settled);
+        }
+
+        Totals minus(Totals other) {
+            return new Totals(outstanding - other.outstanding, disbursed - other.disbursed,
+                    active - other.active, settled - other.settled);
+        }
+    }
+
+    /**
+     * The totals last read from or written to the checkpoint row, the
+     * counters as they were when those totals included them, and the row's
+     * generation.
+     */
+    private record Checkpoint(Totals stored, Totals counted, LocalDateTime at, long generation) {
+
+        Checkpoint counting(Totals counted) {
+            return new Checkpoint(stored, counted, at, generation);
+        }
+    }
+}
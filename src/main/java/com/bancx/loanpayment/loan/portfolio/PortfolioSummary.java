@@ -0,0 +1,20 @@
+package com.bancx.loanpayment.loan.portfolio;
+
+import com.bancx.loanpayment.util.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Totals over every loan ever originated, including archived loans.
+ *
+ * @param totalOutstanding the remaining balances of all ACTIVE loans
+ * @param totalDisbursed   the amounts of all loans
+ * @param activeLoans      the number of ACTIVE loans
+ * @param settledLoans     the number of SETTLED loans
+ * @param checkpointedAt   when the totals were last read back from the checkpoint table; changes made
+ *                         since then by this instance are included, those of other instances are not
+ * @author Khanyisani Luyanda Ntabeni
+ */
+public record PortfolioSummary(Money totalOutstanding, Money totalDisbursed, long activeLoans, long settledLoans,
+                               LocalDateTime checkpointedAt) {
+}
@@ -0,0 +1,91 @@
+package com.bancx.loanpayment.loan.repoaitory;
+
+import com.bancx.loanpayment.loan.entity.ArchivedLoan;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for archived loans, and the statements that move settled
+ * loans and their payments from the hot tables to the archive tables.
+ *
+ * The moving statements are native SQL. Each declares a query space that
+ * matches no entity, so Hibernate does not empty the second-level cache
+ * after them; callers evict the moved loans with
+ * {@link LoanRepository#evictLoan(Long)}.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Repository
+public interface LoanArchiveRepository extends JpaRepository<ArchivedLoan, Long> {
+
+    /**
+     * Reads only the version of an archived loan.
+     *
+     * @param loanId the ID of the loan
+     * @return the loan's version, or empty if the loan is not archived
+     */
+    @Query("SELECT l.version FROM ArchivedLoan l WHERE l.loanId = :loanId")
+    Optional<Integer> findVersionById(@Param("loanId") Long loanId);
+
+    /**
+     * Locks the oldest-ID loans settled before the cutoff, until the end of
+     * the transaction, so that concurrent archival runs never move the same
+     * loan twice.
+     *
+     * @param settledBefore only loans settled before this time are returned
+     * @param limit         the maximum number of loans to return
+     * @return the IDs of the locked loans
+     */
+    @Query(value = "SELECT loan_id FROM loan WHERE status = 'SETTLED' AND settled_at < :settledBefore "
+            + "ORDER BY loan_id LIMIT :limit FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockSettledBefore(@Param("settledBefore") LocalDateTime settledBefore, @Param("limit") int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "loan_archive"))
+    @Query(value = "INSERT INTO loan_archive (loan_id, loan_amount, term, status, remaining_balance, version, "
+            + "settled_at, archived_at) "
+            + "SELECT loan_id, loan_amount, term, status, remaining_balance, version, settled_at, LOCALTIMESTAMP "
+            + "FROM loan WHERE loan_id IN (:loanIds)",
+            nativeQuery = true)
+    int copyLoans(@Param("loanIds") Collection<Long> loanIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "loan_archive"))
+    @Query(value = "INSERT INTO payment_archive (payment_id, loan_id, payment_amount, timestamp) "
+            + "SELECT payment_id, loan_id, payment_amount, timestamp FROM payment WHERE loan_id IN (:loanIds)",
+            nativeQuery = true)
+    int copyPayments(@Param("loanIds") Collection<Long> loanIds);
+
+    /**
+     * Removes the idempotency keys that refer to payments of the given loans,
+     * which would otherwise keep those payments from being deleted.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "loan_archive"))
+    @Query(value = "DELETE FROM payment_idempotency WHERE payment_id IN "
+            + "(SELECT payment_id FROM payment WHERE loan_id IN (:loanIds))",
+            nativeQuery = true)
+    int deleteIdempotencyKeys(@Param("loanIds") Collection<Long> loanIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "loan_archive"))
+    @Query(value = "DELETE FROM payment WHERE loan_id IN (:loanIds)", nativeQuery = true)
+    int deletePayments(@Param("loanIds") Collection<Long> loanIds);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "loan_archive"))
+    @Query(value = "DELETE FROM loan WHERE loan_id IN (:loanIds)", nativeQuery = true)
+    int deleteLoans(@Param("loanIds") Collection<Long> loanIds);
+}
@@ -0,0 +1,43 @@
+package com.bancx.loanpayment.loan.repoaitory;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Loan lookups by ID that are served from the Hibernate second-level cache
+ * when it holds the loans. Mixed into {@link LoanRepository}.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+public interface LoanLookup {
+
+    /**
+     * Looks up a loan by ID. When read-only caching of settled loans is
+     * enabled and the loan is SETTLED, the returned loan is a detached copy.
+     *
+     * @param loanId the ID of the loan
+     * @return the loan, or empty if it does not exist
+     */
+    Optional<Loan> findLoan(Long loanId);
+
+    /**
+     * Looks up several loans by ID, taking cached loans from the
+     * second-level cache and loading the rest with one query.
+     *
+     * @param loanIds the IDs of the loans
+     * @return the loans that were found, as managed entities
+     */
+    List<Loan> findLoans(Collection<Long> loanIds);
+
+    /**
+     * Drops a loan from the second-level cache now and again once the
+     * surrounding transaction completes. Needed after changing or removing
+     * the loan row with native SQL, which Hibernate cannot track per entity.
+     *
+     * @param loanId the ID of the loan that is changing
+     */
+    void evictLoan(Long loanId);
+}
@@ -0,0 +1,90 @@
+package com.bancx.loanpayment.loan.repoaitory;
+
+import com.bancx.loanpayment.config.LoanProperties;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.entity.SettledLoan;
+import com.bancx.loanpayment.util.LoanStatus;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Second-level cache aware implementation of {@link LoanLookup}.
+ *
+ * With read-only caching of settled loans enabled, a loan found to be
+ * SETTLED is moved from the "loan" region to the "settled-loan" region, and
+ * later lookups check that region first. Settled is a final status, so
+ * those entries are never invalidated and are read without the locking the
+ * READ_WRITE "loan" region needs.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+class LoanLookupImpl implements LoanLookup {
+
+    private final EntityManager entityManager;
+    private final boolean settledReadOnly;
+
+    LoanLookupImpl(EntityManager entityManager, LoanProperties loanProperties) {
+        this.entityManager = entityManager;
+        LoanProperties.SecondLevelCache settings = loanProperties.getSecondLevelCache();
+        this.settledReadOnly = settings.isEnabled() && settings.getSettled().isReadOnly();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Loan> findLoan(Long loanId) {
+        if (settledReadOnly && cache().contains(SettledLoan.class, loanId)) {
+            SettledLoan settled = entityManager.find(SettledLoan.class, loanId);
+            if (settled != null) {
+                return Optional.of(settled.toLoan());
+            }
+        }
+        Loan loan = entityManager.find(Loan.class, loanId);
+        if (loan != null && settledReadOnly && loan.getStatus() == LoanStatus.SETTLED) {
+            // Loads the loan into the read-only region
+            entityManager.find(SettledLoan.class, loanId);
+            cache().evict(Loan.class, loanId);
+        }
+        return Optional.ofNullable(loan);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Loan> findLoans(Collection<Long> loanIds) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Loan.class)
+                .multiLoad(List.copyOf(new LinkedHashSet<>(loanIds)))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public void evictLoan(Long loanId) {
+        Cache cache = cache();
+        cache.evict(Loan.class, loanId);
+        cache.evict(SettledLoan.class, loanId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(Loan.class, loanId);
+                    cache.evict(SettledLoan.class, loanId);
+                }
+            });
+        }
+    }
+
+    private Cache cache() {
+        return entityManager.getEntityManagerFactory().getCache();
+    }
+}
@@ -1,18 +1,89 @@
 package com.bancx.loanpayment.loan.repoaitory;
 
 import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.stream.LoanBalanceUpdate;
+import com.bancx.loanpayment.util.LoanStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository interface for managing Loan entities.
  * Extends JpaRepository to provide CRUD operations and
  * JPA data access methods for Loan entities.
  *
  * Spring will automatically create an implementation
- * at runtime.
+ * at runtime; lookups by ID through the second-level cache
+ * come from {@link LoanLookup}.
  *
  * @author Khanyisani Luyanda Ntabeni
  */
 @Repository
-public interface LoanRepository extends JpaRepository<Loan, Long> {}
+public interface LoanRepository extends JpaRepository<Loan, Long>, LoanLookup {
+
+    /**
+     * Reads only the version of a loan, for conditional GETs that can be
+     * answered without loading the entity.
+     *
+     * @param loanId the ID of the loan
+     * @return the loan's version, or empty if the loan does not exist
+     */
+    @Query("SELECT l.version FROM Loan l WHERE l.loanId = :loanId")
+    Optional<Integer> findVersionById(@Param("loanId") Long loanId);
+
+    /**
+     * Reads only the status of a loan, from the table rather than a cache.
+     *
+     * @param loanId the ID of the loan
+     * @return the loan's status, or empty if the loan does not exist
+     */
+    @Query("SELECT l.status FROM Loan l WHERE l.loanId = :loanId")
+    Optional<LoanStatus> findStatusById(@Param("loanId") Long loanId);
+
+    /**
+     * Reads the balance, status and version of several loans with one query
+     * that bypasses both caches, for pushing changes to stream subscribers
+     * right after they commit.
+     *
+     * @param loanIds the IDs of the loans
+     * @return the states of the loans that exist, in no particular order
+     */
+    @Query("SELECT new com.bancx.loanpayment.loan.stream.LoanBalanceUpdate(l.loanId, l.remainingBalance, "
+            + "l.status, l.settledAt, l.version) FROM Loan l WHERE l.loanId IN :loanIds")
+    List<LoanBalanceUpdate> findBalances(@Param("loanIds") Collection<Long> loanIds);
+
+    /**
+     * Decrements the remaining balance of an ACTIVE loan in a single
+     * conditional UPDATE, marking it SETTLED when the balance reaches zero.
+     * The row is only touched when the balance covers the amount, so no
+     * prior read of the loan is needed.
+     *
+     * Hibernate cannot tell which entities a native UPDATE touches and would
+     * empty every second-level cache region; the declared query space matches
+     * no entity, so nothing is evicted and the caller evicts the one loan with
+     * {@link #evictLoan(Long)} instead.
+     *
+     * @param loanId the ID of the loan to debit
+     * @param amount the amount to subtract from the remaining balance
+     * @return 1 if the balance was debited, 0 if the guard did not match
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "loan_balance_debit"))
+    @Query(value = "UPDATE loan SET remaining_balance = remaining_balance - :amount, "
+            + "status = CASE WHEN remaining_balance = :amount THEN 'SETTLED' ELSE status END, "
+            + "settled_at = CASE WHEN remaining_balance = :amount THEN LOCALTIMESTAMP ELSE settled_at END, "
+            + "version = version + 1 "
+            + "WHERE loan_id = :loanId AND remaining_balance >= :amount AND status = 'ACTIVE'",
+            nativeQuery = true)
+    int debitBalance(@Param("loanId") Long loanId, @Param("amount") BigDecimal amount);
+}
@@ -0,0 +1,60 @@
+package com.bancx.loanpayment.loan.rest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO describing the outcome of a bulk loan upload.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class LoanBulkResult {
+
+    /**
+     * Number of loans read from the upload.
+     */
+    private int received;
+
+    /**
+     * Number of loans created.
+     */
+    private int created;
+
+    /**
+     * The ID of the loan created for each row, in upload order;
+     * null for rows that were rejected.
+     */
+    private List<Long> loanIds;
+
+    /**
+     * The rows that were rejected and why.
+     */
+    private List<Failure> failures;
+
+    /**
+     * A rejected row of the upload.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Failure {
+
+        /**
+         * Zero-based position of the row in the uploaded array.
+         */
+        private int index;
+
+        /**
+         * The reason the row was rejected.
+         */
+        private String message;
+    }
+}
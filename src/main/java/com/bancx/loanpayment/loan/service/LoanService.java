@@ -3,6 +3,12 @@ package com.bancx.loanpayment.loan.service;
 import com.bancx.loanpayment.exception.LoanNotFoundException;
 import com.bancx.loanpayment.loan.entity.Loan;
 import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Service for managing Loan entities including creation,
@@ -19,7 +25,15 @@ public interface LoanService {
     public Loan createLoan(LoanRequest loan);
 
     /**
-     * Retrieves a loan by its ID.
+     * Creates several loans in one transaction, inserted as JDBC batches.
+     *
+     * @param loans The loans to be saved.
+     * @return The saved Loan entities with IDs, in the same order as the input.
+     */
+    public List<Loan> createLoans(List<LoanRequest> loans);
+
+    /**
+     * Retrieves a loan by its ID, from the archive if it has been archived.
      *
      * @param loanId The ID of the loan.
      * @return The Loan entity.
@@ -27,10 +41,67 @@ public interface LoanService {
      */
     public Loan getLoan(Long loanId);
 
+    /**
+     * Returns the current version of a loan without loading the whole loan,
+     * from the archive if it has been archived.
+     *
+     * @param loanId The ID of the loan.
+     * @return The loan's version.
+     * @throws LoanNotFoundException if the loan doesn't exist.
+     */
+    public Integer getLoanVersion(Long loanId);
+
+    /**
+     * Reads the status of a loan in the loan table, bypassing the caches,
+     * e.g. to see whether a debit in the current transaction settled it.
+     *
+     * @param loanId The ID of the loan.
+     * @return The loan's status.
+     * @throws LoanNotFoundException if the loan is not in the loan table.
+     */
+    public LoanStatus getLoanStatus(Long loanId);
+
+    /**
+     * Retrieves all loans with the given IDs in a single query.
+     * IDs that do not exist are silently skipped.
+     *
+     * @param loanIds The IDs of the loans.
+     * @return The Loan entities that were found, in no particular order.
+     */
+    public List<Loan> getLoans(Collection<Long> loanIds);
+
     /**
      * Updates an existing loan, e.g., when balance or status changes.
      *
      * @param loan The loan to update.
      */
     public void updateLoan(Loan loan);
+
+    /**
+     * Updates several existing loans so their changes can be flushed together.
+     *
+     * @param loans The loans to update.
+     */
+    public void updateLoans(Collection<Loan> loans);
+
+    /**
+     * Atomically subtracts an amount from an ACTIVE loan's remaining balance,
+     * settling the loan if the balance reaches zero.
+     *
+     * @param loanId The ID of the loan to debit.
+     * @param amount The amount to subtract.
+     * @return true if the loan was debited, false if it is missing, settled,
+     *         or its balance does not cover the amount.
+     */
+    public boolean debitBalance(Long loanId, Money amount);
+
+    /**
+     * Moves up to the given number of loans settled before a cutoff, with
+     * their payments, to the archive tables in one transaction.
+     *
+     * @param settledBefore Only loans settled before this time are moved.
+     * @param maxLoans The maximum number of loans to move.
+     * @return The number of loans moved.
+     */
+    public int archiveSettledLoans(LocalDateTime settledBefore, int maxLoans);
 }
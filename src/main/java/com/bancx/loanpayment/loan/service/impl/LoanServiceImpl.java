@@ -1,15 +1,27 @@
 package com.bancx.loanpayment.loan.service.impl;
 
 import com.bancx.loanpayment.exception.LoanNotFoundException;
+import com.bancx.loanpayment.loan.cache.LoanCache;
+import com.bancx.loanpayment.loan.entity.ArchivedLoan;
 import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.portfolio.PortfolioAggregates;
+import com.bancx.loanpayment.loan.repoaitory.LoanArchiveRepository;
 import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
 import com.bancx.loanpayment.loan.rest.LoanRequest;
 import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.loan.stream.LoanBalanceChanged;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Service for managing Loan entities including creation,
  * retrieval, and updates such as balance adjustment and status change.
@@ -21,21 +33,50 @@ import org.springframework.stereotype.Service;
 public class LoanServiceImpl implements LoanService {
 
     private LoanRepository loanRepository;
+    private LoanCache loanCache;
+    private LoanArchiveRepository loanArchiveRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private PortfolioAggregates portfolioAggregates;
 
     /**
-     * Creates a new loan in the database.
+     * Creates a new loan in the database and counts it into the portfolio
+     * totals once the transaction commits.
      *
      * @param request The loan entity to be saved.
      * @return The saved Loan entity with ID.
+     * @throws IllegalArgumentException if the amount has more than two decimal places.
      */
     @Transactional
     public Loan createLoan(LoanRequest request) {
-        return loanRepository.save(Loan.builder().loanAmount(request.getLoanAmount()).
+        Loan loan = loanRepository.save(Loan.builder().loanAmount(Money.of(request.getLoanAmount())).
                 term(request.getTerm()).build());
+        portfolioAggregates.loansCreated(List.of(loan));
+        return loan;
+    }
+
+    /**
+     * Creates several loans in one transaction. IDs come from the pooled
+     * loan_seq sequence, so Hibernate can group the INSERTs into JDBC
+     * batches on flush; remaining balances are set by {@link Loan#prePersist()}.
+     *
+     * @param requests The loans to be saved.
+     * @return The saved Loan entities with IDs, in the same order as the input.
+     * @throws IllegalArgumentException if an amount has more than two decimal places.
+     */
+    @Transactional
+    public List<Loan> createLoans(List<LoanRequest> requests) {
+        List<Loan> loans = loanRepository.saveAll(requests.stream()
+                .map(request -> Loan.builder().loanAmount(Money.of(request.getLoanAmount()))
+                        .term(request.getTerm()).build())
+                .toList());
+        portfolioAggregates.loansCreated(loans);
+        return loans;
     }
 
     /**
-     * Retrieves a loan by its ID.
+     * Retrieves a loan by its ID, served from the loan cache when possible.
+     * The returned loan is a detached copy carrying the cached version.
+     * Loans not in the loan table are looked up in the archive.
      *
      * @param loanId The ID of the loan.
      * @return The Loan entity.
@@ -43,18 +84,125 @@ public class LoanServiceImpl implements LoanService {
      */
 
     public Loan getLoan(Long loanId) {
-        return loanRepository.findById(loanId)
+        return loanCache.get(loanId, id -> loanRepository.findLoan(id)
+                .or(() -> loanArchiveRepository.findById(id).map(ArchivedLoan::toLoan))
+                .orElseThrow(() -> new LoanNotFoundException("Loan ID " + id + " not found")));
+    }
+
+    /**
+     * Returns the current version of a loan, from the loan cache when it
+     * holds the loan and otherwise with a query that reads only the version,
+     * against the loan table and then the archive.
+     *
+     * @param loanId The ID of the loan.
+     * @return The loan's version.
+     * @throws LoanNotFoundException if the loan doesn't exist.
+     */
+
+    public Integer getLoanVersion(Long loanId) {
+        return loanCache.version(loanId).orElseGet(() -> loanRepository.findVersionById(loanId)
+                .or(() -> loanArchiveRepository.findVersionById(loanId))
+                .orElseThrow(() -> new LoanNotFoundException("Loan ID " + loanId + " not found")));
+    }
+
+    /**
+     * Reads the status of a loan in the loan table, bypassing the caches.
+     *
+     * @param loanId The ID of the loan.
+     * @return The loan's status.
+     * @throws LoanNotFoundException if the loan is not in the loan table.
+     */
+
+    public LoanStatus getLoanStatus(Long loanId) {
+        return loanRepository.findStatusById(loanId)
                 .orElseThrow(() -> new LoanNotFoundException("Loan ID " + loanId + " not found"));
     }
 
+    /**
+     * Retrieves all loans with the given IDs, taking those held by the
+     * second-level cache from it and the rest in a single query.
+     *
+     * @param loanIds The IDs of the loans.
+     * @return The Loan entities that were found.
+     */
+
+    public List<Loan> getLoans(Collection<Long> loanIds) {
+        return loanRepository.findLoans(loanIds);
+    }
+
     /**
      * Updates an existing loan, e.g., when balance or status changes.
+     * Every update method publishes a {@link LoanBalanceChanged} per loan,
+     * which balance streams act on once the transaction commits.
      *
      * @param loan The loan to update.
      */
 
     @Transactional
     public void updateLoan(Loan loan) {
+        loanCache.invalidate(loan.getLoanId());
         loanRepository.save(loan);
+        eventPublisher.publishEvent(new LoanBalanceChanged(loan.getLoanId()));
+    }
+
+    /**
+     * Updates several existing loans; Hibernate groups the resulting
+     * UPDATE statements into JDBC batches on flush.
+     *
+     * @param loans The loans to update.
+     */
+
+    @Transactional
+    public void updateLoans(Collection<Loan> loans) {
+        loans.forEach(loan -> loanCache.invalidate(loan.getLoanId()));
+        loanRepository.saveAll(loans);
+        loans.forEach(loan -> eventPublisher.publishEvent(new LoanBalanceChanged(loan.getLoanId())));
+    }
+
+    /**
+     * Atomically subtracts an amount from an ACTIVE loan's remaining balance
+     * using a single conditional UPDATE.
+     *
+     * @param loanId The ID of the loan to debit.
+     * @param amount The amount to subtract.
+     * @return true if exactly one row was updated.
+     */
+
+    @Transactional
+    public boolean debitBalance(Long loanId, Money amount) {
+        loanCache.invalidate(loanId);
+        loanRepository.evictLoan(loanId);
+        if (loanRepository.debitBalance(loanId, amount.toBigDecimal()) != 1) {
+            return false;
+        }
+        eventPublisher.publishEvent(new LoanBalanceChanged(loanId));
+        return true;
+    }
+
+    /**
+     * Moves one chunk of settled loans and their payments to the archive
+     * tables. The loans are locked first, so a concurrent run on another
+     * instance skips past them or waits; the whole chunk commits or rolls
+     * back together, so an interrupted run leaves every loan either fully
+     * archived or untouched.
+     *
+     * @param settledBefore Only loans settled before this time are moved.
+     * @param maxLoans The maximum number of loans to move.
+     * @return The number of loans moved.
+     */
+
+    @Transactional
+    public int archiveSettledLoans(LocalDateTime settledBefore, int maxLoans) {
+        List<Long> loanIds = loanArchiveRepository.lockSettledBefore(settledBefore, maxLoans);
+        if (loanIds.isEmpty()) {
+            return 0;
+        }
+        loanArchiveRepository.copyLoans(loanIds);
+        loanArchiveRepository.copyPayments(loanIds);
+        loanArchiveRepository.deleteIdempotencyKeys(loanIds);
+        loanArchiveRepository.deletePayments(loanIds);
+        loanArchiveRepository.deleteLoans(loanIds);
+        loanIds.forEach(loanRepository::evictLoan);
+        return loanIds.size();
     }
 }
@@ -0,0 +1,12 @@
+package com.bancx.loanpayment.loan.stream;
+
+/**
+ * Published when a write changes a loan's balance or status. Subscribers
+ * of the {@link LoanBalanceStream} are sent the loan's new state once the
+ * writing transaction has committed.
+ *
+ * @param loanId the ID of the loan
+ * @author Khanyisani Luyanda Ntabeni
+ */
+public record LoanBalanceChanged(Long loanId) {
+}
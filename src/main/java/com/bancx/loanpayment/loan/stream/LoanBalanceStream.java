@@ -0,0 +1,255 @@
+package com.bancx.loanpayment.loan.stream;
+
+import com.bancx.loanpayment.config.LoanProperties;
+import com.bancx.loanpayment.config.datasource.ReplicaRoutingDataSource;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.loan.service.LoanService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes balance changes of loans to the clients subscribed to them over
+ * Server-Sent Events.
+ *
+ * An open stream holds no thread: the request thread returns as soon as the
+ * {@link SseEmitter} is registered, and the connection stays with the
+ * container until there is something to write. When a transaction that
+ * changed a watched loan commits, the loan is marked as changed and one
+ * "loan-stream" thread reads the current state of every marked loan in one
+ * query, from the primary so a lagging replica never sends an old balance.
+ * A burst of payments to the same loan is therefore read once. The states
+ * are queued in each subscriber's bounded buffer and written out on a
+ * virtual thread per subscriber, so a slow client only ever delays itself.
+ * Changes to loans nobody watches cost a map lookup.
+ *
+ * The same thread sends a heartbeat comment to every subscriber that was
+ * sent nothing for a heartbeat interval, which keeps proxies from closing
+ * idle connections and lets the stream notice clients that went away.
+ *
+ * Subscriptions are local to the instance; a change made by another
+ * instance is not pushed.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+@ConditionalOnProperty(prefix = "loanpayment.loan.stream", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class LoanBalanceStream {
+
+    /**
+     * Upper bound on the loan IDs read per query.
+     */
+    private static final int READ_CHUNK = 500;
+
+    private final LoanRepository loanRepository;
+    private final LoanService loanService;
+    private final LoanProperties.Stream settings;
+    private final Map<Long, Set<LoanStreamSubscriber>> subscribersByLoan = new ConcurrentHashMap<>();
+    private final Set<LoanStreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean publishScheduled = new AtomicBoolean();
+    private final Counter dropped;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "loan-stream"));
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("loan-stream-writer-", 0).factory());
+
+    public LoanBalanceStream(LoanRepository loanRepository, LoanService loanService, LoanProperties loanProperties,
+                             MeterRegistry meterRegistry) {
+        this.loanRepository = loanRepository;
+        this.loanService = loanService;
+        this.settings = loanProperties.getStream();
+        this.dropped = Counter.builder("loan.stream.dropped")
+                .description("Balance updates dropped because a subscriber's buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("loan.stream.subscribers", subscribers, Set::size)
+                .description("Open loan balance streams")
+                .register(meterRegistry);
+        long heartbeat = settings.getHeartbeatInterval().toNanos();
+        executor.scheduleAtFixedRate(this::sendHeartbeats, heartbeat, heartbeat, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Opens a stream of balance updates for some loans. The current state
+     * of each loan is sent first.
+     *
+     * @param loanIds the IDs of the loans to watch
+     * @return the emitter to return from the controller
+     * @throws IllegalArgumentException if no loans, or more than the maximum, are given
+     * @throws com.bancx.loanpayment.exception.LoanNotFoundException if a loan doesn't exist
+     */
+    public SseEmitter subscribe(Collection<Long> loanIds) {
+        Set<Long> ids = new LinkedHashSet<>(loanIds);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one loan ID is required");
+        }
+        if (ids.size() > settings.getMaxLoansPerSubscription()) {
+            throw new IllegalArgumentException("At most " + settings.getMaxLoansPerSubscription()
+                    + " loans can be watched per stream");
+        }
+
+        LoanStreamSubscriber subscriber = new LoanStreamSubscriber(
+                new SseEmitter(settings.getTimeout().toMillis()), ids, settings.getBufferSize());
+        // Registered before the initial read, so no change committed in between is missed
+        register(subscriber);
+        try {
+            Map<Long, LoanBalanceUpdate> current = read(ids);
+            for (Long loanId : ids) {
+                LoanBalanceUpdate update = current.get(loanId);
+                // Not in the loan table: archived, or unknown and then a 404
+                subscriber.offer(update != null ? update : LoanBalanceUpdate.of(loanService.getLoan(loanId)));
+            }
+        } catch (RuntimeException ex) {
+            unsubscribe(subscriber);
+            throw ex;
+        }
+
+        SseEmitter emitter = subscriber.emitter();
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onError(ex -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> {
+            unsubscribe(subscriber);
+            emitter.complete();
+        });
+        drain(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Marks a watched loan as changed once the transaction that changed it
+     * has committed, and schedules a read of the marked loans unless one is
+     * already waiting.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLoanBalanceChanged(LoanBalanceChanged event) {
+        if (!subscribersByLoan.containsKey(event.loanId())) {
+            return;
+        }
+        changed.add(event.loanId());
+        if (publishScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::publishChanged);
+            } catch (RejectedExecutionException ex) {
+                log.debug("Loan stream is shut down; not publishing loan {}", event.loanId());
+            }
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    void register(LoanStreamSubscriber subscriber) {
+        subscribers.add(subscriber);
+        subscriber.loanIds().forEach(loanId -> subscribersByLoan.compute(loanId, (id, watching) -> {
+            Set<LoanStreamSubscriber> set = watching != null ? watching : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        }));
+    }
+
+    void unsubscribe(LoanStreamSubscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriber.loanIds().forEach(loanId -> subscribersByLoan.computeIfPresent(loanId, (id, watching) -> {
+            watching.remove(subscriber);
+            return watching.isEmpty() ? null : watching;
+        }));
+    }
+
+    /**
+     * Sends a heartbeat to every subscriber that was sent nothing for a
+     * heartbeat interval.
+     */
+    void sendHeartbeats() {
+        long idleSince = System.nanoTime() - settings.getHeartbeatInterval().toNanos();
+        for (LoanStreamSubscriber subscriber : subscribers) {
+            if (subscriber.heartbeatIfIdleSince(idleSince)) {
+                drain(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        writers.shutdown();
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+    }
+
+    private void publishChanged() {
+        publishScheduled.set(false);
+        List<Long> loanIds = new ArrayList<>(changed);
+        changed.removeAll(loanIds);
+        if (loanIds.isEmpty()) {
+            return;
+        }
+        try {
+            read(loanIds).values().forEach(this::publish);
+        } catch (RuntimeException ex) {
+            log.warn("Could not read {} changed loans for their streams: {}", loanIds.size(), ex.toString());
+        }
+    }
+
+    private void publish(LoanBalanceUpdate update) {
+        for (LoanStreamSubscriber subscriber : subscribersByLoan.getOrDefault(update.loanId(), Set.of())) {
+            if (subscriber.offer(update)) {
+                dropped.increment();
+            }
+            drain(subscriber);
+        }
+    }
+
+    private void drain(LoanStreamSubscriber subscriber) {
+        if (!subscriber.claimDrain()) {
+            return;
+        }
+        try {
+            writers.execute(() -> {
+                if (!subscriber.drain()) {
+                    log.debug("Loan stream closed by the client");
+                    unsubscribe(subscriber);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            unsubscribe(subscriber);
+        }
+    }
+
+    private Map<Long, LoanBalanceUpdate> read(Collection<Long> loanIds) {
+        List<Long> ids = List.copyOf(loanIds);
+        return ReplicaRoutingDataSource.readFromPrimary(() -> {
+            List<LoanBalanceUpdate> updates = new ArrayList<>(ids.size());
+            for (int from = 0; from < ids.size(); from += READ_CHUNK) {
+                updates.addAll(loanRepository.findBalances(ids.subList(from, Math.min(from + READ_CHUNK, ids.size()))));
+            }
+            return updates.stream().collect(Collectors.toMap(LoanBalanceUpdate::loanId, Function.identity()));
+        });
+    }
+}
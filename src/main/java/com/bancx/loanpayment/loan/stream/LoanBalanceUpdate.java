@@ -0,0 +1,23 @@
+package com.bancx.loanpayment.loan.stream;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * The balance and status of a loan as sent to stream subscribers. The
+ * loan's version orders updates, so an update older than one already sent
+ * is skipped.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+public record LoanBalanceUpdate(Long loanId, Money remainingBalance, LoanStatus status, LocalDateTime settledAt,
+                                Integer version) {
+
+    public static LoanBalanceUpdate of(Loan loan) {
+        return new LoanBalanceUpdate(loan.getLoanId(), loan.getRemainingBalance(), loan.getStatus(),
+                loan.getSettledAt(), loan.getVersion());
+    }
+}
@@ -0,0 +1,145 @@
+package com.bancx.loanpayment.loan.stream;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One SSE connection of the {@link LoanBalanceStream} and the updates
+ * waiting to be written to it.
+ *
+ * Updates are queued in a buffer of fixed size; when a slow client lets it
+ * fill up, the oldest update is dropped. Each update carries the whole
+ * state of its loan, so a client that missed one still ends up with the
+ * latest state. The buffer is written out by one drain at a time, claimed
+ * with {@link #claimDrain()}, so events are never interleaved.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+final class LoanStreamSubscriber {
+
+    static final String EVENT_NAME = "balance";
+
+    private final SseEmitter emitter;
+    private final Set<Long> loanIds;
+    private final int bufferSize;
+    private final Deque<LoanBalanceUpdate> buffer;
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /**
+     * Only touched by the drain that holds {@link #draining}.
+     */
+    private final Map<Long, Integer> sentVersions = new HashMap<>();
+
+    private volatile boolean heartbeatDue;
+    private volatile long lastSentNanos = System.nanoTime();
+
+    LoanStreamSubscriber(SseEmitter emitter, Set<Long> loanIds, int bufferSize) {
+        this.emitter = emitter;
+        this.loanIds = Set.copyOf(loanIds);
+        this.bufferSize = bufferSize;
+        this.buffer = new ArrayDeque<>(bufferSize);
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    Set<Long> loanIds() {
+        return loanIds;
+    }
+
+    /**
+     * Queues an update, dropping the oldest one if the buffer is full.
+     *
+     * @param update the update
+     * @return true if an update was dropped
+     */
+    synchronized boolean offer(LoanBalanceUpdate update) {
+        boolean full = buffer.size() >= bufferSize;
+        if (full) {
+            buffer.pollFirst();
+        }
+        buffer.addLast(update);
+        return full;
+    }
+
+    /**
+     * Asks the next drain to send a heartbeat if nothing was sent since
+     * {@code sentBeforeNanos}.
+     *
+     * @return true if a heartbeat is due
+     */
+    boolean heartbeatIfIdleSince(long sentBeforeNanos) {
+        if (lastSentNanos - sentBeforeNanos > 0) {
+            return false;
+        }
+        heartbeatDue = true;
+        return true;
+    }
+
+    /**
+     * @return true if the caller now holds the drain and must call {@link #drain()}
+     */
+    boolean claimDrain() {
+        return draining.compareAndSet(false, true);
+    }
+
+    /**
+     * Writes out the buffered updates, skipping any that are not newer than
+     * what was already sent for their loan, then a pending heartbeat, and
+     * releases the drain. Updates queued while the drain was being released
+     * are written by the same call.
+     *
+     * @return false if the connection failed and the subscriber should be dropped
+     */
+    boolean drain() {
+        try {
+            do {
+                LoanBalanceUpdate update;
+                while ((update = poll()) != null) {
+                    send(update);
+                }
+                if (heartbeatDue) {
+                    heartbeatDue = false;
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                    lastSentNanos = System.nanoTime();
+                }
+                draining.set(false);
+            } while ((hasBuffered() || heartbeatDue) && claimDrain());
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            // IllegalStateException: the emitter was already completed
+            draining.set(false);
+            return false;
+        }
+    }
+
+    private void send(LoanBalanceUpdate update) throws IOException {
+        Integer sent = sentVersions.get(update.loanId());
+        if (sent != null && update.version() != null && update.version() <= sent) {
+            return;
+        }
+        emitter.send(SseEmitter.event()
+                .id(update.loanId() + "-" + update.version())
+                .name(EVENT_NAME)
+                .data(update, MediaType.APPLICATION_JSON));
+        sentVersions.put(update.loanId(), update.version());
+        lastSentNanos = System.nanoTime();
+    }
+
+    private synchronized LoanBalanceUpdate poll() {
+        return buffer.pollFirst();
+    }
+
+    private synchronized boolean hasBuffered() {
+        return !buffer.isEmpty();
+    }
+}
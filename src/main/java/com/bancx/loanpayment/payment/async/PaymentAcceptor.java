@@ -0,0 +1,204 @@
+package com.bancx.loanpayment.payment.async;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.exception.LoanNotFoundException;
+import com.bancx.loanpayment.exception.PaymentOutcomeUnknownException;
+import com.bancx.loanpayment.exception.PaymentQueueFullException;
+import com.bancx.loanpayment.exception.PaymentUnavailableException;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.rest.PaymentStatus;
+import com.bancx.loanpayment.payment.service.PaymentService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts payments for later processing and tracks their status.
+ *
+ * An accepted payment waits in a bounded queue until one of a fixed pool of
+ * workers applies it through {@link PaymentService}, with the same
+ * idempotency, sequencing and metrics as a synchronous payment. When the
+ * queue is full the payment is refused straight away with
+ * {@link PaymentQueueFullException} rather than waiting for room, so the
+ * client backs off instead of holding a request thread.
+ *
+ * The status of each payment is kept in a size-bounded, time-expiring
+ * in-memory cache for polling; it is not shared between instances or kept
+ * across restarts. PENDING statuses are neither counted against the size
+ * bound nor expired, so a payment that is still queued can always be
+ * polled; its outcome then stays for the status TTL. A payment refused by a
+ * full downstream queue, or by a sequencer or ledger engine that is shutting
+ * down or stopped, is reported as RETRY, and one whose outcome is
+ * unknown as UNKNOWN, rather than as a final REJECTED. On shutdown the
+ * queue is drained before the application context closes the database
+ * connections.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+@ConditionalOnProperty(prefix = "loanpayment.payment.async", name = "enabled", havingValue = "true")
+@Slf4j
+public class PaymentAcceptor {
+
+    private final PaymentService paymentService;
+    private final PaymentProperties.Async settings;
+    private final ThreadPoolExecutor workers;
+    private final Cache<String, PaymentStatus> statuses;
+    private final Counter rejections;
+
+    public PaymentAcceptor(PaymentService paymentService, PaymentProperties paymentProperties, MeterRegistry meterRegistry) {
+        this.paymentService = paymentService;
+        this.settings = paymentProperties.getAsync();
+        if (settings.getWorkers() < 1) {
+            throw new IllegalArgumentException("Async payment workers must be at least 1");
+        }
+        this.statuses = Caffeine.newBuilder()
+                .maximumWeight(settings.getMaxStatuses())
+                .<String, PaymentStatus>weigher((reference, status) -> isPending(status) ? 0 : 1)
+                .expireAfter(new StatusExpiry(settings.getStatusTtl().toNanos()))
+                .build();
+        this.rejections = Counter.builder("payment.async.rejections")
+                .description("Payments refused because the async queue was full")
+                .register(meterRegistry);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        this.workers = new ThreadPoolExecutor(settings.getWorkers(), settings.getWorkers(), 0L, TimeUnit.MILLISECONDS,
+                queue, runnable -> new Thread(runnable, "payment-async-" + threadNumber.getAndIncrement()));
+        Gauge.builder("payment.async.queue.depth", queue, BlockingQueue::size)
+                .description("Accepted payments waiting for a worker")
+                .register(meterRegistry);
+        log.info("Async payments enabled with {} workers and a queue of {}", settings.getWorkers(), settings.getQueueCapacity());
+    }
+
+    /**
+     * Queues a payment and returns its pending status without waiting for it to be applied.
+     *
+     * @param request the payment to apply
+     * @return the pending status, carrying the reference to poll
+     * @throws PaymentQueueFullException if the queue is full or the application is shutting down
+     */
+    public PaymentStatus accept(PaymentRequest request) {
+        PaymentStatus pending = PaymentStatus.builder()
+                .reference(UUID.randomUUID().toString())
+                .loanId(request.getLoanId())
+                .paymentAmount(request.getPaymentAmount())
+                .status(PaymentStatus.Status.PENDING)
+                .build();
+        statuses.put(pending.getReference(), pending);
+        try {
+            workers.execute(() -> apply(pending, request));
+        } catch (RejectedExecutionException ex) {
+            statuses.invalidate(pending.getReference());
+            rejections.increment();
+            throw new PaymentQueueFullException("Too many pending payments, please retry",
+                    Math.max(1L, settings.getRetryAfter().toSeconds()));
+        }
+        return pending;
+    }
+
+    /**
+     * Looks up the status of an accepted payment.
+     *
+     * @param reference the reference returned when the payment was accepted
+     * @return the status, or empty if the reference is unknown or has expired
+     */
+    public Optional<PaymentStatus> status(String reference) {
+        return Optional.ofNullable(statuses.getIfPresent(reference));
+    }
+
+    /**
+     * Returns the number of accepted payments waiting for a worker.
+     *
+     * @return the queue depth
+     */
+    public int queueDepth() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * Stops accepting payments and waits for queued payments to be applied.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(settings.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Async payments did not drain within {}; {} payments dropped",
+                    settings.getShutdownTimeout(), workers.shutdownNow().size());
+        }
+    }
+
+    private void apply(PaymentStatus pending, PaymentRequest request) {
+        PaymentStatus.PaymentStatusBuilder outcome = pending.toBuilder();
+        try {
+            Payment payment = paymentService.processPayment(request);
+            outcome.status(PaymentStatus.Status.APPLIED).paymentId(payment.getPaymentId());
+        } catch (PaymentQueueFullException ex) {
+            log.warn("Async payment {} refused by a full queue: {}", pending.getReference(), ex.getMessage());
+            outcome.status(PaymentStatus.Status.RETRY).message(ex.getMessage())
+                    .retryAfterSeconds(ex.getRetryAfterSeconds());
+        } catch (PaymentUnavailableException ex) {
+            log.warn("Async payment {} not applied: {}", pending.getReference(), ex.getMessage());
+            outcome.status(PaymentStatus.Status.RETRY).message(ex.getMessage())
+                    .retryAfterSeconds(ex.getRetryAfterSeconds());
+        } catch (PaymentOutcomeUnknownException ex) {
+            log.warn("Async payment {} has an unknown outcome: {}", pending.getReference(), ex.getMessage());
+            outcome.status(PaymentStatus.Status.UNKNOWN).message(ex.getMessage());
+        } catch (LoanNotFoundException | IllegalArgumentException | IllegalStateException ex) {
+            log.warn("Async payment {} rejected: {}", pending.getReference(), ex.getMessage());
+            outcome.status(PaymentStatus.Status.REJECTED).message(ex.getMessage());
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            log.warn("Async payment {} rejected by an optimistic-lock conflict", pending.getReference());
+            outcome.status(PaymentStatus.Status.REJECTED)
+                    .message("Conflict detected: The loan was updated by another transaction.");
+        } catch (RuntimeException ex) {
+            log.error("Async payment {} failed", pending.getReference(), ex);
+            outcome.status(PaymentStatus.Status.REJECTED).message("An unexpected error occurred.");
+        }
+        statuses.put(pending.getReference(), outcome.build());
+    }
+
+    private static boolean isPending(PaymentStatus status) {
+        return status.getStatus() == PaymentStatus.Status.PENDING;
+    }
+
+    /**
+     * Keeps PENDING statuses until they are replaced by an outcome, which
+     * then expires the TTL after it was written.
+     */
+    private record StatusExpiry(long ttlNanos) implements Expiry<String, PaymentStatus> {
+
+        @Override
+        public long expireAfterCreate(String reference, PaymentStatus status, long currentTime) {
+            return isPending(status) ? Long.MAX_VALUE : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String reference, PaymentStatus status, long currentTime, long currentDuration) {
+            return expireAfterCreate(reference, status, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String reference, PaymentStatus status, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.bancx.loanpayment.payment.controller;
+
+import com.bancx.loanpayment.payment.async.PaymentAcceptor;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.rest.PaymentStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+/**
+ * REST controller for payments accepted with 202 and applied in the background.
+ *
+ * A POST /payments carrying {@code Prefer: respond-async} is routed here
+ * instead of {@link PaymentController} when async payments are enabled;
+ * without the header, or with async payments disabled, payments are applied
+ * synchronously as before.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@RestController
+@RequestMapping("/payments")
+@ConditionalOnProperty(prefix = "loanpayment.payment.async", name = "enabled", havingValue = "true")
+@AllArgsConstructor
+@Slf4j
+public class PaymentAcceptanceController {
+
+    private PaymentAcceptor paymentAcceptor;
+
+    /**
+     * Endpoint to accept a payment for background processing.
+     * Returns as soon as the payment is queued; poll the Location for the outcome.
+     *
+     * @param request        the payment details including loan ID and amount
+     * @param idempotencyKey optional client-chosen key identifying this payment across retries
+     * @return ResponseEntity containing the pending status and HTTP status 202
+     */
+    @PostMapping(headers = "Prefer=respond-async")
+    @Operation(summary = "Accept a payment and apply it in the background")
+    public ResponseEntity<PaymentStatus> acceptPayment(@Valid @RequestBody PaymentRequest request,
+                                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        log.info("Received async payment request: loanId={}, amount={}", request.getLoanId(), request.getPaymentAmount());
+
+        request.setIdempotencyKey(idempotencyKey);
+
+        PaymentStatus status = paymentAcceptor.accept(request);
+
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/status/{reference}")
+                .buildAndExpand(status.getReference())
+                .toUri();
+        log.info("Payment accepted with reference={} for loanId={}", status.getReference(), status.getLoanId());
+        return ResponseEntity.accepted()
+                .location(location)
+                .header("Preference-Applied", "respond-async")
+                .body(status);
+    }
+
+    /**
+     * Endpoint to poll the status of an accepted payment.
+     *
+     * @param reference the reference returned when the payment was accepted
+     * @return ResponseEntity containing the status and HTTP status 200, or 404 if unknown or expired
+     */
+    @GetMapping("/status/{reference}")
+    @Operation(summary = "Get the status of an accepted payment")
+    public ResponseEntity<PaymentStatus> getStatus(@PathVariable String reference) {
+        return ResponseEntity.of(paymentAcceptor.status(reference));
+    }
+}
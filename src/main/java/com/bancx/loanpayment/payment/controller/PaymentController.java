@@ -1,7 +1,9 @@
 package com.bancx.loanpayment.payment.controller;
 
 import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.rest.PaymentBatchRequest;
 import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.rest.PaymentResult;
 import com.bancx.loanpayment.payment.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import jakarta.validation.Valid;
@@ -11,9 +13,11 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * REST controller for handling payment operations.
- * Provides endpoint to make a payment towards a loan.
+ * Provides endpoints to make a single payment or a batch of payments towards loans.
  *
  * Handles validation of incoming requests.
  *
@@ -31,17 +35,42 @@ public class PaymentController {
      * Endpoint to make a payment towards a loan.
      * Logs request details and payment creation.
      *
-     * @param request the payment details including loan ID and amount
+     * A retry carrying the same Idempotency-Key returns the original payment
+     * without applying it again.
+     *
+     * @param request        the payment details including loan ID and amount
+     * @param idempotencyKey optional client-chosen key identifying this payment across retries
      * @return ResponseEntity containing the created Payment and HTTP status 201
      */
     @PostMapping
     @Operation(summary = "Create a new payment")
-    public ResponseEntity<Payment> makePayment(@Valid @RequestBody PaymentRequest request) {
+    public ResponseEntity<Payment> makePayment(@Valid @RequestBody PaymentRequest request,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("Received payment request: loanId={}, amount={}", request.getLoanId(), request.getPaymentAmount());
 
+        request.setIdempotencyKey(idempotencyKey);
+
         Payment payment = paymentService.processPayment(request);
 
         log.info("Payment created with paymentId={} for loanId={}", payment.getPaymentId(), payment.getLoanId());
         return new ResponseEntity<>(payment, HttpStatus.CREATED);
     }
+
+    /**
+     * Endpoint to make a batch of payments in a single call.
+     * Every payment gets its own result; rejected payments do not fail the batch.
+     *
+     * @param request the payments to apply, in order
+     * @return ResponseEntity containing one result per payment and HTTP status 200
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "Create a batch of payments")
+    public ResponseEntity<List<PaymentResult>> makePayments(@Valid @RequestBody PaymentBatchRequest request) {
+        log.info("Received payment batch request of size={}", request.getPayments().size());
+
+        List<PaymentResult> results = paymentService.processPayments(request.getPayments());
+
+        log.info("Payment batch processed with {} results", results.size());
+        return ResponseEntity.ok(results);
+    }
 }
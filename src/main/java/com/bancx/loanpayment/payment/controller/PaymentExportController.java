@@ -0,0 +1,69 @@
+package com.bancx.loanpayment.payment.controller;
+
+import com.bancx.loanpayment.payment.export.PaymentExportFilter;
+import com.bancx.loanpayment.payment.export.PaymentExportFormat;
+import com.bancx.loanpayment.payment.export.PaymentExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+/**
+ * REST controller for bulk export of payments, e.g. for nightly reconciliation.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@RestController
+@RequestMapping("/payments/export")
+@AllArgsConstructor
+@Slf4j
+public class PaymentExportController {
+
+    private PaymentExportService paymentExportService;
+
+    /**
+     * Endpoint to download payments as NDJSON or CSV.
+     * The response is streamed from the database as it is written, so
+     * exports of any size use the same amount of memory.
+     *
+     * @param format output format, NDJSON by default
+     * @param loanId only export payments made on this loan
+     * @param from   only export payments made at or after this time (ISO-8601)
+     * @param to     only export payments made before this time (ISO-8601)
+     * @return ResponseEntity streaming the payments with HTTP 200 status
+     */
+    @GetMapping
+    @Operation(summary = "Export payments as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(defaultValue = "NDJSON") PaymentExportFormat format,
+            @RequestParam(required = false) Long loanId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Received payment export request: format={}, loanId={}, from={}, to={}", format, loanId, from, to);
+
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        PaymentExportFilter filter = PaymentExportFilter.builder()
+                .loanId(loanId)
+                .from(from)
+                .to(to)
+                .build();
+
+        StreamingResponseBody body = output -> paymentExportService.export(filter, format, output);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("payments." + format.getFileExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,45 @@
+package com.bancx.loanpayment.payment.controller;
+
+import com.bancx.loanpayment.payment.rest.PaymentPage;
+import com.bancx.loanpayment.payment.service.PaymentService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for reading the payments made on a loan.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@RestController
+@RequestMapping("/loans/{loanId}/payments")
+@AllArgsConstructor
+@Slf4j
+public class PaymentHistoryController {
+
+    private PaymentService paymentService;
+
+    /**
+     * Endpoint to list a loan's payments, oldest first, one page at a time.
+     * Pass the nextCursor of a page as {@code after} to get the page that follows it.
+     *
+     * @param loanId ID of the loan
+     * @param after  cursor returned with the previous page; omit for the first page
+     * @param limit  maximum number of payments on the page; omit for the configured default
+     * @return ResponseEntity with the page of payments and HTTP 200 status
+     */
+    @GetMapping
+    @Operation(summary = "List payments made on a loan")
+    public ResponseEntity<PaymentPage> getPayments(@PathVariable Long loanId,
+                                                   @RequestParam(required = false) String after,
+                                                   @RequestParam(required = false) Integer limit) {
+        log.info("Received request for payments of loanId={}, after={}, limit={}", loanId, after, limit);
+
+        PaymentPage page = paymentService.getPaymentHistory(loanId, after, limit);
+
+        log.info("Returning {} payments for loanId={}", page.getPayments().size(), loanId);
+        return ResponseEntity.ok(page);
+    }
+}
@@ -0,0 +1,36 @@
+package com.bancx.loanpayment.payment.entity;
+
+import com.bancx.loanpayment.util.Money;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payment of an archived loan, moved to the payment_archive table
+ * together with its loan. Archived payments are only read, for the payment
+ * history and exports.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Entity
+@Table(name = "payment_archive")
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ArchivedPayment {
+
+    @Id
+    private Long paymentId;
+
+    private Long loanId;
+
+    private Money paymentAmount;
+
+    private LocalDateTime timestamp;
+}
@@ -1,15 +1,16 @@
 package com.bancx.loanpayment.payment.entity;
 
+import com.bancx.loanpayment.util.Money;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -28,10 +29,13 @@ import java.time.LocalDateTime;
 public class Payment {
 
     /**
-     * Primary key for Payment entity, auto-generated by the database.
+     * Primary key for Payment entity, drawn from the payment_seq sequence
+     * so that inserts can be sent as JDBC batches. IDs are handed out from
+     * memory in blocks of 50, one sequence call per block (pooled-lo optimizer).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_seq")
+    @SequenceGenerator(name = "payment_seq", sequenceName = "payment_seq", allocationSize = 50)
     private Long paymentId;
 
     /**
@@ -42,7 +46,7 @@ public class Payment {
     /**
      * Amount of the payment made.
      */
-    private BigDecimal paymentAmount;
+    private Money paymentAmount;
 
     /**
      * Timestamp of when the payment was created.
@@ -0,0 +1,43 @@
+package com.bancx.loanpayment.payment.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording which payment was created for a client-supplied
+ * Idempotency-Key, so that retries return the original payment.
+ *
+ * Uses Lombok annotations for boilerplate code generation.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Entity
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaymentIdempotency {
+
+    /**
+     * The Idempotency-Key header value sent by the client.
+     */
+    @Id
+    private String idempotencyKey;
+
+    /**
+     * Identifier of the payment created for this key.
+     */
+    private Long paymentId;
+
+    /**
+     * Timestamp of when the key was first used.
+     */
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
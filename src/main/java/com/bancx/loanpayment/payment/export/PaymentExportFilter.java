@@ -0,0 +1,36 @@
+package com.bancx.loanpayment.payment.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Selects the payments to export. Every field is optional; an empty filter
+ * exports every payment.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaymentExportFilter {
+
+    /**
+     * Only export payments made on this loan.
+     */
+    private Long loanId;
+
+    /**
+     * Only export payments made at or after this time.
+     */
+    private LocalDateTime from;
+
+    /**
+     * Only export payments made before this time.
+     */
+    private LocalDateTime to;
+}
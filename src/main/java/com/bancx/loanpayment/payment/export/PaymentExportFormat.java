@@ -0,0 +1,33 @@
+package com.bancx.loanpayment.payment.export;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Output formats of the payment export.
+ *
+ * NDJSON: one JSON object per line, fields named as in the Payment API.
+ * CSV: a header line followed by one comma-separated line per payment.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+public enum PaymentExportFormat {
+
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv"), "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    PaymentExportFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
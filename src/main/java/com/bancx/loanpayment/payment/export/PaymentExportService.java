@@ -0,0 +1,168 @@
+package com.bancx.loanpayment.payment.export;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.payment.rest.PaymentCursor;
+import com.bancx.loanpayment.payment.rest.PaymentView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams payments out of the database for reconciliation.
+ *
+ * Rows are read through a forward-only JDBC cursor, {@code fetchSize} rows
+ * per round trip, and written to the output as they arrive. They are
+ * selected as {@link PaymentView} projections rather than entities, so
+ * nothing is added to the persistence context and each row can be collected
+ * as soon as it has been written. Memory use does not depend on how many
+ * payments are exported.
+ *
+ * Payments of archived loans are read from payment_archive, ahead of the
+ * payments in the payment table.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Service
+@Slf4j
+public class PaymentExportService {
+
+    static final String CSV_HEADER = "paymentId,loanId,paymentAmount,timestamp";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+    private final PaymentProperties.Export settings;
+
+    public PaymentExportService(EntityManager entityManager,
+                                ObjectMapper objectMapper,
+                                PaymentProperties paymentProperties) {
+        this.entityManager = entityManager;
+        this.jsonWriter = objectMapper.writerFor(PaymentView.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.settings = paymentProperties.getExport();
+    }
+
+    /**
+     * Writes the payments matching the filter to the output: first those of
+     * archived loans, then the others, each in payment ID order, or in
+     * timestamp order when filtered by loan. A loan's payments are all in
+     * one of the two tables. The output stream is flushed but not closed.
+     *
+     * @param filter the payments to export
+     * @param format the output format
+     * @param output where to write the payments
+     * @return the number of payments written
+     * @throws IllegalArgumentException if the time range is empty
+     * @throws UncheckedIOException if writing to the output fails
+     */
+    @Transactional(readOnly = true)
+    public long export(PaymentExportFilter filter, PaymentExportFormat format, OutputStream output) {
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getFrom().isBefore(filter.getTo())) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        log.info("Exporting payments as {} for loanId={}, from={}, to={}",
+                format, filter.getLoanId(), filter.getFrom(), filter.getTo());
+
+        long count;
+        try (Stream<PaymentView> payments = Stream.concat(
+                query(filter, "ArchivedPayment").getResultStream(),
+                query(filter, "Payment").getResultStream())) {
+            count = switch (format) {
+                case NDJSON -> writeNdjson(payments.iterator(), output);
+                case CSV -> writeCsv(payments.iterator(), output);
+            };
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        log.info("Exported {} payments as {}", count, format);
+        return count;
+    }
+
+    /**
+     * Builds the export query for the Payment or ArchivedPayment entity.
+     * Filtered by loan, it reads the table's (loan_id, timestamp) index in
+     * order, with the same lower time bound as the payment history query;
+     * otherwise it reads the table in primary key order. Neither needs a sort.
+     */
+    private TypedQuery<PaymentView> query(PaymentExportFilter filter, String entity) {
+        StringBuilder jpql = new StringBuilder("SELECT new com.bancx.loanpayment.payment.rest.PaymentView("
+                + "p.paymentId, p.loanId, p.paymentAmount, p.timestamp) FROM " + entity
+                + " p WHERE p.timestamp >= :from");
+        if (filter.getTo() != null) {
+            jpql.append(" AND p.timestamp < :to");
+        }
+        if (filter.getLoanId() != null) {
+            jpql.append(" AND p.loanId = :loanId ORDER BY p.loanId, p.timestamp, p.paymentId");
+        } else {
+            jpql.append(" ORDER BY p.paymentId");
+        }
+
+        LocalDateTime from = filter.getFrom() != null ? filter.getFrom() : PaymentCursor.START.timestamp();
+        TypedQuery<PaymentView> query = entityManager.createQuery(jpql.toString(), PaymentView.class)
+                .setParameter("from", from)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, settings.getFetchSize())
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (filter.getTo() != null) {
+            query.setParameter("to", filter.getTo());
+        }
+        if (filter.getLoanId() != null) {
+            query.setParameter("loanId", filter.getLoanId());
+        }
+        return query;
+    }
+
+    private long writeNdjson(Iterator<PaymentView> payments, OutputStream output) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = jsonWriter.createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (payments.hasNext()) {
+                jsonWriter.writeValue(generator, payments.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<PaymentView> payments, OutputStream output) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (payments.hasNext()) {
+            PaymentView payment = payments.next();
+            writer.write(String.valueOf(payment.getPaymentId()));
+            writer.write(',');
+            writer.write(String.valueOf(payment.getLoanId()));
+            writer.write(',');
+            writer.write(payment.getPaymentAmount().toString());
+            writer.write(',');
+            writer.write(payment.getTimestamp().toString());
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+}
@@ -0,0 +1,141 @@
+package com.bancx.loanpayment.payment.idempotency;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.config.datasource.ReplicaRoutingDataSource;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.entity.PaymentIdempotency;
+import com.bancx.loanpayment.payment.repository.PaymentIdempotencyRepository;
+import com.bancx.loanpayment.payment.repository.PaymentRepository;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.util.Money;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates retried payments that carry the same Idempotency-Key.
+ *
+ * Recent keys live in a size-bounded, time-expiring in-memory cache of
+ * in-flight or completed results. The first request for a key executes the
+ * payment; concurrent requests with the same key wait for that result
+ * instead of running the payment again. Keys that have left the cache are
+ * looked up in the payment_idempotency table, which is written in the same
+ * transaction as the payment itself.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+@Slf4j
+public class PaymentIdempotencyCache {
+
+    static final int MAX_KEY_LENGTH = 255;
+
+    private final PaymentIdempotencyRepository idempotencyRepository;
+    private final PaymentRepository paymentRepository;
+    private final PaymentProperties.Idempotency settings;
+    private final Cache<String, CompletableFuture<Payment>> recentKeys;
+
+    public PaymentIdempotencyCache(PaymentIdempotencyRepository idempotencyRepository,
+                                   PaymentRepository paymentRepository,
+                                   PaymentProperties paymentProperties) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.paymentRepository = paymentRepository;
+        this.settings = paymentProperties.getIdempotency();
+        this.recentKeys = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxEntries())
+                .expireAfterWrite(settings.getCacheTtl())
+                .build();
+    }
+
+    /**
+     * Runs a payment at most once per Idempotency-Key.
+     *
+     * @param key     the client's Idempotency-Key
+     * @param request the payment being made; must match the original payment for a reused key
+     * @param payment the action that processes the payment
+     * @return the payment created for this key, either now or by an earlier request
+     * @throws IllegalArgumentException if the key is invalid or was used for a different payment
+     */
+    public Payment execute(String key, PaymentRequest request, Supplier<Payment> payment) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        CompletableFuture<Payment> result = new CompletableFuture<>();
+        CompletableFuture<Payment> existing = recentKeys.asMap().putIfAbsent(key, result);
+        if (existing != null) {
+            log.info("Replaying payment for Idempotency-Key={}", key);
+            return matching(await(existing), request);
+        }
+
+        try {
+            Payment stored = findStored(key).orElseGet(() -> executeOnce(key, payment));
+            result.complete(stored);
+            return matching(stored, request);
+        } catch (RuntimeException ex) {
+            recentKeys.asMap().remove(key, result);
+            result.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Removes idempotency keys older than the configured retention from the database.
+     */
+    @Scheduled(fixedDelayString = "${loanpayment.payment.idempotency.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpiredKeys() {
+        int removed = idempotencyRepository.deleteCreatedBefore(LocalDateTime.now().minus(settings.getRetention()));
+        if (removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    private Payment executeOnce(String key, Supplier<Payment> payment) {
+        try {
+            return payment.get();
+        } catch (DataIntegrityViolationException ex) {
+            // Another instance committed a payment for the same key first.
+            return findStored(key).orElseThrow(() -> ex);
+        }
+    }
+
+    /**
+     * Looks the key up on the primary: a read replica may not have the key
+     * yet when it was just committed by a concurrent request.
+     */
+    private Optional<Payment> findStored(String key) {
+        return ReplicaRoutingDataSource.readFromPrimary(() -> idempotencyRepository.findById(key)
+                .map(PaymentIdempotency::getPaymentId)
+                .flatMap(paymentRepository::findById));
+    }
+
+    private static Payment matching(Payment payment, PaymentRequest request) {
+        if (!payment.getLoanId().equals(request.getLoanId())
+                || !payment.getPaymentAmount().equals(Money.of(request.getPaymentAmount()))) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different payment");
+        }
+        return payment;
+    }
+
+    private static Payment await(CompletableFuture<Payment> result) {
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
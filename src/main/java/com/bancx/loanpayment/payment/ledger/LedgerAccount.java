@@ -0,0 +1,62 @@
+package com.bancx.loanpayment.payment.ledger;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * In-memory balance of one loan held by the ledger engine. Only the engine
+ * thread changes an account; snapshots work on copies.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Data
+@AllArgsConstructor
+class LedgerAccount {
+
+    private long loanId;
+
+    private Money remainingBalance;
+
+    private LoanStatus status;
+
+    private LocalDateTime settledAt;
+
+    /**
+     * Sequence of the last journal entry for this loan, or 0 if there is none.
+     */
+    private long lastSequence;
+
+    static LedgerAccount of(Loan loan) {
+        return new LedgerAccount(loan.getLoanId(), loan.getRemainingBalance(), loan.getStatus(),
+                loan.getSettledAt(), 0L);
+    }
+
+    /**
+     * Builds a transient loan carrying this account's balance, for
+     * {@link com.bancx.loanpayment.payment.service.impl.PaymentServiceImpl#applyPayment}.
+     */
+    Loan toLoan() {
+        return Loan.builder()
+                .loanId(loanId)
+                .remainingBalance(remainingBalance)
+                .status(status)
+                .settledAt(settledAt)
+                .build();
+    }
+
+    void apply(LedgerEntry entry) {
+        remainingBalance = entry.remainingBalance();
+        status = entry.status();
+        settledAt = entry.settledAt();
+        lastSequence = entry.sequence();
+    }
+
+    LedgerAccount copy() {
+        return new LedgerAccount(loanId, remainingBalance, status, settledAt, lastSequence);
+    }
+}
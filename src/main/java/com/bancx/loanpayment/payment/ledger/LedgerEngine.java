@@ -0,0 +1,475 @@
+package com.bancx.loanpayment.payment.ledger;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.config.datasource.ReplicaRoutingDataSource;
+import com.bancx.loanpayment.exception.PaymentOutcomeUnknownException;
+import com.bancx.loanpayment.exception.PaymentQueueFullException;
+import com.bancx.loanpayment.exception.PaymentUnavailableException;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.service.impl.PaymentServiceImpl;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Applies payments to in-memory loan balances on a single thread.
+ *
+ * Callers place payments on a lock-free {@link LedgerRingBuffer}; the
+ * engine thread takes them off in batches and applies each one to the
+ * loan's in-memory balance with
+ * {@link PaymentServiceImpl#applyPayment}, so overpayments and payments on
+ * settled loans are rejected exactly as in the database path. A loan is
+ * read from the database the first time it is paid and kept in memory from
+ * then on. Accepted payments are appended to the memory-mapped
+ * {@link LedgerJournal} and committed in groups: the callers are answered
+ * once the journal has been forced to disk, which happens as soon as the
+ * ring buffer is empty, or while payments keep arriving, when the fsync
+ * batch size is reached or the oldest payment in the group has waited for
+ * the fsync interval. Committed payments are handed to the
+ * {@link LedgerProjector}, which writes them to the loan and payment tables
+ * in the background. Until it does, GET /loans shows the balance before
+ * those payments.
+ *
+ * Every snapshot interval the balances are copied into a snapshot, written
+ * once the projection has caught up with it. On startup the engine loads
+ * the latest snapshot, replays the journal written after it, and writes the
+ * replayed payments to the database again; the projection skips rows that
+ * are already there.
+ *
+ * The engine assumes it is the only writer of loan balances, so it must be
+ * enabled on a single instance. A journal write failure stops the engine,
+ * and payments are rejected until the engine is restarted and has replayed
+ * the journal. So does a payment the database refuses to take from the
+ * projection, once the payments before it are committed; it stays in the
+ * journal, and is written on the restart that follows fixing its cause. Payments already appended but waiting for the group commit
+ * may have reached the disk, and are then replayed, so they are failed with
+ * a {@link PaymentOutcomeUnknownException} (503) asking the client to retry
+ * with the same Idempotency-Key; after the restart that retry returns the
+ * replayed payment, or applies it if it was lost.
+ *
+ * The engine keeps the Idempotency-Keys of its entries, replayed ones
+ * included, until a snapshot interval after they were written to the
+ * database. A payment whose key is among them is answered with the entry
+ * already made for it instead of being applied again, so a retry cannot
+ * slip in between the restart and the projection of the replayed entries,
+ * which may take long while the database is unreachable.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+@ConditionalOnProperty(prefix = "loanpayment.payment.ledger", name = "enabled", havingValue = "true")
+@Slf4j
+public class LedgerEngine {
+
+    private static final int MAX_BATCH = 1024;
+    private static final int SPIN_ROUNDS = 100;
+    private static final int YIELD_ROUNDS = 200;
+    private static final long IDLE_PARK_NANOS = 100_000;
+    private static final long OFFER_PARK_NANOS = 50_000;
+
+    private final PaymentServiceImpl paymentServiceImpl;
+    private final LoanService loanService;
+    private final LedgerProjection projection;
+    private final PaymentProperties.Ledger settings;
+    private final LedgerRingBuffer<Command> ring;
+    private final LedgerJournal journal;
+    private final LedgerProjector projector;
+    private final Map<Long, LedgerAccount> accounts = new HashMap<>();
+    private final List<Command> uncommitted = new ArrayList<>();
+    private final List<LedgerEntry> uncommittedEntries = new ArrayList<>();
+    private final Map<String, LedgerEntry> entriesByKey = new HashMap<>();
+    private final Counter rejections;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile Exception failure;
+    private volatile String failureReason;
+    private volatile long sequence;
+    private volatile int accountCount;
+    private long nextPaymentId;
+    private long paymentIdLimit;
+    private long lastSnapshotSequence;
+    private long committedSequence;
+    private long keysProjectedThrough;
+    private long lastSnapshotNanos = System.nanoTime();
+
+    public LedgerEngine(PaymentProperties paymentProperties, PaymentServiceImpl paymentServiceImpl,
+                        LoanService loanService, LedgerProjection projection,
+                        MeterRegistry meterRegistry) throws IOException {
+        this.paymentServiceImpl = paymentServiceImpl;
+        this.loanService = loanService;
+        this.projection = projection;
+        this.settings = paymentProperties.getLedger();
+        this.ring = new LedgerRingBuffer<>(settings.getRingCapacity());
+
+        Path directory = Path.of(settings.getDirectory());
+        LedgerSnapshots snapshots = new LedgerSnapshots(directory);
+        this.journal = new LedgerJournal(settings);
+
+        LedgerSnapshots.Snapshot snapshot = snapshots.latest()
+                .orElse(new LedgerSnapshots.Snapshot(0L, List.of()));
+        snapshot.accounts().forEach(account -> accounts.put(account.getLoanId(), account));
+        List<LedgerEntry> replay = LedgerJournalReader.read(directory, snapshot.sequence());
+        long restored = snapshot.sequence();
+        for (LedgerEntry entry : replay) {
+            accounts.computeIfAbsent(entry.loanId(), loanId -> new LedgerAccount(loanId,
+                    entry.remainingBalance(), entry.status(), entry.settledAt(), 0L)).apply(entry);
+            remember(entry);
+            restored = entry.sequence();
+        }
+        this.sequence = restored;
+        this.committedSequence = restored;
+        this.lastSnapshotSequence = snapshot.sequence();
+        this.accountCount = accounts.size();
+        journal.open(restored + 1);
+
+        this.projector = new LedgerProjector(projection, journal, snapshots, settings, snapshot.sequence(),
+                meterRegistry);
+        projector.enqueue(replay);
+        log.info("Ledger restored {} accounts from snapshot at sequence {} and {} journal entries",
+                accounts.size(), snapshot.sequence(), replay.size());
+
+        this.rejections = Counter.builder("payment.ledger.rejections")
+                .description("Payments rejected because the ledger ring buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("payment.ledger.ring.depth", ring, LedgerRingBuffer::size)
+                .description("Payments waiting for the ledger engine")
+                .register(meterRegistry);
+        Gauge.builder("payment.ledger.accounts", this, engine -> engine.accountCount)
+                .description("Loans held in memory by the ledger engine")
+                .register(meterRegistry);
+        Gauge.builder("payment.ledger.projection.lag", this,
+                        engine -> engine.sequence - engine.projector.projectedSequence())
+                .description("Journaled payments not yet written to the database")
+                .register(meterRegistry);
+
+        this.thread = new Thread(this::run, "ledger-engine");
+        projector.start();
+        thread.start();
+    }
+
+    /**
+     * Applies a payment and waits until it is committed to the journal.
+     * Rule violations are rethrown unchanged to the caller.
+     *
+     * @param request the payment to apply
+     * @return the accepted payment, with its payment ID
+     * @throws PaymentQueueFullException      if the ring buffer stays full for the offer timeout
+     * @throws PaymentOutcomeUnknownException if the engine stopped after journaling the payment but
+     *                                        before committing it
+     * @throws PaymentUnavailableException    if the engine is shutting down or stopped after a journal or
+     *                                        projection failure
+     */
+    public Payment execute(PaymentRequest request) {
+        Command command = new Command(request);
+        offer(command);
+        return command.await();
+    }
+
+    /**
+     * Stops accepting payments, applies those already queued, and waits for
+     * the projection to write them to the database.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        running = false;
+        thread.join(settings.getShutdownTimeout().toMillis());
+        if (thread.isAlive()) {
+            log.warn("Ledger engine did not drain within {}", settings.getShutdownTimeout());
+            thread.join();
+        }
+        Command command;
+        while ((command = ring.poll()) != null) {
+            command.fail(new PaymentUnavailableException("Ledger engine is shutting down", retryAfterSeconds(), null));
+        }
+        journal.close();
+        if (!projector.stop(settings.getShutdownTimeout())) {
+            log.warn("Ledger projection did not drain within {}; the journal will be replayed on restart",
+                    settings.getShutdownTimeout());
+        }
+    }
+
+    private void offer(Command command) {
+        if (!running) {
+            throw new PaymentUnavailableException("Ledger engine is not accepting payments", retryAfterSeconds(),
+                    failure);
+        }
+        if (ring.offer(command)) {
+            return;
+        }
+        long deadline = System.nanoTime() + settings.getOfferTimeout().toNanos();
+        while (System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(OFFER_PARK_NANOS);
+            if (ring.offer(command)) {
+                return;
+            }
+        }
+        rejections.increment();
+        throw new PaymentQueueFullException("Too many pending payments, please retry", retryAfterSeconds());
+    }
+
+    private long retryAfterSeconds() {
+        return Math.max(1L, settings.getOfferTimeout().toSeconds());
+    }
+
+    private void run() {
+        List<Command> batch = new ArrayList<>(MAX_BATCH);
+        int idleRounds = 0;
+        while (running || ring.size() > 0) {
+            Command command;
+            while (batch.size() < MAX_BATCH && (command = ring.poll()) != null) {
+                batch.add(command);
+            }
+            if (!batch.isEmpty()) {
+                idleRounds = 0;
+                process(batch);
+                batch.clear();
+                if (journal.syncDue()) {
+                    commit();
+                }
+            } else if (journal.hasUnsynced()) {
+                commit();
+            } else {
+                idle(idleRounds++);
+            }
+            haltIfProjectionRefused();
+            snapshotIfDue(false);
+        }
+        if (journal.hasUnsynced()) {
+            commit();
+        }
+        snapshotIfDue(true);
+    }
+
+    private void process(List<Command> batch) {
+        if (failure != null) {
+            batch.forEach(command -> command.fail(stopped()));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Command command = batch.get(i);
+            try {
+                LedgerEntry entry = command.request.getIdempotencyKey() == null
+                        ? null : entriesByKey.get(command.request.getIdempotencyKey());
+                if (entry != null && entry.sequence() <= committedSequence) {
+                    command.complete(entry.toPayment());
+                    continue;
+                }
+                if (entry == null) {
+                    entry = apply(command.request);
+                    uncommittedEntries.add(entry);
+                    remember(entry);
+                }
+                command.entry = entry;
+                uncommitted.add(command);
+            } catch (RuntimeException ex) {
+                command.fail(ex);
+            } catch (IOException ex) {
+                halt("a journal write failure", ex);
+                batch.subList(i, batch.size()).forEach(failed -> failed.fail(stopped()));
+                return;
+            }
+        }
+        accountCount = accounts.size();
+    }
+
+    /**
+     * Forces the journal and answers the payments appended since the last
+     * commit; only then are they handed to the projection.
+     */
+    private void commit() {
+        if (failure != null) {
+            return;
+        }
+        try {
+            journal.sync();
+        } catch (IOException ex) {
+            halt("a journal write failure", ex);
+            return;
+        }
+        committedSequence = sequence;
+        projector.enqueue(List.copyOf(uncommittedEntries));
+        uncommitted.forEach(command -> command.complete(command.entry.toPayment()));
+        uncommitted.clear();
+        uncommittedEntries.clear();
+    }
+
+    private LedgerEntry apply(PaymentRequest request) throws IOException {
+        Money paymentAmt = Money.of(request.getPaymentAmount());
+        LedgerAccount account = account(request.getLoanId());
+        Loan loan = account.toLoan();
+        paymentServiceImpl.applyPayment(loan, paymentAmt);
+
+        if (nextPaymentId == paymentIdLimit) {
+            nextPaymentId = projection.nextPaymentIdBlock();
+            paymentIdLimit = nextPaymentId + LedgerProjection.PAYMENT_ID_BLOCK;
+        }
+        LedgerEntry entry = new LedgerEntry(sequence + 1, nextPaymentId, request.getLoanId(), paymentAmt,
+                LocalDateTime.now(), request.getIdempotencyKey(), loan.getRemainingBalance(), loan.getStatus(),
+                loan.getSettledAt());
+        journal.append(entry);
+
+        nextPaymentId++;
+        sequence = entry.sequence();
+        account.apply(entry);
+        return entry;
+    }
+
+    private void remember(LedgerEntry entry) {
+        if (entry.idempotencyKey() != null) {
+            entriesByKey.put(entry.idempotencyKey(), entry);
+        }
+    }
+
+    private LedgerAccount account(Long loanId) {
+        LedgerAccount account = accounts.get(loanId);
+        if (account == null) {
+            account = LedgerAccount.of(ReplicaRoutingDataSource.readFromPrimary(() -> loanService.getLoan(loanId)));
+            accounts.put(loanId, account);
+        }
+        return account;
+    }
+
+    /**
+     * Settled loans whose last payment is in the database are dropped from
+     * memory first; a later payment reads them back as SETTLED. Keys of
+     * entries that were already in the database at the previous snapshot are
+     * forgotten; a retry then finds them in payment_idempotency.
+     */
+    private void snapshotIfDue(boolean force) {
+        if (failure != null || sequence == lastSnapshotSequence) {
+            return;
+        }
+        if (!force && System.nanoTime() - lastSnapshotNanos < settings.getSnapshotInterval().toNanos()) {
+            return;
+        }
+        long projected = projector.projectedSequence();
+        accounts.values().removeIf(account ->
+                account.getStatus() == LoanStatus.SETTLED && account.getLastSequence() <= projected);
+        long forgetThrough = keysProjectedThrough;
+        entriesByKey.values().removeIf(entry -> entry.sequence() <= forgetThrough);
+        keysProjectedThrough = projected;
+        accountCount = accounts.size();
+        List<LedgerAccount> copies = accounts.values().stream().map(LedgerAccount::copy).toList();
+        try {
+            journal.roll(sequence + 1);
+        } catch (IOException ex) {
+            halt("a journal write failure", ex);
+            return;
+        }
+        projector.requestSnapshot(new LedgerSnapshots.Snapshot(sequence, copies));
+        lastSnapshotSequence = sequence;
+        lastSnapshotNanos = System.nanoTime();
+    }
+
+    private void idle(int rounds) {
+        if (rounds < SPIN_ROUNDS) {
+            Thread.onSpinWait();
+        } else if (rounds < YIELD_ROUNDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Commits what is appended and stops the engine once the projection is
+     * held at an entry the database refuses, so no more payments pile up
+     * behind it.
+     */
+    private void haltIfProjectionRefused() {
+        RuntimeException refusal = projector.refusal();
+        if (refusal == null || failure != null) {
+            return;
+        }
+        if (journal.hasUnsynced()) {
+            commit();
+        }
+        if (failure == null) {
+            halt("the database refused a payment", refusal);
+        }
+    }
+
+    /**
+     * Stops the engine. The payments appended since the last commit may
+     * already be on disk, in which case a restart replays them, so their
+     * callers are told the outcome is unknown rather than that they failed.
+     */
+    private void halt(String reason, Exception ex) {
+        log.error("Ledger engine stops accepting payments after {}", reason, ex);
+        failureReason = reason;
+        failure = ex;
+        running = false;
+        uncommitted.forEach(command -> command.fail(new PaymentOutcomeUnknownException(
+                "Ledger engine stopped before the payment was committed; it may still be applied. "
+                        + "Retry with the same Idempotency-Key", ex)));
+        uncommitted.clear();
+        uncommittedEntries.clear();
+    }
+
+    private PaymentUnavailableException stopped() {
+        return new PaymentUnavailableException("Ledger engine stopped after " + failureReason,
+                retryAfterSeconds(), failure);
+    }
+
+    private static final class Command {
+
+        private final PaymentRequest request;
+        private final CompletableFuture<Payment> result = new CompletableFuture<>();
+
+        /**
+         * The entry answering this payment, set by the engine thread.
+         */
+        private LedgerEntry entry;
+
+        private Command(PaymentRequest request) {
+            this.request = request;
+        }
+
+        private void complete(Payment payment) {
+            result.complete(payment);
+        }
+
+        private void fail(RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+
+        private Payment await() {
+            try {
+                return result.get();
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException("Payment failed in the ledger engine", cause);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for payment to complete", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.bancx.loanpayment.payment.ledger;
+
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * One payment accepted by the ledger engine, as written to the journal and
+ * to the database projection.
+ *
+ * Besides the payment itself, an entry carries the loan's balance, status
+ * and settlement time right after the payment. Replaying entries therefore
+ * sets balances rather than re-applying payments, so replaying an entry
+ * twice leaves the same result.
+ *
+ * @param sequence         position of the entry in the journal, starting at 1
+ * @param paymentId        payment ID, drawn from payment_seq
+ * @param loanId           the loan paid
+ * @param paymentAmount    the amount paid
+ * @param timestamp        when the payment was accepted
+ * @param idempotencyKey   the request's Idempotency-Key, or null
+ * @param remainingBalance the loan's balance after the payment
+ * @param status           the loan's status after the payment
+ * @param settledAt        when the loan was settled, or null while it is active
+ * @author Khanyisani Luyanda Ntabeni
+ */
+record LedgerEntry(long sequence,
+                   long paymentId,
+                   long loanId,
+                   Money paymentAmount,
+                   LocalDateTime timestamp,
+                   String idempotencyKey,
+                   Money remainingBalance,
+                   LoanStatus status,
+                   LocalDateTime settledAt) {
+
+    Payment toPayment() {
+        return Payment.builder()
+                .paymentId(paymentId)
+                .loanId(loanId)
+                .paymentAmount(paymentAmount)
+                .timestamp(timestamp)
+                .build();
+    }
+}
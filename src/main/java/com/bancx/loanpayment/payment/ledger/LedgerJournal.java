@@ -0,0 +1,312 @@
+package com.bancx.loanpayment.payment.ledger;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal of the payments accepted by the ledger engine, kept
+ * in memory-mapped segment files.
+ *
+ * Each segment is mapped at its full configured size when it is opened and
+ * named after the sequence of its first entry. A record has a fixed
+ * {@value #RECORD_BYTES}-byte layout, followed by the Idempotency-Key when
+ * there is one, padded to 8 bytes:
+ *
+ * <pre>
+ *  0 int   record length, including the key      40 long  accepted at, epoch seconds (UTC)
+ *  4 int   CRC32C of bytes 8 to the end          48 int   accepted at, nanoseconds
+ *  8 long  sequence                              52 byte  loan status after the payment
+ * 16 long  payment ID                            53 byte  flags: settled-at, key present
+ * 24 long  loan ID                               54 short key length in bytes
+ * 32 long  amount, minor units                   56 long  balance after, minor units
+ * 64 long  settled at, epoch seconds             72 int   settled at, nanoseconds
+ * </pre>
+ *
+ * An append is a copy into the mapping, so a record survives a crash of the
+ * process as soon as it is appended. Surviving a crash of the machine takes
+ * {@link #sync()}, which forces the records appended since the last sync to
+ * disk. The engine calls it when it runs out of payments to apply, or once
+ * enough records are waiting or the oldest has waited long enough
+ * ({@link #syncDue()}), so one fsync commits a group of payments. With fsync off, {@link #sync()} forces nothing and the page
+ * cache writes the segments back on its own schedule.
+ *
+ * A segment rolls over when the next record does not fit, and whenever the
+ * engine takes a snapshot. A closed segment is truncated to the records it
+ * holds, and {@link #deleteThrough} removes the segments a snapshot covers.
+ *
+ * Only the engine thread appends; {@link #deleteThrough} may run on another
+ * thread because it only touches segments that are no longer written to.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Slf4j
+class LedgerJournal implements Closeable {
+
+    static final int RECORD_BYTES = 80;
+    static final int MAX_KEY_BYTES = 1024;
+    static final String SEGMENT_PREFIX = "journal-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    private static final int CHECKED_FROM = 8;
+    private static final byte HAS_SETTLED_AT = 1;
+    private static final byte HAS_IDEMPOTENCY_KEY = 2;
+    private static final int MIN_SEGMENT_BYTES = RECORD_BYTES + MAX_KEY_BYTES;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean fsync;
+    private final long fsyncIntervalNanos;
+    private final int fsyncBatchSize;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES + MAX_KEY_BYTES);
+    private final CRC32C checksum = new CRC32C();
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int syncedPosition;
+    private int unsynced;
+    private long oldestUnsyncedNanos;
+
+    LedgerJournal(PaymentProperties.Ledger settings) throws IOException {
+        long bytes = settings.getSegmentSize().toBytes();
+        if (bytes < MIN_SEGMENT_BYTES || bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Ledger segment size must be between " + MIN_SEGMENT_BYTES
+                    + " bytes and 2GB, got " + settings.getSegmentSize());
+        }
+        this.directory = Files.createDirectories(Path.of(settings.getDirectory()));
+        this.segmentBytes = (int) bytes;
+        this.fsync = settings.isFsync();
+        this.fsyncIntervalNanos = settings.getFsyncInterval().toNanos();
+        this.fsyncBatchSize = settings.getFsyncBatchSize();
+    }
+
+    /**
+     * Starts a new segment whose first entry will have the given sequence.
+     */
+    void open(long firstSequence) throws IOException {
+        channel = FileChannel.open(segmentPath(directory, firstSequence), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        syncedPosition = 0;
+    }
+
+    /**
+     * Copies an entry into the current segment, rolling over to a new
+     * segment first if it does not fit.
+     *
+     * @throws IllegalArgumentException if the entry's Idempotency-Key is too long to journal
+     */
+    void append(LedgerEntry entry) throws IOException {
+        record.clear();
+        encode(entry, record);
+        record.flip();
+        checksum.reset();
+        checksum.update(record.duplicate().position(CHECKED_FROM));
+        record.putInt(4, (int) checksum.getValue());
+
+        if (segment.remaining() < record.remaining()) {
+            roll(entry.sequence());
+        }
+        try {
+            segment.put(record);
+        } catch (InternalError ex) {
+            // A write fault on the mapping, e.g. the disk filled up under a sparse segment
+            throw new IOException("Failed to write to ledger journal segment", ex);
+        }
+        if (unsynced++ == 0) {
+            oldestUnsyncedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Whether the appended records should be committed now: the group has
+     * reached the fsync batch size, or its oldest record has waited for the
+     * fsync interval. With fsync off there is nothing to wait for, so any
+     * appended record is due.
+     */
+    boolean syncDue() {
+        return unsynced > 0 && (!fsync || unsynced >= fsyncBatchSize
+                || System.nanoTime() - oldestUnsyncedNanos >= fsyncIntervalNanos);
+    }
+
+    boolean hasUnsynced() {
+        return unsynced > 0;
+    }
+
+    /**
+     * Forces the records appended since the last sync to disk when fsync is on.
+     */
+    void sync() throws IOException {
+        force();
+        unsynced = 0;
+    }
+
+    /**
+     * Forces and closes the current segment and continues in a new one.
+     * Records appended before the roll still count towards the next sync.
+     */
+    void roll(long firstSequence) throws IOException {
+        closeSegment();
+        open(firstSequence);
+    }
+
+    /**
+     * Deletes the segments holding only entries up to and including the
+     * given sequence. The segment being written is never deleted.
+     */
+    void deleteThrough(long sequence) throws IOException {
+        List<Long> starts = segmentStarts(directory);
+        for (int i = 0; i + 1 < starts.size(); i++) {
+            if (starts.get(i + 1) <= sequence + 1) {
+                Files.deleteIfExists(segmentPath(directory, starts.get(i)));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            closeSegment();
+        }
+    }
+
+    /**
+     * Truncates the segment to its records, so a closed segment takes no
+     * more disk than it holds. The mapping itself is released by the garbage
+     * collector and is not touched again.
+     */
+    private void closeSegment() throws IOException {
+        force();
+        int length = segment.position();
+        segment = null;
+        try {
+            channel.truncate(length);
+        } catch (IOException ex) {
+            log.warn("Could not truncate ledger journal segment to {} bytes: {}", length, ex.toString());
+        }
+        channel.close();
+    }
+
+    private void force() throws IOException {
+        int position = segment.position();
+        if (fsync && position > syncedPosition) {
+            try {
+                segment.force(syncedPosition, position - syncedPosition);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        }
+        syncedPosition = position;
+    }
+
+    static Path segmentPath(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    static List<Long> segmentStarts(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static void encode(LedgerEntry entry, ByteBuffer out) {
+        byte[] key = entry.idempotencyKey() == null
+                ? null
+                : entry.idempotencyKey().getBytes(StandardCharsets.UTF_8);
+        if (key != null && key.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Idempotency-Key must not exceed " + MAX_KEY_BYTES + " bytes");
+        }
+        int keyBytes = key == null ? 0 : key.length;
+        byte flags = 0;
+        if (entry.settledAt() != null) {
+            flags |= HAS_SETTLED_AT;
+        }
+        if (key != null) {
+            flags |= HAS_IDEMPOTENCY_KEY;
+        }
+        out.putInt(RECORD_BYTES + ((keyBytes + 7) & ~7));
+        out.putInt(0);
+        out.putLong(entry.sequence());
+        out.putLong(entry.paymentId());
+        out.putLong(entry.loanId());
+        out.putLong(entry.paymentAmount().minorUnits());
+        out.putLong(entry.timestamp().toEpochSecond(ZoneOffset.UTC));
+        out.putInt(entry.timestamp().getNano());
+        out.put((byte) entry.status().ordinal());
+        out.put(flags);
+        out.putShort((short) keyBytes);
+        out.putLong(entry.remainingBalance().minorUnits());
+        out.putLong(entry.settledAt() == null ? 0L : entry.settledAt().toEpochSecond(ZoneOffset.UTC));
+        out.putInt(entry.settledAt() == null ? 0 : entry.settledAt().getNano());
+        out.putInt(0);
+        if (key != null) {
+            out.put(key);
+            out.put(new byte[((keyBytes + 7) & ~7) - keyBytes]);
+        }
+    }
+
+    /**
+     * Decodes the record starting at the buffer's position and moves past it.
+     *
+     * @return the entry, or null if there is no complete, intact record there
+     */
+    static LedgerEntry decode(ByteBuffer in, CRC32C crc) {
+        if (in.remaining() < RECORD_BYTES) {
+            return null;
+        }
+        int start = in.position();
+        int length = in.getInt(start);
+        if (length < RECORD_BYTES || length > in.remaining() || length > RECORD_BYTES + MAX_KEY_BYTES + 7) {
+            return null;
+        }
+        crc.reset();
+        crc.update(in.slice(start + CHECKED_FROM, length - CHECKED_FROM));
+        if ((int) crc.getValue() != in.getInt(start + 4)) {
+            return null;
+        }
+
+        long sequence = in.getLong(start + 8);
+        long paymentId = in.getLong(start + 16);
+        long loanId = in.getLong(start + 24);
+        Money amount = Money.ofMinor(in.getLong(start + 32));
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.getLong(start + 40), in.getInt(start + 48),
+                ZoneOffset.UTC);
+        LoanStatus status = LoanStatus.values()[in.get(start + 52)];
+        byte flags = in.get(start + 53);
+        int keyBytes = in.getShort(start + 54);
+        Money remaining = Money.ofMinor(in.getLong(start + 56));
+        LocalDateTime settledAt = (flags & HAS_SETTLED_AT) == 0
+                ? null
+                : LocalDateTime.ofEpochSecond(in.getLong(start + 64), in.getInt(start + 72), ZoneOffset.UTC);
+        String key = null;
+        if ((flags & HAS_IDEMPOTENCY_KEY) != 0) {
+            byte[] bytes = new byte[keyBytes];
+            in.get(start + RECORD_BYTES, bytes);
+            key = new String(bytes, StandardCharsets.UTF_8);
+        }
+        in.position(start + length);
+        return new LedgerEntry(sequence, paymentId, loanId, amount, timestamp, key, remaining, status, settledAt);
+    }
+}
@@ -0,0 +1,71 @@
+package com.bancx.loanpayment.payment.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads the {@link LedgerJournal} segments back after a restart.
+ *
+ * Each segment is mapped read-only and decoded record by record until the
+ * first position that does not hold an intact record. In the segment that
+ * was being written when the process stopped, that is the zero-filled space
+ * after the last append; anything else is a record torn by the crash, which
+ * was never acknowledged, so reading stops there with a warning.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Slf4j
+final class LedgerJournalReader {
+
+    private LedgerJournalReader() {
+    }
+
+    /**
+     * Reads the journaled entries with a sequence after the given one, in order.
+     */
+    static List<LedgerEntry> read(Path directory, long afterSequence) throws IOException {
+        List<LedgerEntry> entries = new ArrayList<>();
+        List<Long> starts = LedgerJournal.segmentStarts(directory);
+        CRC32C crc = new CRC32C();
+        for (int i = 0; i < starts.size(); i++) {
+            if (i + 1 < starts.size() && starts.get(i + 1) <= afterSequence + 1) {
+                continue;
+            }
+            Path path = LedgerJournal.segmentPath(directory, starts.get(i));
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                LedgerEntry entry;
+                while ((entry = LedgerJournal.decode(segment, crc)) != null) {
+                    if (entry.sequence() > afterSequence) {
+                        entries.add(entry);
+                    }
+                }
+                if (isTorn(segment)) {
+                    log.warn("Ledger journal segment {} ends in a torn record at byte {}; replaying up to it",
+                            path.getFileName(), segment.position());
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static boolean isTorn(MappedByteBuffer segment) {
+        if (segment.remaining() >= Integer.BYTES) {
+            return segment.getInt(segment.position()) != 0;
+        }
+        while (segment.hasRemaining()) {
+            if (segment.get() != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
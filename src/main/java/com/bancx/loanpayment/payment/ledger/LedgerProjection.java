@@ -0,0 +1,180 @@
+package com.bancx.loanpayment.payment.ledger;
+
+import com.bancx.loanpayment.loan.cache.LoanCache;
+import com.bancx.loanpayment.loan.portfolio.PortfolioAggregates;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.loan.stream.LoanBalanceChanged;
+import com.bancx.loanpayment.payment.outbox.PaymentEvent;
+import com.bancx.loanpayment.payment.outbox.PaymentOutbox;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes the payments accepted by the ledger engine to the loan, payment and
+ * payment_idempotency tables.
+ *
+ * Each batch is written in one transaction with JDBC batches: a payment row
+ * per entry, an Idempotency-Key row per keyed entry, and one UPDATE per loan
+ * carrying the loan's balance and status after its last payment in the
+ * batch. Payment and key rows are only inserted if missing, and loans are
+ * set to absolute values, so a batch replayed from the journal after a
+ * crash leaves the tables as if it had been written once. With the outbox
+ * enabled, an event is recorded for each payment row actually inserted.
+ * Balance streams are told about each loan, and inserted payments are
+ * counted into the portfolio totals, once the batch commits.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+@ConditionalOnProperty(prefix = "loanpayment.payment.ledger", name = "enabled", havingValue = "true")
+@Slf4j
+public class LedgerProjection {
+
+    /**
+     * Matches the allocationSize of payment_seq on {@link com.bancx.loanpayment.payment.entity.Payment}.
+     */
+    static final int PAYMENT_ID_BLOCK = 50;
+
+    private static final String INSERT_PAYMENT = "INSERT INTO payment (payment_id, loan_id, payment_amount, timestamp) "
+            + "SELECT ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM payment WHERE payment_id = ?)";
+
+    private static final String INSERT_IDEMPOTENCY_KEY = "INSERT INTO payment_idempotency "
+            + "(idempotency_key, payment_id, created_at) SELECT ?, ?, ? "
+            + "WHERE NOT EXISTS (SELECT 1 FROM payment_idempotency WHERE idempotency_key = ?)";
+
+    private static final String UPDATE_LOAN = "UPDATE loan SET remaining_balance = ?, status = ?, settled_at = ?, "
+            + "version = version + 1 WHERE loan_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoanRepository loanRepository;
+    private final LoanCache loanCache;
+    private final PaymentOutbox paymentOutbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PortfolioAggregates portfolioAggregates;
+    private final String nextPaymentIdSql;
+
+    public LedgerProjection(JdbcTemplate jdbcTemplate, LoanRepository loanRepository, LoanCache loanCache,
+                            PaymentOutbox paymentOutbox, ApplicationEventPublisher eventPublisher,
+                            PortfolioAggregates portfolioAggregates, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.loanRepository = loanRepository;
+        this.loanCache = loanCache;
+        this.paymentOutbox = paymentOutbox;
+        this.eventPublisher = eventPublisher;
+        this.portfolioAggregates = portfolioAggregates;
+        this.nextPaymentIdSql = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport()
+                .getSequenceNextValString("payment_seq");
+    }
+
+    /**
+     * Reserves a block of {@link #PAYMENT_ID_BLOCK} payment IDs from
+     * payment_seq, the same way Hibernate's pooled-lo optimizer does, so the
+     * engine's IDs never collide with IDs handed out by Hibernate.
+     *
+     * @return the first ID of the block
+     */
+    public long nextPaymentIdBlock() {
+        return Objects.requireNonNull(jdbcTemplate.queryForObject(nextPaymentIdSql, Long.class));
+    }
+
+    /**
+     * Writes a batch of journal entries, oldest first.
+     *
+     * @param entries the entries to write
+     */
+    @Transactional
+    public void project(List<LedgerEntry> entries) {
+        int[][] inserted = jdbcTemplate.batchUpdate(INSERT_PAYMENT, entries, entries.size(), (statement, entry) -> {
+            statement.setLong(1, entry.paymentId());
+            statement.setLong(2, entry.loanId());
+            statement.setBigDecimal(3, entry.paymentAmount().toBigDecimal());
+            statement.setObject(4, entry.timestamp());
+            statement.setLong(5, entry.paymentId());
+        });
+        if (paymentOutbox.isEnabled()) {
+            recordEvents(entries, inserted[0]);
+        }
+        if (portfolioAggregates.isEnabled()) {
+            countPayments(entries, inserted[0]);
+        }
+
+        List<LedgerEntry> keyed = entries.stream()
+                .filter(entry -> entry.idempotencyKey() != null)
+                .toList();
+        if (!keyed.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IDEMPOTENCY_KEY, keyed, keyed.size(), (statement, entry) -> {
+                statement.setString(1, entry.idempotencyKey());
+                statement.setLong(2, entry.paymentId());
+                statement.setObject(3, entry.timestamp());
+                statement.setString(4, entry.idempotencyKey());
+            });
+        }
+
+        Map<Long, LedgerEntry> latestByLoan = new LinkedHashMap<>();
+        entries.forEach(entry -> latestByLoan.put(entry.loanId(), entry));
+        List<LedgerEntry> loans = List.copyOf(latestByLoan.values());
+        jdbcTemplate.batchUpdate(UPDATE_LOAN, loans, loans.size(), (statement, entry) -> {
+            statement.setBigDecimal(1, entry.remainingBalance().toBigDecimal());
+            statement.setString(2, entry.status().name());
+            statement.setObject(3, entry.settledAt());
+            statement.setLong(4, entry.loanId());
+        });
+
+        latestByLoan.keySet().forEach(loanId -> {
+            loanCache.invalidate(loanId);
+            loanRepository.evictLoan(loanId);
+            eventPublisher.publishEvent(new LoanBalanceChanged(loanId));
+        });
+        log.debug("Projected {} ledger entries across {} loans", entries.size(), loans.size());
+    }
+
+    /**
+     * Payments skipped by the INSERT were written, and counted, before.
+     */
+    private void countPayments(List<LedgerEntry> entries, int[] inserted) {
+        Money amount = Money.ZERO;
+        int settled = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            if (inserted[i] > 0 || inserted[i] == Statement.SUCCESS_NO_INFO) {
+                amount = amount.plus(entries.get(i).paymentAmount());
+                // Only the payment that settles a loan leaves it SETTLED; later ones are rejected
+                if (entries.get(i).status() == LoanStatus.SETTLED) {
+                    settled++;
+                }
+            }
+        }
+        portfolioAggregates.paymentsApplied(amount, settled);
+    }
+
+    /**
+     * Payments skipped by the INSERT were written before, with their events.
+     */
+    private void recordEvents(List<LedgerEntry> entries, int[] inserted) {
+        List<PaymentEvent> events = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            if (inserted[i] > 0 || inserted[i] == Statement.SUCCESS_NO_INFO) {
+                LedgerEntry entry = entries.get(i);
+                events.add(new PaymentEvent(null, PaymentEvent.typeFor(entry.status()), entry.loanId(),
+                        entry.paymentId(), entry.paymentAmount(), entry.remainingBalance(), entry.status(),
+                        entry.timestamp()));
+            }
+        }
+        paymentOutbox.record(events);
+    }
+}
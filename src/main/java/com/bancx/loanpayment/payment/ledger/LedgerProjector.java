@@ -0,0 +1,249 @@
+package com.bancx.loanpayment.payment.ledger;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Background thread feeding journaled entries to {@link LedgerProjection}.
+ *
+ * Entries are collected into batches of up to the configured size, waiting
+ * at most the linger time for a batch to fill. A batch that fails to write
+ * is retried with backoff. While the database is unavailable it is retried
+ * until it succeeds or the projector is stopped; entries still unwritten at
+ * shutdown are in the journal and are written again on the next start. A
+ * batch refused for any other reason the configured number of times is
+ * split in two and each half written on its own, so that one poison entry
+ * cannot hold up the entries before it. An entry that still fails alone
+ * holds the projection: it and every entry after it stay unwritten, and
+ * are retried with backoff until the entry is written, so the projected
+ * sequence, and with it the snapshots and journal deletion, never move past
+ * it. The engine stops accepting payments as soon as it sees the refusal,
+ * and a restart replays the held entries from the journal. Failed attempts
+ * and a held entry are exported as metrics.
+ *
+ * Snapshots requested by the engine are written here once every entry they
+ * cover is in the database, after which the journal segments they cover
+ * are deleted.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Slf4j
+class LedgerProjector {
+
+    private static final long MAX_BACKOFF_MILLIS = 5_000;
+
+    private final LedgerProjection projection;
+    private final LedgerJournal journal;
+    private final LedgerSnapshots snapshots;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final int maxAttempts;
+    private final Counter failures;
+    private final BlockingQueue<LedgerEntry> queue = new LinkedBlockingQueue<>();
+    private final AtomicReference<LedgerSnapshots.Snapshot> pendingSnapshot = new AtomicReference<>();
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile long projectedSequence;
+    private volatile RuntimeException refusal;
+
+    LedgerProjector(LedgerProjection projection, LedgerJournal journal, LedgerSnapshots snapshots,
+                    PaymentProperties.Ledger settings, long projectedSequence, MeterRegistry meterRegistry) {
+        this.projection = projection;
+        this.journal = journal;
+        this.snapshots = snapshots;
+        this.batchSize = settings.getProjectionBatchSize();
+        this.lingerNanos = settings.getProjectionLinger().toNanos();
+        this.maxAttempts = Math.max(1, settings.getProjectionMaxAttempts());
+        this.projectedSequence = projectedSequence;
+        this.failures = Counter.builder("payment.ledger.projection.failures")
+                .description("Failed attempts to write a batch of journaled payments to the database")
+                .register(meterRegistry);
+        Gauge.builder("payment.ledger.projection.refused", this, projector -> projector.refusal == null ? 0 : 1)
+                .description("1 while the projection is held at a journaled payment the database refuses")
+                .register(meterRegistry);
+        this.thread = new Thread(this::run, "ledger-projector");
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void enqueue(List<LedgerEntry> entries) {
+        queue.addAll(entries);
+    }
+
+    /**
+     * Hands over a snapshot to write once the projection has caught up with it.
+     */
+    void requestSnapshot(LedgerSnapshots.Snapshot snapshot) {
+        pendingSnapshot.set(snapshot);
+    }
+
+    /**
+     * Sequence of the newest entry known to be in the database.
+     */
+    long projectedSequence() {
+        return projectedSequence;
+    }
+
+    /**
+     * Why the database refuses the entry the projection is held at, or null
+     * if it is not held.
+     */
+    RuntimeException refusal() {
+        return refusal;
+    }
+
+    int backlog() {
+        return queue.size();
+    }
+
+    /**
+     * Writes what is queued, then stops.
+     *
+     * @return false if the queue did not drain within the timeout
+     */
+    boolean stop(Duration timeout) throws InterruptedException {
+        running = false;
+        thread.join(timeout.toMillis());
+        if (thread.isAlive()) {
+            thread.interrupt();
+            thread.join();
+            return false;
+        }
+        return true;
+    }
+
+    private void run() {
+        List<LedgerEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LedgerEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    fill(batch);
+                    write(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+                writePendingSnapshot();
+            } catch (InterruptedException ex) {
+                log.warn("Ledger projection interrupted with {} entries unwritten; they will be replayed on restart",
+                        batch.size() + queue.size());
+                return;
+            }
+        }
+        writePendingSnapshot();
+    }
+
+    private void fill(List<LedgerEntry> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            LedgerEntry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<LedgerEntry> batch) throws InterruptedException {
+        long backoff = 10;
+        int attempts = 0;
+        while (true) {
+            try {
+                projection.project(batch);
+                projectedSequence = batch.get(batch.size() - 1).sequence();
+                if (refusal != null) {
+                    log.warn("Database accepted ledger entry {} it had refused; the projection continues",
+                            batch.get(0).sequence());
+                    refusal = null;
+                }
+                return;
+            } catch (RuntimeException ex) {
+                failures.increment();
+                if (!isUnavailable(ex) && ++attempts == maxAttempts) {
+                    if (batch.size() > 1) {
+                        writeInHalves(batch);
+                        return;
+                    }
+                    hold(batch.get(0), ex);
+                }
+                log.error("Failed to write {} ledger entries to the database, retrying in {} ms",
+                        batch.size(), backoff, ex);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Writes a batch the database refused on every attempt in two halves,
+     * so the entries before a poison entry still get through.
+     */
+    private void writeInHalves(List<LedgerEntry> batch) throws InterruptedException {
+        log.warn("Database refused {} ledger entries {} times; writing them in halves", batch.size(), maxAttempts);
+        int half = batch.size() / 2;
+        write(batch.subList(0, half));
+        write(batch.subList(half, batch.size()));
+    }
+
+    /**
+     * Holds the projection at an entry the database refuses on its own; the
+     * engine stops once it sees the refusal.
+     */
+    private void hold(LedgerEntry entry, RuntimeException ex) {
+        log.error("Database refused ledger entry {} {} times; the projection is held at it and the ledger engine "
+                        + "stops. It is retried until written, and replayed from the journal on restart: {}",
+                entry.sequence(), maxAttempts, entry, ex);
+        refusal = ex;
+    }
+
+    /**
+     * Whether a failure means the database could not be reached, rather
+     * than that it refused the entries.
+     */
+    private static boolean isUnavailable(RuntimeException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException;
+    }
+
+    private void writePendingSnapshot() {
+        LedgerSnapshots.Snapshot snapshot = pendingSnapshot.get();
+        if (snapshot == null || projectedSequence < snapshot.sequence()) {
+            return;
+        }
+        try {
+            snapshots.write(snapshot);
+            journal.deleteThrough(snapshot.sequence());
+            log.info("Wrote ledger snapshot at sequence {} with {} accounts",
+                    snapshot.sequence(), snapshot.accounts().size());
+        } catch (IOException ex) {
+            log.error("Failed to write ledger snapshot at sequence {}", snapshot.sequence(), ex);
+        }
+        pendingSnapshot.compareAndSet(snapshot, null);
+    }
+}
@@ -0,0 +1,96 @@
+package com.bancx.loanpayment.payment.ledger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free ring buffer with many producers and a single consumer.
+ *
+ * Each slot carries a sequence number telling whose turn it is: a producer
+ * claims the next position with one compare-and-set on the tail, writes its
+ * element and then publishes the slot by advancing the slot's sequence. The
+ * consumer takes a slot once it has been published and hands it back to the
+ * producers one lap later. Neither side ever blocks; a producer finding the
+ * buffer full gets {@code false} back.
+ *
+ * {@link #poll()} must only be called from one thread.
+ *
+ * @param <E> type of the elements
+ * @author Khanyisani Luyanda Ntabeni
+ */
+class LedgerRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+
+    LedgerRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ledger ring capacity must be a power of two, got " + capacity);
+        }
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.setPlain(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there is a free slot.
+     *
+     * @param element the element to add
+     * @return false if the buffer is full
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.setPlain(index, element);
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest published element. Consumer thread only.
+     *
+     * @return the element, or null if none is ready
+     */
+    E poll() {
+        long position = head.getPlain();
+        int index = (int) (position & mask);
+        if (sequences.getAcquire(index) != position + 1) {
+            return null;
+        }
+        E element = elements.getPlain(index);
+        elements.setPlain(index, null);
+        sequences.setRelease(index, position + mask + 1);
+        head.setRelease(position + 1);
+        return element;
+    }
+
+    /**
+     * Returns the number of claimed slots; approximate while producers are active.
+     */
+    int size() {
+        return (int) Math.max(0L, tail.get() - head.getAcquire());
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
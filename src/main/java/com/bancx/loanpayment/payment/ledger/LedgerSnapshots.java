@@ -0,0 +1,153 @@
+package com.bancx.loanpayment.payment.ledger;
+
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshots of the ledger engine's balances, so that startup only replays
+ * the journal written since the last snapshot.
+ *
+ * A snapshot is written to a temporary file and moved into place, and ends
+ * with a checksum; a snapshot that fails its checksum is skipped in favour
+ * of the one before it. Only the newest two snapshots are kept.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Slf4j
+class LedgerSnapshots {
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    private static final int FORMAT = 1;
+    private static final int KEPT = 2;
+
+    private final Path directory;
+
+    LedgerSnapshots(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Balances as of one journal sequence.
+     *
+     * @param sequence sequence of the last journal entry included
+     * @param accounts the balances
+     */
+    record Snapshot(long sequence, Collection<LedgerAccount> accounts) {
+    }
+
+    void write(Snapshot snapshot) throws IOException {
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, snapshot.sequence(), SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(temporary)) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32C());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(FORMAT);
+            out.writeLong(snapshot.sequence());
+            out.writeInt(snapshot.accounts().size());
+            for (LedgerAccount account : snapshot.accounts()) {
+                out.writeLong(account.getLoanId());
+                out.writeLong(account.getRemainingBalance().minorUnits());
+                out.writeByte(account.getStatus().ordinal());
+                out.writeLong(account.getLastSequence());
+                out.writeBoolean(account.getSettledAt() != null);
+                if (account.getSettledAt() != null) {
+                    out.writeLong(account.getSettledAt().toEpochSecond(ZoneOffset.UTC));
+                    out.writeInt(account.getSettledAt().getNano());
+                }
+            }
+            out.flush();
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        List<Path> snapshots = list();
+        for (int i = 0; i < snapshots.size() - KEPT; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+    }
+
+    /**
+     * Loads the newest readable snapshot.
+     *
+     * @return the snapshot, or empty if there is none
+     */
+    Optional<Snapshot> latest() throws IOException {
+        List<Path> snapshots = list();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try {
+                return Optional.of(read(snapshots.get(i)));
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Skipping unreadable ledger snapshot {}: {}", snapshots.get(i), ex.toString());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Snapshot read(Path path) throws IOException {
+        try (CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(path)), new CRC32C())) {
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != FORMAT) {
+                throw new IOException("Unknown snapshot format");
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+            List<LedgerAccount> accounts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long loanId = in.readLong();
+                Money remaining = Money.ofMinor(in.readLong());
+                LoanStatus status = LoanStatus.values()[in.readByte()];
+                long lastSequence = in.readLong();
+                LocalDateTime settledAt = in.readBoolean()
+                        ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+                        : null;
+                accounts.add(new LedgerAccount(loanId, remaining, status, settledAt, lastSequence));
+            }
+            long computed = checked.getChecksum().getValue();
+            if (in.readLong() != computed) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+            return new Snapshot(sequence, accounts);
+        }
+    }
+
+    private List<Path> list() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.bancx.loanpayment.payment.metrics;
+
+import com.bancx.loanpayment.util.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters for the payment pipeline.
+ *
+ * <ul>
+ *     <li>{@code payment.stage} timer, tagged {@code stage}: time spent in each
+ *     step of processing a payment inside its transaction. The loan_update and
+ *     payment_insert stages flush, so they include their SQL statements.</li>
+ *     <li>{@code payment.requests} timer: end-to-end time of a single payment,
+ *     including sequencer queueing and the commit.</li>
+ *     <li>{@code payment.outcome} counter, tagged {@code outcome}.</li>
+ *     <li>{@code payment.amount} distribution summary of applied payment amounts.</li>
+ * </ul>
+ *
+ * All timers and the amount summary publish histogram buckets, so percentiles
+ * can be aggregated across instances from the Prometheus endpoint.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+public class PaymentMetrics {
+
+    /**
+     * Steps of processing a single payment.
+     */
+    public enum Stage {
+        LOAN_LOOKUP,
+        VALIDATION,
+        LOAN_UPDATE,
+        PAYMENT_INSERT,
+        OUTBOX_INSERT
+    }
+
+    /**
+     * How a payment ended.
+     */
+    public enum Outcome {
+        SUCCESS,
+        OVERPAYMENT,
+        SETTLED_REJECTION,
+        OPTIMISTIC_LOCK_CONFLICT
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+    private final Timer requestTimer;
+    private final DistributionSummary amounts;
+
+    public PaymentMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("payment.stage")
+                    .description("Time spent in each stage of processing a payment")
+                    .tag("stage", tagValue(stage))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder("payment.outcome")
+                    .description("Payments by outcome")
+                    .tag("outcome", tagValue(outcome))
+                    .register(meterRegistry));
+        }
+        this.requestTimer = Timer.builder("payment.requests")
+                .description("End-to-end time of a single payment, including commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.amounts = DistributionSummary.builder("payment.amount")
+                .description("Amounts of applied payments")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(0.01)
+                .maximumExpectedValue(10_000_000.0)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs one stage of a payment and records how long it took, whether or not it succeeded.
+     */
+    public <T> T time(Stage stage, Supplier<T> action) {
+        return stageTimers.get(stage).record(action);
+    }
+
+    /**
+     * Runs one stage of a payment and records how long it took, whether or not it succeeded.
+     */
+    public void time(Stage stage, Runnable action) {
+        stageTimers.get(stage).record(action);
+    }
+
+    /**
+     * Runs a whole payment and records its end-to-end time.
+     */
+    public <T> T timeRequest(Supplier<T> payment) {
+        return requestTimer.record(payment);
+    }
+
+    public void recordOutcome(Outcome outcome) {
+        outcomeCounters.get(outcome).increment();
+    }
+
+    /**
+     * Counts a successfully applied payment and records its amount.
+     */
+    public void recordSuccess(Money amount) {
+        recordOutcome(Outcome.SUCCESS);
+        amounts.record(amount.minorUnits() / 100.0);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,43 @@
+package com.bancx.loanpayment.payment.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends published events to a local file as JSON lines, one event per
+ * line, for tests and for feeding a log shipper. The file is opened and
+ * closed once per batch, so it can be rotated between batches.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+public class FilePaymentEventSink implements PaymentEventSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FilePaymentEventSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void publish(List<PaymentEvent> events) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)) {
+            for (PaymentEvent event : events) {
+                writer.write(objectMapper.writeValueAsString(event));
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.bancx.loanpayment.payment.outbox;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * In-process stand-in for a message broker, for tests and local runs.
+ * Keeps the most recent {@value #CAPACITY} published events in memory,
+ * dropping the oldest beyond that.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+public class InMemoryPaymentEventSink implements PaymentEventSink {
+
+    static final int CAPACITY = 10_000;
+
+    private final Deque<PaymentEvent> events = new ArrayDeque<>();
+
+    @Override
+    public synchronized void publish(List<PaymentEvent> batch) {
+        for (PaymentEvent event : batch) {
+            if (events.size() == CAPACITY) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    /**
+     * Returns the events published so far, oldest first.
+     */
+    public synchronized List<PaymentEvent> events() {
+        return List.copyOf(events);
+    }
+
+    /**
+     * Forgets every event published so far.
+     */
+    public synchronized void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,74 @@
+package com.bancx.loanpayment.payment.outbox;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payment applied to a loan, as recorded in the payment_outbox table and
+ * published to downstream systems.
+ *
+ * The payment that brings a loan's balance to zero is published as
+ * {@link Type#LOAN_SETTLED}; every other payment as
+ * {@link Type#PAYMENT_APPLIED}. Either way the event carries the loan's
+ * balance and status right after the payment.
+ *
+ * @param eventId          position in the outbox; events of one loan are published in this order
+ * @param type             what happened to the loan
+ * @param loanId           the loan paid
+ * @param paymentId        the payment applied
+ * @param paymentAmount    the amount paid
+ * @param remainingBalance the loan's balance after the payment
+ * @param loanStatus       the loan's status after the payment
+ * @param occurredAt       when the payment was made
+ * @author Khanyisani Luyanda Ntabeni
+ */
+public record PaymentEvent(Long eventId,
+                           Type type,
+                           Long loanId,
+                           Long paymentId,
+                           Money paymentAmount,
+                           Money remainingBalance,
+                           LoanStatus loanStatus,
+                           LocalDateTime occurredAt) {
+
+    /**
+     * Kinds of payment event.
+     */
+    public enum Type {
+        PAYMENT_APPLIED,
+        LOAN_SETTLED
+    }
+
+    /**
+     * Describes a payment from the state of the loan it was just applied to.
+     * The event ID is assigned by the outbox when the event is recorded.
+     *
+     * @param loan    the loan, after the payment
+     * @param payment the payment
+     * @return the event, without an event ID
+     */
+    public static PaymentEvent of(Loan loan, Payment payment) {
+        return new PaymentEvent(null, typeFor(loan.getStatus()), loan.getLoanId(), payment.getPaymentId(),
+                payment.getPaymentAmount(), loan.getRemainingBalance(), loan.getStatus(), payment.getTimestamp());
+    }
+
+    /**
+     * The event type of a payment that left its loan in the given status.
+     */
+    public static Type typeFor(LoanStatus loanStatus) {
+        return loanStatus == LoanStatus.SETTLED ? Type.LOAN_SETTLED : Type.PAYMENT_APPLIED;
+    }
+
+    /**
+     * Returns this event for the given payment ID, for events described
+     * before their payment was persisted.
+     */
+    public PaymentEvent withPaymentId(Long paymentId) {
+        return new PaymentEvent(eventId, type, loanId, paymentId, paymentAmount, remainingBalance, loanStatus,
+                occurredAt);
+    }
+}
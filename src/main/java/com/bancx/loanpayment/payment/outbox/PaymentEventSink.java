@@ -0,0 +1,28 @@
+package com.bancx.loanpayment.payment.outbox;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination the {@link PaymentOutboxRelay} publishes payment events to.
+ *
+ * A sink is handed one batch at a time, oldest event first, and must
+ * publish the batch in that order. A batch that fails is handed over again
+ * on the next relay run, so a sink may see an event more than once and
+ * consumers should deduplicate on the payment ID.
+ *
+ * Declaring a PaymentEventSink bean replaces the sink chosen by
+ * {@code loanpayment.payment.outbox.sink}.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+public interface PaymentEventSink {
+
+    /**
+     * Publishes a batch of events, in order.
+     *
+     * @param events the events, oldest first
+     * @throws IOException if the batch could not be published
+     */
+    void publish(List<PaymentEvent> events) throws IOException;
+}
@@ -0,0 +1,127 @@
+package com.bancx.loanpayment.payment.outbox;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The payment_outbox table: payment events recorded in the transaction
+ * that applies the payment, so an event exists if and only if its payment
+ * was committed, and read back by the {@link PaymentOutboxRelay}.
+ *
+ * Event IDs come from the table's identity column, assigned as each row is
+ * inserted. Of two payments to the same loan, the later one only commits
+ * if it was inserted after the earlier one committed: in ATOMIC mode the
+ * loan row lock holds it back, otherwise the version check rolls it back.
+ * It therefore has the higher ID, also across instances, and reading in ID
+ * order keeps each loan's events in order.
+ *
+ * Recording is a no-op unless {@code loanpayment.payment.outbox.enabled}
+ * is set.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+public class PaymentOutbox {
+
+    private static final String INSERT = "INSERT INTO payment_outbox (event_type, loan_id, payment_id, "
+            + "payment_amount, remaining_balance, loan_status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_FROM_LOAN = "INSERT INTO payment_outbox (event_type, loan_id, payment_id, "
+            + "payment_amount, remaining_balance, loan_status, created_at) "
+            + "SELECT CASE WHEN status = 'SETTLED' THEN 'LOAN_SETTLED' ELSE 'PAYMENT_APPLIED' END, loan_id, ?, ?, "
+            + "remaining_balance, status, ? FROM loan WHERE loan_id = ?";
+
+    private static final String SELECT_OLDEST = "SELECT event_id, event_type, loan_id, payment_id, payment_amount, "
+            + "remaining_balance, loan_status, created_at FROM payment_outbox ORDER BY event_id FETCH FIRST ? ROWS ONLY";
+
+    private static final String DELETE = "DELETE FROM payment_outbox WHERE event_id = ?";
+
+    private static final RowMapper<PaymentEvent> EVENT = (rs, rowNum) -> new PaymentEvent(
+            rs.getLong("event_id"),
+            PaymentEvent.Type.valueOf(rs.getString("event_type")),
+            rs.getLong("loan_id"),
+            rs.getLong("payment_id"),
+            Money.of(rs.getBigDecimal("payment_amount")),
+            Money.of(rs.getBigDecimal("remaining_balance")),
+            LoanStatus.valueOf(rs.getString("loan_status")),
+            rs.getObject("created_at", LocalDateTime.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public PaymentOutbox(JdbcTemplate jdbcTemplate, PaymentProperties paymentProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = paymentProperties.getOutbox().isEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records events in the current transaction, as one JDBC batch.
+     *
+     * @param events the events, in the order their payments were applied
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(List<PaymentEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.type().name());
+            statement.setLong(2, event.loanId());
+            statement.setLong(3, event.paymentId());
+            statement.setBigDecimal(4, event.paymentAmount().toBigDecimal());
+            statement.setBigDecimal(5, event.remainingBalance().toBigDecimal());
+            statement.setString(6, event.loanStatus().name());
+            statement.setObject(7, event.occurredAt());
+        });
+    }
+
+    /**
+     * Records the event for a payment whose loan was updated in place by a
+     * conditional UPDATE, taking the balance and status from the loan row
+     * in the same INSERT.
+     *
+     * @param payment the payment, already applied to its loan in the current transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordFromLoan(Payment payment) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_FROM_LOAN, payment.getPaymentId(), payment.getPaymentAmount().toBigDecimal(),
+                payment.getTimestamp(), payment.getLoanId());
+    }
+
+    /**
+     * Reads the oldest recorded events.
+     *
+     * @param limit the maximum number of events
+     * @return the events, in event ID order
+     */
+    public List<PaymentEvent> oldest(int limit) {
+        return jdbcTemplate.query(SELECT_OLDEST, EVENT, limit);
+    }
+
+    /**
+     * Deletes published events, as one JDBC batch.
+     *
+     * @param events the events to delete
+     */
+    public void delete(List<PaymentEvent> events) {
+        jdbcTemplate.batchUpdate(DELETE, events, events.size(),
+                (statement, event) -> statement.setLong(1, event.eventId()));
+    }
+}
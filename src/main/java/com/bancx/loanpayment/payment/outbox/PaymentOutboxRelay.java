@@ -0,0 +1,119 @@
+package com.bancx.loanpayment.payment.outbox;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the events recorded in the {@link PaymentOutbox} to the
+ * {@link PaymentEventSink} and deletes them once published.
+ *
+ * Every poll interval the relay reads the oldest events, up to the batch
+ * size, and publishes them as one batch. A full batch goes out at once; a
+ * smaller one waits until its oldest event is at least the linger time old,
+ * so that a steady trickle of payments still leaves in batches. Published
+ * events are deleted with one JDBC batch. If publishing fails, nothing is
+ * deleted and the same events are read again on the next poll, so events
+ * are published at least once and each loan's events stay in order.
+ *
+ * The relay runs on its own thread rather than the shared scheduler, so a
+ * long archival run never holds events back. It reads without locking, so
+ * it must run on one instance only; the others still record events.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+@ConditionalOnExpression("${loanpayment.payment.outbox.enabled:false} and ${loanpayment.payment.outbox.relay-enabled:true}")
+@Slf4j
+public class PaymentOutboxRelay {
+
+    private final PaymentOutbox outbox;
+    private final PaymentEventSink sink;
+    private final PaymentProperties.Outbox settings;
+    private final Counter published;
+    private final Counter failures;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            runnable -> new Thread(runnable, "payment-outbox-relay"));
+
+    public PaymentOutboxRelay(PaymentOutbox outbox, PaymentEventSink sink, PaymentProperties paymentProperties,
+                              MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        this.sink = sink;
+        this.settings = paymentProperties.getOutbox();
+        this.published = Counter.builder("payment.outbox.published")
+                .description("Payment events published from the outbox")
+                .register(meterRegistry);
+        this.failures = Counter.builder("payment.outbox.failures")
+                .description("Outbox relay runs that failed to publish or delete a batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts polling once the application, and with it the schema, is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = settings.getPollInterval().toNanos();
+        executor.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publishes and deletes batches until the outbox holds no batch that is
+     * due: none at all, or fewer events than the batch size whose oldest is
+     * younger than the linger time. Synchronized so that a call from
+     * outside the relay thread never publishes the same batch twice.
+     *
+     * @return the number of events published
+     * @throws IOException if the sink fails to publish a batch
+     */
+    public synchronized int relay() throws IOException {
+        int total = 0;
+        while (true) {
+            List<PaymentEvent> batch = outbox.oldest(settings.getBatchSize());
+            if (batch.isEmpty() || (batch.size() < settings.getBatchSize() && lingering(batch.get(0)))) {
+                return total;
+            }
+            sink.publish(batch);
+            outbox.delete(batch);
+            published.increment(batch.size());
+            total += batch.size();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(settings.getPollInterval().toMillis() + 5_000, TimeUnit.MILLISECONDS)) {
+            log.warn("Outbox relay did not stop in time");
+        }
+    }
+
+    private boolean lingering(PaymentEvent oldest) {
+        return oldest.occurredAt().isAfter(LocalDateTime.now().minus(settings.getLinger()));
+    }
+
+    private void poll() {
+        try {
+            int count = relay();
+            if (count > 0) {
+                log.debug("Published {} payment events from the outbox", count);
+            }
+        } catch (Exception ex) {
+            failures.increment();
+            log.warn("Outbox relay failed; retrying in {}: {}", settings.getPollInterval(), ex.toString());
+        }
+    }
+}
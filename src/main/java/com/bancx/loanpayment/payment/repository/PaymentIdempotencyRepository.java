@@ -0,0 +1,33 @@
+package com.bancx.loanpayment.payment.repository;
+
+import com.bancx.loanpayment.payment.entity.PaymentIdempotency;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for managing PaymentIdempotency entities.
+ * Extends JpaRepository to provide standard CRUD operations
+ * and JPA data access methods for recorded idempotency keys.
+ *
+ * Spring Data JPA will automatically generate the implementation.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Repository
+public interface PaymentIdempotencyRepository extends JpaRepository<PaymentIdempotency, String> {
+
+    /**
+     * Deletes every idempotency key recorded before the given time.
+     *
+     * @param cutoff keys created before this time are removed
+     * @return the number of keys removed
+     */
+    @Modifying
+    @Query("DELETE FROM PaymentIdempotency p WHERE p.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,9 +1,16 @@
 package com.bancx.loanpayment.payment.repository;
 
 import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.rest.PaymentView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Repository interface for managing Payment entities.
  * Extends JpaRepository to provide standard CRUD operations
@@ -14,4 +21,49 @@ import org.springframework.stereotype.Repository;
  * @author Khanyisani Luyanda Ntabeni
  */
 @Repository
-public interface PaymentRepository extends JpaRepository<Payment, Long> {}
+public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    /**
+     * Returns the payments of a loan that come after the given position, oldest first.
+     * Seeks into the idx_payment_loan_timestamp index at {@code (loanId, timestamp)}
+     * and reads it in order, so the cost does not grow with the page number.
+     *
+     * The query is shaped for H2's planner: the timestamp bound is what makes it
+     * prefer this index over the one backing fk_payment_loan, and loan_id leads
+     * the ORDER BY so the index order is recognised and no sort is done. The
+     * payment ID breaks ties between payments made at the same time.
+     *
+     * @param loanId    the ID of the loan
+     * @param timestamp the timestamp of the last payment already returned
+     * @param paymentId the ID of the last payment already returned
+     * @param limit     the maximum number of payments to return
+     * @return the payments, ordered by timestamp and payment ID
+     */
+    @Query("SELECT new com.bancx.loanpayment.payment.rest.PaymentView(p.paymentId, p.loanId, p.paymentAmount, p.timestamp) "
+            + "FROM Payment p WHERE p.loanId = :loanId AND p.timestamp >= :timestamp "
+            + "AND (p.timestamp > :timestamp OR p.paymentId > :paymentId) "
+            + "ORDER BY p.loanId, p.timestamp, p.paymentId")
+    List<PaymentView> findHistoryAfter(@Param("loanId") Long loanId,
+                                       @Param("timestamp") LocalDateTime timestamp,
+                                       @Param("paymentId") Long paymentId,
+                                       Limit limit);
+
+    /**
+     * Same as {@link #findHistoryAfter}, for the payments of an archived loan,
+     * read from the idx_payment_archive_loan_timestamp index.
+     *
+     * @param loanId    the ID of the loan
+     * @param timestamp the timestamp of the last payment already returned
+     * @param paymentId the ID of the last payment already returned
+     * @param limit     the maximum number of payments to return
+     * @return the payments, ordered by timestamp and payment ID
+     */
+    @Query("SELECT new com.bancx.loanpayment.payment.rest.PaymentView(p.paymentId, p.loanId, p.paymentAmount, p.timestamp) "
+            + "FROM ArchivedPayment p WHERE p.loanId = :loanId AND p.timestamp >= :timestamp "
+            + "AND (p.timestamp > :timestamp OR p.paymentId > :paymentId) "
+            + "ORDER BY p.loanId, p.timestamp, p.paymentId")
+    List<PaymentView> findArchivedHistoryAfter(@Param("loanId") Long loanId,
+                                               @Param("timestamp") LocalDateTime timestamp,
+                                               @Param("paymentId") Long paymentId,
+                                               Limit limit);
+}
@@ -0,0 +1,34 @@
+package com.bancx.loanpayment.payment.rest;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO representing a batch of payments submitted in a single call.
+ * Each entry is validated with the same constraints as a single {@link PaymentRequest}.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaymentBatchRequest {
+
+    /**
+     * The payments to process, in the order they should be applied.
+     * Must contain between 1 and 1000 entries.
+     */
+    @NotEmpty(message = "At least one payment is required")
+    @Size(max = 1000, message = "A batch may contain at most 1000 payments")
+    @Valid
+    private List<PaymentRequest> payments;
+
+}
@@ -0,0 +1,65 @@
+package com.bancx.loanpayment.payment.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a loan's payment history: the timestamp and ID of the last
+ * payment on a page. The next page starts after this payment in
+ * {@code (timestamp, paymentId)} order.
+ *
+ * Sent to clients as an opaque URL-safe string.
+ *
+ * @param timestamp the timestamp of the last payment returned
+ * @param paymentId the ID of the last payment returned
+ * @author Khanyisani Luyanda Ntabeni
+ */
+public record PaymentCursor(LocalDateTime timestamp, Long paymentId) {
+
+    /**
+     * Position before the first payment of every loan.
+     */
+    public static final PaymentCursor START = new PaymentCursor(LocalDateTime.of(1, 1, 1, 0, 0), 0L);
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Creates the cursor that continues after the given payment.
+     *
+     * @param payment the last payment on a page
+     * @return the cursor
+     */
+    public static PaymentCursor after(PaymentView payment) {
+        return new PaymentCursor(payment.getTimestamp(), payment.getPaymentId());
+    }
+
+    /**
+     * Parses a cursor previously returned by {@link #encode()}.
+     *
+     * @param value the encoded cursor
+     * @return the cursor
+     * @throws IllegalArgumentException if the value is not a valid cursor
+     */
+    public static PaymentCursor decode(String value) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            return new PaymentCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.valueOf(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid payment cursor: " + value);
+        }
+    }
+
+    /**
+     * Encodes this cursor for use as the {@code after} request parameter.
+     *
+     * @return the URL-safe encoded cursor
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((timestamp.toString() + SEPARATOR + paymentId).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,31 @@
+package com.bancx.loanpayment.payment.rest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO holding one page of a loan's payment history, oldest payment first.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaymentPage {
+
+    /**
+     * The payments on this page, ordered by timestamp and then payment ID.
+     */
+    private List<PaymentView> payments;
+
+    /**
+     * Cursor to pass as {@code after} to fetch the next page,
+     * or null when this is the last page.
+     */
+    private String nextCursor;
+}
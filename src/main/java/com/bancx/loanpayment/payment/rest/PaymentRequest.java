@@ -1,5 +1,6 @@
 package com.bancx.loanpayment.payment.rest;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -40,4 +41,11 @@ public class PaymentRequest {
     @DecimalMin(value = "0.01", message = "Payment amount must be greater than 0")
     private BigDecimal paymentAmount;
 
+    /**
+     * The client's Idempotency-Key, taken from the request header rather than the body.
+     * Null when the client did not send one.
+     */
+    @JsonIgnore
+    private String idempotencyKey;
+
 }
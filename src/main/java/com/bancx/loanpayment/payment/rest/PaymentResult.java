@@ -0,0 +1,65 @@
+package com.bancx.loanpayment.payment.rest;
+
+import com.bancx.loanpayment.payment.entity.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO describing the outcome of a single payment within a batch.
+ * Contains the persisted payment when applied, or the rejection reason otherwise.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaymentResult {
+
+    /**
+     * The ID of the loan the payment was aimed at.
+     */
+    private Long loanId;
+
+    /**
+     * The requested payment amount.
+     */
+    private BigDecimal paymentAmount;
+
+    /**
+     * Whether the payment was applied or rejected, or whether that is unknown.
+     */
+    private Status status;
+
+    /**
+     * The persisted payment, present only when the payment was applied.
+     */
+    private Payment payment;
+
+    /**
+     * The reason the payment was not applied, present unless it was applied.
+     */
+    private String message;
+
+    /**
+     * How long to wait before resubmitting, present only for RETRY.
+     */
+    private Long retryAfterSeconds;
+
+    /**
+     * Possible outcomes of a payment.
+     *
+     * RETRY: the payment was not applied because the system was busy or shutting down; resubmit it later.
+     * UNKNOWN: the payment may or may not have been applied; check the loan's payments before resubmitting it.
+     */
+    public enum Status {
+        APPLIED,
+        REJECTED,
+        RETRY,
+        UNKNOWN
+    }
+}
@@ -0,0 +1,72 @@
+package com.bancx.loanpayment.payment.rest;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO describing where a payment accepted with 202 currently stands.
+ * Returned when the payment is accepted and by GET /payments/status/{reference}.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class PaymentStatus {
+
+    /**
+     * The reference the client polls the payment by.
+     */
+    private String reference;
+
+    /**
+     * The ID of the loan the payment is aimed at.
+     */
+    private Long loanId;
+
+    /**
+     * The requested payment amount.
+     */
+    private BigDecimal paymentAmount;
+
+    /**
+     * Whether the payment is still waiting, was applied, was rejected, or
+     * should be resubmitted.
+     */
+    private Status status;
+
+    /**
+     * The ID of the persisted payment, present only when applied.
+     */
+    private Long paymentId;
+
+    /**
+     * The reason the payment was not applied, present for every status but
+     * PENDING and APPLIED.
+     */
+    private String message;
+
+    /**
+     * How long to wait before resubmitting, present only for RETRY.
+     */
+    private Long retryAfterSeconds;
+
+    /**
+     * Stages of an accepted payment.
+     *
+     * RETRY: the payment was not applied because the system was busy or shutting down; resubmit it later.
+     * UNKNOWN: the payment may or may not have been applied; resubmit it with the same Idempotency-Key.
+     */
+    public enum Status {
+        PENDING,
+        APPLIED,
+        REJECTED,
+        RETRY,
+        UNKNOWN
+    }
+}
@@ -0,0 +1,43 @@
+package com.bancx.loanpayment.payment.rest;
+
+import com.bancx.loanpayment.util.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a payment in a loan's payment history.
+ * Selected directly by the history query, so no Payment entities are loaded
+ * into the persistence context.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaymentView {
+
+    /**
+     * The ID of the payment.
+     */
+    private Long paymentId;
+
+    /**
+     * The ID of the loan the payment was applied to.
+     */
+    private Long loanId;
+
+    /**
+     * The amount paid.
+     */
+    private Money paymentAmount;
+
+    /**
+     * When the payment was made.
+     */
+    private LocalDateTime timestamp;
+}
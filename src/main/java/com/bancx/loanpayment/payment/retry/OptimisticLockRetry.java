@@ -0,0 +1,122 @@
+package com.bancx.loanpayment.payment.retry;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a payment transaction that failed because another transaction
+ * updated the same loan first.
+ *
+ * A conflicting transaction has been rolled back in full and the loan cache
+ * entry it read has been invalidated, so the next attempt reads the current
+ * balance and applies the payment rules again. Between attempts the caller
+ * sleeps for a random delay of up to
+ * {@code initialBackoff * multiplier^(retry - 1)}, capped at
+ * {@code maxBackoff}; the jitter spreads out writers that collided so they
+ * do not collide again on the next attempt. Once {@code maxAttempts} is
+ * used up, the last conflict is rethrown.
+ *
+ * <ul>
+ *     <li>{@code payment.retry.attempts} counter: attempts after the first.</li>
+ *     <li>{@code payment.retry.exhausted} counter: payments that ran out of attempts.</li>
+ *     <li>{@code payment.retry.delay} timer: time from a payment's first conflict
+ *     until it succeeded or gave up, i.e. the latency retries added.</li>
+ * </ul>
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+@Slf4j
+public class OptimisticLockRetry {
+
+    private final PaymentProperties.Retry settings;
+    private final Counter attempts;
+    private final Counter exhausted;
+    private final Timer delay;
+
+    public OptimisticLockRetry(PaymentProperties paymentProperties, MeterRegistry meterRegistry) {
+        this.settings = paymentProperties.getRetry();
+        if (settings.getMaxAttempts() < 1) {
+            throw new IllegalArgumentException("Payment retry max-attempts must be at least 1");
+        }
+        this.attempts = Counter.builder("payment.retry.attempts")
+                .description("Payment attempts made after an optimistic-lock conflict")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("payment.retry.exhausted")
+                .description("Payments that still conflicted after the last attempt")
+                .register(meterRegistry);
+        this.delay = Timer.builder("payment.retry.delay")
+                .description("Time from a payment's first conflict until it succeeded or gave up")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a transaction, re-running it after optimistic-lock conflicts.
+     * Any other exception is rethrown straight away.
+     *
+     * @param transaction the work to run; must start and commit its own transaction
+     * @return the transaction's result
+     * @throws ObjectOptimisticLockingFailureException if every attempt conflicted
+     */
+    public <T> T execute(Supplier<T> transaction) {
+        long firstConflict = 0L;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transaction.get();
+                if (attempt > 1) {
+                    delay.record(System.nanoTime() - firstConflict, TimeUnit.NANOSECONDS);
+                }
+                return result;
+            } catch (ObjectOptimisticLockingFailureException ex) {
+                if (attempt == 1) {
+                    firstConflict = System.nanoTime();
+                }
+                if (attempt >= settings.getMaxAttempts()) {
+                    if (attempt > 1) {
+                        exhausted.increment();
+                        delay.record(System.nanoTime() - firstConflict, TimeUnit.NANOSECONDS);
+                        log.warn("Payment still conflicting after {} attempts", attempt);
+                    }
+                    throw ex;
+                }
+                backOff(attempt, ex);
+                attempts.increment();
+            }
+        }
+    }
+
+    /**
+     * Upper bound of the delay before the given retry, in nanoseconds.
+     *
+     * @param retry 1 for the first retry, 2 for the second, and so on
+     */
+    long backoffBound(int retry) {
+        double bound = settings.getInitialBackoff().toNanos() * Math.pow(settings.getMultiplier(), retry - 1);
+        return (long) Math.min(bound, settings.getMaxBackoff().toNanos());
+    }
+
+    private void backOff(int retry, ObjectOptimisticLockingFailureException conflict) {
+        long bound = backoffBound(retry);
+        if (bound <= 0) {
+            return;
+        }
+        long nanos = ThreadLocalRandom.current().nextLong(bound + 1);
+        log.debug("Optimistic-lock conflict on attempt {}, retrying in {} µs", retry, nanos / 1000);
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
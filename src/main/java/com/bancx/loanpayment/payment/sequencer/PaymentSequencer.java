@@ -0,0 +1,180 @@
+package com.bancx.loanpayment.payment.sequencer;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.exception.PaymentQueueFullException;
+import com.bancx.loanpayment.exception.PaymentUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs payments on a fixed set of single-threaded lanes, keyed by loan ID.
+ *
+ * Every payment for a given loan lands on the same lane, so payments to one
+ * loan run one after another instead of racing on the @Version column, while
+ * payments to different loans run in parallel across lanes.
+ *
+ * Each lane has a bounded queue. When a lane is full the caller waits up to
+ * the configured offer timeout and is then rejected with
+ * {@link PaymentQueueFullException}. Queue depth per lane and rejections are
+ * exported as metrics.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Component
+@ConditionalOnProperty(prefix = "loanpayment.payment.sequencer", name = "enabled", havingValue = "true")
+@Slf4j
+public class PaymentSequencer {
+
+    private final ThreadPoolExecutor[] lanes;
+    private final PaymentProperties.Sequencer settings;
+    private final Counter rejections;
+
+    public PaymentSequencer(PaymentProperties paymentProperties, MeterRegistry meterRegistry) {
+        this.settings = paymentProperties.getSequencer();
+        if (settings.getLanes() < 1) {
+            throw new IllegalArgumentException("Sequencer lanes must be at least 1");
+        }
+        this.lanes = new ThreadPoolExecutor[settings.getLanes()];
+        this.rejections = Counter.builder("payment.sequencer.rejections")
+                .description("Payments rejected because their lane was full")
+                .register(meterRegistry);
+
+        RejectedExecutionHandler waitForRoom = this::waitForRoom;
+        for (int i = 0; i < lanes.length; i++) {
+            String name = "payment-lane-" + i;
+            BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, queue,
+                    runnable -> new Thread(runnable, name), waitForRoom);
+            Gauge.builder("payment.sequencer.queue.depth", queue, BlockingQueue::size)
+                    .description("Payments waiting in a sequencer lane")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        log.info("Payment sequencer started with {} lanes of capacity {}", lanes.length, settings.getQueueCapacity());
+    }
+
+    /**
+     * Runs a task on the lane owning the given loan and waits for its result.
+     * Exceptions thrown by the task are rethrown unchanged to the caller.
+     *
+     * @param loanId the loan the task operates on
+     * @param task   the work to run
+     * @return the task's result
+     * @throws PaymentQueueFullException   if the lane stays full for the offer timeout
+     * @throws PaymentUnavailableException if the sequencer is shutting down and did not run the task
+     */
+    public <T> T execute(Long loanId, Supplier<T> task) {
+        FutureTask<T> future = new FutureTask<>(task::get);
+        laneFor(loanId).execute(future);
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Payment failed on sequencer lane", cause);
+        } catch (CancellationException ex) {
+            throw new PaymentUnavailableException("Payment sequencer shut down before the payment was applied",
+                    retryAfterSeconds(), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for payment to complete", ex);
+        }
+    }
+
+    /**
+     * Returns the number of payments currently waiting on each lane.
+     *
+     * @return queue depth per lane, indexed by lane number
+     */
+    public int[] queueDepths() {
+        int[] depths = new int[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            depths[i] = lanes[i].getQueue().size();
+        }
+        return depths;
+    }
+
+    /**
+     * Stops accepting payments and waits for queued payments to drain.
+     * Payments still queued after the shutdown timeout are cancelled, so
+     * their callers fail instead of waiting forever.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + settings.getShutdownTimeout().toNanos();
+        for (ThreadPoolExecutor lane : lanes) {
+            long remaining = deadline - System.nanoTime();
+            if (!lane.awaitTermination(Math.max(remaining, 0L), TimeUnit.NANOSECONDS)) {
+                List<Runnable> dropped = lane.shutdownNow();
+                dropped.forEach(PaymentSequencer::cancel);
+                log.warn("Sequencer lane did not drain within {}; {} payments cancelled",
+                        settings.getShutdownTimeout(), dropped.size());
+            }
+        }
+    }
+
+    int laneIndex(Long loanId) {
+        long mixed = loanId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod(Long.hashCode(mixed ^ (mixed >>> 32)), lanes.length);
+    }
+
+    private ThreadPoolExecutor laneFor(Long loanId) {
+        return lanes[laneIndex(loanId)];
+    }
+
+    private void waitForRoom(Runnable task, ThreadPoolExecutor lane) {
+        if (!lane.isShutdown()) {
+            try {
+                if (lane.getQueue().offer(task, settings.getOfferTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                    // The lane may have shut down, and its worker exited, while we waited
+                    if (!lane.isShutdown() || !lane.getQueue().remove(task)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (lane.isShutdown()) {
+            throw new PaymentUnavailableException("Payment sequencer is shutting down", retryAfterSeconds(), null);
+        }
+        rejections.increment();
+        throw new PaymentQueueFullException("Too many pending payments for this loan, please retry",
+                retryAfterSeconds());
+    }
+
+    private long retryAfterSeconds() {
+        return Math.max(1L, settings.getOfferTimeout().toSeconds());
+    }
+
+    private static void cancel(Runnable task) {
+        if (task instanceof Future<?> future) {
+            future.cancel(false);
+        }
+    }
+}
@@ -3,9 +3,12 @@ package com.bancx.loanpayment.payment.service;
 
 import com.bancx.loanpayment.payment.entity.Payment;
 
+import com.bancx.loanpayment.payment.rest.PaymentPage;
 import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.rest.PaymentResult;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 
 
 /**
@@ -24,4 +27,25 @@ public interface PaymentService {
      * @throws IllegalArgumentException if payment exceeds remaining balance.
      */
     public Payment processPayment(PaymentRequest payment);
+
+    /**
+     * Processes a batch of payments in a single transaction.
+     * Business rule violations are reported per payment instead of failing the batch.
+     *
+     * @param payments Payments to apply, in order.
+     * @return One result per payment, in the same order as the input.
+     */
+    public List<PaymentResult> processPayments(List<PaymentRequest> payments);
+
+    /**
+     * Returns one page of a loan's payments, oldest first.
+     *
+     * @param loanId ID of the loan.
+     * @param after  Cursor from the previous page, or null for the first page.
+     * @param limit  Maximum number of payments on the page, or null for the default.
+     * @return The page, with a cursor for the next page if there is one.
+     * @throws com.bancx.loanpayment.exception.LoanNotFoundException if the loan does not exist.
+     * @throws IllegalArgumentException if the cursor or limit is invalid.
+     */
+    public PaymentPage getPaymentHistory(Long loanId, String after, Integer limit);
 }
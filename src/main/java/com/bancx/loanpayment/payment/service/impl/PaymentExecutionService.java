@@ -0,0 +1,177 @@
+package com.bancx.loanpayment.payment.service.impl;
+
+import com.bancx.loanpayment.exception.LoanNotFoundException;
+import com.bancx.loanpayment.exception.PaymentOutcomeUnknownException;
+import com.bancx.loanpayment.exception.PaymentQueueFullException;
+import com.bancx.loanpayment.exception.PaymentUnavailableException;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.idempotency.PaymentIdempotencyCache;
+import com.bancx.loanpayment.payment.ledger.LedgerEngine;
+import com.bancx.loanpayment.payment.metrics.PaymentMetrics;
+import com.bancx.loanpayment.payment.metrics.PaymentMetrics.Outcome;
+import com.bancx.loanpayment.payment.rest.PaymentPage;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.rest.PaymentResult;
+import com.bancx.loanpayment.payment.retry.OptimisticLockRetry;
+import com.bancx.loanpayment.payment.sequencer.PaymentSequencer;
+import com.bancx.loanpayment.payment.service.PaymentService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point for payment processing used by the controllers.
+ *
+ * Decides how a payment is executed before handing it to
+ * {@link PaymentServiceImpl}: directly on the calling thread, or on the
+ * loan's sequencer lane when the sequencer is enabled. Payments carrying an
+ * Idempotency-Key are run at most once per key. A payment that loses an
+ * optimistic-lock race on its loan is re-run by {@link OptimisticLockRetry}.
+ * When the ledger engine is enabled, every payment, including each payment
+ * of a batch, is applied by {@link LedgerEngine} instead.
+ *
+ * Successful payments and optimistic-lock conflicts are counted here, after
+ * the payment transaction has committed or failed to commit; a conflict is
+ * only counted once the payment has run out of retries.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Service
+@Primary
+public class PaymentExecutionService implements PaymentService {
+
+    private final PaymentServiceImpl paymentServiceImpl;
+    private final PaymentIdempotencyCache paymentIdempotencyCache;
+    private final PaymentSequencer paymentSequencer;
+    private final OptimisticLockRetry optimisticLockRetry;
+    private final PaymentMetrics paymentMetrics;
+    private final LedgerEngine ledgerEngine;
+
+    public PaymentExecutionService(PaymentServiceImpl paymentServiceImpl,
+                                   PaymentIdempotencyCache paymentIdempotencyCache,
+                                   ObjectProvider<PaymentSequencer> paymentSequencer,
+                                   OptimisticLockRetry optimisticLockRetry,
+                                   PaymentMetrics paymentMetrics,
+                                   ObjectProvider<LedgerEngine> ledgerEngine) {
+        this.paymentServiceImpl = paymentServiceImpl;
+        this.paymentIdempotencyCache = paymentIdempotencyCache;
+        this.paymentSequencer = paymentSequencer.getIfAvailable();
+        this.optimisticLockRetry = optimisticLockRetry;
+        this.paymentMetrics = paymentMetrics;
+        this.ledgerEngine = ledgerEngine.getIfAvailable();
+    }
+
+    /**
+     * Processes a payment, on the loan's sequencer lane if the sequencer is enabled.
+     * A request with an Idempotency-Key that was already used returns the original payment.
+     *
+     * @param request PaymentRequest containing loan ID and payment amount
+     * @return Persisted Payment entity
+     */
+    @Override
+    public Payment processPayment(PaymentRequest request) {
+        if (request.getIdempotencyKey() != null) {
+            return paymentIdempotencyCache.execute(request.getIdempotencyKey(), request, () -> dispatch(request));
+        }
+        return dispatch(request);
+    }
+
+    /**
+     * Processes a batch of payments on the calling thread. A batch already
+     * applies its payments to each loan in order within one transaction.
+     * With the ledger engine, the payments are applied one after another by
+     * the engine and each is accepted or rejected on its own. A payment the
+     * engine was too busy for, or refused while stopped, is reported as RETRY;
+     * one it stopped on before committing it as UNKNOWN. Either way the
+     * results of the payments before it are still returned.
+     *
+     * @param requests Payments to apply, in order
+     * @return One result per payment, in the same order as the input
+     */
+    @Override
+    public List<PaymentResult> processPayments(List<PaymentRequest> requests) {
+        if (ledgerEngine != null) {
+            return processOnLedger(requests);
+        }
+        List<PaymentResult> results;
+        try {
+            results = paymentServiceImpl.processPayments(requests);
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            paymentMetrics.recordOutcome(Outcome.OPTIMISTIC_LOCK_CONFLICT);
+            throw ex;
+        }
+        results.stream()
+                .filter(result -> result.getStatus() == PaymentResult.Status.APPLIED)
+                .forEach(result -> paymentMetrics.recordSuccess(result.getPayment().getPaymentAmount()));
+        return results;
+    }
+
+    /**
+     * Returns one page of a loan's payments. Reads run on the calling thread.
+     *
+     * @param loanId ID of the loan
+     * @param after  Cursor from the previous page, or null for the first page
+     * @param limit  Maximum number of payments on the page, or null for the default
+     * @return The page, with a cursor for the next page if there is one
+     */
+    @Override
+    public PaymentPage getPaymentHistory(Long loanId, String after, Integer limit) {
+        return paymentServiceImpl.getPaymentHistory(loanId, after, limit);
+    }
+
+    private Payment dispatch(PaymentRequest request) {
+        Payment payment;
+        try {
+            payment = paymentMetrics.timeRequest(() -> {
+                if (ledgerEngine != null) {
+                    return ledgerEngine.execute(request);
+                }
+                return paymentSequencer == null
+                        ? processWithRetry(request)
+                        : paymentSequencer.execute(request.getLoanId(), () -> processWithRetry(request));
+            });
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            paymentMetrics.recordOutcome(Outcome.OPTIMISTIC_LOCK_CONFLICT);
+            throw ex;
+        }
+        paymentMetrics.recordSuccess(payment.getPaymentAmount());
+        return payment;
+    }
+
+    private List<PaymentResult> processOnLedger(List<PaymentRequest> requests) {
+        List<PaymentResult> results = new ArrayList<>(requests.size());
+        for (PaymentRequest request : requests) {
+            PaymentResult.PaymentResultBuilder result = PaymentResult.builder()
+                    .loanId(request.getLoanId())
+                    .paymentAmount(request.getPaymentAmount());
+            try {
+                Payment payment = ledgerEngine.execute(request);
+                paymentMetrics.recordSuccess(payment.getPaymentAmount());
+                results.add(result.status(PaymentResult.Status.APPLIED).payment(payment).build());
+            } catch (PaymentOutcomeUnknownException ex) {
+                // Batch payments carry no Idempotency-Key, so the client has to look before resubmitting
+                results.add(result.status(PaymentResult.Status.UNKNOWN)
+                        .message("Ledger engine stopped before the payment was committed; it may still be applied. "
+                                + "Check the loan's payments before resubmitting it")
+                        .build());
+            } catch (PaymentQueueFullException ex) {
+                results.add(result.status(PaymentResult.Status.RETRY).message(ex.getMessage())
+                        .retryAfterSeconds(ex.getRetryAfterSeconds()).build());
+            } catch (PaymentUnavailableException ex) {
+                results.add(result.status(PaymentResult.Status.RETRY).message(ex.getMessage())
+                        .retryAfterSeconds(ex.getRetryAfterSeconds()).build());
+            } catch (LoanNotFoundException | IllegalStateException | IllegalArgumentException ex) {
+                results.add(result.status(PaymentResult.Status.REJECTED).message(ex.getMessage()).build());
+            }
+        }
+        return results;
+    }
+
+    private Payment processWithRetry(PaymentRequest request) {
+        return optimisticLockRetry.execute(() -> paymentServiceImpl.processPayment(request));
+    }
+}
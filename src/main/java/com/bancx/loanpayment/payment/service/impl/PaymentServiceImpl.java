@@ -1,18 +1,40 @@
 package com.bancx.loanpayment.payment.service.impl;
 
+import com.bancx.loanpayment.config.PaymentProperties;
 import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.portfolio.PortfolioAggregates;
 import com.bancx.loanpayment.loan.service.LoanService;
 import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.entity.PaymentIdempotency;
+import com.bancx.loanpayment.payment.metrics.PaymentMetrics;
+import com.bancx.loanpayment.payment.metrics.PaymentMetrics.Outcome;
+import com.bancx.loanpayment.payment.metrics.PaymentMetrics.Stage;
+import com.bancx.loanpayment.payment.outbox.PaymentEvent;
+import com.bancx.loanpayment.payment.outbox.PaymentOutbox;
+import com.bancx.loanpayment.payment.repository.PaymentIdempotencyRepository;
 import com.bancx.loanpayment.payment.repository.PaymentRepository;
+import com.bancx.loanpayment.payment.rest.PaymentCursor;
+import com.bancx.loanpayment.payment.rest.PaymentPage;
 import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.rest.PaymentResult;
+import com.bancx.loanpayment.payment.rest.PaymentView;
 import com.bancx.loanpayment.payment.service.PaymentService;
 import com.bancx.loanpayment.util.LoanStatus;
-import jakarta.transaction.Transactional;
+import com.bancx.loanpayment.util.Money;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service that handles business logic for loan payments,
@@ -30,15 +52,37 @@ public class PaymentServiceImpl implements PaymentService {
 
     private LoanService loanService;
     private PaymentRepository paymentRepository;
+    private PaymentIdempotencyRepository paymentIdempotencyRepository;
+    private PaymentProperties paymentProperties;
+    private PaymentMetrics paymentMetrics;
+    private PaymentOutbox paymentOutbox;
+    private PortfolioAggregates portfolioAggregates;
 
     /**
      * Processes a payment towards a loan.
      * Validates the payment amount, updates remaining balance,
      * settles loan if fully paid, and persists payment record.
      *
+     * In ATOMIC balance update mode the check, decrement and settlement are
+     * done by a single conditional UPDATE instead of a read-modify-write.
+     *
+     * When the request carries an Idempotency-Key, the key is recorded in the
+     * same transaction as the payment so a retry can find the original payment.
+     * With the outbox enabled, the payment's event is recorded in the same
+     * transaction too.
+     * The payment, and the settlement if it settles the loan, are counted
+     * into the portfolio totals once the transaction commits; in ATOMIC mode
+     * that takes a read of the loan's status.
+     *
+     * Each stage is timed in {@link PaymentMetrics}; the loan update and the
+     * payment insert are flushed inside their stages, so those timers include
+     * the SQL. Overpayments and payments on settled loans are counted as they
+     * are rejected.
+     *
      * @param request PaymentRequest containing loan ID and payment amount
      * @return Persisted Payment entity
      * @throws IllegalArgumentException if payment exceeds remaining balance
+     *                                  or has more than two decimal places
      * @throws IllegalStateException if loan is already settled
      */
 
@@ -46,42 +90,263 @@ public class PaymentServiceImpl implements PaymentService {
     public Payment processPayment(PaymentRequest request) {
         log.info("Processing payment for loanId={}, amount={}", request.getLoanId(), request.getPaymentAmount());
 
-        Loan loan = loanService.getLoan(request.getLoanId());
+        Money paymentAmt = Money.of(request.getPaymentAmount());
+
+        Loan updatedLoan = null;
+        if (paymentProperties.getBalanceUpdateMode() == PaymentProperties.BalanceUpdateMode.ATOMIC) {
+            debitAtomically(request.getLoanId(), paymentAmt);
+        } else {
+            Loan loan = paymentMetrics.time(Stage.LOAN_LOOKUP, () -> loanService.getLoan(request.getLoanId()));
+            paymentMetrics.time(Stage.VALIDATION, () -> applyPayment(loan, paymentAmt));
+            // Flushed inside the stage so the timer covers the UPDATE itself, not just the dirty marking
+            paymentMetrics.time(Stage.LOAN_UPDATE, () -> {
+                loanService.updateLoan(loan);
+                paymentRepository.flush();
+            });
+            updatedLoan = loan;
+        }
+
+        Payment payment = Payment.builder()
+                .loanId(request.getLoanId())
+                .paymentAmount(paymentAmt)
+                .build();
+
+        Payment savedPayment = paymentMetrics.time(Stage.PAYMENT_INSERT, () -> {
+            Payment saved = paymentRepository.save(payment);
+            paymentRepository.flush();
+            return saved;
+        });
+        log.info("Payment saved with paymentId={} for loanId={}", savedPayment.getPaymentId(), savedPayment.getLoanId());
+
+        if (request.getIdempotencyKey() != null) {
+            paymentIdempotencyRepository.save(PaymentIdempotency.builder()
+                    .idempotencyKey(request.getIdempotencyKey())
+                    .paymentId(savedPayment.getPaymentId())
+                    .build());
+        }
+
+        if (portfolioAggregates.isEnabled()) {
+            LoanStatus status = updatedLoan != null
+                    ? updatedLoan.getStatus()
+                    : loanService.getLoanStatus(request.getLoanId());
+            portfolioAggregates.paymentsApplied(paymentAmt, status == LoanStatus.SETTLED ? 1 : 0);
+        }
+
+        if (paymentOutbox.isEnabled()) {
+            Loan loan = updatedLoan;
+            paymentMetrics.time(Stage.OUTBOX_INSERT, () -> {
+                if (loan == null) {
+                    paymentOutbox.recordFromLoan(savedPayment);
+                } else {
+                    paymentOutbox.record(List.of(PaymentEvent.of(loan, savedPayment)));
+                }
+            });
+        }
+
+        return savedPayment;
+    }
+
+    /**
+     * Processes a batch of payments in a single transaction.
+     * Loads every referenced loan with one query, applies the payments in
+     * input order, and hands all loan updates and payment inserts to
+     * Hibernate so they are flushed as JDBC batches.
+     *
+     * Payments that break a business rule are reported as rejected and do not
+     * affect the rest of the batch. With the outbox enabled, an event per
+     * applied payment is recorded in the same transaction, as one JDBC batch.
+     *
+     * @param requests Payments to apply, in order
+     * @return One result per payment, in the same order as the input
+     */
+
+    @Transactional
+    public List<PaymentResult> processPayments(List<PaymentRequest> requests) {
+        log.info("Processing payment batch of size={}", requests.size());
+
+        Set<Long> loanIds = requests.stream()
+                .map(PaymentRequest::getLoanId)
+                .collect(Collectors.toSet());
+        Map<Long, Loan> loans = new HashMap<>();
+        loanService.getLoans(loanIds).forEach(loan -> loans.put(loan.getLoanId(), loan));
+
+        List<PaymentResult> results = new ArrayList<>(requests.size());
+        List<Payment> payments = new ArrayList<>(requests.size());
+        List<PaymentEvent> events = new ArrayList<>(requests.size());
+        Map<Long, Loan> updatedLoans = new LinkedHashMap<>();
+
+        for (PaymentRequest request : requests) {
+            PaymentResult.PaymentResultBuilder result = PaymentResult.builder()
+                    .loanId(request.getLoanId())
+                    .paymentAmount(request.getPaymentAmount());
+
+            Loan loan = loans.get(request.getLoanId());
+            if (loan == null) {
+                results.add(result.status(PaymentResult.Status.REJECTED)
+                        .message("Loan ID " + request.getLoanId() + " not found")
+                        .build());
+                continue;
+            }
+
+            Money paymentAmt;
+            try {
+                paymentAmt = Money.of(request.getPaymentAmount());
+                applyPayment(loan, paymentAmt);
+            } catch (IllegalStateException | IllegalArgumentException ex) {
+                results.add(result.status(PaymentResult.Status.REJECTED)
+                        .message(ex.getMessage())
+                        .build());
+                continue;
+            }
+
+            Payment payment = Payment.builder()
+                    .loanId(request.getLoanId())
+                    .paymentAmount(paymentAmt)
+                    .build();
+            payments.add(payment);
+            events.add(PaymentEvent.of(loan, payment));
+            updatedLoans.put(loan.getLoanId(), loan);
+            results.add(result.status(PaymentResult.Status.APPLIED)
+                    .payment(payment)
+                    .build());
+        }
+
+        loanService.updateLoans(updatedLoans.values());
+        paymentRepository.saveAll(payments);
+        if (portfolioAggregates.isEnabled()) {
+            portfolioAggregates.paymentsApplied(
+                    payments.stream().map(Payment::getPaymentAmount).reduce(Money.ZERO, Money::plus),
+                    (int) updatedLoans.values().stream().filter(loan -> loan.getStatus() == LoanStatus.SETTLED).count());
+        }
+        if (paymentOutbox.isEnabled()) {
+            // Payment IDs are assigned by saveAll, after the events were described
+            for (int i = 0; i < events.size(); i++) {
+                events.set(i, events.get(i).withPaymentId(payments.get(i).getPaymentId()));
+            }
+            paymentOutbox.record(events);
+        }
+
+        log.info("Payment batch applied {} of {} payments across {} loans",
+                payments.size(), requests.size(), updatedLoans.size());
+        return results;
+    }
+
+    /**
+     * Returns one page of a loan's payments, oldest first, using keyset
+     * pagination: a page is found by seeking to the cursor's position in the
+     * (loan_id, timestamp, payment_id) index, so every page costs the same
+     * however deep into the history it is. The first page seeks from
+     * {@link PaymentCursor#START}.
+     *
+     * One extra row is fetched to tell whether another page follows.
+     *
+     * Archival moves a loan's payments together with the loan, so when none
+     * are found in the payment table they are looked up in the archive.
+     *
+     * @param loanId ID of the loan
+     * @param after  Cursor from the previous page, or null for the first page
+     * @param limit  Maximum number of payments on the page, or null for the default
+     * @return The page, with a cursor for the next page if there is one
+     * @throws com.bancx.loanpayment.exception.LoanNotFoundException if the loan does not exist
+     * @throws IllegalArgumentException if the cursor is invalid or the limit is out of range
+     */
+    @Transactional(readOnly = true)
+    public PaymentPage getPaymentHistory(Long loanId, String after, Integer limit) {
+        PaymentProperties.History history = paymentProperties.getHistory();
+        int pageSize = limit == null ? history.getDefaultPageSize() : limit;
+        if (pageSize < 1 || pageSize > history.getMaxPageSize()) {
+            throw new IllegalArgumentException("limit must be between 1 and " + history.getMaxPageSize());
+        }
+        PaymentCursor cursor = after == null ? PaymentCursor.START : PaymentCursor.decode(after);
 
+        loanService.getLoan(loanId);
+
+        List<PaymentView> payments = paymentRepository.findHistoryAfter(
+                loanId, cursor.timestamp(), cursor.paymentId(), Limit.of(pageSize + 1));
+        if (payments.isEmpty()) {
+            payments = paymentRepository.findArchivedHistoryAfter(
+                    loanId, cursor.timestamp(), cursor.paymentId(), Limit.of(pageSize + 1));
+        }
+
+        String nextCursor = null;
+        if (payments.size() > pageSize) {
+            payments = payments.subList(0, pageSize);
+            nextCursor = PaymentCursor.after(payments.get(pageSize - 1)).encode();
+        }
+        return PaymentPage.builder()
+                .payments(payments)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Applies a payment with one conditional UPDATE guarded by
+     * {@code remaining_balance >= amount AND status = 'ACTIVE'}.
+     * The loan is only read when the guard fails, to tell the caller why.
+     * The UPDATE does both the validation and the update, so it is timed
+     * as the loan update stage.
+     *
+     * @param loanId     the loan to debit
+     * @param paymentAmt the amount being paid
+     * @throws IllegalArgumentException if payment exceeds remaining balance
+     * @throws IllegalStateException if loan is already settled
+     */
+    private void debitAtomically(Long loanId, Money paymentAmt) {
+        if (paymentMetrics.time(Stage.LOAN_UPDATE, () -> loanService.debitBalance(loanId, paymentAmt))) {
+            log.info("Debited loanId={} by {} in place", loanId, paymentAmt);
+            return;
+        }
+
+        Loan loan = loanService.getLoan(loanId);
+        if (loan.getStatus() == LoanStatus.SETTLED) {
+            log.warn("Attempt to pay on already settled loan with loanId={}", loanId);
+            paymentMetrics.recordOutcome(Outcome.SETTLED_REJECTION);
+            throw new IllegalStateException("Loan is already settled.");
+        }
+        log.warn("Payment amount {} exceeds remaining balance {} for loanId={}", paymentAmt, loan.getRemainingBalance(), loanId);
+        paymentMetrics.recordOutcome(Outcome.OVERPAYMENT);
+        throw new IllegalArgumentException("Payment exceeds remaining balance");
+    }
+
+    /**
+     * Applies the payment rules to a loan: rejects payments on settled loans
+     * and overpayments, reduces the remaining balance, and settles the loan
+     * once the balance reaches zero. The loan is left untouched when the
+     * payment is rejected.
+     *
+     * The ledger engine applies payments to its in-memory balances through
+     * this method too, so both paths enforce the same rules.
+     *
+     * @param loan       the loan to apply the payment to
+     * @param paymentAmt the amount being paid
+     * @throws IllegalArgumentException if payment exceeds remaining balance
+     * @throws IllegalStateException if loan is already settled
+     */
+    public void applyPayment(Loan loan, Money paymentAmt) {
         if (loan.getStatus() == LoanStatus.SETTLED) {
             log.warn("Attempt to pay on already settled loan with loanId={}", loan.getLoanId());
+            paymentMetrics.recordOutcome(Outcome.SETTLED_REJECTION);
             throw new IllegalStateException("Loan is already settled.");
         }
 
-        BigDecimal remaining = loan.getRemainingBalance();
-        BigDecimal paymentAmt = request.getPaymentAmount();
+        Money remaining = loan.getRemainingBalance();
 
-        if (paymentAmt.compareTo(remaining) > 0) {
+        if (paymentAmt.isGreaterThan(remaining)) {
             log.warn("Payment amount {} exceeds remaining balance {} for loanId={}", paymentAmt, remaining, loan.getLoanId());
+            paymentMetrics.recordOutcome(Outcome.OVERPAYMENT);
             throw new IllegalArgumentException("Payment exceeds remaining balance");
         }
 
         // Update loan remaining balance
-        BigDecimal newBalance = remaining.subtract(paymentAmt);
+        Money newBalance = remaining.minus(paymentAmt);
         loan.setRemainingBalance(newBalance);
         log.info("Updated loanId={} remaining balance from {} to {}", loan.getLoanId(), remaining, newBalance);
 
         // Set loan status to SETTLED if fully paid
-        if (newBalance.compareTo(BigDecimal.ZERO) == 0) {
+        if (newBalance.isZero()) {
             loan.setStatus(LoanStatus.SETTLED);
+            loan.setSettledAt(LocalDateTime.now());
             log.info("Loan loanId={} fully paid and marked as SETTLED", loan.getLoanId());
         }
-
-        loanService.updateLoan(loan);
-
-        Payment payment = Payment.builder()
-                .loanId(request.getLoanId())
-                .paymentAmount(paymentAmt)
-                .build();
-
-        Payment savedPayment = paymentRepository.save(payment);
-        log.info("Payment saved with paymentId={} for loanId={}", savedPayment.getPaymentId(), savedPayment.getLoanId());
-
-        return savedPayment;
     }
 }
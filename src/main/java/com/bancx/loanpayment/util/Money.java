@@ -0,0 +1,188 @@
+package com.bancx.loanpayment.util;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable monetary amount held as a whole number of cents.
+ *
+ * Matches the DECIMAL(19,2) columns of the loan and payment tables: the scale
+ * is always 2, and the range is that of a {@code long} number of cents.
+ * Arithmetic is plain {@code long} arithmetic, so the payment hot path does not
+ * allocate intermediate {@link BigDecimal} objects.
+ *
+ * Values that have more than two decimal places or do not fit the range are
+ * rejected with {@link IllegalArgumentException}; arithmetic that overflows
+ * throws {@link ArithmeticException}.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@JsonSerialize(using = MoneyJsonSerializer.class)
+@JsonDeserialize(using = MoneyJsonDeserializer.class)
+@Schema(type = "number", format = "decimal", example = "100.00")
+public record Money(long minorUnits) implements Comparable<Money>, Serializable {
+
+    /**
+     * Number of decimal places, matching the DECIMAL(19,2) columns.
+     */
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0L);
+
+    private static final long MINOR_PER_MAJOR = 100L;
+
+    /**
+     * Digits before the decimal point of the largest amount, {@code Long.MAX_VALUE} cents.
+     */
+    private static final int MAX_INTEGER_DIGITS = 17;
+
+    /**
+     * Creates an amount from a whole number of cents.
+     *
+     * @param minorUnits the amount in cents
+     * @return the amount
+     */
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0L ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Converts a decimal amount, rejecting values with more than two decimal places.
+     *
+     * @param value the amount; may be null
+     * @return the amount, or null if value is null
+     * @throws IllegalArgumentException if the value has more than two decimal places or is out of range
+     */
+    public static Money of(BigDecimal value) {
+        if (value == null) {
+            return null;
+        }
+        // Checked before rescaling: setScale on a value like 1e100000000 builds a number of that many digits
+        BigDecimal stripped = value.stripTrailingZeros();
+        if (stripped.scale() > SCALE || stripped.precision() - stripped.scale() > MAX_INTEGER_DIGITS) {
+            throw invalid(value.toString());
+        }
+        try {
+            return ofMinor(stripped.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        } catch (ArithmeticException ex) {
+            throw invalid(value.toString());
+        }
+    }
+
+    /**
+     * Parses a plain decimal string such as {@code "1250.5"} or {@code "-3.25"}
+     * without going through {@link BigDecimal}.
+     *
+     * @param text the amount; may be null
+     * @return the amount, or null if text is null
+     * @throws IllegalArgumentException if the text is not a valid amount with at most two decimal places
+     */
+    public static Money of(String text) {
+        if (text == null) {
+            return null;
+        }
+        int length = text.length();
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            index++;
+        }
+        if (index == length) {
+            throw invalid(text);
+        }
+
+        long minor = 0L;
+        int fractionDigits = -1;
+        boolean sawDigit = false;
+        try {
+            for (; index < length; index++) {
+                char c = text.charAt(index);
+                if (c == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else if (c >= '0' && c <= '9') {
+                    if (fractionDigits >= 0 && ++fractionDigits > SCALE) {
+                        if (c != '0') {
+                            throw invalid(text);
+                        }
+                        continue;
+                    }
+                    minor = Math.addExact(Math.multiplyExact(minor, 10L), c - '0');
+                    sawDigit = true;
+                } else if (c == 'e' || c == 'E') {
+                    // Exponent notation is rare on the wire; let BigDecimal handle it.
+                    return of(new BigDecimal(text));
+                } else {
+                    throw invalid(text);
+                }
+            }
+            if (!sawDigit) {
+                throw invalid(text);
+            }
+            for (int scaled = Math.max(fractionDigits, 0); scaled < SCALE; scaled++) {
+                minor = Math.multiplyExact(minor, 10L);
+            }
+        } catch (ArithmeticException ex) {
+            throw invalid(text);
+        }
+        return ofMinor(negative ? -minor : minor);
+    }
+
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0L;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return minorUnits > other.minorUnits;
+    }
+
+    /**
+     * Converts to a {@link BigDecimal} with scale 2, for JDBC and other APIs that need one.
+     *
+     * @return the amount as a BigDecimal
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    /**
+     * Formats the amount with exactly two decimal places, e.g. {@code "1250.50"}.
+     */
+    @Override
+    public String toString() {
+        long major = minorUnits / MINOR_PER_MAJOR;
+        int cents = (int) Math.abs(minorUnits % MINOR_PER_MAJOR);
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0 && major == 0) {
+            text.append('-');
+        }
+        text.append(major).append('.');
+        if (cents < 10) {
+            text.append('0');
+        }
+        return text.append(cents).toString();
+    }
+
+    private static IllegalArgumentException invalid(String text) {
+        return new IllegalArgumentException("Invalid amount " + text
+                + ": must have at most " + SCALE + " decimal places and be within the supported range");
+    }
+}
@@ -0,0 +1,31 @@
+package com.bancx.loanpayment.util;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * JPA converter storing {@link Money} in the DECIMAL(19,2) amount columns.
+ * Applied automatically to every Money attribute.
+ *
+ * A value read from the database with more than two decimal places, or
+ * outside the Money range, fails the load instead of being rounded.
+ *
+ * @author Khanyisani Luyanda Ntabeni
+ */
+@Converter(autoApply = true)
+@Immutable
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money attribute) {
+        return attribute == null ? null : attribute.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal dbData) {
+        return Money.of(dbData);
+    }
+}
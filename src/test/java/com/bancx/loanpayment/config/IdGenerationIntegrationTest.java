@@ -0,0 +1,72 @@
+package com.bancx.loanpayment.config;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.util.Money;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.PooledLoOptimizer;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdGenerationIntegrationTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void loanAndPaymentIds_useSequencesWithPooledLoOptimizer() {
+        for (Class<?> entity : List.of(Loan.class, Payment.class)) {
+            SequenceStyleGenerator generator = (SequenceStyleGenerator) entityManagerFactory
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getMappingMetamodel()
+                    .getEntityDescriptor(entity)
+                    .getIdentifierGenerator();
+
+            assertInstanceOf(PooledLoOptimizer.class, generator.getOptimizer(), entity.getSimpleName());
+            assertEquals(50, generator.getOptimizer().getIncrementSize(), entity.getSimpleName());
+        }
+    }
+
+    @Test
+    void saveAll_takesIdsFromMemoryInBlocks() {
+        long before = nextSequenceValue();
+
+        List<Loan> loans = loanRepository.saveAll(IntStream.range(0, 120)
+                .mapToObj(i -> Loan.builder().loanAmount(Money.of("100.00")).term(12).build())
+                .toList());
+
+        long sequenceCalls = (nextSequenceValue() - before) / 50 - 1;
+        assertTrue(sequenceCalls <= 3, "120 loans took " + sequenceCalls + " sequence calls");
+        assertEquals(120, loans.stream().map(Loan::getLoanId).distinct().count());
+    }
+
+    @Test
+    void idColumns_haveNoIdentityDefault() {
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME IN ('LOAN', 'PAYMENT') AND IS_IDENTITY = 'YES'",
+                Integer.class));
+    }
+
+    private long nextSequenceValue() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR loan_seq", Long.class);
+    }
+}
@@ -0,0 +1,147 @@
+package com.bancx.loanpayment.config;
+
+import com.bancx.loanpayment.config.datasource.ReplicaRoutingDataSource;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs against two H2 databases, a primary and a replica that is only
+ * written to by the test, so every read shows which database it came from.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "loanpayment.datasource.replica.url=jdbc:h2:mem:replica-${random.uuid};DB_CLOSE_DELAY=-1",
+        "loanpayment.datasource.replica.username=sa",
+        "loanpayment.loan.cache.enabled=false",
+        "loanpayment.loan.second-level-cache.enabled=false"
+})
+class ReadReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        replica = new JdbcTemplate(replicaDataSource);
+        if (replica.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'LOAN'",
+                Integer.class) == 0) {
+            SpringLiquibase liquibase = new SpringLiquibase();
+            liquibase.setDataSource(replicaDataSource);
+            liquibase.setChangeLog("classpath:db/changelog/db.changelog-master-test.xml");
+            liquibase.setContexts("test");
+            liquibase.setResourceLoader(applicationContext);
+            liquibase.afterPropertiesSet();
+        }
+    }
+
+    @Test
+    void getLoan_readsFromReplica_unlessPrimaryIsRequested() throws Exception {
+        Long loanId = createLoan("1000.00");
+        replicate(loanId, "750.00");
+
+        mockMvc.perform(get("/loans/{loanId}", loanId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.remainingBalance").value(750.00));
+
+        Loan fromPrimary = ReplicaRoutingDataSource.readFromPrimary(() -> loanService.getLoan(loanId));
+        assertEquals(new BigDecimal("1000.00"), fromPrimary.getRemainingBalance().toBigDecimal());
+    }
+
+    @Test
+    void processPayment_readsAndWritesOnPrimary() throws Exception {
+        Long loanId = createLoan("1000.00");
+
+        mockMvc.perform(post("/payments")
+                        .header("Idempotency-Key", "replica-" + loanId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(PaymentRequest.builder()
+                                .loanId(loanId)
+                                .paymentAmount(new BigDecimal("100.00"))
+                                .build())))
+                .andExpect(status().isCreated());
+
+        assertEquals(new BigDecimal("900.00"), jdbcTemplate.queryForObject(
+                "SELECT remaining_balance FROM loan WHERE loan_id = ?", BigDecimal.class, loanId));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payment_idempotency WHERE idempotency_key = ?", Integer.class, "replica-" + loanId));
+        assertEquals(0, replica.queryForObject(
+                "SELECT COUNT(*) FROM loan WHERE loan_id = ?", Integer.class, loanId));
+        mockMvc.perform(get("/loans/{loanId}", loanId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void paymentHistory_readsFromReplica() throws Exception {
+        Long loanId = createLoan("1000.00");
+        replicate(loanId, "1000.00");
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(PaymentRequest.builder()
+                                .loanId(loanId)
+                                .paymentAmount(new BigDecimal("100.00"))
+                                .build())))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/loans/{loanId}/payments", loanId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payments").isEmpty());
+    }
+
+    private Long createLoan(String amount) {
+        return loanService.createLoan(LoanRequest.builder().loanAmount(new BigDecimal(amount)).term(12).build())
+                .getLoanId();
+    }
+
+    /**
+     * Copies a loan to the replica with the given balance, standing in for replication.
+     */
+    private void replicate(Long loanId, String remainingBalance) {
+        replica.update("INSERT INTO loan (loan_id, loan_amount, term, status, remaining_balance, version) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                loanId, new BigDecimal("1000.00"), 12, "ACTIVE", new BigDecimal(remainingBalance), 0);
+    }
+}
@@ -0,0 +1,131 @@
+package com.bancx.loanpayment.config;
+
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs against two H2 databases with the loan cache enabled, and a replica
+ * that never receives the payments, so a cached row from the replica would
+ * show up as the pre-payment balance.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "loanpayment.datasource.replica.url=jdbc:h2:mem:replica-${random.uuid};DB_CLOSE_DELAY=-1",
+        "loanpayment.datasource.replica.username=sa",
+        "loanpayment.loan.cache.enabled=true",
+        "loanpayment.loan.second-level-cache.enabled=false"
+})
+class ReplicaCacheFillIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        replica = new JdbcTemplate(replicaDataSource);
+        if (replica.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'LOAN'",
+                Integer.class) == 0) {
+            SpringLiquibase liquibase = new SpringLiquibase();
+            liquibase.setDataSource(replicaDataSource);
+            liquibase.setChangeLog("classpath:db/changelog/db.changelog-master-test.xml");
+            liquibase.setContexts("test");
+            liquibase.setResourceLoader(applicationContext);
+            liquibase.afterPropertiesSet();
+        }
+    }
+
+    @Test
+    void getLoan_rightAfterPayment_neverCachesTheReplicasOldVersion() throws Exception {
+        Long loanId = createLoan();
+        replicate(loanId);
+
+        pay(loanId);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/loans/{loanId}", loanId))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.remainingBalance").value(900.00));
+        }
+        assertEquals(1, loanService.getLoan(loanId).getVersion());
+    }
+
+    @Test
+    void getLoan_cachedBeforePayment_isReloadedFromThePrimary() throws Exception {
+        Long loanId = createLoan();
+        replicate(loanId);
+        mockMvc.perform(get("/loans/{loanId}", loanId))
+                .andExpect(jsonPath("$.remainingBalance").value(1000.00));
+
+        pay(loanId);
+        pay(loanId);
+
+        mockMvc.perform(get("/loans/{loanId}", loanId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.remainingBalance").value(800.00));
+    }
+
+    private Long createLoan() {
+        return loanService.createLoan(LoanRequest.builder().loanAmount(new BigDecimal("1000.00")).term(12).build())
+                .getLoanId();
+    }
+
+    private void pay(Long loanId) throws Exception {
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(PaymentRequest.builder()
+                                .loanId(loanId)
+                                .paymentAmount(new BigDecimal("100.00"))
+                                .build())))
+                .andExpect(status().isCreated());
+    }
+
+    /**
+     * Copies the loan as created to the replica, standing in for replication
+     * that has not caught up with any payment since.
+     */
+    private void replicate(Long loanId) {
+        replica.update("INSERT INTO loan (loan_id, loan_amount, term, status, remaining_balance, version) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)",
+                loanId, new BigDecimal("1000.00"), 12, "ACTIVE", new BigDecimal("1000.00"), 0);
+    }
+}
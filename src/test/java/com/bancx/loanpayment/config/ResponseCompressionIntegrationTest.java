@@ -0,0 +1,104 @@
+package com.bancx.loanpayment.config;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.repository.PaymentRepository;
+import com.bancx.loanpayment.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ResponseCompressionIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private Long loanId;
+
+    @BeforeEach
+    void setUp() {
+        loanId = loanRepository.save(Loan.builder()
+                .loanAmount(Money.of("100000.00"))
+                .term(12)
+                .build()).getLoanId();
+        paymentRepository.saveAll(IntStream.range(0, 200)
+                .mapToObj(i -> Payment.builder().loanId(loanId).paymentAmount(Money.of("1.00")).build())
+                .toList());
+    }
+
+    @Test
+    void largeExport_isGzippedWhenClientAcceptsIt() throws Exception {
+        HttpResponse<byte[]> response = send("/payments/export?loanId=" + loanId, true);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        String body = gunzip(response.body());
+        assertEquals(200, body.lines().count());
+        assertTrue(body.length() > response.body().length * 4, "expected at least 4x compression");
+    }
+
+    @Test
+    void largePage_isGzippedWhenClientAcceptsIt() throws Exception {
+        HttpResponse<byte[]> response = send("/loans/" + loanId + "/payments?limit=200", true);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(gunzip(response.body()).startsWith("{\"payments\":["));
+    }
+
+    @Test
+    void responses_areNotCompressedWithoutAcceptEncoding() throws Exception {
+        HttpResponse<byte[]> response = send("/payments/export?loanId=" + loanId, false);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+    }
+
+    @Test
+    void smallResponse_isNotCompressed() throws Exception {
+        HttpResponse<byte[]> response = send("/loans/" + loanId, true);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+    }
+
+    private HttpResponse<byte[]> send(String path, boolean acceptGzip) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        if (acceptGzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.bancx.loanpayment.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadConfigTest {
+
+    @Test
+    void poolBelowSchedulerLimit_isAccepted() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setMaximumPoolSize(64);
+
+            assertDoesNotThrow(() -> new VirtualThreadConfig(dataSource));
+        }
+    }
+
+    @Test
+    void poolAtSchedulerLimit_failsStartup() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setMaximumPoolSize(Math.max(Runtime.getRuntime().availableProcessors(), 256));
+
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> new VirtualThreadConfig(dataSource));
+            assertTrue(ex.getMessage().contains(VirtualThreadConfig.MAX_POOL_SIZE_PROPERTY));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.bancx.loanpayment.config.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.read.ListAppender;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyFormattingAsyncAppenderTest {
+
+    private LoggerContext context;
+    private ListAppender<ILoggingEvent> events;
+    private LazyFormattingAsyncAppender async;
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        events = new ListAppender<>();
+        events.setContext(context);
+        events.start();
+
+        async = new LazyFormattingAsyncAppender();
+        async.setContext(context);
+        async.addAppender(events);
+        async.start();
+
+        logger = context.getLogger("com.bancx.loanpayment.payment");
+        logger.setLevel(Level.INFO);
+        logger.addAppender(async);
+    }
+
+    @AfterEach
+    void tearDown() {
+        async.stop();
+    }
+
+    @Test
+    void valueArguments_areFormattedOnTheWorker() {
+        logger.info("Updated loanId={} remaining balance from {} to {}", 7L, Money.of("100.00"), new BigDecimal("90.00"));
+        async.stop();
+
+        assertEquals(1, events.list.size());
+        ILoggingEvent event = events.list.get(0);
+        assertEquals("Updated loanId=7 remaining balance from 100.00 to 90.00", event.getFormattedMessage());
+        assertEquals(Thread.currentThread().getName(), event.getThreadName());
+    }
+
+    @Test
+    void mutableArguments_areFormattedBeforeQueueing() {
+        List<String> loans = new ArrayList<>(List.of("loan-1"));
+
+        logger.info("Loans {}", loans);
+        loans.add("loan-2");
+        async.stop();
+
+        assertEquals("Loans [loan-1]", events.list.get(0).getFormattedMessage());
+    }
+
+    @Test
+    void hasOnlyImmutableArguments_acceptsValuesAndEnums() {
+        assertTrue(LazyFormattingAsyncAppender.hasOnlyImmutableArguments(
+                event(1L, "text", new BigDecimal("1.00"), Money.of("1.00"), LoanStatus.ACTIVE, null)));
+        assertTrue(LazyFormattingAsyncAppender.hasOnlyImmutableArguments(event()));
+        assertFalse(LazyFormattingAsyncAppender.hasOnlyImmutableArguments(event(new StringBuilder("mutable"))));
+    }
+
+    private LoggingEvent event(Object... arguments) {
+        LoggingEvent event = new LoggingEvent();
+        event.setArgumentArray(arguments.length == 0 ? null : arguments);
+        return event;
+    }
+}
@@ -0,0 +1,109 @@
+package com.bancx.loanpayment.config.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+
+    private LoggerContext context;
+    private ListAppender<ILoggingEvent> events;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setLogger("com.bancx.loanpayment.payment");
+        filter.setRate(3);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        events = new ListAppender<>();
+        events.setContext(context);
+        events.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(events);
+    }
+
+    @Test
+    void infoEvents_ofSampledLogger_keepOneInRate() {
+        Logger logger = context.getLogger("com.bancx.loanpayment.payment.service.PaymentServiceImpl");
+
+        for (int i = 0; i < 9; i++) {
+            logger.info("Processing payment amount={}", new BigDecimal("10.00"));
+        }
+
+        assertEquals(3, events.list.size());
+    }
+
+    @Test
+    void warnAndErrorEvents_areNeverSampled() {
+        Logger logger = context.getLogger("com.bancx.loanpayment.payment.service.PaymentServiceImpl");
+
+        for (int i = 0; i < 5; i++) {
+            logger.warn("Payment exceeds remaining balance");
+            logger.error("Payment failed");
+        }
+
+        assertEquals(10, events.list.size());
+    }
+
+    @Test
+    void otherLoggers_areNotSampled() {
+        Logger loanLogger = context.getLogger("com.bancx.loanpayment.loan.service.LoanServiceImpl");
+        Logger lookalike = context.getLogger("com.bancx.loanpayment.paymentsomething");
+
+        for (int i = 0; i < 4; i++) {
+            loanLogger.info("Loan created");
+            lookalike.info("Unrelated");
+        }
+
+        assertEquals(8, events.list.size());
+    }
+
+    @Test
+    void eachLogger_isCountedSeparately() {
+        Logger controller = context.getLogger("com.bancx.loanpayment.payment.controller.PaymentController");
+        Logger service = context.getLogger("com.bancx.loanpayment.payment.service.PaymentServiceImpl");
+
+        controller.info("Received payment request");
+        service.info("Processing payment");
+
+        assertEquals(2, events.list.size());
+    }
+
+    @Test
+    void enabledChecksAndDisabledLevels_doNotUseUpTheSample() {
+        Logger logger = context.getLogger("com.bancx.loanpayment.payment.service.PaymentServiceImpl");
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(logger.isInfoEnabled());
+            logger.debug("Below the logger's level");
+        }
+        logger.info("First sampled event");
+
+        assertEquals(1, events.list.size());
+        assertEquals("First sampled event", events.list.get(0).getMessage());
+    }
+
+    @Test
+    void start_withoutLogger_doesNotStart() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setRate(10);
+
+        filter.start();
+
+        assertFalse(filter.isStarted());
+    }
+}
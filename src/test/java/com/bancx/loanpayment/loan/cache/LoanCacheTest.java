@@ -0,0 +1,150 @@
+package com.bancx.loanpayment.loan.cache;
+
+import com.bancx.loanpayment.config.LoanProperties;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanCacheTest {
+
+    private LoanProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private LoanCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LoanProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new LoanCache(properties, meterRegistry);
+    }
+
+    @Test
+    void get_returnsDetachedCopies() {
+        Loan first = cache.get(1L, id -> loan(id, 1, "100.00"));
+        first.setRemainingBalance(Money.of("1.00"));
+
+        Loan second = cache.get(1L, id -> fail("should be served from cache"));
+
+        assertNotSame(first, second);
+        assertEquals(Money.of("100.00"), second.getRemainingBalance());
+        assertEquals(1, second.getVersion());
+    }
+
+    @Test
+    void get_countsHitsAndMisses() {
+        cache.get(1L, id -> loan(id, 1, "100.00"));
+        cache.get(1L, id -> loan(id, 1, "100.00"));
+        cache.get(1L, id -> loan(id, 1, "100.00"));
+
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "loans").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "loans").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void invalidate_forcesReload() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, id -> loan(id, loads.incrementAndGet(), "100.00"));
+
+        cache.invalidate(1L);
+        Loan reloaded = cache.get(1L, id -> loan(id, loads.incrementAndGet(), "50.00"));
+
+        assertEquals(2, loads.get());
+        assertEquals(2, reloaded.getVersion());
+        assertEquals(Money.of("50.00"), reloaded.getRemainingBalance());
+    }
+
+    @Test
+    void get_loadRacingCommit_doesNotCacheThePreCommitRow() throws Exception {
+        cache.get(1L, id -> loan(id, 1, "100.00"));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate(1L);
+            CompletableFuture<Loan> reader = CompletableFuture.supplyAsync(() -> cache.get(1L, id -> {
+                loading.countDown();
+                await(committed);
+                // Read before the payment committed
+                return loan(id, 1, "100.00");
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            committed.countDown();
+
+            assertEquals(1, reader.get(5, TimeUnit.SECONDS).getVersion());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(cache.version(1L).isEmpty());
+        assertEquals(2, cache.get(1L, id -> loan(id, 2, "50.00")).getVersion());
+    }
+
+    @Test
+    void maxEntries_evictsBeyondTheLimit() {
+        properties.getCache().setMaxEntries(10);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new LoanCache(properties, meterRegistry);
+
+        for (long id = 1; id <= 100; id++) {
+            cache.get(id, loanId -> loan(loanId, 1, "100.00"));
+        }
+        cache.cleanUp();
+
+        assertTrue(meterRegistry.get("cache.evictions").tag("cache", "loans").functionCounter().count() >= 80);
+    }
+
+    @Test
+    void disabled_alwaysLoads() {
+        properties.getCache().setEnabled(false);
+        cache = new LoanCache(properties, new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return loan(id, 1, "100.00");
+        });
+        cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return loan(id, 1, "100.00");
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Loan loan(Long loanId, int version, String balance) {
+        return Loan.builder()
+                .loanId(loanId)
+                .loanAmount(Money.of("100.00"))
+                .remainingBalance(Money.of(balance))
+                .term(12)
+                .status(LoanStatus.ACTIVE)
+                .version(version)
+                .build();
+    }
+}
@@ -1,10 +1,12 @@
 package com.bancx.loanpayment.loan.controller;
 
+import com.bancx.loanpayment.config.LoanProperties;
 import com.bancx.loanpayment.exception.GlobalExceptionHandler;
 import com.bancx.loanpayment.exception.LoanNotFoundException;
 import com.bancx.loanpayment.loan.entity.Loan;
 import com.bancx.loanpayment.loan.rest.LoanRequest;
 import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.util.Money;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,8 +17,11 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -32,7 +37,7 @@ class LoanControllerTest {
     @BeforeEach
     void setUp() {
         loanService = Mockito.mock(LoanService.class);
-        LoanController controller = new LoanController(loanService);
+        LoanController controller = new LoanController(loanService, new LoanProperties());
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
@@ -48,7 +53,7 @@ class LoanControllerTest {
 
         Loan savedLoan = Loan.builder()
                 .loanId(1L)
-                .loanAmount(request.getLoanAmount())
+                .loanAmount(Money.of(request.getLoanAmount()))
                 .term(request.getTerm())
                 .build();
 
@@ -80,7 +85,7 @@ class LoanControllerTest {
     void getLoan_existingLoan_returnsOk() throws Exception {
         Loan loan = Loan.builder()
                 .loanId(1L)
-                .loanAmount(new BigDecimal("500.00"))
+                .loanAmount(Money.of("500.00"))
                 .term(6)
                 .build();
 
@@ -100,4 +105,73 @@ class LoanControllerTest {
         mockMvc.perform(get("/loans/999"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void getLoan_existingLoan_returnsVersionAsETag() throws Exception {
+        Loan loan = Loan.builder()
+                .loanId(1L)
+                .loanAmount(Money.of("500.00"))
+                .term(6)
+                .version(3)
+                .build();
+
+        when(loanService.getLoan(1L)).thenReturn(loan);
+
+        mockMvc.perform(get("/loans/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().string("Cache-Control", "no-cache, private"));
+    }
+
+    @Test
+    void getLoan_ifNoneMatchCurrentVersion_returnsNotModifiedWithoutLoading() throws Exception {
+        when(loanService.getLoanVersion(1L)).thenReturn(3);
+
+        mockMvc.perform(get("/loans/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(loanService, never()).getLoan(1L);
+    }
+
+    @Test
+    void getLoan_ifNoneMatchWeakOrListed_returnsNotModified() throws Exception {
+        when(loanService.getLoanVersion(1L)).thenReturn(3);
+
+        mockMvc.perform(get("/loans/1").header("If-None-Match", "W/\"3\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/loans/1").header("If-None-Match", "\"1\", \"3\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getLoan_ifNoneMatchOldVersion_returnsLoan() throws Exception {
+        Loan loan = Loan.builder()
+                .loanId(1L)
+                .loanAmount(Money.of("500.00"))
+                .term(6)
+                .version(4)
+                .build();
+        when(loanService.getLoanVersion(1L)).thenReturn(4);
+        when(loanService.getLoan(1L)).thenReturn(loan);
+
+        mockMvc.perform(get("/loans/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.loanId").value(1L));
+    }
+
+    @Test
+    void getLoan_configuredMaxAge_isSentInCacheControl() throws Exception {
+        LoanProperties properties = new LoanProperties();
+        properties.getHttp().setMaxAge(Duration.ofSeconds(30));
+        properties.getHttp().setCachePrivate(false);
+        MockMvc configured = MockMvcBuilders.standaloneSetup(new LoanController(loanService, properties)).build();
+        when(loanService.getLoan(1L)).thenReturn(Loan.builder().loanId(1L).term(6).build());
+
+        configured.perform(get("/loans/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=30"));
+    }
 }
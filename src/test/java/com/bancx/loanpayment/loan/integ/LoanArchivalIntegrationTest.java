@@ -0,0 +1,180 @@
+package com.bancx.loanpayment.loan.integ;
+
+import com.bancx.loanpayment.loan.archive.LoanArchiver;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoanArchivalIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanArchiver loanArchiver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void archiver_movesOldSettledLoanWithPayments_andGetLoanFallsBack() throws Exception {
+        Long loanId = createLoan("1000.00");
+        pay(loanId, "400.00", UUID.randomUUID().toString());
+        pay(loanId, "600.00", UUID.randomUUID().toString());
+        settledDaysAgo(loanId, 91);
+
+        assertTrue(loanArchiver.archiveSettledLoans() >= 1);
+
+        assertTrue(loanRepository.findById(loanId).isEmpty());
+        assertEquals(0, count("SELECT COUNT(*) FROM payment WHERE loan_id = ?", loanId));
+        assertEquals(1, count("SELECT COUNT(*) FROM loan_archive WHERE loan_id = ?", loanId));
+        assertEquals(2, count("SELECT COUNT(*) FROM payment_archive WHERE loan_id = ?", loanId));
+
+        mockMvc.perform(get("/loans/{loanId}", loanId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(jsonPath("$.status").value("SETTLED"))
+                .andExpect(jsonPath("$.remainingBalance").value(0.00));
+
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(PaymentRequest.builder()
+                                .loanId(loanId)
+                                .paymentAmount(new BigDecimal("1.00"))
+                                .build())))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void archivedLoan_keepsItsPaymentHistoryAndExport() throws Exception {
+        Long loanId = createLoan("1000.00");
+        pay(loanId, "400.00", UUID.randomUUID().toString());
+        pay(loanId, "600.00", UUID.randomUUID().toString());
+        settledDaysAgo(loanId, 91);
+        loanArchiver.archiveSettledLoans();
+        assertEquals(1, count("SELECT COUNT(*) FROM loan_archive WHERE loan_id = ?", loanId));
+
+        String firstPage = mockMvc.perform(get("/loans/{loanId}/payments", loanId).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payments.length()").value(1))
+                .andExpect(jsonPath("$.payments[0].paymentAmount").value(400.00))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/loans/{loanId}/payments", loanId)
+                        .param("limit", "1")
+                        .param("after", objectMapper.readTree(firstPage).get("nextCursor").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payments.length()").value(1))
+                .andExpect(jsonPath("$.payments[0].paymentAmount").value(600.00))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        MvcResult export = mockMvc.perform(get("/payments/export")
+                        .param("loanId", loanId.toString())
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(3, csv.lines().count());
+        assertTrue(csv.contains("," + loanId + ",400.00,"));
+        assertTrue(csv.contains("," + loanId + ",600.00,"));
+    }
+
+    @Test
+    void archiver_leavesActiveAndRecentlySettledLoans() throws Exception {
+        Long active = createLoan("1000.00");
+        pay(active, "100.00", UUID.randomUUID().toString());
+        Long recent = createLoan("100.00");
+        pay(recent, "100.00", UUID.randomUUID().toString());
+
+        loanArchiver.archiveSettledLoans();
+
+        assertTrue(loanRepository.findById(active).isPresent());
+        assertTrue(loanRepository.findById(recent).isPresent());
+        assertEquals(1, count("SELECT COUNT(*) FROM payment WHERE loan_id = ?", recent));
+        assertEquals(0, count("SELECT COUNT(*) FROM loan_archive WHERE loan_id IN (?, ?)", active, recent));
+    }
+
+    @Test
+    void archiveSettledLoans_movesOneChunkPerCall_andResumesWhereItStopped() throws Exception {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(1);
+        jdbcTemplate.update("UPDATE loan SET settled_at = ? WHERE status = 'SETTLED' AND settled_at < ?",
+                LocalDateTime.now(), cutoff);
+        Long[] loanIds = new Long[3];
+        for (int i = 0; i < loanIds.length; i++) {
+            loanIds[i] = createLoan("50.00");
+            pay(loanIds[i], "50.00", UUID.randomUUID().toString());
+            settledDaysAgo(loanIds[i], 2);
+        }
+
+        assertEquals(2, loanService.archiveSettledLoans(cutoff, 2));
+        assertEquals(1, loanService.archiveSettledLoans(cutoff, 2));
+        assertEquals(0, loanService.archiveSettledLoans(cutoff, 2));
+
+        for (Long loanId : loanIds) {
+            assertEquals(1, count("SELECT COUNT(*) FROM loan_archive WHERE loan_id = ?", loanId));
+            assertEquals(Money.of("50.00"), loanService.getLoan(loanId).getLoanAmount());
+        }
+    }
+
+    private Long createLoan(String amount) {
+        return loanRepository.save(Loan.builder()
+                .loanAmount(Money.of(amount))
+                .term(12)
+                .build()).getLoanId();
+    }
+
+    private void pay(Long loanId, String amount, String idempotencyKey) throws Exception {
+        mockMvc.perform(post("/payments")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(PaymentRequest.builder()
+                                .loanId(loanId)
+                                .paymentAmount(new BigDecimal(amount))
+                                .build())))
+                .andExpect(status().isCreated());
+    }
+
+    private void settledDaysAgo(Long loanId, int days) {
+        jdbcTemplate.update("UPDATE loan SET settled_at = ? WHERE loan_id = ?",
+                LocalDateTime.now().minusDays(days), loanId);
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+}
@@ -0,0 +1,116 @@
+package com.bancx.loanpayment.loan.integ;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.loan.rest.LoanBulkResult;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = "loanpayment.loan.bulk.chunk-size=2")
+class LoanBulkIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void createLoans_mixedRows_createsValidLoansAndReportsEachRejectedRow() throws Exception {
+        String body = "["
+                + "{\"loanAmount\": 1000.00, \"term\": 12},"
+                + "{\"loanAmount\": 0, \"term\": 12},"
+                + "{\"loanAmount\": 250.50, \"term\": \"twelve\"},"
+                + "{\"loanAmount\": 99.999, \"term\": 6},"
+                + "{\"loanAmount\": 2000.00, \"term\": 24},"
+                + "{\"loanAmount\": 3000.00, \"term\": 36}"
+                + "]";
+
+        LoanBulkResult result = upload(body);
+
+        assertEquals(6, result.getReceived());
+        assertEquals(3, result.getCreated());
+        assertEquals(List.of(1, 2, 3), result.getFailures().stream().map(LoanBulkResult.Failure::getIndex).toList());
+        assertEquals("Loan amount must be greater than 0", result.getFailures().get(0).getMessage());
+        assertTrue(result.getFailures().get(1).getMessage().contains("twelve"));
+
+        List<Long> loanIds = result.getLoanIds();
+        assertNull(loanIds.get(1));
+        assertNull(loanIds.get(2));
+        assertNull(loanIds.get(3));
+        Loan first = loanRepository.findById(loanIds.get(0)).orElseThrow();
+        assertEquals(Money.of("1000.00"), first.getRemainingBalance());
+        assertEquals(LoanStatus.ACTIVE, first.getStatus());
+        assertEquals(Money.of("3000.00"), loanRepository.findById(loanIds.get(5)).orElseThrow().getRemainingBalance());
+    }
+
+    @Test
+    void createLoans_manyChunks_createsEveryLoan() throws Exception {
+        String body = IntStream.range(0, 501)
+                .mapToObj(i -> "{\"loanAmount\": " + (i + 1) + ".00, \"term\": 12}")
+                .collect(Collectors.joining(",", "[", "]"));
+
+        LoanBulkResult result = upload(body);
+
+        assertEquals(501, result.getCreated());
+        assertTrue(result.getFailures().isEmpty());
+        assertEquals(501, loanRepository.findAllById(result.getLoanIds()).size());
+    }
+
+    @Test
+    void createLoans_malformedJson_keepsEarlierChunksAndStops() throws Exception {
+        String body = "[{\"loanAmount\": 10.00, \"term\": 1}, {\"loanAmount\": 20.00, \"term\": 2}, {\"loanAmount\": 30.00, \"term\": 3}, {\"loanAmount\": ";
+
+        LoanBulkResult result = upload(body);
+
+        assertEquals(3, result.getReceived());
+        assertEquals(3, result.getCreated());
+        assertEquals(3, result.getFailures().get(0).getIndex());
+        assertTrue(result.getFailures().get(0).getMessage().startsWith("Malformed JSON"));
+        assertTrue(result.getLoanIds().stream().allMatch(loanRepository::existsById));
+    }
+
+    @Test
+    void createLoans_bodyNotAnArray_returns400() throws Exception {
+        mockMvc.perform(post("/loans/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"loanAmount\": 10.00, \"term\": 1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private LoanBulkResult upload(String body) throws Exception {
+        String response = mockMvc.perform(post("/loans/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, LoanBulkResult.class);
+    }
+}
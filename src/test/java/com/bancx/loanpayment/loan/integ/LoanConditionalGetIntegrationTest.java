@@ -0,0 +1,79 @@
+package com.bancx.loanpayment.loan.integ;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoanConditionalGetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long loanId;
+
+    @BeforeEach
+    void setUp() {
+        loanId = loanRepository.save(Loan.builder()
+                .loanAmount(Money.of("1000.00"))
+                .term(12)
+                .build()).getLoanId();
+    }
+
+    @Test
+    void getLoan_revalidatedUntilPaymentChangesVersion() throws Exception {
+        String etag = mockMvc.perform(get("/loans/{loanId}", loanId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/loans/{loanId}", loanId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(PaymentRequest.builder()
+                                .loanId(loanId)
+                                .paymentAmount(new BigDecimal("100.00"))
+                                .build())))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/loans/{loanId}", loanId).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.remainingBalance").value(900.00));
+    }
+
+    @Test
+    void getLoan_ifNoneMatchForMissingLoan_returnsNotFound() throws Exception {
+        mockMvc.perform(get("/loans/{loanId}", Long.MAX_VALUE).header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotFound());
+    }
+}
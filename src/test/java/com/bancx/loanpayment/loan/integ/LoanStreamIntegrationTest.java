@@ -0,0 +1,102 @@
+package com.bancx.loanpayment.loan.integ;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "loanpayment.loan.stream.heartbeat-interval=100ms",
+        "loanpayment.loan.stream.max-loans-per-subscription=2"
+})
+class LoanStreamIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long loanId;
+    private Long otherLoanId;
+
+    @BeforeEach
+    void setUp() {
+        loanId = loanRepository.save(Loan.builder().loanAmount(Money.of("1000.00")).term(12).build()).getLoanId();
+        otherLoanId = loanRepository.save(Loan.builder().loanAmount(Money.of("500.00")).term(6).build()).getLoanId();
+    }
+
+    @Test
+    void stream_sendsTheCurrentBalancesThenEachCommittedPayment() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/loans/stream")
+                        .param("loanIds", loanId.toString(), otherLoanId.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        awaitContent(response, "id:" + loanId + "-0");
+        awaitContent(response, "id:" + otherLoanId + "-0");
+        assertTrue(response.getContentType().startsWith(MediaType.TEXT_EVENT_STREAM_VALUE));
+
+        pay(loanId, "400.00");
+        awaitContent(response, "\"remainingBalance\":600.00");
+        pay(loanId, "600.00");
+        awaitContent(response, "\"status\":\"SETTLED\"");
+        awaitContent(response, ":heartbeat");
+    }
+
+    @Test
+    void stream_unknownLoan_isNotFound() throws Exception {
+        mockMvc.perform(get("/loans/stream").param("loanIds", loanId.toString(), "999999"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void stream_tooManyLoans_isBadRequest() throws Exception {
+        mockMvc.perform(get("/loans/stream").param("loanIds", "1", "2", "3"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void pay(Long loanId, String amount) throws Exception {
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(PaymentRequest.builder()
+                                .loanId(loanId)
+                                .paymentAmount(new BigDecimal(amount))
+                                .build())))
+                .andExpect(status().isCreated());
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!response.getContentAsString().contains(expected)) {
+            assertTrue(System.nanoTime() < deadline,
+                    "Stream never contained " + expected + ":\n" + response.getContentAsString());
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.bancx.loanpayment.loan.integ;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.loan.portfolio.PortfolioAggregates;
+import com.bancx.loanpayment.loan.portfolio.PortfolioSummary;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PortfolioIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PortfolioAggregates portfolioAggregates;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentProperties paymentProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private PortfolioSummary before;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Other tests insert loans straight through the repository, which is not counted
+        String body = mockMvc.perform(post("/loans/portfolio/rebuild"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        before = objectMapper.readValue(body, PortfolioSummary.class);
+    }
+
+    @Test
+    void portfolio_followsLoansAndPaymentsAndMatchesARebuild() throws Exception {
+        Long settledLoanId = createLoan("1000.00");
+        Long activeLoanId = createLoan("500.00");
+        pay(settledLoanId, "1000.00").andExpect(status().isCreated());
+        pay(activeLoanId, "200.00").andExpect(status().isCreated());
+        pay(activeLoanId, "900.00").andExpect(status().isBadRequest());
+        pay(settledLoanId, "1.00").andExpect(status().isConflict());
+
+        mockMvc.perform(get("/loans/portfolio"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activeLoans").value(before.activeLoans() + 1))
+                .andExpect(jsonPath("$.settledLoans").value(before.settledLoans() + 1));
+        PortfolioSummary counted = portfolioAggregates.summary();
+        assertEquals(before.totalOutstanding().plus(Money.of("300.00")), counted.totalOutstanding());
+        assertEquals(before.totalDisbursed().plus(Money.of("1500.00")), counted.totalDisbursed());
+
+        portfolioAggregates.checkpoint();
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT * FROM portfolio_summary WHERE summary_id = 1");
+        assertEquals(counted.totalOutstanding(), Money.of((BigDecimal) row.get("TOTAL_OUTSTANDING")));
+        assertEquals(counted.activeLoans(), ((Number) row.get("ACTIVE_LOANS")).longValue());
+
+        PortfolioSummary rebuilt = portfolioAggregates.rebuild();
+        assertEquals(counted.totalOutstanding(), rebuilt.totalOutstanding());
+        assertEquals(counted.totalDisbursed(), rebuilt.totalDisbursed());
+        assertEquals(counted.activeLoans(), rebuilt.activeLoans());
+        assertEquals(counted.settledLoans(), rebuilt.settledLoans());
+    }
+
+    @Test
+    void atomicMode_countsTheSettlementReadFromTheLoanRow() throws Exception {
+        Long loanId = createLoan("300.00");
+        paymentProperties.setBalanceUpdateMode(PaymentProperties.BalanceUpdateMode.ATOMIC);
+        try {
+            pay(loanId, "100.00").andExpect(status().isCreated());
+            pay(loanId, "200.00").andExpect(status().isCreated());
+        } finally {
+            paymentProperties.setBalanceUpdateMode(PaymentProperties.BalanceUpdateMode.OPTIMISTIC);
+        }
+
+        PortfolioSummary counted = portfolioAggregates.summary();
+        assertEquals(before.activeLoans(), counted.activeLoans());
+        assertEquals(before.settledLoans() + 1, counted.settledLoans());
+        assertEquals(before.totalOutstanding(), counted.totalOutstanding());
+    }
+
+    @Test
+    void checkpoint_afterARebuildElsewhere_dropsTheChangesCountedBeforeIt() throws Exception {
+        createLoan("100.00");
+        // Another instance's rebuild, whose scan already holds that loan
+        jdbcTemplate.update("UPDATE portfolio_summary SET active_loans = ?, generation = generation + 1 "
+                + "WHERE summary_id = 1", before.activeLoans() + 1);
+
+        portfolioAggregates.checkpoint();
+
+        assertEquals(before.activeLoans() + 1, portfolioAggregates.summary().activeLoans());
+        assertEquals(before.activeLoans() + 1, jdbcTemplate.queryForObject(
+                "SELECT active_loans FROM portfolio_summary WHERE summary_id = 1", Long.class));
+
+        createLoan("100.00");
+        portfolioAggregates.checkpoint();
+        assertEquals(before.activeLoans() + 2, jdbcTemplate.queryForObject(
+                "SELECT active_loans FROM portfolio_summary WHERE summary_id = 1", Long.class));
+    }
+
+    private Long createLoan(String amount) throws Exception {
+        String body = mockMvc.perform(post("/loans")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(LoanRequest.builder()
+                                .loanAmount(new BigDecimal(amount))
+                                .term(12)
+                                .build())))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("loanId").asLong();
+    }
+
+    private ResultActions pay(Long loanId, String amount) throws Exception {
+        return mockMvc.perform(post("/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(PaymentRequest.builder()
+                        .loanId(loanId)
+                        .paymentAmount(new BigDecimal(amount))
+                        .build())));
+    }
+}
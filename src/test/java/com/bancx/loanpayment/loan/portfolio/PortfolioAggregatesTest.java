@@ -0,0 +1,165 @@
+package com.bancx.loanpayment.loan.portfolio;
+
+import com.bancx.loanpayment.config.LoanProperties;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PortfolioAggregatesTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PortfolioAggregates aggregates;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        aggregates = new PortfolioAggregates(jdbcTemplate, new LoanProperties());
+    }
+
+    @Test
+    void summary_addsUpCreatedLoansAndAppliedPayments() {
+        aggregates.loansCreated(List.of(loan("1000.00"), loan("500.00")));
+        aggregates.paymentsApplied(Money.of("500.00"), 1);
+        aggregates.paymentsApplied(Money.of("250.00"), 0);
+
+        PortfolioSummary summary = aggregates.summary();
+
+        assertEquals(Money.of("750.00"), summary.totalOutstanding());
+        assertEquals(Money.of("1500.00"), summary.totalDisbursed());
+        assertEquals(1, summary.activeLoans());
+        assertEquals(1, summary.settledLoans());
+    }
+
+    @Test
+    void changes_areOnlyCountedOnceTheirTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            aggregates.loansCreated(List.of(loan("1000.00")));
+            aggregates.paymentsApplied(Money.of("100.00"), 0);
+            assertEquals(0, aggregates.summary().activeLoans());
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.get(0).afterCommit();
+            synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(1, aggregates.summary().activeLoans());
+        assertEquals(Money.of("1000.00"), aggregates.summary().totalOutstanding());
+    }
+
+    @Test
+    void checkpoint_addsOnlyTheChangesSinceTheLastCheckpoint() {
+        when(jdbcTemplate.update(anyString(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        aggregates.loansCreated(List.of(loan("1000.00")));
+        aggregates.checkpoint();
+        aggregates.paymentsApplied(Money.of("100.00"), 0);
+        aggregates.checkpoint();
+        aggregates.checkpoint();
+
+        verify(jdbcTemplate).update(startsWith("UPDATE portfolio_summary SET total_outstanding = total_outstanding"),
+                eq(new BigDecimal("1000.00")), eq(new BigDecimal("1000.00")), eq(1L), eq(0L), any(), eq(0L));
+        verify(jdbcTemplate).update(startsWith("UPDATE portfolio_summary SET total_outstanding = total_outstanding"),
+                eq(new BigDecimal("-100.00")), eq(new BigDecimal("0.00")), eq(0L), eq(0L), any(), eq(0L));
+        assertEquals(Money.of("900.00"), aggregates.summary().totalOutstanding());
+    }
+
+    @Test
+    void rebuild_waitsForCommittingTransactions_soTheirChangesAreNotCountedTwice() throws Exception {
+        ResultSet scanned = mock(ResultSet.class);
+        when(scanned.getBigDecimal(anyString())).thenReturn(new BigDecimal("1000.00"));
+        when(scanned.getLong("active_loans")).thenReturn(1L);
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1, RowMapper.class).mapRow(scanned, 0));
+
+        CompletableFuture<PortfolioSummary> rebuilt;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            aggregates.loansCreated(List.of(loan("1000.00")));
+            TransactionSynchronization synchronization = TransactionSynchronizationManager.getSynchronizations().get(0);
+            synchronization.beforeCommit(false);
+            rebuilt = CompletableFuture.supplyAsync(aggregates::rebuild);
+            verify(jdbcTemplate, after(200).never()).queryForObject(anyString(), any(RowMapper.class));
+
+            // The loan is committed, so the scan finds it
+            synchronization.afterCommit();
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        rebuilt.get(5, TimeUnit.SECONDS);
+        PortfolioSummary summary = aggregates.summary();
+        assertEquals(Money.of("1000.00"), summary.totalDisbursed());
+        assertEquals(1, summary.activeLoans());
+    }
+
+    @Test
+    void rebuild_doesNotHoldUpCommitsWhileItScans_andScansAgainIfOneCommitted() throws Exception {
+        ResultSet scanned = mock(ResultSet.class);
+        when(scanned.getBigDecimal(anyString())).thenReturn(new BigDecimal("1000.00"));
+        when(scanned.getLong("active_loans")).thenReturn(1L);
+        AtomicInteger scans = new AtomicInteger();
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class))).thenAnswer(invocation -> {
+            if (scans.incrementAndGet() == 1) {
+                // A loan commits on another thread while the scan runs, and the scan sees it
+                CompletableFuture.runAsync(() -> {
+                    TransactionSynchronizationManager.initSynchronization();
+                    try {
+                        aggregates.loansCreated(List.of(loan("1000.00")));
+                        TransactionSynchronization synchronization =
+                                TransactionSynchronizationManager.getSynchronizations().get(0);
+                        synchronization.beforeCommit(false);
+                        synchronization.afterCommit();
+                        synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+                    } finally {
+                        TransactionSynchronizationManager.clearSynchronization();
+                    }
+                }).get(2, TimeUnit.SECONDS);
+            }
+            return invocation.getArgument(1, RowMapper.class).mapRow(scanned, 0);
+        });
+
+        PortfolioSummary summary = aggregates.rebuild();
+
+        assertEquals(2, scans.get());
+        assertEquals(Money.of("1000.00"), summary.totalDisbursed());
+        assertEquals(1, summary.activeLoans());
+    }
+
+    @Test
+    void disabled_countsNothing() {
+        LoanProperties loanProperties = new LoanProperties();
+        loanProperties.getPortfolio().setEnabled(false);
+        PortfolioAggregates disabled = new PortfolioAggregates(jdbcTemplate, loanProperties);
+
+        disabled.loansCreated(List.of(loan("1000.00")));
+        disabled.checkpoint();
+
+        assertEquals(0, disabled.summary().activeLoans());
+        verifyNoInteractions(jdbcTemplate);
+        assertThrows(IllegalStateException.class, disabled::rebuild);
+    }
+
+    private static Loan loan(String amount) {
+        return Loan.builder().loanAmount(Money.of(amount)).build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.bancx.loanpayment.loan.repository;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.entity.SettledLoan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.service.impl.LoanServiceImpl;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "loanpayment.loan.cache.enabled=false",
+        "loanpayment.loan.second-level-cache.settled.read-only=true"
+})
+class LoanSecondLevelCacheIntegrationTest {
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private LoanServiceImpl loanService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = entityManagerFactory.getCache();
+        cache.evictAll();
+    }
+
+    @Test
+    void findLoan_secondLookup_isServedFromLoanRegion() {
+        Loan loan = createLoan("1000.00");
+        cache.evict(Loan.class, loan.getLoanId());
+        long hits = regionStatistics(Loan.CACHE_REGION).getHitCount();
+        long misses = regionStatistics(Loan.CACHE_REGION).getMissCount();
+
+        loanRepository.findLoan(loan.getLoanId()).orElseThrow();
+        loanRepository.findLoan(loan.getLoanId()).orElseThrow();
+
+        assertEquals(misses + 1, regionStatistics(Loan.CACHE_REGION).getMissCount());
+        assertEquals(hits + 1, regionStatistics(Loan.CACHE_REGION).getHitCount());
+    }
+
+    @Test
+    void updateLoan_replacesCachedEntryWithNewVersion() {
+        Loan loan = createLoan("1000.00");
+        Loan cached = loanRepository.findLoan(loan.getLoanId()).orElseThrow();
+
+        cached.setRemainingBalance(Money.of("600.00"));
+        loanService.updateLoan(cached);
+        long hits = regionStatistics(Loan.CACHE_REGION).getHitCount();
+        Loan reloaded = loanRepository.findLoan(loan.getLoanId()).orElseThrow();
+
+        assertEquals(hits + 1, regionStatistics(Loan.CACHE_REGION).getHitCount());
+        assertEquals(Money.of("600.00"), reloaded.getRemainingBalance());
+        assertEquals(cached.getVersion() + 1, reloaded.getVersion());
+    }
+
+    @Test
+    void debitBalance_evictsOnlyTheDebitedLoan() {
+        Loan debited = createLoan("1000.00");
+        Loan other = createLoan("1000.00");
+        loanRepository.findLoans(List.of(debited.getLoanId(), other.getLoanId()));
+
+        assertTrue(loanService.debitBalance(debited.getLoanId(), Money.of("250.00")));
+
+        assertFalse(cache.contains(Loan.class, debited.getLoanId()));
+        assertTrue(cache.contains(Loan.class, other.getLoanId()));
+        Loan reloaded = loanRepository.findLoan(debited.getLoanId()).orElseThrow();
+        assertEquals(Money.of("750.00"), reloaded.getRemainingBalance());
+        assertEquals(1, reloaded.getVersion());
+    }
+
+    @Test
+    void settledLoan_isServedFromReadOnlyRegion() {
+        Loan loan = createLoan("500.00");
+        assertTrue(loanService.debitBalance(loan.getLoanId(), Money.of("500.00")));
+
+        assertEquals(LoanStatus.SETTLED, loanService.getLoan(loan.getLoanId()).getStatus());
+        assertTrue(cache.contains(SettledLoan.class, loan.getLoanId()));
+        assertFalse(cache.contains(Loan.class, loan.getLoanId()));
+
+        long hits = regionStatistics(SettledLoan.CACHE_REGION).getHitCount();
+        Loan settled = loanService.getLoan(loan.getLoanId());
+
+        assertEquals(hits + 1, regionStatistics(SettledLoan.CACHE_REGION).getHitCount());
+        assertEquals(LoanStatus.SETTLED, settled.getStatus());
+        assertTrue(settled.getRemainingBalance().isZero());
+        assertEquals(1, settled.getVersion());
+    }
+
+    @Test
+    void activeLoan_isNotCachedInReadOnlyRegion() {
+        Loan loan = createLoan("500.00");
+
+        loanService.getLoan(loan.getLoanId());
+
+        assertTrue(cache.contains(Loan.class, loan.getLoanId()));
+        assertFalse(cache.contains(SettledLoan.class, loan.getLoanId()));
+    }
+
+    private Loan createLoan(String amount) {
+        return loanService.createLoan(LoanRequest.builder().loanAmount(new BigDecimal(amount)).term(12).build());
+    }
+
+    private CacheRegionStatistics regionStatistics(String region) {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics().getCacheRegionStatistics(region);
+    }
+}
@@ -6,6 +6,9 @@ import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
 import com.bancx.loanpayment.loan.rest.LoanRequest;
 
 import com.bancx.loanpayment.loan.service.impl.LoanServiceImpl;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -24,6 +27,9 @@ class LoanServiceIntegrationTest {
     @Autowired
     private LoanRepository loanRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Autowired
     private LoanServiceImpl loanService;
 
@@ -40,7 +46,7 @@ class LoanServiceIntegrationTest {
 
         Loan fromDb = loanService.getLoan(createdLoan.getLoanId());
 
-        assertEquals(new BigDecimal("5000.00"), fromDb.getLoanAmount());
+        assertEquals(Money.of("5000.00"), fromDb.getLoanAmount());
         assertEquals(24, fromDb.getTerm());
         assertEquals(createdLoan.getLoanId(), fromDb.getLoanId());
         assertEquals(createdLoan.getRemainingBalance(), fromDb.getRemainingBalance());
@@ -61,11 +67,32 @@ class LoanServiceIntegrationTest {
 
         Loan loan = loanService.createLoan(request);
 
-        loan.setLoanAmount(new BigDecimal("2000.00"));
+        loan.setLoanAmount(Money.of("2000.00"));
         loanService.updateLoan(loan);
 
         Loan updatedLoan = loanService.getLoan(loan.getLoanId());
 
-        assertEquals(new BigDecimal("2000.00"), updatedLoan.getLoanAmount());
+        assertEquals(Money.of("2000.00"), updatedLoan.getLoanAmount());
+    }
+
+    @Test
+    void debitBalance_shouldDecrementAndSettleOnlyWhenGuardMatches() {
+        Loan loan = loanService.createLoan(LoanRequest.builder()
+                .loanAmount(new BigDecimal("100.00"))
+                .term(12)
+                .build());
+        entityManager.flush();
+
+        assertFalse(loanService.debitBalance(loan.getLoanId(), Money.of("150.00")));
+        assertTrue(loanService.debitBalance(loan.getLoanId(), Money.of("60.00")));
+        assertTrue(loanService.debitBalance(loan.getLoanId(), Money.of("40.00")));
+        assertFalse(loanService.debitBalance(loan.getLoanId(), Money.of("0.01")));
+        assertFalse(loanService.debitBalance(9999L, Money.of("1.00")));
+
+        entityManager.clear();
+        Loan settled = loanRepository.findById(loan.getLoanId()).orElseThrow();
+        assertTrue(settled.getRemainingBalance().isZero());
+        assertEquals(LoanStatus.SETTLED, settled.getStatus());
+        assertEquals(2, settled.getVersion());
     }
 }
@@ -3,27 +3,44 @@ package com.bancx.loanpayment.loan.service.impl;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.bancx.loanpayment.config.LoanProperties;
 import com.bancx.loanpayment.exception.LoanNotFoundException;
+import com.bancx.loanpayment.loan.cache.LoanCache;
+import com.bancx.loanpayment.loan.entity.ArchivedLoan;
 import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.portfolio.PortfolioAggregates;
+import com.bancx.loanpayment.loan.repoaitory.LoanArchiveRepository;
 import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
 import com.bancx.loanpayment.loan.rest.LoanRequest;
+import com.bancx.loanpayment.loan.stream.LoanBalanceChanged;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 class LoanServiceImplTest {
 
     private LoanRepository loanRepository;
+    private LoanArchiveRepository loanArchiveRepository;
+    private ApplicationEventPublisher eventPublisher;
     private LoanServiceImpl loanService;
 
     @BeforeEach
     void setUp() {
         loanRepository = mock(LoanRepository.class);
-        loanService = new LoanServiceImpl(loanRepository);
+        loanArchiveRepository = mock(LoanArchiveRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        loanService = new LoanServiceImpl(loanRepository, new LoanCache(new LoanProperties(), new SimpleMeterRegistry()),
+                loanArchiveRepository, eventPublisher, mock(PortfolioAggregates.class));
     }
 
     @Test
@@ -34,7 +51,7 @@ class LoanServiceImplTest {
                 .build();
 
         Loan savedLoan = Loan.builder()
-                .loanAmount(request.getLoanAmount())
+                .loanAmount(Money.of(request.getLoanAmount()))
                 .term(request.getTerm())
                 .loanId(1L)
                 .build();
@@ -45,14 +62,14 @@ class LoanServiceImplTest {
 
         assertNotNull(result);
         assertEquals(1L, result.getLoanId());
-        assertEquals(new BigDecimal("1000.00"), result.getLoanAmount());
+        assertEquals(Money.of("1000.00"), result.getLoanAmount());
         assertEquals(12, result.getTerm());
 
         ArgumentCaptor<Loan> loanCaptor = ArgumentCaptor.forClass(Loan.class);
         verify(loanRepository).save(loanCaptor.capture());
         Loan captured = loanCaptor.getValue();
 
-        assertEquals(request.getLoanAmount(), captured.getLoanAmount());
+        assertEquals(Money.of(request.getLoanAmount()), captured.getLoanAmount());
         assertEquals(request.getTerm(), captured.getTerm());
     }
 
@@ -60,20 +77,78 @@ class LoanServiceImplTest {
     void getLoan_shouldReturnLoanIfExists() {
         Loan loan = Loan.builder().loanId(1L).build();
 
-        when(loanRepository.findById(1L)).thenReturn(Optional.of(loan));
+        when(loanRepository.findLoan(1L)).thenReturn(Optional.of(loan));
 
         Loan found = loanService.getLoan(1L);
 
         assertEquals(1L, found.getLoanId());
     }
 
+    @Test
+    void getLoan_shouldServeRepeatedReadsFromCache() {
+        Loan loan = Loan.builder().loanId(1L).version(3).build();
+
+        when(loanRepository.findLoan(1L)).thenReturn(Optional.of(loan));
+
+        loanService.getLoan(1L);
+        Loan cached = loanService.getLoan(1L);
+
+        assertEquals(3, cached.getVersion());
+        verify(loanRepository, times(1)).findLoan(1L);
+    }
+
+    @Test
+    void updateLoan_shouldInvalidateCachedLoan() {
+        Loan loan = Loan.builder().loanId(1L).version(3).build();
+
+        when(loanRepository.findLoan(1L)).thenReturn(Optional.of(loan));
+
+        loanService.getLoan(1L);
+        loanService.updateLoan(loan);
+        loanService.getLoan(1L);
+
+        verify(loanRepository, times(2)).findLoan(1L);
+    }
+
     @Test
     void getLoan_shouldThrowExceptionIfNotFound() {
-        when(loanRepository.findById(1L)).thenReturn(Optional.empty());
+        when(loanRepository.findLoan(1L)).thenReturn(Optional.empty());
 
         assertThrows(LoanNotFoundException.class, () -> loanService.getLoan(1L));
     }
 
+    @Test
+    void getLoan_notInLoanTable_fallsBackToArchive() {
+        Loan settled = Loan.builder().loanId(1L).status(LoanStatus.SETTLED).remainingBalance(Money.of("0.00")).build();
+        ArchivedLoan archived = mock(ArchivedLoan.class);
+        when(archived.toLoan()).thenReturn(settled);
+        when(loanRepository.findLoan(1L)).thenReturn(Optional.empty());
+        when(loanArchiveRepository.findById(1L)).thenReturn(Optional.of(archived));
+
+        Loan result = loanService.getLoan(1L);
+
+        assertEquals(LoanStatus.SETTLED, result.getStatus());
+        assertEquals(1L, result.getLoanId());
+    }
+
+    @Test
+    void getLoanVersion_notInLoanTable_fallsBackToArchive() {
+        when(loanRepository.findVersionById(1L)).thenReturn(Optional.empty());
+        when(loanArchiveRepository.findVersionById(1L)).thenReturn(Optional.of(7));
+
+        assertEquals(7, loanService.getLoanVersion(1L));
+    }
+
+    @Test
+    void archiveSettledLoans_noLoansDue_movesNothing() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        when(loanArchiveRepository.lockSettledBefore(cutoff, 100)).thenReturn(List.of());
+
+        assertEquals(0, loanService.archiveSettledLoans(cutoff, 100));
+        verify(loanArchiveRepository, never()).copyLoans(any());
+        verify(loanArchiveRepository, never()).deleteLoans(any());
+    }
+
     @Test
     void updateLoan_shouldSaveLoan() {
         Loan loan = Loan.builder().loanId(1L).build();
@@ -81,5 +156,18 @@ class LoanServiceImplTest {
         loanService.updateLoan(loan);
 
         verify(loanRepository).save(loan);
+        verify(eventPublisher).publishEvent(new LoanBalanceChanged(1L));
+    }
+
+    @Test
+    void debitBalance_publishesAChangeOnlyWhenTheBalanceWasDebited() {
+        when(loanRepository.debitBalance(1L, new BigDecimal("10.00"))).thenReturn(1);
+        when(loanRepository.debitBalance(2L, new BigDecimal("10.00"))).thenReturn(0);
+
+        assertTrue(loanService.debitBalance(1L, Money.of("10.00")));
+        assertFalse(loanService.debitBalance(2L, Money.of("10.00")));
+
+        verify(eventPublisher).publishEvent(new LoanBalanceChanged(1L));
+        verify(eventPublisher, never()).publishEvent(new LoanBalanceChanged(2L));
     }
 }
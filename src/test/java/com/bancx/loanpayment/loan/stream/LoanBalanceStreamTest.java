@@ -0,0 +1,63 @@
+package com.bancx.loanpayment.loan.stream;
+
+import com.bancx.loanpayment.config.LoanProperties;
+import com.bancx.loanpayment.exception.LoanNotFoundException;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.loan.service.LoanService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LoanBalanceStreamTest {
+
+    private LoanRepository loanRepository;
+    private LoanService loanService;
+    private LoanBalanceStream stream;
+
+    @BeforeEach
+    void setUp() {
+        loanRepository = mock(LoanRepository.class);
+        loanService = mock(LoanService.class);
+        LoanProperties loanProperties = new LoanProperties();
+        loanProperties.getStream().setMaxLoansPerSubscription(2);
+        stream = new LoanBalanceStream(loanRepository, loanService, loanProperties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void subscribe_moreLoansThanAllowed_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> stream.subscribe(List.of(1L, 2L, 3L)));
+        assertThrows(IllegalArgumentException.class, () -> stream.subscribe(List.of()));
+
+        assertEquals(0, stream.subscriberCount());
+        verifyNoInteractions(loanRepository);
+    }
+
+    @Test
+    void subscribe_unknownLoan_throwsAndLeavesNoSubscriber() {
+        when(loanRepository.findBalances(any())).thenReturn(List.of());
+        when(loanService.getLoan(1L)).thenThrow(new LoanNotFoundException("Loan ID 1 not found"));
+
+        assertThrows(LoanNotFoundException.class, () -> stream.subscribe(List.of(1L)));
+
+        assertEquals(0, stream.subscriberCount());
+    }
+
+    @Test
+    void onLoanBalanceChanged_loanNobodyWatches_readsNothing() {
+        stream.onLoanBalanceChanged(new LoanBalanceChanged(1L));
+
+        verifyNoInteractions(loanRepository);
+    }
+}
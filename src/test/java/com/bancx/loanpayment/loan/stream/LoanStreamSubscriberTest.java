@@ -0,0 +1,107 @@
+package com.bancx.loanpayment.loan.stream;
+
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanStreamSubscriberTest {
+
+    @Test
+    void offer_whenTheBufferIsFull_dropsTheOldestUpdate() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        LoanStreamSubscriber subscriber = new LoanStreamSubscriber(emitter, Set.of(1L, 2L), 2);
+
+        assertFalse(subscriber.offer(update(1L, "90.00", 1)));
+        assertFalse(subscriber.offer(update(2L, "50.00", 1)));
+        assertTrue(subscriber.offer(update(1L, "80.00", 2)));
+
+        assertTrue(subscriber.claimDrain());
+        assertTrue(subscriber.drain());
+        assertEquals(List.of(update(2L, "50.00", 1), update(1L, "80.00", 2)), emitter.updates());
+    }
+
+    @Test
+    void drain_skipsUpdatesNotNewerThanTheLastOneSent() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        LoanStreamSubscriber subscriber = new LoanStreamSubscriber(emitter, Set.of(1L), 4);
+
+        subscriber.offer(update(1L, "80.00", 2));
+        subscriber.offer(update(1L, "90.00", 1));
+        subscriber.offer(update(1L, "80.00", 2));
+        subscriber.offer(update(1L, "70.00", 3));
+        subscriber.claimDrain();
+        subscriber.drain();
+
+        assertEquals(List.of(update(1L, "80.00", 2), update(1L, "70.00", 3)), emitter.updates());
+    }
+
+    @Test
+    void heartbeat_isOnlySentToIdleSubscribers() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        LoanStreamSubscriber subscriber = new LoanStreamSubscriber(emitter, Set.of(1L), 4);
+
+        assertFalse(subscriber.heartbeatIfIdleSince(System.nanoTime() - 60_000_000_000L));
+        assertTrue(subscriber.heartbeatIfIdleSince(System.nanoTime()));
+        subscriber.claimDrain();
+        subscriber.drain();
+
+        assertEquals(1, emitter.heartbeats);
+        assertTrue(emitter.updates().isEmpty());
+    }
+
+    @Test
+    void drain_reportsAFailedConnectionAndReleasesTheDrain() {
+        SseEmitter emitter = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        LoanStreamSubscriber subscriber = new LoanStreamSubscriber(emitter, Set.of(1L), 4);
+        subscriber.offer(update(1L, "90.00", 1));
+
+        assertTrue(subscriber.claimDrain());
+        assertFalse(subscriber.drain());
+        assertTrue(subscriber.claimDrain());
+    }
+
+    private static LoanBalanceUpdate update(Long loanId, String balance, int version) {
+        return new LoanBalanceUpdate(loanId, Money.of(balance), LoanStatus.ACTIVE, null, version);
+    }
+
+    /**
+     * Keeps what would have been written, instead of writing it.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<LoanBalanceUpdate> updates = new ArrayList<>();
+        private int heartbeats;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            List<Object> data = builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .toList();
+            data.stream()
+                    .filter(LoanBalanceUpdate.class::isInstance)
+                    .map(LoanBalanceUpdate.class::cast)
+                    .forEach(updates::add);
+            if (data.stream().anyMatch(item -> item.toString().startsWith(":heartbeat"))) {
+                heartbeats++;
+            }
+        }
+
+        List<LoanBalanceUpdate> updates() {
+            return updates;
+        }
+    }
+}
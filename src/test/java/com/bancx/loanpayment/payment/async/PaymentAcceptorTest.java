@@ -0,0 +1,188 @@
+package com.bancx.loanpayment.payment.async;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.exception.LoanNotFoundException;
+import com.bancx.loanpayment.exception.PaymentOutcomeUnknownException;
+import com.bancx.loanpayment.exception.PaymentQueueFullException;
+import com.bancx.loanpayment.exception.PaymentUnavailableException;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.rest.PaymentStatus;
+import com.bancx.loanpayment.payment.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PaymentAcceptorTest {
+
+    private PaymentService paymentService;
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentProperties properties;
+    private PaymentAcceptor acceptor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PaymentProperties();
+        properties.getAsync().setEnabled(true);
+        properties.getAsync().setWorkers(1);
+        properties.getAsync().setQueueCapacity(1);
+        properties.getAsync().setRetryAfter(Duration.ofSeconds(3));
+        paymentService = mock(PaymentService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        acceptor = new PaymentAcceptor(paymentService, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        acceptor.shutdown();
+    }
+
+    @Test
+    void accept_returnsPendingThenApplied() throws InterruptedException {
+        when(paymentService.processPayment(any())).thenReturn(Payment.builder().paymentId(42L).loanId(1L).build());
+
+        PaymentStatus accepted = acceptor.accept(request(1L));
+
+        assertEquals(PaymentStatus.Status.PENDING, accepted.getStatus());
+        PaymentStatus status = awaitOutcome(accepted.getReference());
+        assertEquals(PaymentStatus.Status.APPLIED, status.getStatus());
+        assertEquals(42L, status.getPaymentId());
+        assertEquals(1L, status.getLoanId());
+    }
+
+    @Test
+    void accept_failedPayment_isReportedAsRejected() throws InterruptedException {
+        when(paymentService.processPayment(any())).thenThrow(new LoanNotFoundException("Loan not found with ID: 9"));
+
+        PaymentStatus status = awaitOutcome(acceptor.accept(request(9L)).getReference());
+
+        assertEquals(PaymentStatus.Status.REJECTED, status.getStatus());
+        assertEquals("Loan not found with ID: 9", status.getMessage());
+        assertNull(status.getPaymentId());
+    }
+
+    @Test
+    void accept_paymentRefusedDownstream_isReportedAsRetry() throws InterruptedException {
+        when(paymentService.processPayment(any()))
+                .thenThrow(new PaymentQueueFullException("Too many pending payments for this loan, please retry", 2L));
+
+        PaymentStatus status = awaitOutcome(acceptor.accept(request(1L)).getReference());
+
+        assertEquals(PaymentStatus.Status.RETRY, status.getStatus());
+        assertEquals(2L, status.getRetryAfterSeconds());
+    }
+
+    @Test
+    void accept_paymentRefusedByAStoppedEngine_isReportedAsRetry() throws InterruptedException {
+        when(paymentService.processPayment(any()))
+                .thenThrow(new PaymentUnavailableException("Ledger engine is not accepting payments", 1L, null));
+
+        PaymentStatus status = awaitOutcome(acceptor.accept(request(1L)).getReference());
+
+        assertEquals(PaymentStatus.Status.RETRY, status.getStatus());
+        assertEquals(1L, status.getRetryAfterSeconds());
+    }
+
+    @Test
+    void accept_unknownOutcome_isReportedAsUnknown() throws InterruptedException {
+        when(paymentService.processPayment(any()))
+                .thenThrow(new PaymentOutcomeUnknownException("Ledger engine stopped", null));
+
+        PaymentStatus status = awaitOutcome(acceptor.accept(request(1L)).getReference());
+
+        assertEquals(PaymentStatus.Status.UNKNOWN, status.getStatus());
+        assertEquals("Ledger engine stopped", status.getMessage());
+    }
+
+    @Test
+    void status_pendingPayment_outlivesTheStatusTtl() throws InterruptedException {
+        acceptor.shutdown();
+        properties.getAsync().setStatusTtl(Duration.ofMillis(20));
+        properties.getAsync().setMaxStatuses(1);
+        acceptor = new PaymentAcceptor(paymentService, properties, meterRegistry);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentService.processPayment(any())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Payment.builder().paymentId(1L).build();
+        });
+
+        PaymentStatus first = acceptor.accept(request(1L));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        PaymentStatus second = acceptor.accept(request(2L));
+        Thread.sleep(100);
+
+        assertEquals(PaymentStatus.Status.PENDING, acceptor.status(first.getReference()).orElseThrow().getStatus());
+        assertEquals(PaymentStatus.Status.PENDING, acceptor.status(second.getReference()).orElseThrow().getStatus());
+        release.countDown();
+        acceptor.shutdown();
+        Thread.sleep(100);
+        assertTrue(acceptor.status(first.getReference()).isEmpty());
+    }
+
+    @Test
+    void accept_fullQueue_refusesWithRetryAfter() throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(paymentService.processPayment(any())).thenAnswer(invocation -> {
+            running.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Payment.builder().paymentId(1L).build();
+        });
+
+        acceptor.accept(request(1L));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        acceptor.accept(request(2L));
+
+        PaymentQueueFullException ex = assertThrows(PaymentQueueFullException.class, () -> acceptor.accept(request(3L)));
+        assertEquals(3L, ex.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("payment.async.rejections").counter().count());
+        assertEquals(1.0, meterRegistry.get("payment.async.queue.depth").gauge().value());
+
+        release.countDown();
+    }
+
+    @Test
+    void shutdown_drainsAcceptedPayments() throws InterruptedException {
+        when(paymentService.processPayment(any())).thenReturn(Payment.builder().paymentId(1L).build());
+        PaymentStatus first = acceptor.accept(request(1L));
+        PaymentStatus second = acceptor.accept(request(2L));
+
+        acceptor.shutdown();
+
+        verify(paymentService, times(2)).processPayment(any());
+        assertEquals(PaymentStatus.Status.APPLIED, acceptor.status(first.getReference()).orElseThrow().getStatus());
+        assertEquals(PaymentStatus.Status.APPLIED, acceptor.status(second.getReference()).orElseThrow().getStatus());
+        assertThrows(PaymentQueueFullException.class, () -> acceptor.accept(request(3L)));
+    }
+
+    @Test
+    void status_unknownReference_isEmpty() {
+        assertTrue(acceptor.status("no-such-reference").isEmpty());
+    }
+
+    private static PaymentRequest request(Long loanId) {
+        return PaymentRequest.builder().loanId(loanId).paymentAmount(new BigDecimal("10.00")).build();
+    }
+
+    private PaymentStatus awaitOutcome(String reference) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        PaymentStatus status = acceptor.status(reference).orElseThrow();
+        while (status.getStatus() == PaymentStatus.Status.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            status = acceptor.status(reference).orElseThrow();
+        }
+        return status;
+    }
+}
@@ -1,8 +1,11 @@
 package com.bancx.loanpayment.payment.controller;
 
 import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.rest.PaymentBatchRequest;
 import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.rest.PaymentResult;
 import com.bancx.loanpayment.payment.service.PaymentService;
+import com.bancx.loanpayment.util.Money;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +17,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -42,7 +46,7 @@ class PaymentControllerTest {
 
         Payment response = Payment.builder()
                 .loanId(1L)
-                .paymentAmount(request.getPaymentAmount())
+                .paymentAmount(Money.of(request.getPaymentAmount()))
                 .paymentId(1L)
                 .timestamp(LocalDateTime.now())
                 .build();
@@ -69,4 +73,45 @@ class PaymentControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void makePayments_validBatch_returnsResultPerPayment() throws Exception {
+        PaymentRequest first = PaymentRequest.builder()
+                .loanId(1L)
+                .paymentAmount(new BigDecimal("100.00"))
+                .build();
+        PaymentRequest second = PaymentRequest.builder()
+                .loanId(2L)
+                .paymentAmount(new BigDecimal("50.00"))
+                .build();
+
+        List<PaymentResult> results = List.of(
+                PaymentResult.builder().loanId(1L).paymentAmount(first.getPaymentAmount())
+                        .status(PaymentResult.Status.APPLIED)
+                        .payment(Payment.builder().paymentId(1L).loanId(1L).paymentAmount(Money.of(first.getPaymentAmount())).build())
+                        .build(),
+                PaymentResult.builder().loanId(2L).paymentAmount(second.getPaymentAmount())
+                        .status(PaymentResult.Status.REJECTED)
+                        .message("Loan ID 2 not found")
+                        .build());
+
+        when(paymentService.processPayments(anyList())).thenReturn(results);
+
+        mockMvc.perform(post("/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PaymentBatchRequest(List.of(first, second)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$[0].payment.paymentId").value(1L))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[1].message").value("Loan ID 2 not found"));
+    }
+
+    @Test
+    void makePayments_emptyBatch_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PaymentBatchRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
 }
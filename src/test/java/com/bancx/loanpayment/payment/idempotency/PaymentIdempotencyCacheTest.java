@@ -0,0 +1,126 @@
+package com.bancx.loanpayment.payment.idempotency;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.entity.PaymentIdempotency;
+import com.bancx.loanpayment.payment.repository.PaymentIdempotencyRepository;
+import com.bancx.loanpayment.payment.repository.PaymentRepository;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.util.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PaymentIdempotencyCacheTest {
+
+    private PaymentIdempotencyRepository idempotencyRepository;
+    private PaymentRepository paymentRepository;
+    private PaymentIdempotencyCache cache;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyRepository = mock(PaymentIdempotencyRepository.class);
+        paymentRepository = mock(PaymentRepository.class);
+        cache = new PaymentIdempotencyCache(idempotencyRepository, paymentRepository, new PaymentProperties());
+        callers = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void execute_concurrentSameKey_runsPaymentOnce() throws Exception {
+        PaymentRequest request = request(new BigDecimal("100.00"));
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Payment>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return cache.execute("key-1", request, () -> {
+                    executions.incrementAndGet();
+                    sleep(50);
+                    return payment(1L, request.getPaymentAmount());
+                });
+            }));
+        }
+        start.countDown();
+
+        for (Future<Payment> result : results) {
+            assertEquals(1L, result.get(5, TimeUnit.SECONDS).getPaymentId());
+        }
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void execute_keyOnlyInDatabase_returnsStoredPaymentWithoutExecuting() {
+        PaymentRequest request = request(new BigDecimal("100.00"));
+        when(idempotencyRepository.findById("key-1"))
+                .thenReturn(Optional.of(PaymentIdempotency.builder().idempotencyKey("key-1").paymentId(9L).build()));
+        when(paymentRepository.findById(9L)).thenReturn(Optional.of(payment(9L, request.getPaymentAmount())));
+
+        Payment payment = cache.execute("key-1", request, () -> fail("payment must not run again"));
+
+        assertEquals(9L, payment.getPaymentId());
+    }
+
+    @Test
+    void execute_sameKeyDifferentAmount_isRejected() {
+        cache.execute("key-1", request(new BigDecimal("100.00")), () -> payment(1L, new BigDecimal("100.00")));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.execute("key-1", request(new BigDecimal("200.00")), () -> payment(2L, new BigDecimal("200.00"))));
+    }
+
+    @Test
+    void execute_failedPayment_allowsRetryWithSameKey() {
+        PaymentRequest request = request(new BigDecimal("100.00"));
+
+        assertThrows(IllegalStateException.class, () -> cache.execute("key-1", request, () -> {
+            throw new IllegalStateException("Loan is already settled.");
+        }));
+
+        Payment payment = cache.execute("key-1", request, () -> payment(3L, request.getPaymentAmount()));
+        assertEquals(3L, payment.getPaymentId());
+    }
+
+    @Test
+    void execute_blankKey_isRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.execute(" ", request(new BigDecimal("1.00")), () -> payment(1L, new BigDecimal("1.00"))));
+    }
+
+    private static PaymentRequest request(BigDecimal amount) {
+        return PaymentRequest.builder().loanId(1L).paymentAmount(amount).build();
+    }
+
+    private static Payment payment(Long paymentId, BigDecimal amount) {
+        return Payment.builder().paymentId(paymentId).loanId(1L).paymentAmount(Money.of(amount)).build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
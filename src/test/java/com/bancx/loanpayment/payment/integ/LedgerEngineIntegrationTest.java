@@ -0,0 +1,145 @@
+package com.bancx.loanpayment.payment.integ;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.payment.repository.PaymentIdempotencyRepository;
+import com.bancx.loanpayment.payment.repository.PaymentRepository;
+import com.bancx.loanpayment.payment.rest.PaymentBatchRequest;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "loanpayment.payment.ledger.enabled=true",
+        "loanpayment.payment.ledger.directory=${java.io.tmpdir}/ledger-${random.uuid}",
+        "loanpayment.payment.ledger.fsync=false"
+})
+class LedgerEngineIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentIdempotencyRepository paymentIdempotencyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long loanId;
+
+    @BeforeEach
+    void setUp() {
+        loanId = loanRepository.save(Loan.builder()
+                .loanAmount(Money.of("1000.00"))
+                .term(12)
+                .build()).getLoanId();
+    }
+
+    @Test
+    void payment_isAcknowledgedAndThenWrittenToTheLoanAndPaymentTables() throws Exception {
+        String body = mockMvc.perform(post("/payments")
+                        .header("Idempotency-Key", "ledger-" + loanId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payment(loanId, "400.00")))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.loanId").value(loanId))
+                .andExpect(jsonPath("$.paymentAmount").value(400.00))
+                .andReturn().getResponse().getContentAsString();
+        long paymentId = objectMapper.readTree(body).get("paymentId").asLong();
+
+        awaitTrue(() -> paymentRepository.existsById(paymentId));
+        awaitTrue(() -> paymentIdempotencyRepository.existsById("ledger-" + loanId));
+        Loan loan = loanRepository.findById(loanId).orElseThrow();
+        assertEquals(Money.of("600.00"), loan.getRemainingBalance());
+        assertEquals(LoanStatus.ACTIVE, loan.getStatus());
+    }
+
+    @Test
+    void overpaymentAndSettledLoan_areRejectedAsWithoutTheLedger() throws Exception {
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payment(loanId, "1000.01")))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payment(loanId, "1000.00")))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payment(loanId, "0.01")))
+                .andExpect(status().isConflict());
+
+        awaitTrue(() -> loanRepository.findById(loanId).orElseThrow().getStatus() == LoanStatus.SETTLED);
+        Loan loan = loanRepository.findById(loanId).orElseThrow();
+        assertTrue(loan.getRemainingBalance().isZero());
+        assertTrue(loan.getSettledAt() != null);
+    }
+
+    @Test
+    void batch_appliesEachPaymentThroughTheLedger() throws Exception {
+        PaymentBatchRequest request = new PaymentBatchRequest(List.of(
+                PaymentRequest.builder().loanId(loanId).paymentAmount(new BigDecimal("600.00")).build(),
+                PaymentRequest.builder().loanId(loanId).paymentAmount(new BigDecimal("600.00")).build(),
+                PaymentRequest.builder().loanId(-1L).paymentAmount(new BigDecimal("1.00")).build(),
+                PaymentRequest.builder().loanId(loanId).paymentAmount(new BigDecimal("400.00")).build()));
+
+        mockMvc.perform(post("/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[1].message").value("Payment exceeds remaining balance"))
+                .andExpect(jsonPath("$[2].status").value("REJECTED"))
+                .andExpect(jsonPath("$[3].status").value("APPLIED"));
+
+        awaitTrue(() -> loanRepository.findById(loanId).orElseThrow().getStatus() == LoanStatus.SETTLED);
+    }
+
+    private String payment(Long loanId, String amount) throws Exception {
+        return objectMapper.writeValueAsString(PaymentRequest.builder()
+                .loanId(loanId)
+                .paymentAmount(new BigDecimal(amount))
+                .build());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.bancx.loanpayment.payment.integ;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.rest.PaymentStatus;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = "loanpayment.payment.async.enabled=true")
+class PaymentAcceptanceIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long loanId;
+
+    @BeforeEach
+    void setUp() {
+        loanId = loanRepository.save(Loan.builder()
+                .loanAmount(Money.of("1000.00"))
+                .term(12)
+                .build()).getLoanId();
+    }
+
+    @Test
+    void preferRespondAsync_acceptsAndAppliesInBackground() throws Exception {
+        MvcResult result = mockMvc.perform(post("/payments")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payment(loanId, "250.00")))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn();
+        PaymentStatus accepted = objectMapper.readValue(result.getResponse().getContentAsString(), PaymentStatus.class);
+        String location = result.getResponse().getHeader("Location");
+        assertNotNull(location);
+        mockMvc.perform(get(location)).andExpect(status().isOk());
+
+        PaymentStatus applied = awaitOutcome(accepted.getReference());
+
+        assertEquals(PaymentStatus.Status.APPLIED, applied.getStatus());
+        assertNotNull(applied.getPaymentId());
+        assertEquals(Money.of("750.00"), loanRepository.findById(loanId).orElseThrow().getRemainingBalance());
+    }
+
+    @Test
+    void preferRespondAsync_unknownLoan_isReportedAsRejected() throws Exception {
+        MvcResult result = mockMvc.perform(post("/payments")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payment(Long.MAX_VALUE, "10.00")))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        PaymentStatus accepted = objectMapper.readValue(result.getResponse().getContentAsString(), PaymentStatus.class);
+
+        PaymentStatus rejected = awaitOutcome(accepted.getReference());
+
+        assertEquals(PaymentStatus.Status.REJECTED, rejected.getStatus());
+        assertEquals("Loan ID " + Long.MAX_VALUE + " not found", rejected.getMessage());
+    }
+
+    @Test
+    void withoutPreferHeader_paymentIsAppliedSynchronously() throws Exception {
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payment(loanId, "100.00")))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.paymentId").exists());
+    }
+
+    @Test
+    void preferRespondAsync_invalidPayment_isRejectedImmediately() throws Exception {
+        mockMvc.perform(post("/payments")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payment(loanId, "-5.00")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void status_unknownReference_returns404() throws Exception {
+        mockMvc.perform(get("/payments/status/{reference}", "no-such-reference"))
+                .andExpect(status().isNotFound());
+    }
+
+    private String payment(Long loanId, String amount) throws Exception {
+        return objectMapper.writeValueAsString(PaymentRequest.builder()
+                .loanId(loanId)
+                .paymentAmount(new BigDecimal(amount))
+                .build());
+    }
+
+    private PaymentStatus awaitOutcome(String reference) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            String body = mockMvc.perform(get("/payments/status/{reference}", reference))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.reference").value(reference))
+                    .andReturn().getResponse().getContentAsString();
+            PaymentStatus status = objectMapper.readValue(body, PaymentStatus.class);
+            if (status.getStatus() != PaymentStatus.Status.PENDING || System.nanoTime() > deadline) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -3,7 +3,11 @@ package com.bancx.loanpayment.payment.integ;
 import com.bancx.loanpayment.exception.GlobalExceptionHandler;
 import com.bancx.loanpayment.loan.entity.Loan;
 import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.rest.PaymentBatchRequest;
 import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +23,10 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +43,9 @@ class PaymentControllerIntegrationTest {
     @Autowired
     private LoanRepository loanRepository;
 
+    @Autowired
+    private LoanService loanService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -43,8 +54,8 @@ class PaymentControllerIntegrationTest {
     @BeforeEach
     void setUp() {
         Loan loan = Loan.builder()
-                .loanAmount(new BigDecimal("1000.00"))
-                .remainingBalance(new BigDecimal("1000.00"))
+                .loanAmount(Money.of("1000.00"))
+                .remainingBalance(Money.of("1000.00"))
                 .term(12)
                 .build();
         loan = loanRepository.save(loan);
@@ -78,4 +89,76 @@ class PaymentControllerIntegrationTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void makePayments_batch_appliesPaymentsAndSettlesLoan() throws Exception {
+        PaymentBatchRequest request = new PaymentBatchRequest(List.of(
+                PaymentRequest.builder().loanId(loanId).paymentAmount(new BigDecimal("600.00")).build(),
+                PaymentRequest.builder().loanId(loanId).paymentAmount(new BigDecimal("600.00")).build(),
+                PaymentRequest.builder().loanId(loanId).paymentAmount(new BigDecimal("400.00")).build()));
+
+        mockMvc.perform(post("/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("APPLIED"))
+                .andExpect(jsonPath("$[0].payment.paymentId").exists())
+                .andExpect(jsonPath("$[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$[2].status").value("APPLIED"));
+
+        Loan loan = loanRepository.findById(loanId).orElseThrow();
+        assertTrue(loan.getRemainingBalance().isZero());
+        assertEquals(LoanStatus.SETTLED, loan.getStatus());
+    }
+
+    @Test
+    void makePayment_retryWithSameIdempotencyKey_appliesOnce() throws Exception {
+        PaymentRequest request = PaymentRequest.builder()
+                .loanId(loanId)
+                .paymentAmount(new BigDecimal("250.00"))
+                .build();
+        String body = objectMapper.writeValueAsString(request);
+
+        String first = mockMvc.perform(post("/payments")
+                        .header("Idempotency-Key", "retry-" + loanId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long paymentId = objectMapper.readTree(first).get("paymentId").asLong();
+
+        mockMvc.perform(post("/payments")
+                        .header("Idempotency-Key", "retry-" + loanId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.paymentId").value(paymentId));
+
+        Loan loan = loanRepository.findById(loanId).orElseThrow();
+        assertEquals(0, loan.getRemainingBalance().compareTo(Money.of("750.00")));
+    }
+
+    @Test
+    void makePayment_staleCachedLoan_isRetriedAgainstCurrentBalance() throws Exception {
+        loanService.getLoan(loanId);
+
+        // Change the row behind the cache's back, as another instance would.
+        Loan loan = loanRepository.findById(loanId).orElseThrow();
+        loan.setRemainingBalance(Money.of("100.00"));
+        loanRepository.save(loan);
+
+        PaymentRequest request = PaymentRequest.builder()
+                .loanId(loanId)
+                .paymentAmount(new BigDecimal("500.00"))
+                .build();
+
+        mockMvc.perform(post("/payments")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Payment exceeds remaining balance"));
+
+        assertEquals(0, loanRepository.findById(loanId).orElseThrow()
+                .getRemainingBalance().compareTo(Money.of("100.00")));
+    }
 }
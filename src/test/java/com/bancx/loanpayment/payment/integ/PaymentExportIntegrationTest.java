@@ -0,0 +1,138 @@
+package com.bancx.loanpayment.payment.integ;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.repository.PaymentRepository;
+import com.bancx.loanpayment.payment.rest.PaymentView;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PaymentExportIntegrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2023, 6, 1, 0, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long loanId;
+    private Long otherLoanId;
+
+    @BeforeEach
+    void setUp() {
+        loanId = saveLoan();
+        otherLoanId = saveLoan();
+
+        List<Payment> payments = new ArrayList<>();
+        for (int day = 0; day < 10; day++) {
+            payments.add(payment(loanId, START.plusDays(day)));
+            payments.add(payment(otherLoanId, START.plusDays(day)));
+        }
+        paymentRepository.saveAll(payments);
+    }
+
+    @Test
+    void exportPayments_ndjsonForLoanAndRange_streamsMatchingPaymentsInOrder() throws Exception {
+        String body = export(get("/payments/export")
+                .param("loanId", loanId.toString())
+                .param("from", START.plusDays(2).toString())
+                .param("to", START.plusDays(5).toString()))
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(3, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            PaymentView payment = objectMapper.readValue(lines[i], PaymentView.class);
+            assertEquals(loanId, payment.getLoanId());
+            assertEquals(START.plusDays(2 + i), payment.getTimestamp());
+            assertEquals(Money.of("10.00"), payment.getPaymentAmount());
+        }
+        assertTrue(body.endsWith("\n"));
+    }
+
+    @Test
+    void exportPayments_csvWithoutFilter_includesEveryPayment() throws Exception {
+        long total = paymentRepository.count()
+                + jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payment_archive", Long.class);
+
+        String body = export(get("/payments/export").param("format", "CSV"))
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"payments.csv\""))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals("paymentId,loanId,paymentAmount,timestamp", lines[0]);
+        assertEquals(total, lines.length - 1);
+        assertTrue(body.contains("," + otherLoanId + ",10.00," + START.plusDays(9)));
+    }
+
+    @Test
+    void exportPayments_emptyRange_returns400() throws Exception {
+        mockMvc.perform(get("/payments/export")
+                        .param("from", START.plusDays(5).toString())
+                        .param("to", START.plusDays(5).toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions export(MockHttpServletRequestBuilder exportRequest) throws Exception {
+        MvcResult started = mockMvc.perform(exportRequest)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+    }
+
+    private Long saveLoan() {
+        return loanRepository.save(Loan.builder()
+                .loanAmount(Money.of("1000.00"))
+                .term(12)
+                .build()).getLoanId();
+    }
+
+    private static Payment payment(Long loanId, LocalDateTime timestamp) {
+        return Payment.builder()
+                .loanId(loanId)
+                .paymentAmount(Money.of("10.00"))
+                .timestamp(timestamp)
+                .build();
+    }
+}
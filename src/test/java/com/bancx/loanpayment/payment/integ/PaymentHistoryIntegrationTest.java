@@ -0,0 +1,154 @@
+package com.bancx.loanpayment.payment.integ;
+
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.repository.PaymentRepository;
+import com.bancx.loanpayment.payment.rest.PaymentCursor;
+import com.bancx.loanpayment.payment.rest.PaymentPage;
+import com.bancx.loanpayment.payment.rest.PaymentView;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PaymentHistoryIntegrationTest {
+
+    private static final int PAYMENTS = 120;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long loanId;
+
+    @BeforeEach
+    void setUp() {
+        loanId = saveLoan();
+        Long otherLoanId = saveLoan();
+
+        // Pairs of payments share a timestamp so paging has to break ties on payment ID
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            payments.add(payment(loanId, start.plusMinutes(i / 2)));
+            payments.add(payment(otherLoanId, start.plusMinutes(i / 2)));
+        }
+        paymentRepository.saveAll(payments);
+    }
+
+    @Test
+    void getPayments_followingCursors_returnsEveryPaymentOnceInOrder() throws Exception {
+        List<PaymentView> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/loans/{loanId}/payments", loanId).param("limit", "50");
+            if (cursor != null) {
+                request.param("after", cursor);
+            }
+            PaymentPage page = objectMapper.readValue(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), PaymentPage.class);
+            seen.addAll(page.getPayments());
+            pageSizes.add(page.getPayments().size());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(50, 50, 20), pageSizes);
+        assertEquals(PAYMENTS, seen.stream().map(PaymentView::getPaymentId).distinct().count());
+        assertTrue(seen.stream().allMatch(payment -> payment.getLoanId().equals(loanId)));
+        for (int i = 1; i < seen.size(); i++) {
+            PaymentView previous = seen.get(i - 1);
+            PaymentView current = seen.get(i);
+            int order = current.getTimestamp().compareTo(previous.getTimestamp());
+            assertTrue(order > 0 || (order == 0 && current.getPaymentId() > previous.getPaymentId()));
+        }
+    }
+
+    @Test
+    void getPayments_withoutLimit_usesDefaultPageSize() throws Exception {
+        mockMvc.perform(get("/loans/{loanId}/payments", loanId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.payments.length()").value(50))
+                .andExpect(jsonPath("$.payments[0].paymentAmount").value(1.00))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty());
+    }
+
+    @Test
+    void getPayments_unknownLoan_returns404() throws Exception {
+        mockMvc.perform(get("/loans/{loanId}/payments", 999_999L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getPayments_invalidCursorOrLimit_returns400() throws Exception {
+        mockMvc.perform(get("/loans/{loanId}/payments", loanId).param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/loans/{loanId}/payments", loanId).param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/loans/{loanId}/payments", loanId).param("limit", "501"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void historyQuery_readsCompositeIndexWithoutSorting() {
+        for (PaymentCursor cursor : List.of(PaymentCursor.START, new PaymentCursor(LocalDateTime.of(2024, 1, 1, 9, 30), 1L))) {
+            String plan = jdbcTemplate.queryForObject(
+                    "EXPLAIN SELECT payment_id, loan_id, payment_amount, timestamp FROM payment "
+                            + "WHERE loan_id = ? AND timestamp >= ? AND (timestamp > ? OR payment_id > ?) "
+                            + "ORDER BY loan_id, timestamp, payment_id FETCH FIRST 51 ROWS ONLY",
+                    String.class, loanId, cursor.timestamp(), cursor.timestamp(), cursor.paymentId());
+
+            assertTrue(plan.contains("IDX_PAYMENT_LOAN_TIMESTAMP"), plan);
+            assertTrue(plan.contains("index sorted"), plan);
+        }
+    }
+
+    private Long saveLoan() {
+        return loanRepository.save(Loan.builder()
+                .loanAmount(Money.of("1000.00"))
+                .term(12)
+                .build()).getLoanId();
+    }
+
+    private static Payment payment(Long loanId, LocalDateTime timestamp) {
+        return Payment.builder()
+                .loanId(loanId)
+                .paymentAmount(Money.of("1.00"))
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.bancx.loanpayment.payment.integ;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.payment.outbox.InMemoryPaymentEventSink;
+import com.bancx.loanpayment.payment.outbox.PaymentEvent;
+import com.bancx.loanpayment.payment.outbox.PaymentEventSink;
+import com.bancx.loanpayment.payment.outbox.PaymentOutbox;
+import com.bancx.loanpayment.payment.outbox.PaymentOutboxRelay;
+import com.bancx.loanpayment.payment.rest.PaymentBatchRequest;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "loanpayment.payment.outbox.enabled=true",
+        "loanpayment.payment.outbox.sink=IN_MEMORY",
+        "loanpayment.payment.outbox.linger=0s",
+        // The tests run the relay themselves
+        "loanpayment.payment.outbox.poll-interval=1h"
+})
+class PaymentOutboxIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private PaymentOutbox paymentOutbox;
+
+    @Autowired
+    private PaymentOutboxRelay relay;
+
+    @Autowired
+    private PaymentEventSink sink;
+
+    @Autowired
+    private PaymentProperties paymentProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long loanId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        relay.relay();
+        ((InMemoryPaymentEventSink) sink).clear();
+        loanId = loanRepository.save(Loan.builder()
+                .loanAmount(Money.of("1000.00"))
+                .term(12)
+                .build()).getLoanId();
+    }
+
+    @Test
+    void committedPayments_arePublishedInOrderAndDeletedFromTheOutbox() throws Exception {
+        pay(loanId, "400.00").andExpect(status().isCreated());
+        pay(loanId, "600.01").andExpect(status().isBadRequest());
+        pay(loanId, "600.00").andExpect(status().isCreated());
+
+        List<PaymentEvent> recorded = paymentOutbox.oldest(10);
+        assertEquals(2, recorded.size());
+
+        assertEquals(2, relay.relay());
+        List<PaymentEvent> published = ((InMemoryPaymentEventSink) sink).events();
+        assertEquals(recorded, published);
+        assertEquals(PaymentEvent.Type.PAYMENT_APPLIED, published.get(0).type());
+        assertEquals(Money.of("600.00"), published.get(0).remainingBalance());
+        assertEquals(PaymentEvent.Type.LOAN_SETTLED, published.get(1).type());
+        assertEquals(LoanStatus.SETTLED, published.get(1).loanStatus());
+        assertTrue(published.get(1).remainingBalance().isZero());
+        assertTrue(paymentOutbox.oldest(10).isEmpty());
+    }
+
+    @Test
+    void atomicMode_takesTheBalanceAfterThePaymentFromTheLoanRow() throws Exception {
+        paymentProperties.setBalanceUpdateMode(PaymentProperties.BalanceUpdateMode.ATOMIC);
+        try {
+            pay(loanId, "250.00").andExpect(status().isCreated());
+            pay(loanId, "750.00").andExpect(status().isCreated());
+        } finally {
+            paymentProperties.setBalanceUpdateMode(PaymentProperties.BalanceUpdateMode.OPTIMISTIC);
+        }
+
+        relay.relay();
+        List<PaymentEvent> published = ((InMemoryPaymentEventSink) sink).events();
+        assertEquals(2, published.size());
+        assertEquals(Money.of("750.00"), published.get(0).remainingBalance());
+        assertEquals(PaymentEvent.Type.PAYMENT_APPLIED, published.get(0).type());
+        assertEquals(PaymentEvent.Type.LOAN_SETTLED, published.get(1).type());
+        assertEquals(Money.of("750.00"), published.get(1).paymentAmount());
+    }
+
+    @Test
+    void batch_recordsAnEventPerAppliedPayment() throws Exception {
+        PaymentBatchRequest request = new PaymentBatchRequest(List.of(
+                PaymentRequest.builder().loanId(loanId).paymentAmount(new BigDecimal("100.00")).build(),
+                PaymentRequest.builder().loanId(loanId).paymentAmount(new BigDecimal("5000.00")).build(),
+                PaymentRequest.builder().loanId(loanId).paymentAmount(new BigDecimal("900.00")).build()));
+
+        mockMvc.perform(post("/payments/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        List<PaymentEvent> recorded = paymentOutbox.oldest(10);
+        assertEquals(2, recorded.size());
+        assertEquals(Money.of("900.00"), recorded.get(0).remainingBalance());
+        assertEquals(PaymentEvent.Type.LOAN_SETTLED, recorded.get(1).type());
+        assertTrue(recorded.get(0).paymentId() < recorded.get(1).paymentId());
+    }
+
+    private ResultActions pay(Long loanId, String amount) throws Exception {
+        return mockMvc.perform(post("/payments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(PaymentRequest.builder()
+                        .loanId(loanId)
+                        .paymentAmount(new BigDecimal(amount))
+                        .build())));
+    }
+}
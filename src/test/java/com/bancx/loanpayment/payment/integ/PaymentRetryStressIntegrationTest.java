@@ -0,0 +1,146 @@
+package com.bancx.loanpayment.payment.integ;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.repoaitory.LoanRepository;
+import com.bancx.loanpayment.payment.idempotency.PaymentIdempotencyCache;
+import com.bancx.loanpayment.payment.ledger.LedgerEngine;
+import com.bancx.loanpayment.payment.metrics.PaymentMetrics;
+import com.bancx.loanpayment.payment.repository.PaymentRepository;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.retry.OptimisticLockRetry;
+import com.bancx.loanpayment.payment.sequencer.PaymentSequencer;
+import com.bancx.loanpayment.payment.service.PaymentService;
+import com.bancx.loanpayment.payment.service.impl.PaymentExecutionService;
+import com.bancx.loanpayment.payment.service.impl.PaymentServiceImpl;
+import com.bancx.loanpayment.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads paying into one loan under the OPTIMISTIC balance update
+ * mode, once through the application's PaymentService with retries and once
+ * through a copy of it that never retries.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "loanpayment.payment.balance-update-mode=OPTIMISTIC",
+        "loanpayment.payment.retry.max-attempts=30",
+        "loanpayment.payment.retry.initial-backoff=1ms",
+        "loanpayment.payment.retry.max-backoff=20ms"
+})
+class PaymentRetryStressIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int PAYMENTS_PER_THREAD = 25;
+    private static final BigDecimal PAYMENT_AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Test
+    void hotLoan_withRetries_appliesEveryPaymentAndKeepsBalanceExact() throws Exception {
+        Long loanId = newLoan();
+
+        int applied = payConcurrently(paymentService, loanId);
+
+        assertEquals(THREADS * PAYMENTS_PER_THREAD, applied);
+        assertBalanceMatches(loanId, applied);
+    }
+
+    @Test
+    void hotLoan_withoutRetries_appliesFewerPaymentsButKeepsBalanceExact() throws Exception {
+        PaymentProperties noRetries = new PaymentProperties();
+        noRetries.getRetry().setMaxAttempts(1);
+        PaymentService withoutRetries = new PaymentExecutionService(
+                context.getBean(PaymentServiceImpl.class),
+                context.getBean(PaymentIdempotencyCache.class),
+                context.getBeanProvider(PaymentSequencer.class),
+                new OptimisticLockRetry(noRetries, new SimpleMeterRegistry()),
+                context.getBean(PaymentMetrics.class),
+                context.getBeanProvider(LedgerEngine.class));
+        Long retriedLoanId = newLoan();
+        Long loanId = newLoan();
+
+        int appliedWithRetries = payConcurrently(paymentService, retriedLoanId);
+        int applied = payConcurrently(withoutRetries, loanId);
+
+        assertTrue(applied <= appliedWithRetries, applied + " > " + appliedWithRetries);
+        assertBalanceMatches(loanId, applied);
+    }
+
+    private Long newLoan() {
+        return loanRepository.save(Loan.builder()
+                .loanAmount(Money.of("10000.00"))
+                .term(12)
+                .build()).getLoanId();
+    }
+
+    private int payConcurrently(PaymentService service, Long loanId) throws Exception {
+        PaymentRequest request = PaymentRequest.builder().loanId(loanId).paymentAmount(PAYMENT_AMOUNT).build();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService payers = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(payers.submit(() -> {
+                    start.await();
+                    int applied = 0;
+                    for (int i = 0; i < PAYMENTS_PER_THREAD; i++) {
+                        try {
+                            service.processPayment(request);
+                            applied++;
+                        } catch (ObjectOptimisticLockingFailureException ex) {
+                            // Lost the race; the payment was rolled back.
+                        }
+                    }
+                    return applied;
+                }));
+            }
+            start.countDown();
+            int applied = 0;
+            for (Future<Integer> result : results) {
+                applied += result.get(60, TimeUnit.SECONDS);
+            }
+            return applied;
+        } finally {
+            payers.shutdownNow();
+        }
+    }
+
+    private void assertBalanceMatches(Long loanId, int applied) {
+        Money expected = Money.of("10000.00").minus(Money.of(PAYMENT_AMOUNT.multiply(BigDecimal.valueOf(applied))));
+        assertEquals(expected, loanRepository.findById(loanId).orElseThrow().getRemainingBalance());
+        assertEquals(applied, paymentRepository.findAll().stream()
+                .filter(payment -> payment.getLoanId().equals(loanId))
+                .count());
+    }
+}
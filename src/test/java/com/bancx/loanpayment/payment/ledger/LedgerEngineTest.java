@@ -0,0 +1,297 @@
+package com.bancx.loanpayment.payment.ledger;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.exception.LoanNotFoundException;
+import com.bancx.loanpayment.exception.PaymentOutcomeUnknownException;
+import com.bancx.loanpayment.exception.PaymentUnavailableException;
+import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.portfolio.PortfolioAggregates;
+import com.bancx.loanpayment.loan.service.LoanService;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.metrics.PaymentMetrics;
+import com.bancx.loanpayment.payment.outbox.PaymentOutbox;
+import com.bancx.loanpayment.payment.repository.PaymentIdempotencyRepository;
+import com.bancx.loanpayment.payment.repository.PaymentRepository;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.service.impl.PaymentServiceImpl;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class LedgerEngineTest {
+
+    @TempDir
+    Path directory;
+
+    private PaymentProperties paymentProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private LoanService loanService;
+    private LedgerProjection projection;
+    private PaymentServiceImpl paymentServiceImpl;
+    private LedgerEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        paymentProperties = new PaymentProperties();
+        paymentProperties.getLedger().setEnabled(true);
+        paymentProperties.getLedger().setDirectory(directory.toString());
+        paymentProperties.getLedger().setFsync(false);
+        paymentProperties.getLedger().setRingCapacity(64);
+        meterRegistry = new SimpleMeterRegistry();
+        loanService = mock(LoanService.class);
+        projection = mock(LedgerProjection.class);
+        AtomicLong blocks = new AtomicLong(1);
+        when(projection.nextPaymentIdBlock())
+                .thenAnswer(invocation -> blocks.getAndAdd(LedgerProjection.PAYMENT_ID_BLOCK));
+        paymentServiceImpl = new PaymentServiceImpl(loanService, mock(PaymentRepository.class),
+                mock(PaymentIdempotencyRepository.class), paymentProperties, new PaymentMetrics(meterRegistry),
+                mock(PaymentOutbox.class), mock(PortfolioAggregates.class));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void execute_appliesTheSameRulesAsTheDatabasePath() throws Exception {
+        when(loanService.getLoan(1L)).thenReturn(activeLoan(1L, "100.00"));
+        engine = newEngine();
+
+        Payment first = engine.execute(payment(1L, "60.00"));
+        assertEquals(1L, first.getPaymentId());
+        assertEquals(Money.of("60.00"), first.getPaymentAmount());
+
+        IllegalArgumentException overpayment = assertThrows(IllegalArgumentException.class,
+                () -> engine.execute(payment(1L, "50.00")));
+        assertEquals("Payment exceeds remaining balance", overpayment.getMessage());
+
+        assertEquals(2L, engine.execute(payment(1L, "40.00")).getPaymentId());
+
+        IllegalStateException settled = assertThrows(IllegalStateException.class,
+                () -> engine.execute(payment(1L, "0.01")));
+        assertEquals("Loan is already settled.", settled.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> engine.execute(payment(1L, "0.001")));
+        assertEquals(1.0, meterRegistry.get("payment.outcome").tag("outcome", "overpayment").counter().count());
+        assertEquals(1.0, meterRegistry.get("payment.outcome").tag("outcome", "settled_rejection").counter().count());
+        verify(loanService, times(1)).getLoan(1L);
+    }
+
+    @Test
+    void execute_withFsync_isAnsweredByTheGroupCommitOnceTheRingIsEmpty() throws Exception {
+        paymentProperties.getLedger().setFsync(true);
+        paymentProperties.getLedger().setFsyncBatchSize(1000);
+        paymentProperties.getLedger().setFsyncInterval(Duration.ofHours(1));
+        when(loanService.getLoan(1L)).thenReturn(activeLoan(1L, "100.00"));
+        engine = newEngine();
+
+        assertEquals(Money.of("10.00"), engine.execute(payment(1L, "10.00")).getPaymentAmount());
+        assertEquals(Money.of("20.00"), engine.execute(payment(1L, "20.00")).getPaymentAmount());
+        verify(projection, timeout(5000).atLeastOnce()).project(any());
+    }
+
+    @Test
+    void execute_unknownLoan_throwsLoanNotFound() throws Exception {
+        when(loanService.getLoan(9L)).thenThrow(new LoanNotFoundException("Loan ID 9 not found"));
+        engine = newEngine();
+
+        assertThrows(LoanNotFoundException.class, () -> engine.execute(payment(9L, "1.00")));
+    }
+
+    @Test
+    void acceptedPayments_areProjectedWithTheLoanStateAfterEachPayment() throws Exception {
+        when(loanService.getLoan(1L)).thenReturn(activeLoan(1L, "10.00"));
+        engine = newEngine();
+
+        engine.execute(payment(1L, "4.00"));
+        engine.execute(payment(1L, "6.00"));
+        engine.shutdown();
+        engine = null;
+
+        verify(projection, atLeastOnce()).project(any());
+        List<LedgerEntry> projected = mockingDetails(projection).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("project"))
+                .flatMap(invocation -> invocation.<List<LedgerEntry>>getArgument(0).stream())
+                .toList();
+        assertEquals(2, projected.size());
+        assertEquals(Money.of("6.00"), projected.get(0).remainingBalance());
+        assertEquals(LoanStatus.SETTLED, projected.get(1).status());
+        assertNotNull(projected.get(1).settledAt());
+    }
+
+    @Test
+    void restart_restoresBalancesFromTheShutdownSnapshot() throws Exception {
+        when(loanService.getLoan(1L)).thenReturn(activeLoan(1L, "100.00"));
+        engine = newEngine();
+        engine.execute(payment(1L, "30.00"));
+        engine.shutdown();
+        reset(loanService);
+
+        engine = newEngine();
+
+        assertThrows(IllegalArgumentException.class, () -> engine.execute(payment(1L, "70.01")));
+        engine.execute(payment(1L, "70.00"));
+        verifyNoInteractions(loanService);
+    }
+
+    @Test
+    void restart_replaysJournalWrittenAfterTheLastSnapshot() throws Exception {
+        LedgerEntry journaled = new LedgerEntry(1L, 500L, 1L, Money.of("75.00"), LocalDateTime.now(), "key-1",
+                Money.of("25.00"), LoanStatus.ACTIVE, null);
+        try (LedgerJournal journal = new LedgerJournal(paymentProperties.getLedger())) {
+            journal.open(1L);
+            journal.append(journaled);
+        }
+
+        engine = newEngine();
+
+        verify(projection, timeout(5000)).project(List.of(journaled));
+        assertThrows(IllegalArgumentException.class, () -> engine.execute(payment(1L, "25.01")));
+        Payment next = engine.execute(payment(1L, "25.00"));
+        assertEquals(1L, next.getPaymentId());
+        verifyNoInteractions(loanService);
+    }
+
+    @Test
+    void restart_retryWithTheKeyOfAnUnprojectedEntry_returnsThatPayment() throws Exception {
+        paymentProperties.getLedger().setShutdownTimeout(Duration.ofMillis(200));
+        LedgerEntry journaled = new LedgerEntry(1L, 500L, 1L, Money.of("75.00"), LocalDateTime.now(), "key-1",
+                Money.of("25.00"), LoanStatus.ACTIVE, null);
+        try (LedgerJournal journal = new LedgerJournal(paymentProperties.getLedger())) {
+            journal.open(1L);
+            journal.append(journaled);
+        }
+        doThrow(new CannotCreateTransactionException("Database unreachable")).when(projection).project(any());
+
+        engine = newEngine();
+
+        Payment retried = engine.execute(payment(1L, "75.00", "key-1"));
+        assertEquals(500L, retried.getPaymentId());
+        Payment first = engine.execute(payment(1L, "5.00", "key-2"));
+        assertEquals(first.getPaymentId(), engine.execute(payment(1L, "5.00", "key-2")).getPaymentId());
+        assertThrows(IllegalArgumentException.class, () -> engine.execute(payment(1L, "20.01")));
+        engine.execute(payment(1L, "20.00"));
+    }
+
+    @Test
+    void journalFailure_beforeCommit_reportsOutcomeUnknown_andRestartReplaysThePayment() throws Exception {
+        paymentProperties.getLedger().setFsync(true);
+        paymentProperties.getLedger().setFsyncBatchSize(1000);
+        paymentProperties.getLedger().setFsyncInterval(Duration.ofHours(1));
+        paymentProperties.getLedger().setSnapshotInterval(Duration.ZERO);
+        when(loanService.getLoan(1L)).thenReturn(activeLoan(1L, "100.00"));
+        engine = newEngine();
+        // The snapshot after the first payment rolls to this segment, which cannot be opened
+        Path blocked = Files.createDirectory(LedgerJournal.segmentPath(directory, 2L));
+
+        assertThrows(PaymentOutcomeUnknownException.class, () -> engine.execute(payment(1L, "30.00")));
+        assertThrows(PaymentUnavailableException.class, () -> engine.execute(payment(1L, "1.00")));
+        engine.shutdown();
+
+        Files.delete(blocked);
+        reset(projection);
+        engine = newEngine();
+
+        verify(projection, timeout(5000)).project(argThat(entries -> entries.size() == 1
+                && entries.get(0).paymentAmount().equals(Money.of("30.00"))));
+        assertThrows(IllegalArgumentException.class, () -> engine.execute(payment(1L, "70.01")));
+    }
+
+    @Test
+    void projection_refusedEntry_holdsTheProjectionAndStopsTheEngine_andRestartWritesIt() throws Exception {
+        paymentProperties.getLedger().setProjectionMaxAttempts(2);
+        paymentProperties.getLedger().setProjectionLinger(Duration.ofMillis(200));
+        paymentProperties.getLedger().setShutdownTimeout(Duration.ofMillis(200));
+        when(loanService.getLoan(1L)).thenReturn(activeLoan(1L, "100.00"));
+        doThrow(new DataIntegrityViolationException("payment_amount out of range"))
+                .when(projection).project(argThat(entries -> entries.stream()
+                        .anyMatch(entry -> entry.paymentAmount().equals(Money.of("2.00")))));
+        engine = newEngine();
+
+        engine.execute(payment(1L, "1.00"));
+        engine.execute(payment(1L, "2.00"));
+        engine.execute(payment(1L, "3.00"));
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (meterRegistry.get("payment.ledger.projection.refused").gauge().value() == 0
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1.0, meterRegistry.get("payment.ledger.projection.refused").gauge().value());
+        PaymentUnavailableException stopped = null;
+        while (stopped == null && System.nanoTime() < deadline) {
+            try {
+                engine.execute(payment(1L, "200.00"));
+            } catch (PaymentUnavailableException ex) {
+                stopped = ex;
+            } catch (IllegalArgumentException overpayment) {
+                Thread.sleep(10);
+            }
+        }
+        assertNotNull(stopped);
+        verify(projection).project(argThat(entries -> entries.size() == 1
+                && entries.get(0).paymentAmount().equals(Money.of("1.00"))));
+        verify(projection, never()).project(argThat(entries -> entries.stream()
+                .noneMatch(entry -> entry.paymentAmount().equals(Money.of("2.00")))
+                && entries.stream().anyMatch(entry -> entry.paymentAmount().equals(Money.of("3.00")))));
+        engine.shutdown();
+        engine = null;
+
+        clearInvocations(projection);
+        doNothing().when(projection).project(any());
+        engine = newEngine();
+
+        verify(projection, timeout(5000)).project(argThat(entries -> entries.size() == 3
+                && entries.get(1).paymentAmount().equals(Money.of("2.00"))
+                && entries.get(2).paymentAmount().equals(Money.of("3.00"))));
+        assertThrows(IllegalArgumentException.class, () -> engine.execute(payment(1L, "94.01")));
+    }
+
+    private LedgerEngine newEngine() throws Exception {
+        return new LedgerEngine(paymentProperties, paymentServiceImpl, loanService, projection, meterRegistry);
+    }
+
+    private static Loan activeLoan(Long loanId, String balance) {
+        return Loan.builder()
+                .loanId(loanId)
+                .loanAmount(Money.of(balance))
+                .remainingBalance(Money.of(balance))
+                .status(LoanStatus.ACTIVE)
+                .term(12)
+                .build();
+    }
+
+    private static PaymentRequest payment(Long loanId, String amount) {
+        return payment(loanId, amount, null);
+    }
+
+    private static PaymentRequest payment(Long loanId, String amount, String idempotencyKey) {
+        return PaymentRequest.builder()
+                .loanId(loanId)
+                .paymentAmount(new BigDecimal(amount))
+                .idempotencyKey(idempotencyKey)
+                .build();
+    }
+}
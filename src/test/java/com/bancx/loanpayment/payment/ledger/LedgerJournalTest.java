@@ -0,0 +1,175 @@
+package com.bancx.loanpayment.payment.ledger;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private PaymentProperties.Ledger settings;
+
+    @BeforeEach
+    void setUp() {
+        settings = new PaymentProperties.Ledger();
+        settings.setDirectory(directory.toString());
+        settings.setFsync(false);
+        settings.setSegmentSize(DataSize.ofKilobytes(64));
+    }
+
+    @Test
+    void read_returnsEntriesAfterTheGivenSequence() throws Exception {
+        LedgerEntry first = entry(1, "100.00", LoanStatus.ACTIVE, null, "key-1");
+        LedgerEntry second = entry(2, "0.00", LoanStatus.SETTLED, LocalDateTime.of(2026, 1, 2, 3, 4, 5, 6), null);
+        try (LedgerJournal journal = new LedgerJournal(settings)) {
+            journal.open(1);
+            journal.append(first);
+            journal.append(second);
+        }
+
+        assertEquals(List.of(first, second), LedgerJournalReader.read(directory, 0));
+        assertEquals(List.of(second), LedgerJournalReader.read(directory, 1));
+    }
+
+    @Test
+    void read_stopsAtATornRecordAtTheEndOfASegment() throws Exception {
+        LedgerEntry first = entry(1, "100.00", LoanStatus.ACTIVE, null, null);
+        try (LedgerJournal journal = new LedgerJournal(settings)) {
+            journal.open(1);
+            journal.append(first);
+            journal.append(entry(2, "90.00", LoanStatus.ACTIVE, null, null));
+        }
+        Path segment = segments().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 3), StandardOpenOption.TRUNCATE_EXISTING);
+
+        assertEquals(List.of(first), LedgerJournalReader.read(directory, 0));
+    }
+
+    @Test
+    void deleteThrough_removesOnlySegmentsCoveredBySequence() throws Exception {
+        try (LedgerJournal journal = new LedgerJournal(settings)) {
+            journal.open(1);
+            journal.append(entry(1, "100.00", LoanStatus.ACTIVE, null, null));
+            journal.roll(2);
+            journal.append(entry(2, "90.00", LoanStatus.ACTIVE, null, null));
+            journal.roll(3);
+            journal.append(entry(3, "80.00", LoanStatus.ACTIVE, null, null));
+            journal.sync();
+
+            journal.deleteThrough(1);
+            assertEquals(2, segments().size());
+            assertEquals(2, LedgerJournalReader.read(directory, 0).get(0).sequence());
+
+            journal.deleteThrough(3);
+            assertEquals(1, segments().size());
+        }
+        assertEquals(3, LedgerJournalReader.read(directory, 0).get(0).sequence());
+    }
+
+    @Test
+    void read_replaysTheRecordsInAnOpenSegmentAndIgnoresItsUnwrittenSpace() throws Exception {
+        LedgerEntry first = entry(1, "100.00", LoanStatus.ACTIVE, null, "key-1");
+        LedgerJournal journal = new LedgerJournal(settings);
+        journal.open(1);
+        journal.append(first);
+
+        assertEquals(DataSize.ofKilobytes(64).toBytes(), Files.size(segments().get(0)));
+        assertEquals(List.of(first), LedgerJournalReader.read(directory, 0));
+        journal.close();
+    }
+
+    @Test
+    void append_rollsOverWhenTheSegmentIsFullAndTruncatesTheClosedSegment() throws Exception {
+        settings.setSegmentSize(DataSize.ofBytes(LedgerJournal.RECORD_BYTES + LedgerJournal.MAX_KEY_BYTES));
+        List<LedgerEntry> entries = new ArrayList<>();
+        try (LedgerJournal journal = new LedgerJournal(settings)) {
+            journal.open(1);
+            for (int sequence = 1; sequence <= 20; sequence++) {
+                LedgerEntry entry = entry(sequence, "100.00", LoanStatus.ACTIVE, null, "key-" + sequence);
+                journal.append(entry);
+                entries.add(entry);
+            }
+        }
+
+        List<Path> segments = segments();
+        assertTrue(segments.size() > 1);
+        assertTrue(Files.size(segments.get(0)) < LedgerJournal.RECORD_BYTES + LedgerJournal.MAX_KEY_BYTES);
+        assertEquals(entries, LedgerJournalReader.read(directory, 0));
+    }
+
+    @Test
+    void syncDue_whenTheGroupReachesTheBatchSizeOrItsOldestRecordTheInterval() throws Exception {
+        settings.setFsync(true);
+        settings.setFsyncBatchSize(3);
+        settings.setFsyncInterval(Duration.ofHours(1));
+        try (LedgerJournal journal = new LedgerJournal(settings)) {
+            journal.open(1);
+            assertFalse(journal.syncDue());
+            journal.append(entry(1, "100.00", LoanStatus.ACTIVE, null, null));
+            journal.append(entry(2, "90.00", LoanStatus.ACTIVE, null, null));
+            assertFalse(journal.syncDue());
+            journal.roll(3);
+            journal.append(entry(3, "80.00", LoanStatus.ACTIVE, null, null));
+            assertTrue(journal.syncDue());
+            journal.sync();
+            assertFalse(journal.hasUnsynced());
+        }
+
+        settings.setFsyncInterval(Duration.ZERO);
+        try (LedgerJournal journal = new LedgerJournal(settings)) {
+            journal.open(4);
+            journal.append(entry(4, "70.00", LoanStatus.ACTIVE, null, null));
+            assertTrue(journal.syncDue());
+        }
+    }
+
+    @Test
+    void snapshot_roundTripsAccountsAndFallsBackPastACorruptSnapshot() throws Exception {
+        LedgerSnapshots snapshots = new LedgerSnapshots(directory);
+        assertTrue(snapshots.latest().isEmpty());
+
+        LedgerAccount active = new LedgerAccount(7L, Money.of("12.34"), LoanStatus.ACTIVE, null, 4L);
+        LedgerAccount settled = new LedgerAccount(8L, Money.ZERO, LoanStatus.SETTLED,
+                LocalDateTime.of(2026, 5, 6, 7, 8, 9), 5L);
+        snapshots.write(new LedgerSnapshots.Snapshot(5L, List.of(active, settled)));
+        snapshots.write(new LedgerSnapshots.Snapshot(9L, List.of(active)));
+        Path newest = directory.resolve(String.format("snapshot-%020d.bin", 9L));
+        Files.write(newest, new byte[]{1, 2, 3}, StandardOpenOption.TRUNCATE_EXISTING);
+
+        LedgerSnapshots.Snapshot restored = snapshots.latest().orElseThrow();
+        assertEquals(5L, restored.sequence());
+        assertEquals(List.of(active, settled), List.copyOf(restored.accounts()));
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("journal-")).sorted().toList();
+        }
+    }
+
+    private static LedgerEntry entry(long sequence, String remaining, LoanStatus status,
+                                     LocalDateTime settledAt, String idempotencyKey) {
+        return new LedgerEntry(sequence, 100 + sequence, 7L, Money.of("10.00"),
+                LocalDateTime.of(2026, 1, 1, 12, 0, 0, 123_456_789), idempotencyKey,
+                Money.of(remaining), status, settledAt);
+    }
+}
@@ -0,0 +1,94 @@
+package com.bancx.loanpayment.payment.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerRingBufferTest {
+
+    @Test
+    void poll_returnsElementsInOfferOrder() {
+        LedgerRingBuffer<Integer> ring = new LedgerRingBuffer<>(4);
+
+        for (int lap = 0; lap < 3; lap++) {
+            assertTrue(ring.offer(1));
+            assertTrue(ring.offer(2));
+            assertTrue(ring.offer(3));
+            assertEquals(3, ring.size());
+            assertEquals(1, ring.poll());
+            assertEquals(2, ring.poll());
+            assertEquals(3, ring.poll());
+            assertNull(ring.poll());
+        }
+    }
+
+    @Test
+    void offer_fullBuffer_returnsFalseUntilAnElementIsTaken() {
+        LedgerRingBuffer<Integer> ring = new LedgerRingBuffer<>(2);
+
+        assertTrue(ring.offer(1));
+        assertTrue(ring.offer(2));
+        assertFalse(ring.offer(3));
+
+        assertEquals(1, ring.poll());
+        assertTrue(ring.offer(3));
+        assertEquals(2, ring.poll());
+        assertEquals(3, ring.poll());
+    }
+
+    @Test
+    void constructor_capacityNotAPowerOfTwo_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LedgerRingBuffer<>(1000));
+    }
+
+    @Test
+    void concurrentProducers_everyElementIsTakenOnceAndInOrderPerProducer() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        LedgerRingBuffer<long[]> ring = new LedgerRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (long i = 0; i < perProducer; i++) {
+                    while (!ring.offer(new long[]{producer, i})) {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        long[] nextByProducer = new long[producers];
+        Set<String> seen = new HashSet<>();
+        int taken = 0;
+        while (taken < producers * perProducer) {
+            long[] element = ring.poll();
+            if (element == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertEquals(nextByProducer[(int) element[0]]++, element[1]);
+            assertTrue(seen.add(element[0] + ":" + element[1]));
+            taken++;
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertNull(ring.poll());
+    }
+}
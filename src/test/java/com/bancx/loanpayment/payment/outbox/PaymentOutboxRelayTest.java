@@ -0,0 +1,103 @@
+package com.bancx.loanpayment.payment.outbox;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PaymentOutboxRelayTest {
+
+    private PaymentProperties paymentProperties;
+    private PaymentOutbox outbox;
+    private InMemoryPaymentEventSink sink;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        paymentProperties = new PaymentProperties();
+        paymentProperties.getOutbox().setEnabled(true);
+        paymentProperties.getOutbox().setBatchSize(2);
+        paymentProperties.getOutbox().setLinger(Duration.ofMinutes(1));
+        outbox = mock(PaymentOutbox.class);
+        sink = new InMemoryPaymentEventSink();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void relay_publishesFullBatchesAndHoldsBackAYoungPartialBatch() throws Exception {
+        List<PaymentEvent> full = List.of(event(1, LocalDateTime.now()), event(2, LocalDateTime.now()));
+        List<PaymentEvent> partial = List.of(event(3, LocalDateTime.now()));
+        when(outbox.oldest(2)).thenReturn(full, partial);
+
+        assertEquals(2, newRelay(sink).relay());
+
+        assertEquals(full, sink.events());
+        verify(outbox).delete(full);
+        verify(outbox, never()).delete(partial);
+        assertEquals(2.0, meterRegistry.get("payment.outbox.published").counter().count());
+    }
+
+    @Test
+    void relay_publishesAPartialBatchOnceItsOldestEventHasLingered() throws Exception {
+        List<PaymentEvent> partial = List.of(event(1, LocalDateTime.now().minusMinutes(2)));
+        when(outbox.oldest(2)).thenReturn(partial, List.of());
+
+        assertEquals(1, newRelay(sink).relay());
+
+        assertEquals(partial, sink.events());
+        verify(outbox).delete(partial);
+    }
+
+    @Test
+    void relay_keepsEventsInTheOutboxWhenTheSinkFails() {
+        List<PaymentEvent> full = List.of(event(1, LocalDateTime.now()), event(2, LocalDateTime.now()));
+        when(outbox.oldest(2)).thenReturn(full);
+        PaymentEventSink failing = events -> {
+            throw new IOException("broker unavailable");
+        };
+
+        assertThrows(IOException.class, () -> newRelay(failing).relay());
+
+        verify(outbox, never()).delete(any());
+    }
+
+    @Test
+    void fileSink_appendsOneJsonLinePerEvent(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("events/payment-events.jsonl");
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        FilePaymentEventSink fileSink = new FilePaymentEventSink(file, objectMapper);
+
+        fileSink.publish(List.of(event(1, LocalDateTime.of(2026, 1, 2, 3, 4, 5))));
+        fileSink.publish(List.of(event(2, LocalDateTime.of(2026, 1, 2, 3, 4, 6))));
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertEquals(2, objectMapper.readTree(lines.get(1)).get("eventId").asLong());
+        assertEquals("PAYMENT_APPLIED", objectMapper.readTree(lines.get(1)).get("type").asText());
+    }
+
+    private PaymentOutboxRelay newRelay(PaymentEventSink eventSink) {
+        return new PaymentOutboxRelay(outbox, eventSink, paymentProperties, meterRegistry);
+    }
+
+    private static PaymentEvent event(long eventId, LocalDateTime occurredAt) {
+        return new PaymentEvent(eventId, PaymentEvent.Type.PAYMENT_APPLIED, 7L, 100 + eventId, Money.of("10.00"),
+                Money.of("90.00"), LoanStatus.ACTIVE, occurredAt);
+    }
+}
@@ -0,0 +1,99 @@
+package com.bancx.loanpayment.payment.retry;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticLockRetryTest {
+
+    private PaymentProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticLockRetry retry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PaymentProperties();
+        properties.getRetry().setMaxAttempts(3);
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(1));
+        properties.getRetry().setMaxBackoff(Duration.ofMillis(4));
+        meterRegistry = new SimpleMeterRegistry();
+        retry = new OptimisticLockRetry(properties, meterRegistry);
+    }
+
+    @Test
+    void execute_conflictThenSuccess_returnsResultOfRetry() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = retry.execute(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw conflict();
+            }
+            return "applied";
+        });
+
+        assertEquals("applied", result);
+        assertEquals(3, calls.get());
+        assertEquals(2.0, meterRegistry.get("payment.retry.attempts").counter().count());
+        assertEquals(0.0, meterRegistry.get("payment.retry.exhausted").counter().count());
+        assertEquals(1L, meterRegistry.get("payment.retry.delay").timer().count());
+    }
+
+    @Test
+    void execute_conflictOnEveryAttempt_rethrowsAfterBudget() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retry.execute(() -> {
+            calls.incrementAndGet();
+            throw conflict();
+        }));
+
+        assertEquals(3, calls.get());
+        assertEquals(1.0, meterRegistry.get("payment.retry.exhausted").counter().count());
+    }
+
+    @Test
+    void execute_otherException_isNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> retry.execute(() -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("Payment exceeds remaining balance");
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(0.0, meterRegistry.get("payment.retry.attempts").counter().count());
+    }
+
+    @Test
+    void execute_firstAttemptSucceeds_recordsNoDelay() {
+        assertEquals("applied", retry.execute(() -> "applied"));
+
+        assertEquals(0L, meterRegistry.get("payment.retry.delay").timer().count());
+    }
+
+    @Test
+    void backoffBound_growsExponentiallyUpToMax() {
+        assertEquals(Duration.ofMillis(1).toNanos(), retry.backoffBound(1));
+        assertEquals(Duration.ofMillis(2).toNanos(), retry.backoffBound(2));
+        assertEquals(Duration.ofMillis(4).toNanos(), retry.backoffBound(3));
+        assertEquals(Duration.ofMillis(4).toNanos(), retry.backoffBound(10));
+    }
+
+    @Test
+    void constructor_zeroAttempts_isRejected() {
+        properties.getRetry().setMaxAttempts(0);
+
+        assertThrows(IllegalArgumentException.class, () -> new OptimisticLockRetry(properties, meterRegistry));
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException("Loan", 1L);
+    }
+}
@@ -0,0 +1,157 @@
+package com.bancx.loanpayment.payment.sequencer;
+
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.exception.PaymentQueueFullException;
+import com.bancx.loanpayment.exception.PaymentUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentSequencerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentSequencer sequencer;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        PaymentProperties properties = new PaymentProperties();
+        properties.getSequencer().setEnabled(true);
+        properties.getSequencer().setLanes(2);
+        properties.getSequencer().setQueueCapacity(1);
+        properties.getSequencer().setOfferTimeout(Duration.ofMillis(50));
+        properties.getSequencer().setShutdownTimeout(Duration.ofMillis(100));
+        meterRegistry = new SimpleMeterRegistry();
+        sequencer = new PaymentSequencer(properties, meterRegistry);
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        sequencer.shutdown();
+    }
+
+    @Test
+    void execute_sameLoan_runsInSubmissionOrder() {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 20; i++) {
+            int n = i;
+            sequencer.execute(7L, () -> order.add(n));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void execute_rethrowsTaskException() {
+        assertThrows(IllegalArgumentException.class, () -> sequencer.execute(1L, () -> {
+            throw new IllegalArgumentException("Payment exceeds remaining balance");
+        }));
+    }
+
+    @Test
+    void execute_fullLane_rejectsWithBackpressure() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> blocker = CompletableFuture.supplyAsync(() -> sequencer.execute(1L, () -> {
+            running.countDown();
+            await(release);
+            return null;
+        }), callers);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Object> queued = CompletableFuture.supplyAsync(() -> sequencer.execute(1L, () -> null), callers);
+        waitForDepth(1L, 1);
+
+        assertThrows(PaymentQueueFullException.class, () -> sequencer.execute(1L, () -> null));
+        assertEquals(1.0, meterRegistry.get("payment.sequencer.rejections").counter().count());
+
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shutdown_cancelsPaymentsStillQueued_soTheirCallersDoNotHang() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Object> blocker = CompletableFuture.supplyAsync(() -> sequencer.execute(1L, () -> {
+            running.countDown();
+            awaitUninterruptibly(release);
+            return null;
+        }), callers);
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Object> queued = CompletableFuture.supplyAsync(() -> sequencer.execute(1L, () -> null), callers);
+        waitForDepth(1L, 1);
+
+        sequencer.shutdown();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PaymentUnavailableException.class, failure.getCause());
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void execute_afterShutdown_isRejected() throws Exception {
+        sequencer.shutdown();
+
+        assertThrows(PaymentUnavailableException.class, () -> sequencer.execute(1L, () -> null));
+    }
+
+    @Test
+    void queueDepth_isExportedPerLane() {
+        assertEquals(2, meterRegistry.get("payment.sequencer.queue.depth").gauges().size());
+        assertEquals(0.0, meterRegistry.get("payment.sequencer.queue.depth").tag("lane", "0").gauge().value());
+    }
+
+    private void waitForDepth(Long loanId, int depth) throws InterruptedException {
+        int lane = sequencer.laneIndex(loanId);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sequencer.queueDepths()[lane] < depth && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (latch.getCount() > 0) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
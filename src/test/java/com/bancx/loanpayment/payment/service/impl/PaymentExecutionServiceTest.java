@@ -0,0 +1,74 @@
+package com.bancx.loanpayment.payment.service.impl;
+
+import com.bancx.loanpayment.exception.PaymentOutcomeUnknownException;
+import com.bancx.loanpayment.exception.PaymentUnavailableException;
+import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.idempotency.PaymentIdempotencyCache;
+import com.bancx.loanpayment.payment.ledger.LedgerEngine;
+import com.bancx.loanpayment.payment.metrics.PaymentMetrics;
+import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.rest.PaymentResult;
+import com.bancx.loanpayment.payment.retry.OptimisticLockRetry;
+import com.bancx.loanpayment.payment.sequencer.PaymentSequencer;
+import com.bancx.loanpayment.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PaymentExecutionServiceTest {
+
+    private LedgerEngine ledgerEngine;
+    private PaymentExecutionService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ledgerEngine = mock(LedgerEngine.class);
+        ObjectProvider<PaymentSequencer> noSequencer = mock(ObjectProvider.class);
+        ObjectProvider<LedgerEngine> engine = mock(ObjectProvider.class);
+        when(engine.getIfAvailable()).thenReturn(ledgerEngine);
+        service = new PaymentExecutionService(mock(PaymentServiceImpl.class), mock(PaymentIdempotencyCache.class),
+                noSequencer, mock(OptimisticLockRetry.class), new PaymentMetrics(new SimpleMeterRegistry()), engine);
+    }
+
+    @Test
+    void processPayments_onLedger_engineStoppingMidBatch_keepsTheResultsBeforeIt() {
+        when(ledgerEngine.execute(any())).thenAnswer(invocation -> {
+            PaymentRequest request = invocation.getArgument(0);
+            if (request.getLoanId() == 2L) {
+                throw new PaymentOutcomeUnknownException("Ledger engine stopped", null);
+            }
+            return Payment.builder().paymentId(7L).loanId(1L).paymentAmount(Money.of("10.00")).build();
+        });
+
+        List<PaymentResult> results = service.processPayments(List.of(request(1L), request(2L)));
+
+        assertEquals(PaymentResult.Status.APPLIED, results.get(0).getStatus());
+        assertEquals(7L, results.get(0).getPayment().getPaymentId());
+        assertEquals(PaymentResult.Status.UNKNOWN, results.get(1).getStatus());
+        assertTrue(results.get(1).getMessage().contains("may still be applied"));
+    }
+
+    @Test
+    void processPayments_onLedger_stoppedEngine_reportsRetry() {
+        when(ledgerEngine.execute(any()))
+                .thenThrow(new PaymentUnavailableException("Ledger engine is not accepting payments", 1L, null));
+
+        PaymentResult result = service.processPayments(List.of(request(1L))).get(0);
+
+        assertEquals(PaymentResult.Status.RETRY, result.getStatus());
+        assertEquals(1L, result.getRetryAfterSeconds());
+    }
+
+    private static PaymentRequest request(Long loanId) {
+        return PaymentRequest.builder().loanId(loanId).paymentAmount(new BigDecimal("10.00")).build();
+    }
+}
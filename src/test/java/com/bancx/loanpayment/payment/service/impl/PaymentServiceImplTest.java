@@ -1,15 +1,27 @@
 package com.bancx.loanpayment.payment.service.impl;
 
+import com.bancx.loanpayment.config.PaymentProperties;
+import com.bancx.loanpayment.exception.LoanNotFoundException;
 import com.bancx.loanpayment.loan.entity.Loan;
+import com.bancx.loanpayment.loan.portfolio.PortfolioAggregates;
 import com.bancx.loanpayment.loan.service.LoanService;
 import com.bancx.loanpayment.payment.entity.Payment;
+import com.bancx.loanpayment.payment.entity.PaymentIdempotency;
+import com.bancx.loanpayment.payment.metrics.PaymentMetrics;
+import com.bancx.loanpayment.payment.outbox.PaymentOutbox;
+import com.bancx.loanpayment.payment.repository.PaymentIdempotencyRepository;
 import com.bancx.loanpayment.payment.repository.PaymentRepository;
 import com.bancx.loanpayment.payment.rest.PaymentRequest;
+import com.bancx.loanpayment.payment.rest.PaymentResult;
 import com.bancx.loanpayment.util.LoanStatus;
+import com.bancx.loanpayment.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -18,21 +30,29 @@ class PaymentServiceImplTest {
 
     private LoanService loanService;
     private PaymentRepository paymentRepository;
+    private PaymentIdempotencyRepository paymentIdempotencyRepository;
+    private PaymentProperties paymentProperties;
+    private SimpleMeterRegistry meterRegistry;
     private PaymentServiceImpl paymentService;
 
     @BeforeEach
     void setUp() {
         loanService = mock(LoanService.class);
         paymentRepository = mock(PaymentRepository.class);
-        paymentService = new PaymentServiceImpl(loanService, paymentRepository);
+        paymentIdempotencyRepository = mock(PaymentIdempotencyRepository.class);
+        paymentProperties = new PaymentProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        paymentService = new PaymentServiceImpl(loanService, paymentRepository, paymentIdempotencyRepository,
+                paymentProperties, new PaymentMetrics(meterRegistry), mock(PaymentOutbox.class),
+                mock(PortfolioAggregates.class));
     }
 
     @Test
     void processPayment_shouldReduceBalanceAndReturnPayment() {
         Loan loan = Loan.builder()
                 .loanId(1L)
-                .loanAmount(new BigDecimal("1000.00"))
-                .remainingBalance(new BigDecimal("800.00"))
+                .loanAmount(Money.of("1000.00"))
+                .remainingBalance(Money.of("800.00"))
                 .status(LoanStatus.ACTIVE)
                 .build();
 
@@ -47,20 +67,57 @@ class PaymentServiceImplTest {
 
         Payment result = paymentService.processPayment(request);
 
-        assertEquals(new BigDecimal("300.00"), result.getPaymentAmount());
+        assertEquals(Money.of("300.00"), result.getPaymentAmount());
         assertEquals(1L, result.getLoanId());
         assertNotNull(result.getTimestamp());
 
         verify(loanService).updateLoan(loan);
-        assertEquals(new BigDecimal("500.00"), loan.getRemainingBalance());
+        assertEquals(Money.of("500.00"), loan.getRemainingBalance());
         assertEquals(LoanStatus.ACTIVE, loan.getStatus());
+        verify(paymentIdempotencyRepository, never()).save(any());
+        InOrder order = inOrder(loanService, paymentRepository);
+        order.verify(loanService).updateLoan(loan);
+        order.verify(paymentRepository).flush();
+        order.verify(paymentRepository).save(any(Payment.class));
+        order.verify(paymentRepository).flush();
+        for (String stage : List.of("loan_lookup", "validation", "loan_update", "payment_insert")) {
+            assertEquals(1, meterRegistry.get("payment.stage").tag("stage", stage).timer().count());
+        }
+    }
+
+    @Test
+    void processPayment_withIdempotencyKey_shouldRecordKey() {
+        Loan loan = Loan.builder()
+                .loanId(1L)
+                .remainingBalance(Money.of("800.00"))
+                .status(LoanStatus.ACTIVE)
+                .build();
+
+        PaymentRequest request = PaymentRequest.builder()
+                .loanId(1L)
+                .paymentAmount(new BigDecimal("300.00"))
+                .idempotencyKey("key-1")
+                .build();
+
+        when(loanService.getLoan(1L)).thenReturn(loan);
+        when(paymentRepository.save(any(Payment.class)))
+                .thenAnswer(invocation -> {
+                    Payment payment = invocation.getArgument(0);
+                    payment.setPaymentId(42L);
+                    return payment;
+                });
+
+        paymentService.processPayment(request);
+
+        verify(paymentIdempotencyRepository).save(argThat((PaymentIdempotency key) ->
+                key.getIdempotencyKey().equals("key-1") && key.getPaymentId() == 42L));
     }
 
     @Test
     void processPayment_shouldSettleLoanIfFullyPaid() {
         Loan loan = Loan.builder()
                 .loanId(1L)
-                .remainingBalance(new BigDecimal("300.00"))
+                .remainingBalance(Money.of("300.00"))
                 .status(LoanStatus.ACTIVE)
                 .build();
 
@@ -70,11 +127,11 @@ class PaymentServiceImplTest {
                 .build();
 
         when(loanService.getLoan(1L)).thenReturn(loan);
-        when(paymentRepository.save(any(Payment.class))).thenReturn(Payment.builder().loanId(1L).paymentAmount(new BigDecimal("300.00")).build());
+        when(paymentRepository.save(any(Payment.class))).thenReturn(Payment.builder().loanId(1L).paymentAmount(Money.of("300.00")).build());
 
         paymentService.processPayment(request);
 
-        assertEquals(0, loan.getRemainingBalance().compareTo(BigDecimal.ZERO));
+        assertTrue(loan.getRemainingBalance().isZero());
         assertEquals(LoanStatus.SETTLED, loan.getStatus());
     }
 
@@ -82,7 +139,7 @@ class PaymentServiceImplTest {
     void processPayment_shouldThrowIfOverpayment() {
         Loan loan = Loan.builder()
                 .loanId(1L)
-                .remainingBalance(new BigDecimal("100.00"))
+                .remainingBalance(Money.of("100.00"))
                 .status(LoanStatus.ACTIVE)
                 .build();
 
@@ -95,13 +152,14 @@ class PaymentServiceImplTest {
 
         assertThrows(IllegalArgumentException.class, () -> paymentService.processPayment(request));
         verify(paymentRepository, never()).save(any());
+        assertEquals(1, meterRegistry.get("payment.outcome").tag("outcome", "overpayment").counter().count());
     }
 
     @Test
     void processPayment_shouldThrowIfLoanIsSettled() {
         Loan loan = Loan.builder()
                 .loanId(1L)
-                .remainingBalance(new BigDecimal("0.00"))
+                .remainingBalance(Money.of("0.00"))
                 .status(LoanStatus.SETTLED)
                 .build();
 
@@ -113,5 +171,102 @@ class PaymentServiceImplTest {
         when(loanService.getLoan(1L)).thenReturn(loan);
 
         assertThrows(IllegalStateException.class, () -> paymentService.processPayment(request));
+        assertEquals(1, meterRegistry.get("payment.outcome").tag("outcome", "settled_rejection").counter().count());
+    }
+
+    @Test
+    void processPayments_shouldApplyInOrderAndRejectPerItem() {
+        Loan loan = Loan.builder()
+                .loanId(1L)
+                .remainingBalance(Money.of("500.00"))
+                .status(LoanStatus.ACTIVE)
+                .build();
+
+        List<PaymentRequest> requests = List.of(
+                PaymentRequest.builder().loanId(1L).paymentAmount(new BigDecimal("300.00")).build(),
+                PaymentRequest.builder().loanId(1L).paymentAmount(new BigDecimal("300.00")).build(),
+                PaymentRequest.builder().loanId(2L).paymentAmount(new BigDecimal("10.00")).build(),
+                PaymentRequest.builder().loanId(1L).paymentAmount(new BigDecimal("200.00")).build());
+
+        when(loanService.getLoans(anyCollection())).thenReturn(List.of(loan));
+
+        List<PaymentResult> results = paymentService.processPayments(requests);
+
+        assertEquals(4, results.size());
+        assertEquals(PaymentResult.Status.APPLIED, results.get(0).getStatus());
+        assertEquals(PaymentResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals("Payment exceeds remaining balance", results.get(1).getMessage());
+        assertEquals(PaymentResult.Status.REJECTED, results.get(2).getStatus());
+        assertEquals("Loan ID 2 not found", results.get(2).getMessage());
+        assertEquals(PaymentResult.Status.APPLIED, results.get(3).getStatus());
+
+        assertTrue(loan.getRemainingBalance().isZero());
+        assertEquals(LoanStatus.SETTLED, loan.getStatus());
+        verify(loanService).getLoans(anyCollection());
+        verify(loanService).updateLoans(argThat(loans -> loans.size() == 1));
+        verify(paymentRepository).saveAll(argThat(payments -> ((List<?>) payments).size() == 2));
+    }
+
+    @Test
+    void processPayment_atomicMode_shouldDebitWithoutReadingLoan() {
+        paymentProperties.setBalanceUpdateMode(PaymentProperties.BalanceUpdateMode.ATOMIC);
+
+        PaymentRequest request = PaymentRequest.builder()
+                .loanId(1L)
+                .paymentAmount(new BigDecimal("300.00"))
+                .build();
+
+        when(loanService.debitBalance(1L, Money.of("300.00"))).thenReturn(true);
+        when(paymentRepository.save(any(Payment.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        Payment result = paymentService.processPayment(request);
+
+        assertEquals(Money.of("300.00"), result.getPaymentAmount());
+        verify(loanService, never()).getLoan(any());
+        verify(loanService, never()).updateLoan(any());
+    }
+
+    @Test
+    void processPayment_atomicMode_shouldThrowIfOverpayment() {
+        paymentProperties.setBalanceUpdateMode(PaymentProperties.BalanceUpdateMode.ATOMIC);
+
+        Loan loan = Loan.builder()
+                .loanId(1L)
+                .remainingBalance(Money.of("100.00"))
+                .status(LoanStatus.ACTIVE)
+                .build();
+
+        PaymentRequest request = PaymentRequest.builder()
+                .loanId(1L)
+                .paymentAmount(new BigDecimal("200.00"))
+                .build();
+
+        when(loanService.debitBalance(1L, Money.of("200.00"))).thenReturn(false);
+        when(loanService.getLoan(1L)).thenReturn(loan);
+
+        assertThrows(IllegalArgumentException.class, () -> paymentService.processPayment(request));
+        verify(paymentRepository, never()).save(any());
+    }
+
+    @Test
+    void processPayment_atomicMode_shouldThrowIfLoanIsSettledOrMissing() {
+        paymentProperties.setBalanceUpdateMode(PaymentProperties.BalanceUpdateMode.ATOMIC);
+
+        Loan settled = Loan.builder()
+                .loanId(1L)
+                .remainingBalance(Money.of("0.00"))
+                .status(LoanStatus.SETTLED)
+                .build();
+
+        when(loanService.debitBalance(any(), any())).thenReturn(false);
+        when(loanService.getLoan(1L)).thenReturn(settled);
+        when(loanService.getLoan(2L)).thenThrow(new LoanNotFoundException("Loan ID 2 not found"));
+
+        assertThrows(IllegalStateException.class, () -> paymentService.processPayment(
+                PaymentRequest.builder().loanId(1L).paymentAmount(new BigDecimal("10.00")).build()));
+        assertThrows(LoanNotFoundException.class, () -> paymentService.processPayment(
+                PaymentRequest.builder().loanId(2L).paymentAmount(new BigDecimal("10.00")).build()));
+        verify(paymentRepository, never()).save(any());
     }
 }
@@ -0,0 +1,86 @@
+package com.bancx.loanpayment.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void of_parsesPlainDecimals() {
+        assertEquals(125050L, Money.of("1250.50").minorUnits());
+        assertEquals(125050L, Money.of("1250.5").minorUnits());
+        assertEquals(100L, Money.of("1").minorUnits());
+        assertEquals(-325L, Money.of("-3.25").minorUnits());
+        assertEquals(Money.ZERO, Money.of("0.00"));
+        assertEquals(Money.of("1E+2"), Money.of("100"));
+    }
+
+    @Test
+    void of_matchesBigDecimalConversion() {
+        assertEquals(Money.of(new BigDecimal("99.90")), Money.of("99.9"));
+        assertEquals(new BigDecimal("99.90"), Money.of("99.9").toBigDecimal());
+        assertNull(Money.of((BigDecimal) null));
+    }
+
+    @Test
+    void of_rejectsMoreThanTwoDecimalPlaces() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of("1.005"));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1.005")));
+    }
+
+    @Test
+    void of_rejectsMalformedAndOutOfRangeValues() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of(""));
+        assertThrows(IllegalArgumentException.class, () -> Money.of("12a.00"));
+        assertThrows(IllegalArgumentException.class, () -> Money.of("1.2.3"));
+        assertThrows(IllegalArgumentException.class, () -> Money.of("100000000000000000000.00"));
+    }
+
+    @Test
+    void of_rejectsHugeExponentsWithoutExpandingThem() {
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            assertThrows(IllegalArgumentException.class, () -> Money.of("1e100000000"));
+            assertThrows(IllegalArgumentException.class, () -> Money.of("-1E+100000000"));
+            assertThrows(IllegalArgumentException.class, () -> Money.of("1e-100000000"));
+            assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1e100000000")));
+            assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("-1e-100000000")));
+        });
+        assertEquals(Money.of("1250.00"), Money.of("1.25e3"));
+        assertEquals(Money.of("0.50"), Money.of(new BigDecimal("5.000000e-1")));
+        assertEquals(Money.ofMinor(Long.MAX_VALUE), Money.of(new BigDecimal("92233720368547758.07")));
+    }
+
+    @Test
+    void arithmetic_isExactAndOverflowFails() {
+        Money balance = Money.of("1000.00");
+
+        assertEquals(Money.of("699.99"), balance.minus(Money.of("300.01")));
+        assertEquals(Money.of("1000.01"), balance.plus(Money.of("0.01")));
+        assertTrue(balance.minus(balance).isZero());
+        assertTrue(balance.isGreaterThan(Money.of("999.99")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1L)));
+    }
+
+    @Test
+    void toString_alwaysHasTwoDecimalPlaces() {
+        assertEquals("1250.50", Money.of("1250.5").toString());
+        assertEquals("0.05", Money.ofMinor(5L).toString());
+        assertEquals("-0.05", Money.ofMinor(-5L).toString());
+    }
+
+    @Test
+    void json_roundTripsAsNumber() throws Exception {
+        assertEquals("1250.50", objectMapper.writeValueAsString(Money.of("1250.5")));
+        assertEquals(Money.of("1250.50"), objectMapper.readValue("1250.5", Money.class));
+        assertEquals(Money.of("10.00"), objectMapper.readValue("\"10\"", Money.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("1.005", Money.class));
+    }
+}